@@ -1,9 +1,20 @@
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 import java.util.Scanner;
+import projects.cache.HeapProjectCache;
+import projects.cache.OffHeapProjectCache;
+import projects.cache.ProjectCache;
+import projects.check.Checks;
 import projects.entity.Project;
+import projects.entity.ProjectSummary;
+import projects.entity.WorkLog;
 import projects.exception.DbException;
+import projects.http.ProjectHttpServer;
+import projects.load.LoadGenerator;
 import projects.service.ProjectService;
 
 /**
@@ -13,6 +24,11 @@ import projects.service.ProjectService;
  * @since 2023-10-04
  */
 public class ProjectsApp {
+  private static final int NAME_MATCH_LIMIT = 10;
+  private static final int DEFAULT_HTTP_PORT = 8080;
+  private static final String CACHE_PROPERTY = "projects.cacheMegabytes";
+  private static final String SNAPSHOT_PROPERTY = "projects.snapshot";
+
   private Scanner scanner = new Scanner(System.in);
   private ProjectService projectService = new ProjectService();
   private Project currentProject;
@@ -23,18 +39,105 @@ public class ProjectsApp {
       "2) List projects",
       "3) Select a project",
       "4) Update project details",
-      "5) Delete a project"
+      "5) Delete a project",
+      "6) Find a project by name",
+      "7) Log work on the selected project"
   );
   // @formatter:on
 
-  public static void main(String[] args) {
+  /**
+   * Run the interactive menu, or with {@code --http [port]} serve the HTTP API instead, or with
+   * {@code --load [name=value...]} run a workload against the service layer, or with
+   * {@code --script file} or {@code --run command; command...} run commands without the menu, or
+   * with {@code --migrate-text} rewrite the stored notes and step descriptions in the text storage
+   * mode set by the projects.compressText system property, or with {@code --check [name...]} run
+   * the self-checks of {@link Checks}.
+   *
+   * <p>The HTTP API caches the projects it fetches by ID off the heap when the
+   * projects.cacheMegabytes system property gives the cache size, and warms the cache from the
+   * snapshot file named by the projects.snapshot system property, kept up to date while it runs.
+   *
+   * @param args The command line arguments.
+   * @throws IOException If a script file cannot be read.
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length > 0 && (args[0].equals("--script") || args[0].equals("--run"))) {
+      List<String> rest = Arrays.asList(args).subList(1, args.length);
+      String source = args[0].equals("--script") ? (rest.isEmpty() ? "-" : rest.get(0)) : null;
+
+      int failed = new ProjectsScript().run(source, rest);
+      System.exit(failed == 0 ? 0 : 1);
+    }
+
+    if (args.length > 0 && args[0].equals("--check")) {
+      int failed = Checks.run(Arrays.asList(args).subList(1, args.length));
+      System.exit(failed == 0 ? 0 : 1);
+    }
+
+    if (args.length > 0 && args[0].equals("--load")) {
+      LoadGenerator.main(Arrays.copyOfRange(args, 1, args.length));
+      return;
+    }
+
+    if (args.length > 0 && args[0].equals("--migrate-text")) {
+      ProjectService projectService = new ProjectService();
+      int rewritten = projectService.migrateTextColumns();
+
+      System.out.println("Rewrote " + rewritten + " rows.");
+      System.out.println(projectService.fetchTextCompressionStatistics());
+      return;
+    }
+
+    if (args.length > 0 && args[0].equals("--http")) {
+      int port = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_HTTP_PORT;
+      ProjectService projectService = createHttpService();
+
+      projectService.startBackgroundTasks();
+      new ProjectHttpServer(projectService, port).start();
+      System.out.println("Serving the project API on port " + port + ".");
+      return;
+    }
+
     new ProjectsApp().processUserSelections();
   }
 
+  /**
+   * Create the service behind the HTTP API, with the project cache and warm start set by the
+   * system properties. The server still starts if the snapshot cannot be replayed; the cache then
+   * starts cold.
+   *
+   * @return The service.
+   */
+  private static ProjectService createHttpService() {
+    long cacheMegabytes = Long.getLong(CACHE_PROPERTY, 0);
+    String snapshot = System.getProperty(SNAPSHOT_PROPERTY, "");
+    ProjectCache projectCache = null;
+
+    if (cacheMegabytes > 0) {
+      projectCache = new OffHeapProjectCache(cacheMegabytes << 20);
+    } else if (!snapshot.isEmpty()) {
+      projectCache = new HeapProjectCache();
+    }
+
+    ProjectService projectService = new ProjectService(projectCache);
+
+    if (!snapshot.isEmpty()) {
+      try {
+        projectService.enableWarmStart(Path.of(snapshot));
+      } catch (DbException e) {
+        System.out.println("Starting with a cold cache: " + e.getMessage());
+      }
+    }
+
+    return projectService;
+  }
+
   /**
    * Process the user's selections.
    */
   private void processUserSelections() {
+    projectService.startBackgroundTasks();
+
     boolean done = false;
     while (!done) {
       try {
@@ -59,6 +162,12 @@ public class ProjectsApp {
           case 5:
             deleteProject();
             break;
+          case 6:
+            findProjectByName();
+            break;
+          case 7:
+            logWork();
+            break;
           default:
             System.out.println("\n" + selection + " is not a valid selection. Try again.");
             break;
@@ -82,12 +191,47 @@ public class ProjectsApp {
     currentProject = projectService.fetchProjectById(projectId);
   }
 
+  /**
+   * Find a project by the start of its name and select it.
+   */
+  private void findProjectByName() {
+    String prefix = getStringInput("Enter the start of the project name");
+
+    // Quit out if nothing was entered.
+    if (Objects.isNull(prefix)) {
+      return;
+    }
+
+    List<ProjectSummary> matches =
+        projectService.findProjectsByNamePrefix(prefix, NAME_MATCH_LIMIT);
+
+    if (matches.isEmpty()) {
+      System.out.println("No project name starts with \"" + prefix + "\".");
+      return;
+    }
+
+    // Select the project directly if there is only one match, otherwise prompt for the ID.
+    Integer projectId = matches.get(0).getProjectId();
+
+    if (matches.size() > 1) {
+      System.out.println("\nMatching projects:");
+      matches.forEach(project ->
+          System.out.println(" " + project.getProjectId() + ") " + project.getProjectName()
+      ));
+      projectId = getIntInput("Enter the project ID to select");
+    }
+
+    // Set the current project.
+    currentProject = null;
+    currentProject = projectService.fetchProjectById(projectId);
+  }
+
   /**
    * List projects.
    */
   private void listProjects() {
-    // Fetch all projects from the database.
-    List<Project> projects = projectService.fetchAllProjects();
+    // Fetch summaries of all projects from the database.
+    List<ProjectSummary> projects = projectService.fetchProjectSummaries();
 
     System.out.println("\nProjects:");
 
@@ -112,8 +256,6 @@ public class ProjectsApp {
         getStringInput("Enter the project name [" + currentProject.getProjectName() + "]");
     BigDecimal estimatedHours =
         getDecimalInput("Enter the estimated hours [" + currentProject.getEstimatedHours() + "]");
-    BigDecimal actualHours =
-        getDecimalInput("Enter the actual hours [" + currentProject.getActualHours() + "]");
     Integer difficulty =
         getIntInput("Enter the difficulty (1 - 5) [" + currentProject.getDifficulty() + "]");
     String notes =
@@ -132,9 +274,6 @@ public class ProjectsApp {
     project.setEstimatedHours(
         Objects.isNull(estimatedHours) ? currentProject.getEstimatedHours() : estimatedHours
     );
-    project.setActualHours(
-        Objects.isNull(actualHours) ? currentProject.getActualHours() : actualHours
-    );
     project.setDifficulty(
         Objects.isNull(difficulty) ? currentProject.getDifficulty() : difficulty
     );
@@ -149,6 +288,37 @@ public class ProjectsApp {
     currentProject = projectService.fetchProjectById(currentProject.getProjectId());
   }
 
+  /**
+   * Log work on the current project. Its actual hours include the hours logged at once; the
+   * project row catches up when the hours are folded in the background.
+   */
+  private void logWork() {
+    if (Objects.isNull(currentProject)) {
+      // Quit out if no project is selected.
+      System.out.println("You must select a project first.");
+      return;
+    }
+
+    // Gather required information from the user.
+    String crewMember = getStringInput("Enter the crew member");
+    BigDecimal hours = getDecimalInput("Enter the hours worked");
+
+    if (Objects.isNull(crewMember) || Objects.isNull(hours)) {
+      System.out.println("A crew member and the hours are required.");
+      return;
+    }
+
+    // Create the work log object.
+    WorkLog workLog = new WorkLog();
+    workLog.setProjectId(currentProject.getProjectId());
+    workLog.setCrewMember(crewMember);
+    workLog.setHours(hours);
+
+    projectService.logWork(workLog);
+    System.out.println("Logged " + hours + " hours; the project now has "
+        + projectService.fetchActualHours(currentProject.getProjectId()) + " actual hours.");
+  }
+
   /**
    * Delete a project.
    */
@@ -174,6 +344,7 @@ public class ProjectsApp {
    */
   private boolean exitMenu() {
     System.out.println("Exiting...");
+    projectService.stopBackgroundTasks();
     scanner.close();
     return true;
   }
@@ -0,0 +1,370 @@
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import projects.dao.DbConnection;
+import projects.entity.Project;
+import projects.entity.WorkLog;
+import projects.service.ProjectService;
+
+/**
+ * Non-interactive mode of the database test application: runs a list of commands, one per line,
+ * on one reused connection per shard, without the listings of the interactive menu. Output is
+ * buffered and each command is timed.
+ *
+ * <pre>
+ * add name="Garden shed" estimated=40 actual=12.5 difficulty=3 notes="Needs a permit"
+ * update 7 estimated=48 notes="Roof done"
+ * log 7 crew="Ana Lee" hours=3.5
+ * select 7
+ * delete 7
+ * list
+ * </pre>
+ *
+ * <p>Values with spaces are quoted; blank lines and lines starting with # are skipped. A failed
+ * command is reported and the script carries on.
+ *
+ * <p>The service, and with it the DAOs and the MySQL driver, is created by the first command, and
+ * the totals report how long after the JVM started the first result came back. Run with a class
+ * data sharing archive (see the appcds profile of the build) to shorten that time.
+ *
+ * @author Ari
+ * @since 2026-10-19
+ */
+public class ProjectsScript {
+  private ProjectService projectService;
+  private final PrintWriter out = new PrintWriter(
+      new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8)), false);
+
+  private final Map<String, long[]> totals = new TreeMap<>();
+  private int errors;
+  private Instant firstResult;
+
+  /**
+   * Run a script.
+   *
+   * @param source A file name, "-" for standard input, or null to take the commands from the
+   *     arguments.
+   * @param commands The commands given as arguments, separated by semicolons outside quotes.
+   * @return The number of commands that failed.
+   * @throws IOException If the script cannot be read.
+   */
+  int run(String source, List<String> commands) throws IOException {
+    List<String> lines;
+
+    if (Objects.isNull(source)) {
+      lines = splitCommands(String.join(" ", commands));
+    } else if (source.equals("-")) {
+      BufferedReader in =
+          new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+      lines = in.lines().toList();
+    } else {
+      lines = Files.readAllLines(Path.of(source));
+    }
+
+    long start = System.nanoTime();
+
+    // The session is only used implicitly, by the DAOs on this thread.
+    DbConnection.Session session = DbConnection.openSession();
+
+    try {
+      for (int i = 0; i < lines.size(); i++) {
+        String line = lines.get(i).trim();
+
+        if (!line.isEmpty() && !line.startsWith("#")) {
+          execute(i + 1, line);
+        }
+      }
+    } finally {
+      session.close();
+    }
+
+    printTotals((System.nanoTime() - start) / 1e6);
+    out.flush();
+    return errors;
+  }
+
+  /**
+   * Run and time one command.
+   *
+   * @param lineNumber The line of the command, for error messages.
+   * @param line The command.
+   */
+  private void execute(int lineNumber, String line) {
+    List<String> words = tokenize(line);
+    String verb = words.get(0).toLowerCase();
+    long start = System.nanoTime();
+
+    try {
+      String result = dispatch(verb, words.subList(1, words.size()));
+      double millis = (System.nanoTime() - start) / 1e6;
+
+      if (Objects.isNull(firstResult)) {
+        firstResult = Instant.now();
+      }
+
+      out.printf("%-6s %9.2f ms  %s%n", verb, millis, result);
+
+      long[] total = totals.computeIfAbsent(verb, key -> new long[2]);
+      total[0]++;
+      total[1] += System.nanoTime() - start;
+    } catch (RuntimeException e) {
+      errors++;
+      out.printf("error  line %d: %s: %s%n", lineNumber, line, e.getMessage());
+    }
+  }
+
+  /**
+   * Run one command.
+   *
+   * @param verb The command name.
+   * @param arguments The arguments of the command.
+   * @return The result to print.
+   */
+  private String dispatch(String verb, List<String> arguments) {
+    ProjectService service = service();
+
+    switch (verb) {
+      case "add":
+        Project added = service.addProject(applyFields(new Project(), arguments, true));
+        return "added project " + added.getProjectId();
+      case "update":
+        Integer updateId = projectId(arguments);
+        Project project = service.fetchProjectById(updateId);
+        applyFields(project, arguments.subList(1, arguments.size()), false);
+        service.modifyProjectDetails(project);
+        return "updated project " + updateId;
+      case "log":
+        WorkLog workLog = workLog(projectId(arguments), arguments.subList(1, arguments.size()));
+        service.logWork(workLog);
+        return "logged " + workLog.getHours() + " hours on project " + workLog.getProjectId();
+      case "delete":
+        Integer deleteId = projectId(arguments);
+        service.deleteProject(deleteId);
+        return "deleted project " + deleteId;
+      case "select":
+        return service.fetchProjectById(projectId(arguments), true).toString();
+      case "list":
+        StringBuilder listing = new StringBuilder();
+        service.fetchProjectSummaries().forEach(summary -> listing.append("\n  ")
+            .append(summary.getProjectId()).append(") ").append(summary.getProjectName()));
+        return "projects:" + listing;
+      default:
+        throw new IllegalArgumentException("Unknown command " + verb + ".");
+    }
+  }
+
+  /**
+   * Get the service, creating it on first use.
+   *
+   * @return The service.
+   */
+  private ProjectService service() {
+    if (Objects.isNull(projectService)) {
+      projectService = new ProjectService();
+    }
+
+    return projectService;
+  }
+
+  /**
+   * Set the details of a project from name=value arguments.
+   *
+   * @param project The project.
+   * @param arguments The arguments.
+   * @param withActualHours True if the actual hours may be set, which is only when adding a
+   *     project; afterwards they change through the work log.
+   * @return The project.
+   */
+  private static Project applyFields(Project project, List<String> arguments,
+      boolean withActualHours) {
+    Map<String, String> fields = new HashMap<>();
+
+    for (String argument : arguments) {
+      String[] nameAndValue = argument.split("=", 2);
+
+      if (nameAndValue.length != 2) {
+        throw new IllegalArgumentException("Expected name=value, not " + argument + ".");
+      }
+
+      fields.put(nameAndValue[0].toLowerCase(), nameAndValue[1]);
+    }
+
+    fields.forEach((name, value) -> {
+      switch (name) {
+        case "name":
+          project.setProjectName(value);
+          break;
+        case "estimated":
+          project.setEstimatedHours(new BigDecimal(value).setScale(2));
+          break;
+        case "actual":
+          if (!withActualHours) {
+            throw new IllegalArgumentException("Actual hours change through the work log.");
+          }
+
+          project.setActualHours(new BigDecimal(value).setScale(2));
+          break;
+        case "difficulty":
+          project.setDifficulty(Integer.valueOf(value));
+          break;
+        case "notes":
+          project.setNotes(value);
+          break;
+        default:
+          throw new IllegalArgumentException("Unknown field " + name + ".");
+      }
+    });
+
+    return project;
+  }
+
+  /**
+   * Create a time entry from crew=name and hours=n arguments.
+   *
+   * @param projectId The project ID.
+   * @param arguments The arguments.
+   * @return The time entry.
+   */
+  private static WorkLog workLog(Integer projectId, List<String> arguments) {
+    WorkLog workLog = new WorkLog();
+    workLog.setProjectId(projectId);
+
+    for (String argument : arguments) {
+      String[] nameAndValue = argument.split("=", 2);
+
+      if (nameAndValue.length != 2) {
+        throw new IllegalArgumentException("Expected name=value, not " + argument + ".");
+      }
+
+      switch (nameAndValue[0].toLowerCase()) {
+        case "crew":
+          workLog.setCrewMember(nameAndValue[1]);
+          break;
+        case "hours":
+          workLog.setHours(new BigDecimal(nameAndValue[1]).setScale(2));
+          break;
+        default:
+          throw new IllegalArgumentException("Unknown field " + nameAndValue[0] + ".");
+      }
+    }
+
+    if (Objects.isNull(workLog.getCrewMember()) || Objects.isNull(workLog.getHours())) {
+      throw new IllegalArgumentException("Expected crew=name and hours=n.");
+    }
+
+    return workLog;
+  }
+
+  /**
+   * Get the project ID a command starts with.
+   *
+   * @param arguments The arguments of the command.
+   * @return The project ID.
+   */
+  private static Integer projectId(List<String> arguments) {
+    if (arguments.isEmpty()) {
+      throw new IllegalArgumentException("Expected a project ID.");
+    }
+
+    return Integer.valueOf(arguments.get(0));
+  }
+
+  /**
+   * Split the commands given as arguments on the semicolons outside double quotes, so a quoted
+   * value may hold a semicolon. The quotes are kept for {@link #tokenize(String)}.
+   *
+   * @param text The commands.
+   * @return The commands, one per element.
+   */
+  private static List<String> splitCommands(String text) {
+    List<String> lines = new ArrayList<>();
+    StringBuilder line = new StringBuilder();
+    boolean quoted = false;
+
+    for (char c : text.toCharArray()) {
+      if (c == ';' && !quoted) {
+        lines.add(line.toString());
+        line.setLength(0);
+      } else {
+        quoted ^= c == '"';
+        line.append(c);
+      }
+    }
+
+    lines.add(line.toString());
+    return lines;
+  }
+
+  /**
+   * Split a command into words; double quotes group words and are dropped.
+   *
+   * @param line The command.
+   * @return The words.
+   */
+  private static List<String> tokenize(String line) {
+    List<String> words = new ArrayList<>();
+    StringBuilder word = new StringBuilder();
+    boolean quoted = false;
+    boolean inWord = false;
+
+    for (char c : line.toCharArray()) {
+      if (c == '"') {
+        quoted = !quoted;
+        inWord = true;
+      } else if (Character.isWhitespace(c) && !quoted) {
+        if (inWord) {
+          words.add(word.toString());
+          word.setLength(0);
+          inWord = false;
+        }
+      } else {
+        word.append(c);
+        inWord = true;
+      }
+    }
+
+    if (inWord) {
+      words.add(word.toString());
+    }
+
+    return words;
+  }
+
+  /**
+   * Print the count and time of each kind of command, and the totals.
+   *
+   * @param elapsedMillis The time taken by the whole script.
+   */
+  private void printTotals(double elapsedMillis) {
+    long count = 0;
+    out.println();
+
+    for (Map.Entry<String, long[]> total : totals.entrySet()) {
+      long[] countAndNanos = total.getValue();
+      count += countAndNanos[0];
+      out.printf("%-6s %6d commands %10.2f ms %8.2f ms each%n", total.getKey(), countAndNanos[0],
+          countAndNanos[1] / 1e6, countAndNanos[1] / 1e6 / countAndNanos[0]);
+    }
+
+    out.printf("total  %6d commands %10.2f ms, %d failed%n", count, elapsedMillis, errors);
+
+    ProcessHandle.current().info().startInstant().filter(start -> Objects.nonNull(firstResult))
+        .ifPresent(start -> out.printf("first result %d ms after the JVM started%n",
+            Duration.between(start, firstResult).toMillis()));
+  }
+}
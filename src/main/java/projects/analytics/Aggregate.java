@@ -0,0 +1,65 @@
+package projects.analytics;
+
+/**
+ * Running count, sum, minimum and maximum of a fixed-point column within one group.
+ *
+ * @author Ari
+ * @since 2026-10-19
+ */
+public class Aggregate {
+  private long count;
+  private long sum;
+  private long min = Long.MAX_VALUE;
+  private long max = Long.MIN_VALUE;
+
+  /**
+   * Add a value to the aggregate.
+   *
+   * @param value The value to add.
+   */
+  void add(long value) {
+    count++;
+    sum += value;
+    min = Math.min(min, value);
+    max = Math.max(max, value);
+  }
+
+  /**
+   * Merge another aggregate of the same group into this one.
+   *
+   * @param other The aggregate to merge.
+   * @return This aggregate.
+   */
+  Aggregate merge(Aggregate other) {
+    count += other.count;
+    sum += other.sum;
+    min = Math.min(min, other.min);
+    max = Math.max(max, other.max);
+    return this;
+  }
+
+  public long getCount() {
+    return count;
+  }
+
+  public long getSum() {
+    return sum;
+  }
+
+  public long getMin() {
+    return min;
+  }
+
+  public long getMax() {
+    return max;
+  }
+
+  public double getAverage() {
+    return count == 0 ? 0 : (double) sum / count;
+  }
+
+  @Override
+  public String toString() {
+    return "count=" + count + ", sum=" + sum + ", min=" + min + ", max=" + max;
+  }
+}
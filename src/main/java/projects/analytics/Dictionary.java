@@ -0,0 +1,67 @@
+package projects.analytics;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Dictionary encoding for a string column. Each distinct value is stored once and rows hold its
+ * integer code instead of the string.
+ *
+ * @author Ari
+ * @since 2026-10-19
+ */
+public class Dictionary {
+
+  /** Code stored for a null value. */
+  public static final int NULL_CODE = -1;
+
+  private final Map<String, Integer> codes = new HashMap<>();
+  private final List<String> values = new ArrayList<>();
+
+  /**
+   * Get the code of a value, adding the value to the dictionary if needed.
+   *
+   * @param value The value to encode.
+   * @return The code of the value.
+   */
+  int encode(String value) {
+    if (Objects.isNull(value)) {
+      return NULL_CODE;
+    }
+
+    return codes.computeIfAbsent(value, key -> {
+      values.add(key);
+      return values.size() - 1;
+    });
+  }
+
+  /**
+   * Get the code of a value without adding it.
+   *
+   * @param value The value to look up.
+   * @return The code of the value, or {@link #NULL_CODE} if the value is not in the dictionary.
+   */
+  public int codeOf(String value) {
+    return codes.getOrDefault(value, NULL_CODE);
+  }
+
+  /**
+   * Get the value of a code.
+   *
+   * @param code The code to decode.
+   * @return The value, or null for {@link #NULL_CODE}.
+   */
+  public String decode(int code) {
+    return code == NULL_CODE ? null : values.get(code);
+  }
+
+  /**
+   * @return The number of distinct values.
+   */
+  public int size() {
+    return values.size();
+  }
+}
@@ -0,0 +1,90 @@
+package projects.analytics;
+
+import static projects.analytics.ProjectColumns.NULL_INT;
+import static projects.analytics.ProjectColumns.NULL_LONG;
+
+import java.util.Map;
+
+/**
+ * Ad-hoc aggregates over a {@link ProjectColumns} snapshot. Hours and costs are returned in
+ * hundredths, exactly as stored in the snapshot. Rows with a null in a column used by a query are
+ * left out of that query.
+ *
+ * @author Ari
+ * @since 2026-10-19
+ */
+public class ProjectAnalytics {
+  private final ProjectColumns columns;
+
+  /**
+   * Create the analytics over a snapshot.
+   *
+   * @param columns The snapshot.
+   */
+  public ProjectAnalytics(ProjectColumns columns) {
+    this.columns = columns;
+  }
+
+  public ProjectColumns getColumns() {
+    return columns;
+  }
+
+  /**
+   * @return A scan over the project rows.
+   */
+  public TableScan scanProjects() {
+    return new TableScan(columns.getProjectCount());
+  }
+
+  /**
+   * @return A scan over the material rows.
+   */
+  public TableScan scanMaterials() {
+    return new TableScan(columns.getMaterialCount());
+  }
+
+  /**
+   * @return A scan over the step rows.
+   */
+  public TableScan scanSteps() {
+    return new TableScan(columns.getStepCount());
+  }
+
+  /**
+   * Total material cost (number required times cost) per project difficulty.
+   *
+   * @return The aggregates of the material costs by difficulty.
+   */
+  public Map<Integer, Aggregate> materialCostByDifficulty() {
+    return scanMaterials()
+        .where(row -> columns.numRequired(row) != NULL_INT && columns.cost(row) != NULL_LONG)
+        .where(row -> columns.difficulty(columns.materialProject(row)) != NULL_INT)
+        .groupBy(row -> columns.difficulty(columns.materialProject(row)))
+        .aggregate(row -> columns.numRequired(row) * columns.cost(row));
+  }
+
+  /**
+   * Actual minus estimated hours per project difficulty.
+   *
+   * @return The aggregates of the hours variance by difficulty.
+   */
+  public Map<Integer, Aggregate> hoursVarianceByDifficulty() {
+    return scanProjects()
+        .where(row -> columns.difficulty(row) != NULL_INT)
+        .where(row -> columns.estimatedHours(row) != NULL_LONG)
+        .where(row -> columns.actualHours(row) != NULL_LONG)
+        .groupBy(columns::difficulty)
+        .aggregate(row -> columns.actualHours(row) - columns.estimatedHours(row));
+  }
+
+  /**
+   * Number of steps per project.
+   *
+   * @return The aggregates of the steps by project ID; only the counts are meaningful.
+   */
+  public Map<Integer, Aggregate> stepsPerProject() {
+    return scanSteps()
+        .groupBy(row -> columns.projectId(columns.stepProject(row)))
+        .count();
+  }
+}
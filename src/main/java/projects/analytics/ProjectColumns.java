@@ -0,0 +1,240 @@
+package projects.analytics;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Columnar in-memory snapshot of the project, material and step tables. Every column is a primitive
+ * array indexed by row; hours and costs are fixed-point longs in hundredths, names are dictionary
+ * encoded, and material and step rows refer to their project by project row index.
+ *
+ * @author Ari
+ * @since 2026-10-19
+ */
+public class ProjectColumns {
+
+  /** Value stored for a null int column. */
+  public static final int NULL_INT = Integer.MIN_VALUE;
+
+  /** Value stored for a null fixed-point column. */
+  public static final long NULL_LONG = Long.MIN_VALUE;
+
+  /* Project table. */
+  private final int projectCount;
+  private final int[] projectId;
+  private final int[] projectName;
+  private final int[] difficulty;
+  private final long[] estimatedHours;
+  private final long[] actualHours;
+
+  /* Material table. */
+  private final int materialCount;
+  private final int[] materialProject;
+  private final int[] materialName;
+  private final int[] numRequired;
+  private final long[] cost;
+
+  /* Step table. */
+  private final int stepCount;
+  private final int[] stepProject;
+
+  private final Dictionary projectNames;
+  private final Dictionary materialNames;
+
+  private ProjectColumns(Builder builder) {
+    projectCount = builder.projectCount;
+    projectId = Arrays.copyOf(builder.projectId, projectCount);
+    projectName = Arrays.copyOf(builder.projectName, projectCount);
+    difficulty = Arrays.copyOf(builder.difficulty, projectCount);
+    estimatedHours = Arrays.copyOf(builder.estimatedHours, projectCount);
+    actualHours = Arrays.copyOf(builder.actualHours, projectCount);
+
+    materialCount = builder.materialCount;
+    materialProject = Arrays.copyOf(builder.materialProject, materialCount);
+    materialName = Arrays.copyOf(builder.materialName, materialCount);
+    numRequired = Arrays.copyOf(builder.numRequired, materialCount);
+    cost = Arrays.copyOf(builder.cost, materialCount);
+
+    stepCount = builder.stepCount;
+    stepProject = Arrays.copyOf(builder.stepProject, stepCount);
+
+    projectNames = builder.projectNames;
+    materialNames = builder.materialNames;
+  }
+
+  public int getProjectCount() {
+    return projectCount;
+  }
+
+  public int getMaterialCount() {
+    return materialCount;
+  }
+
+  public int getStepCount() {
+    return stepCount;
+  }
+
+  public Dictionary getProjectNames() {
+    return projectNames;
+  }
+
+  public Dictionary getMaterialNames() {
+    return materialNames;
+  }
+
+  public int projectId(int projectRow) {
+    return projectId[projectRow];
+  }
+
+  public int projectName(int projectRow) {
+    return projectName[projectRow];
+  }
+
+  public int difficulty(int projectRow) {
+    return difficulty[projectRow];
+  }
+
+  public long estimatedHours(int projectRow) {
+    return estimatedHours[projectRow];
+  }
+
+  public long actualHours(int projectRow) {
+    return actualHours[projectRow];
+  }
+
+  public int materialProject(int materialRow) {
+    return materialProject[materialRow];
+  }
+
+  public int materialName(int materialRow) {
+    return materialName[materialRow];
+  }
+
+  public int numRequired(int materialRow) {
+    return numRequired[materialRow];
+  }
+
+  public long cost(int materialRow) {
+    return cost[materialRow];
+  }
+
+  public int stepProject(int stepRow) {
+    return stepProject[stepRow];
+  }
+
+  /**
+   * Accumulates rows into growable column arrays and freezes them into a {@link ProjectColumns}.
+   * Projects must be added before their materials and steps.
+   */
+  public static class Builder {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final Map<Integer, Integer> projectRows = new HashMap<>();
+    private final Dictionary projectNames = new Dictionary();
+    private final Dictionary materialNames = new Dictionary();
+
+    private int projectCount;
+    private int[] projectId = new int[INITIAL_CAPACITY];
+    private int[] projectName = new int[INITIAL_CAPACITY];
+    private int[] difficulty = new int[INITIAL_CAPACITY];
+    private long[] estimatedHours = new long[INITIAL_CAPACITY];
+    private long[] actualHours = new long[INITIAL_CAPACITY];
+
+    private int materialCount;
+    private int[] materialProject = new int[INITIAL_CAPACITY];
+    private int[] materialName = new int[INITIAL_CAPACITY];
+    private int[] numRequired = new int[INITIAL_CAPACITY];
+    private long[] cost = new long[INITIAL_CAPACITY];
+
+    private int stepCount;
+    private int[] stepProject = new int[INITIAL_CAPACITY];
+
+    /**
+     * Add a project row.
+     *
+     * @param id The project ID.
+     * @param name The project name.
+     * @param projectDifficulty The difficulty, or {@link ProjectColumns#NULL_INT}.
+     * @param estimated The estimated hours in hundredths, or {@link ProjectColumns#NULL_LONG}.
+     * @param actual The actual hours in hundredths, or {@link ProjectColumns#NULL_LONG}.
+     */
+    public void addProject(int id, String name, int projectDifficulty, long estimated,
+        long actual) {
+      if (projectCount == projectId.length) {
+        int capacity = projectCount * 2;
+        projectId = Arrays.copyOf(projectId, capacity);
+        projectName = Arrays.copyOf(projectName, capacity);
+        difficulty = Arrays.copyOf(difficulty, capacity);
+        estimatedHours = Arrays.copyOf(estimatedHours, capacity);
+        actualHours = Arrays.copyOf(actualHours, capacity);
+      }
+
+      projectRows.put(id, projectCount);
+      projectId[projectCount] = id;
+      projectName[projectCount] = projectNames.encode(name);
+      difficulty[projectCount] = projectDifficulty;
+      estimatedHours[projectCount] = estimated;
+      actualHours[projectCount] = actual;
+      projectCount++;
+    }
+
+    /**
+     * Add a material row. Materials of unknown projects are ignored.
+     *
+     * @param id The ID of the project the material belongs to.
+     * @param name The material name.
+     * @param required The number required, or {@link ProjectColumns#NULL_INT}.
+     * @param materialCost The cost in hundredths, or {@link ProjectColumns#NULL_LONG}.
+     */
+    public void addMaterial(int id, String name, int required, long materialCost) {
+      Integer projectRow = projectRows.get(id);
+
+      if (Objects.isNull(projectRow)) {
+        return;
+      }
+
+      if (materialCount == materialProject.length) {
+        int capacity = materialCount * 2;
+        materialProject = Arrays.copyOf(materialProject, capacity);
+        materialName = Arrays.copyOf(materialName, capacity);
+        numRequired = Arrays.copyOf(numRequired, capacity);
+        cost = Arrays.copyOf(cost, capacity);
+      }
+
+      materialProject[materialCount] = projectRow;
+      materialName[materialCount] = materialNames.encode(name);
+      numRequired[materialCount] = required;
+      cost[materialCount] = materialCost;
+      materialCount++;
+    }
+
+    /**
+     * Add a step row. Steps of unknown projects are ignored.
+     *
+     * @param id The ID of the project the step belongs to.
+     */
+    public void addStep(int id) {
+      Integer projectRow = projectRows.get(id);
+
+      if (Objects.isNull(projectRow)) {
+        return;
+      }
+
+      if (stepCount == stepProject.length) {
+        stepProject = Arrays.copyOf(stepProject, stepCount * 2);
+      }
+
+      stepProject[stepCount] = projectRow;
+      stepCount++;
+    }
+
+    /**
+     * @return The snapshot of the rows added.
+     */
+    public ProjectColumns build() {
+      return new ProjectColumns(this);
+    }
+  }
+}
@@ -0,0 +1,115 @@
+package projects.analytics;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.IntPredicate;
+import java.util.function.IntToLongFunction;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.IntStream;
+
+/**
+ * Filter, group-by and aggregate over the rows of one column table. The rows are split into chunks
+ * that are scanned in parallel, each into its own partial result, and the partial results are
+ * merged at the end.
+ *
+ * @author Ari
+ * @since 2026-10-19
+ */
+public class TableScan {
+  private static final int CHUNK_SIZE = 16_384;
+
+  private final int rowCount;
+  private IntPredicate filter = row -> true;
+  private IntUnaryOperator groupKey = row -> 0;
+
+  /**
+   * Create a scan over a table.
+   *
+   * @param rowCount The number of rows in the table.
+   */
+  TableScan(int rowCount) {
+    this.rowCount = rowCount;
+  }
+
+  /**
+   * Only keep the rows matching a predicate. Predicates added by several calls must all match.
+   *
+   * @param predicate The row predicate.
+   * @return This scan.
+   */
+  public TableScan where(IntPredicate predicate) {
+    filter = filter.and(predicate);
+    return this;
+  }
+
+  /**
+   * Group the rows by a key. Without a key, every row falls into group 0.
+   *
+   * @param key The function computing the group key of a row.
+   * @return This scan.
+   */
+  public TableScan groupBy(IntUnaryOperator key) {
+    groupKey = key;
+    return this;
+  }
+
+  /**
+   * Run the scan and aggregate a value per group.
+   *
+   * @param value The function computing the value of a row.
+   * @return The aggregates by group key.
+   */
+  public Map<Integer, Aggregate> aggregate(IntToLongFunction value) {
+    int chunks = (rowCount + CHUNK_SIZE - 1) / CHUNK_SIZE;
+
+    return IntStream.range(0, chunks)
+        .parallel()
+        .mapToObj(chunk -> scanChunk(chunk * CHUNK_SIZE,
+            Math.min(rowCount, (chunk + 1) * CHUNK_SIZE), value))
+        .reduce(TableScan::merge)
+        .orElseGet(HashMap::new);
+  }
+
+  /**
+   * Run the scan and count the rows per group.
+   *
+   * @return The aggregates by group key; only the counts are meaningful.
+   */
+  public Map<Integer, Aggregate> count() {
+    return aggregate(row -> 0);
+  }
+
+  /**
+   * Scan one chunk of rows into a partial result.
+   *
+   * @param from The first row, inclusive.
+   * @param to The last row, exclusive.
+   * @param value The function computing the value of a row.
+   * @return The partial aggregates by group key.
+   */
+  private Map<Integer, Aggregate> scanChunk(int from, int to, IntToLongFunction value) {
+    Map<Integer, Aggregate> partial = new HashMap<>();
+
+    for (int row = from; row < to; row++) {
+      if (filter.test(row)) {
+        partial.computeIfAbsent(groupKey.applyAsInt(row), key -> new Aggregate())
+            .add(value.applyAsLong(row));
+      }
+    }
+
+    return partial;
+  }
+
+  /**
+   * Merge one partial result into another.
+   *
+   * @param left The partial result merged into.
+   * @param right The partial result to merge.
+   * @return The merged result.
+   */
+  private static Map<Integer, Aggregate> merge(Map<Integer, Aggregate> left,
+      Map<Integer, Aggregate> right) {
+    right.forEach((key, aggregate) -> left.merge(key, aggregate, Aggregate::merge));
+    return left;
+  }
+}
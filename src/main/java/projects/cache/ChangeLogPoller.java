@@ -0,0 +1,136 @@
+package projects.cache;
+
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import projects.dao.BackgroundTask;
+import projects.dao.ChangeLogDao;
+import projects.dao.DbConnection;
+import projects.entity.ProjectChange;
+import projects.entity.ProjectChanges;
+import projects.exception.DbException;
+
+/**
+ * Tails the project change log and hands every change to a listener, so that each application
+ * node sees the writes made by the other nodes. The poller starts from the end of the log: earlier
+ * changes cannot affect anything cached after the poller started. The log of every shard is
+ * followed with its own watermark.
+ *
+ * @author Ari
+ * @since 2026-10-19
+ */
+public class ChangeLogPoller {
+  private static final int PAGE_SIZE = 500;
+
+  private final ChangeLogDao changeLogDao;
+  private final Consumer<ProjectChange> listener;
+  private final BackgroundTask task;
+
+  private long[] watermarks;
+
+  /**
+   * Create a poller.
+   *
+   * @param changeLogDao The DAO reading the change log.
+   * @param listener The listener receiving the changes, in change order.
+   */
+  public ChangeLogPoller(ChangeLogDao changeLogDao, Consumer<ProjectChange> listener) {
+    this.changeLogDao = changeLogDao;
+    this.listener = listener;
+    this.task = new BackgroundTask("change-log-poller", this::pollOnce);
+  }
+
+  /**
+   * Start polling in the background. The end of the log is read right away when the database is
+   * reachable; otherwise the first poll that reaches it reads it, so starting never fails.
+   *
+   * @param delay The delay between two polls.
+   * @param unit The unit of the delay.
+   */
+  public void start(long delay, TimeUnit unit) {
+    synchronized (this) {
+      if (Objects.isNull(watermarks)) {
+        try {
+          watermarks = fetchLatestWatermarks();
+        } catch (DbException e) {
+          System.out.println("Change log poller will retry: " + e.getMessage());
+        }
+      }
+    }
+
+    task.start(delay, unit);
+  }
+
+  /**
+   * Resume the log from earlier watermarks rather than from its end, so the next poll hands the
+   * listener every change made since, for instance since a snapshot was written.
+   *
+   * @param resumeWatermarks The watermarks, by shard.
+   */
+  public synchronized void resumeFrom(long[] resumeWatermarks) {
+    watermarks = resumeWatermarks.clone();
+  }
+
+  /**
+   * Stop polling in the background.
+   */
+  public void stop() {
+    task.stop();
+  }
+
+  /**
+   * Read the changes logged since the last poll and hand them to the listener.
+   */
+  public synchronized void pollOnce() {
+    if (Objects.isNull(watermarks)) {
+      watermarks = fetchLatestWatermarks();
+      return;
+    }
+
+    for (int shard = 0; shard < watermarks.length; shard++) {
+      // Read page after page until the watermark stops moving.
+      long previous;
+
+      do {
+        previous = watermarks[shard];
+        ProjectChanges page = changeLogDao.fetchChangesSince(shard, previous, PAGE_SIZE);
+        page.getChanges().forEach(listener);
+        watermarks[shard] = page.getWatermark();
+      } while (watermarks[shard] != previous);
+    }
+  }
+
+  /**
+   * Fetch the end of the log of every shard.
+   *
+   * @return The watermarks, by shard.
+   */
+  private long[] fetchLatestWatermarks() {
+    long[] latest = new long[DbConnection.getShardCount()];
+
+    for (int shard = 0; shard < latest.length; shard++) {
+      latest[shard] = changeLogDao.fetchLatestWatermark(shard);
+    }
+
+    return latest;
+  }
+
+  /**
+   * Get the IDs of the last changes handed to the listener.
+   *
+   * @return The change IDs, by shard, or null if the poller has not started.
+   */
+  public synchronized long[] getWatermarks() {
+    return Objects.isNull(watermarks) ? null : watermarks.clone();
+  }
+
+  /**
+   * Get the ID of the last change of a shard handed to the listener.
+   *
+   * @param shard The shard number.
+   * @return The change ID, or -1 if the poller has not started.
+   */
+  public synchronized long getWatermark(int shard) {
+    return Objects.isNull(watermarks) ? -1 : watermarks[shard];
+  }
+}
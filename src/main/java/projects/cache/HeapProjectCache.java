@@ -0,0 +1,49 @@
+package projects.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import projects.entity.Project;
+import projects.store.ProjectCopies;
+
+/**
+ * {@link ProjectCache} keeping the project graphs on the heap. Graphs are copied on the way in and
+ * on the way out, so a caller modifying the project it put or got does not change the cached one
+ * seen by every other thread.
+ *
+ * @author Ari
+ * @since 2026-10-19
+ */
+public class HeapProjectCache implements ProjectCache {
+  private final Map<Integer, Project> projects = new ConcurrentHashMap<>();
+
+  @Override
+  public Optional<Project> get(Integer projectId) {
+    return Optional.ofNullable(projects.get(projectId)).map(ProjectCopies::copy);
+  }
+
+  @Override
+  public void put(Project project) {
+    projects.put(project.getProjectId(), ProjectCopies.copy(project));
+  }
+
+  @Override
+  public void invalidate(Integer projectId) {
+    projects.remove(projectId);
+  }
+
+  @Override
+  public void clear() {
+    projects.clear();
+  }
+
+  @Override
+  public Collection<Project> values() {
+    List<Project> copies = new ArrayList<>();
+    projects.values().forEach(project -> copies.add(ProjectCopies.copy(project)));
+    return copies;
+  }
+}
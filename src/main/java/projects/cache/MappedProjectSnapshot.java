@@ -0,0 +1,446 @@
+package projects.cache;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+import projects.entity.Category;
+import projects.entity.Material;
+import projects.entity.Project;
+import projects.entity.ProjectChildLoader;
+import projects.entity.Step;
+import projects.exception.DbException;
+import projects.store.ProjectCodec;
+
+/**
+ * Read-only snapshot of cached project graphs in a local file, opened with memory-mapped I/O so a
+ * restarted node can serve lookups by project ID before its cache and the database warm up.
+ *
+ * <p>The file holds a header with the change log watermark of every shard at the time of the
+ * snapshot, an index of project IDs sorted for binary search, and one checksummed record per
+ * project. A lookup decodes only the details of the project; its materials, steps and categories
+ * are decoded from the mapped file on first access. Projects changed since the watermarks must be
+ * marked stale with {@link #invalidate(Integer)} before the snapshot is used.
+ *
+ * @author Ari
+ * @since 2026-10-19
+ */
+public class MappedProjectSnapshot implements ProjectChildLoader {
+  private static final int MAGIC = 0x50524a4d;
+  private static final int VERSION = 1;
+
+  /* Index entry: the project ID and the offset of its record. */
+  private static final int INDEX_ENTRY_BYTES = Integer.BYTES + Long.BYTES;
+
+  /* Record header: the length of the payload and its CRC-32. */
+  private static final int RECORD_HEADER_BYTES = Integer.BYTES + Long.BYTES;
+
+  /* Payload header: the offsets of the materials, steps and categories in the payload. */
+  private static final int PAYLOAD_HEADER_BYTES = 3 * Integer.BYTES;
+
+  private final ByteBuffer buffer;
+  private final long[] watermarks;
+  private final int count;
+  private final int indexStart;
+  private final Set<Integer> stale = ConcurrentHashMap.newKeySet();
+
+  private volatile boolean allStale;
+
+  /**
+   * Wrap a mapped snapshot whose header was checked.
+   *
+   * @param buffer The mapped file.
+   * @param watermarks The change log watermarks, by shard.
+   * @param count The number of projects.
+   * @param indexStart The position of the index.
+   */
+  private MappedProjectSnapshot(ByteBuffer buffer, long[] watermarks, int count,
+      int indexStart) {
+    this.buffer = buffer;
+    this.watermarks = watermarks;
+    this.count = count;
+    this.indexStart = indexStart;
+  }
+
+  /**
+   * Open a snapshot file. A missing file, a file of another version and a file whose header or
+   * index fails its checksum are all ignored.
+   *
+   * @param file The snapshot file.
+   * @return The snapshot, or empty if there is no usable snapshot.
+   */
+  public static Optional<MappedProjectSnapshot> open(Path file) {
+    if (!Files.isRegularFile(file)) {
+      return Optional.empty();
+    }
+
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      if (channel.size() > Integer.MAX_VALUE) {
+        return Optional.empty();
+      }
+
+      // The mapping stays valid after the channel is closed.
+      ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+      if (buffer.remaining() < 3 * Integer.BYTES || buffer.getInt(0) != MAGIC
+          || buffer.getInt(Integer.BYTES) != VERSION) {
+        return Optional.empty();
+      }
+
+      int shardCount = buffer.getInt(2 * Integer.BYTES);
+      long countAt = 3 * Integer.BYTES + (long) shardCount * Long.BYTES;
+
+      if (shardCount < 0 || countAt + Integer.BYTES > buffer.limit()) {
+        return Optional.empty();
+      }
+
+      int count = buffer.getInt((int) countAt);
+      int indexStart = (int) countAt + Integer.BYTES;
+      long checksumAt = indexStart + (long) count * INDEX_ENTRY_BYTES;
+
+      if (count < 0 || checksumAt + Long.BYTES > buffer.limit()
+          || checksum(buffer, 0, (int) checksumAt) != buffer.getLong((int) checksumAt)) {
+        return Optional.empty();
+      }
+
+      long[] watermarks = new long[shardCount];
+
+      for (int shard = 0; shard < shardCount; shard++) {
+        watermarks[shard] = buffer.getLong(3 * Integer.BYTES + shard * Long.BYTES);
+      }
+
+      return Optional.of(new MappedProjectSnapshot(buffer, watermarks, count, indexStart));
+    } catch (IOException e) {
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * Write a snapshot file. The file is written aside and moved into place, so readers of the
+   * previous snapshot, and a crash during the write, never see a partial file.
+   *
+   * @param file The snapshot file.
+   * @param projects The projects, with their child collections loaded or loadable.
+   * @param watermarks The change log watermarks, by shard, covering every change already applied to
+   *     the projects.
+   * @throws DbException If an error occurs.
+   */
+  public static void write(Path file, Collection<Project> projects, long[] watermarks) {
+    List<Project> sorted = new ArrayList<>(projects);
+    sorted.sort(Comparator.comparing(Project::getProjectId));
+
+    try {
+      List<byte[]> records = new ArrayList<>(sorted.size());
+
+      for (Project project : sorted) {
+        records.add(encode(project));
+      }
+
+      ByteArrayOutputStream headerBytes = new ByteArrayOutputStream();
+      DataOutputStream header = new DataOutputStream(headerBytes);
+      header.writeInt(MAGIC);
+      header.writeInt(VERSION);
+      header.writeInt(watermarks.length);
+
+      for (long watermark : watermarks) {
+        header.writeLong(watermark);
+      }
+
+      header.writeInt(sorted.size());
+
+      long offset = header.size() + (long) sorted.size() * INDEX_ENTRY_BYTES + Long.BYTES;
+
+      for (int i = 0; i < sorted.size(); i++) {
+        header.writeInt(sorted.get(i).getProjectId());
+        header.writeLong(offset);
+        offset += RECORD_HEADER_BYTES + records.get(i).length;
+      }
+
+      ByteBuffer headerBuffer = ByteBuffer.wrap(headerBytes.toByteArray());
+      header.writeLong(checksum(headerBuffer, 0, headerBuffer.limit()));
+
+      Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+
+      try (DataOutputStream out = new DataOutputStream(
+          new BufferedOutputStream(Files.newOutputStream(temp)))) {
+        headerBytes.writeTo(out);
+
+        for (byte[] record : records) {
+          out.writeInt(record.length);
+          out.writeLong(checksum(ByteBuffer.wrap(record), 0, record.length));
+          out.write(record);
+        }
+      }
+
+      try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+        channel.force(true);
+      }
+
+      Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      throw new DbException(e);
+    }
+  }
+
+  /**
+   * Encode the payload of a project record: the offsets of the child sections, the details, then
+   * the materials, steps and categories.
+   *
+   * @param project The project.
+   * @return The payload.
+   * @throws IOException If an error occurs.
+   */
+  private static byte[] encode(Project project) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+    int[] offsets = new int[3];
+
+    out.write(new byte[PAYLOAD_HEADER_BYTES]);
+    ProjectCodec.writeDetails(out, project);
+    offsets[0] = out.size();
+    ProjectCodec.writeMaterials(out, project.getMaterials());
+    offsets[1] = out.size();
+    ProjectCodec.writeSteps(out, project.getSteps());
+    offsets[2] = out.size();
+    ProjectCodec.writeCategories(out, project.getCategories());
+
+    ByteBuffer payload = ByteBuffer.wrap(bytes.toByteArray());
+    payload.putInt(0, offsets[0]).putInt(Integer.BYTES, offsets[1])
+        .putInt(2 * Integer.BYTES, offsets[2]);
+    return payload.array();
+  }
+
+  /**
+   * Get the change log watermarks the snapshot is up to date with.
+   *
+   * @return The watermarks, by shard.
+   */
+  public long[] getWatermarks() {
+    return watermarks.clone();
+  }
+
+  /**
+   * Get a project from the snapshot. Its child collections are decoded on first access.
+   *
+   * @param projectId The project ID.
+   * @return The project, or empty if it is not in the snapshot, is stale or fails its checksum.
+   */
+  public Optional<Project> get(Integer projectId) {
+    if (allStale || stale.contains(projectId)) {
+      return Optional.empty();
+    }
+
+    int record = findRecord(projectId);
+
+    if (record < 0) {
+      return Optional.empty();
+    }
+
+    ByteBuffer payload = payload(record);
+
+    if (checksum(payload, 0, payload.limit()) != buffer.getLong(record + Integer.BYTES)) {
+      return Optional.empty();
+    }
+
+    Project project = decode(payload, PAYLOAD_HEADER_BYTES, ProjectCodec::readDetails);
+    project.setChildLoader(this);
+    return Optional.of(project);
+  }
+
+  /**
+   * Mark a project of the snapshot as stale.
+   *
+   * @param projectId The project ID.
+   */
+  public void invalidate(Integer projectId) {
+    stale.add(projectId);
+  }
+
+  /**
+   * Mark every project of the snapshot as stale.
+   */
+  public void invalidateAll() {
+    allStale = true;
+  }
+
+  @Override
+  public List<Category> loadCategories(Integer projectId) {
+    return loadSection(projectId, 2, ProjectCodec::readCategories);
+  }
+
+  @Override
+  public List<Material> loadMaterials(Integer projectId) {
+    return loadSection(projectId, 0, in -> ProjectCodec.readMaterials(in, projectId));
+  }
+
+  @Override
+  public List<Step> loadSteps(Integer projectId) {
+    return loadSection(projectId, 1, in -> ProjectCodec.readSteps(in, projectId));
+  }
+
+  /**
+   * Decode a child section of a project record.
+   *
+   * @param <T> The type of the children.
+   * @param projectId The project ID.
+   * @param section The number of the section in the payload header.
+   * @param reader Decodes the section.
+   * @return The children.
+   * @throws DbException If the project is no longer in the snapshot.
+   */
+  private <T> List<T> loadSection(Integer projectId, int section, Decoder<List<T>> reader) {
+    int record = findRecord(projectId);
+
+    if (record < 0) {
+      throw new DbException("Project with project ID=" + projectId + " not in the snapshot.");
+    }
+
+    ByteBuffer payload = payload(record);
+    return decode(payload, payload.getInt(section * Integer.BYTES), reader);
+  }
+
+  /**
+   * Find the record of a project with a binary search of the index.
+   *
+   * @param projectId The project ID.
+   * @return The position of the record, or -1 if the project is not in the snapshot or its record
+   *     lies past the end of the file.
+   */
+  private int findRecord(Integer projectId) {
+    int low = 0;
+    int high = count - 1;
+
+    while (low <= high) {
+      int middle = (low + high) >>> 1;
+      int entry = indexStart + middle * INDEX_ENTRY_BYTES;
+      int id = buffer.getInt(entry);
+
+      if (id < projectId) {
+        low = middle + 1;
+      } else if (id > projectId) {
+        high = middle - 1;
+      } else {
+        long record = buffer.getLong(entry + Integer.BYTES);
+        boolean complete = record >= 0 && record + RECORD_HEADER_BYTES <= buffer.limit()
+            && buffer.getInt((int) record) >= 0
+            && record + RECORD_HEADER_BYTES + buffer.getInt((int) record) <= buffer.limit();
+        return complete ? (int) record : -1;
+      }
+    }
+
+    return -1;
+  }
+
+  /**
+   * Get a view of the payload of a record, sharing the mapped file.
+   *
+   * @param record The position of the record.
+   * @return The payload.
+   */
+  private ByteBuffer payload(int record) {
+    return buffer.slice(record + RECORD_HEADER_BYTES, buffer.getInt(record));
+  }
+
+  /**
+   * Decode part of a payload.
+   *
+   * @param <T> The type decoded.
+   * @param payload The payload.
+   * @param position The position of the part in the payload.
+   * @param decoder Decodes the part.
+   * @return The value decoded.
+   * @throws DbException If the part cannot be decoded.
+   */
+  private static <T> T decode(ByteBuffer payload, int position, Decoder<T> decoder) {
+    ByteBuffer part = payload.duplicate().position(position);
+
+    try {
+      return decoder.decode(new DataInputStream(new BufferInput(part)));
+    } catch (IOException | RuntimeException e) {
+      throw new DbException(e);
+    }
+  }
+
+  /**
+   * Compute the CRC-32 of a range of a buffer.
+   *
+   * @param buffer The buffer.
+   * @param from The start of the range.
+   * @param to The end of the range, exclusive.
+   * @return The checksum.
+   */
+  private static long checksum(ByteBuffer buffer, int from, int to) {
+    CRC32 crc = new CRC32();
+    crc.update(buffer.slice(from, to - from));
+    return crc.getValue();
+  }
+
+  /**
+   * Decodes a value from a payload.
+   *
+   * @param <T> The type decoded.
+   */
+  private interface Decoder<T> {
+
+    /**
+     * Decode a value.
+     *
+     * @param in The input, positioned on the value.
+     * @return The value.
+     * @throws IOException If the value cannot be decoded.
+     */
+    T decode(DataInputStream in) throws IOException;
+  }
+
+  /**
+   * Input stream reading a buffer in place.
+   */
+  private static class BufferInput extends InputStream {
+    private final ByteBuffer buffer;
+
+    /**
+     * Create a stream over the remaining bytes of a buffer.
+     *
+     * @param buffer The buffer, consumed by the stream.
+     */
+    BufferInput(ByteBuffer buffer) {
+      this.buffer = buffer;
+    }
+
+    @Override
+    public int read() {
+      return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) {
+      if (length == 0) {
+        return 0;
+      }
+
+      if (!buffer.hasRemaining()) {
+        return -1;
+      }
+
+      int read = Math.min(length, buffer.remaining());
+      buffer.get(bytes, offset, read);
+      return read;
+    }
+  }
+}
@@ -0,0 +1,506 @@
+package projects.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import projects.entity.Project;
+import projects.exception.DbException;
+import projects.store.ProjectCodec;
+
+/**
+ * {@link ProjectCache} keeping the project graphs serialized in direct memory, outside the heap, so
+ * a large working set adds nothing for the garbage collector to trace but a small index entry per
+ * project. Each hit decodes a private copy of the graph, outside any lock.
+ *
+ * <p>The cache is split by project ID into stripes, each with its own lock, memory and index, so
+ * threads working on different projects rarely wait for each other. By default there is one stripe
+ * per {@value #MIN_SLABS_PER_STRIPE} slabs of capacity, up to {@value #DEFAULT_STRIPES}.
+ *
+ * <p>Memory is reserved in slabs of {@value #SLAB_BYTES} bytes up to the capacity of a stripe, and
+ * each slab is carved into chunks of one size class, from {@value #MIN_CHUNK_BYTES} bytes up to a
+ * whole slab in powers of two. A graph is stored in a chunk of the smallest class it fits. When a
+ * class has no free chunk and no slab can be added, a slab moves to it from the class whose least
+ * recently used graph is older than its own, or that has no graph at all; the graphs in the slab
+ * moved are evicted. Otherwise the least recently used graph of the class is evicted. So the slabs
+ * follow the sizes of the graphs in use, as they change. Graphs larger than a slab are not cached.
+ *
+ * @author Ari
+ * @since 2026-10-19
+ */
+public class OffHeapProjectCache implements ProjectCache {
+  private static final int SLAB_BYTES = 1 << 20;
+  private static final int MIN_CHUNK_BYTES = 256;
+  private static final int DEFAULT_STRIPES = 16;
+  private static final int MIN_SLABS_PER_STRIPE = 16;
+
+  /* Rough heap cost of an index entry: the entry, its boxed key and two map nodes. */
+  private static final int ENTRY_HEAP_BYTES = 120;
+
+  private final Stripe[] stripes;
+
+  /**
+   * Create a cache with the default number of stripes for its capacity.
+   *
+   * @param capacityBytes The most direct memory reserved for the cache, rounded up to a whole slab.
+   */
+  public OffHeapProjectCache(long capacityBytes) {
+    this(capacityBytes, (int) Math.max(1,
+        Math.min(DEFAULT_STRIPES, slabCount(capacityBytes) / MIN_SLABS_PER_STRIPE)));
+  }
+
+  /**
+   * Create a cache.
+   *
+   * @param capacityBytes The most direct memory reserved for the cache, rounded up to a whole slab.
+   * @param stripeCount The number of stripes, at most the number of slabs of capacity.
+   * @throws IllegalArgumentException If the number of stripes is out of range.
+   */
+  public OffHeapProjectCache(long capacityBytes, int stripeCount) {
+    long slabCount = slabCount(capacityBytes);
+
+    if (stripeCount < 1 || stripeCount > slabCount) {
+      throw new IllegalArgumentException("A cache of " + slabCount + " slabs cannot have "
+          + stripeCount + " stripes.");
+    }
+
+    stripes = new Stripe[stripeCount];
+
+    for (int index = 0; index < stripeCount; index++) {
+      stripes[index] =
+          new Stripe((int) (slabCount / stripeCount + (index < slabCount % stripeCount ? 1 : 0)));
+    }
+  }
+
+  @Override
+  public Optional<Project> get(Integer projectId) {
+    Stripe stripe = stripeOf(projectId);
+    byte[] bytes = stripe.copy(projectId);
+
+    if (Objects.isNull(bytes)) {
+      return Optional.empty();
+    }
+
+    long start = System.nanoTime();
+    Project project = decode(bytes);
+    stripe.addDecodeNanos(System.nanoTime() - start);
+
+    return Optional.of(project);
+  }
+
+  @Override
+  public void put(Project project) {
+    byte[] bytes = encode(project);
+    stripeOf(project.getProjectId()).store(project.getProjectId(), bytes);
+  }
+
+  @Override
+  public void invalidate(Integer projectId) {
+    stripeOf(projectId).invalidate(projectId);
+  }
+
+  @Override
+  public void clear() {
+    for (Stripe stripe : stripes) {
+      stripe.clear();
+    }
+  }
+
+  @Override
+  public Collection<Project> values() {
+    List<byte[]> copies = new ArrayList<>();
+
+    for (Stripe stripe : stripes) {
+      stripe.copyAll(copies);
+    }
+
+    List<Project> projects = new ArrayList<>(copies.size());
+    copies.forEach(bytes -> projects.add(decode(bytes)));
+    return projects;
+  }
+
+  /**
+   * Get the stripe of a project. IDs are spread by their multiplicative hash: the IDs of a shard
+   * share their remainder modulo the number of shards, which the plain ID would carry over.
+   *
+   * @param projectId The project ID.
+   * @return The stripe.
+   */
+  private Stripe stripeOf(Integer projectId) {
+    long hash = (projectId * 0x9E3779B9L) & 0xFFFFFFFFL;
+    return stripes[(int) ((hash * stripes.length) >>> 32)];
+  }
+
+  /**
+   * Get the number of slabs of a capacity.
+   *
+   * @param capacityBytes The capacity.
+   * @return The number of slabs, at least one.
+   */
+  private static long slabCount(long capacityBytes) {
+    return Math.max(1, (capacityBytes + SLAB_BYTES - 1) / SLAB_BYTES);
+  }
+
+  /**
+   * Serialize a project graph.
+   *
+   * @param project The project, with its child collections loaded.
+   * @return The serialized graph.
+   * @throws DbException If the graph cannot be serialized.
+   */
+  private static byte[] encode(Project project) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+    try {
+      ProjectCodec.writeProject(new DataOutputStream(bytes), project);
+    } catch (IOException e) {
+      throw new DbException(e);
+    }
+
+    return bytes.toByteArray();
+  }
+
+  /**
+   * Deserialize a project graph.
+   *
+   * @param bytes The serialized graph.
+   * @return The project, with its child collections loaded.
+   * @throws DbException If the graph cannot be deserialized.
+   */
+  private static Project decode(byte[] bytes) {
+    try {
+      return ProjectCodec.readProject(new DataInputStream(new ByteArrayInputStream(bytes)));
+    } catch (IOException e) {
+      throw new DbException(e);
+    }
+  }
+
+  /**
+   * Report the memory used on and off the heap, the hit rate, the slabs moved between size
+   * classes and the decode cost per hit.
+   */
+  @Override
+  public String toString() {
+    long[] totals = new long[Stripe.STATISTICS];
+
+    for (Stripe stripe : stripes) {
+      stripe.addStatistics(totals);
+    }
+
+    long hits = totals[3];
+    long averageDecodeNanos = hits == 0 ? 0 : totals[9] / hits;
+
+    return "stripes=" + stripes.length + ", projects=" + totals[0] + ", offHeapUsedBytes="
+        + totals[1] + ", offHeapReservedBytes=" + totals[2] * SLAB_BYTES + ", heapIndexBytes~="
+        + totals[0] * ENTRY_HEAP_BYTES + ", hits=" + hits + ", misses=" + totals[4]
+        + ", evictions=" + totals[5] + ", rejections=" + totals[6] + ", slabsMoved=" + totals[7]
+        + ", slabsFree=" + totals[8] + ", decodeNanosPerHit=" + averageDecodeNanos;
+  }
+
+  /**
+   * One stripe of the cache: its slabs, size classes and index, guarded by its own lock.
+   */
+  private static class Stripe {
+    private static final int STATISTICS = 10;
+
+    private final int maxSlabs;
+    private final List<ByteBuffer> slabs = new ArrayList<>();
+    private final List<SizeClass> slabOwners = new ArrayList<>();
+    private final List<SizeClass> sizeClasses = new ArrayList<>();
+    private final Map<Integer, Entry> entries = new HashMap<>();
+
+    private long clock;
+    private long usedBytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long rejections;
+    private long slabsMoved;
+    private long decodeNanos;
+
+    /**
+     * Create an empty stripe.
+     *
+     * @param maxSlabs The most slabs the stripe reserves.
+     */
+    Stripe(int maxSlabs) {
+      this.maxSlabs = maxSlabs;
+
+      for (int chunkBytes = MIN_CHUNK_BYTES; chunkBytes <= SLAB_BYTES; chunkBytes <<= 1) {
+        sizeClasses.add(new SizeClass(chunkBytes));
+      }
+    }
+
+    /**
+     * Copy out a cached graph and mark it used.
+     *
+     * @param projectId The project ID.
+     * @return The serialized graph, or null if the project is not cached.
+     */
+    synchronized byte[] copy(Integer projectId) {
+      Entry entry = entries.get(projectId);
+
+      if (Objects.isNull(entry)) {
+        misses++;
+        return null;
+      }
+
+      // Touch the entry, and copy it out before its chunk can be reused.
+      entry.sizeClass.lru.get(projectId);
+      entry.lastUsed = ++clock;
+      byte[] bytes = new byte[entry.length];
+      slabs.get(entry.slab).get(entry.offset, bytes);
+      hits++;
+      return bytes;
+    }
+
+    /**
+     * Cache a serialized graph, replacing the one cached for the project.
+     *
+     * @param projectId The project ID.
+     * @param bytes The serialized graph.
+     */
+    synchronized void store(Integer projectId, byte[] bytes) {
+      remove(projectId);
+
+      Optional<SizeClass> sizeClass = sizeClasses.stream()
+          .filter(candidate -> candidate.chunkBytes >= bytes.length).findFirst();
+
+      if (sizeClass.isEmpty() || !reserveChunk(sizeClass.get())) {
+        rejections++;
+        return;
+      }
+
+      long chunk = sizeClass.get().free.pop();
+      Entry entry = new Entry(sizeClass.get(), (int) (chunk / SLAB_BYTES),
+          (int) (chunk % SLAB_BYTES), bytes.length);
+      entry.lastUsed = ++clock;
+
+      slabs.get(entry.slab).put(entry.offset, bytes);
+      entries.put(projectId, entry);
+      sizeClass.get().lru.put(projectId, entry);
+      usedBytes += bytes.length;
+    }
+
+    /**
+     * Remove a project.
+     *
+     * @param projectId The project ID.
+     */
+    synchronized void invalidate(Integer projectId) {
+      remove(projectId);
+    }
+
+    /**
+     * Remove every project. The slabs stay with their size classes.
+     */
+    synchronized void clear() {
+      List<Integer> projectIds = new ArrayList<>(entries.keySet());
+      projectIds.forEach(this::remove);
+    }
+
+    /**
+     * Copy out every cached graph.
+     *
+     * @param copies Receives the serialized graphs.
+     */
+    synchronized void copyAll(List<byte[]> copies) {
+      for (Entry entry : entries.values()) {
+        byte[] bytes = new byte[entry.length];
+        slabs.get(entry.slab).get(entry.offset, bytes);
+        copies.add(bytes);
+      }
+    }
+
+    /**
+     * Count the time spent decoding a hit.
+     *
+     * @param nanos The time.
+     */
+    synchronized void addDecodeNanos(long nanos) {
+      decodeNanos += nanos;
+    }
+
+    /**
+     * Add the statistics of the stripe to totals: projects, used bytes, slabs, hits, misses,
+     * evictions, rejections, slabs moved, free slabs and decode time, in that order.
+     *
+     * @param totals The totals.
+     */
+    synchronized void addStatistics(long[] totals) {
+      long freeSlabs = sizeClasses.stream()
+          .mapToLong(sizeClass -> sizeClass.free.size() / (SLAB_BYTES / sizeClass.chunkBytes))
+          .sum();
+      long[] values = {entries.size(), usedBytes, slabs.size(), hits, misses, evictions,
+        rejections, slabsMoved, freeSlabs, decodeNanos};
+
+      for (int index = 0; index < STATISTICS; index++) {
+        totals[index] += values[index];
+      }
+    }
+
+    /**
+     * Remove a project and free its chunk.
+     *
+     * @param projectId The project ID.
+     */
+    private void remove(Integer projectId) {
+      Entry entry = entries.remove(projectId);
+
+      if (Objects.nonNull(entry)) {
+        entry.sizeClass.lru.remove(projectId);
+        entry.sizeClass.free.push((long) entry.slab * SLAB_BYTES + entry.offset);
+        usedBytes -= entry.length;
+      }
+    }
+
+    /**
+     * Make sure a chunk of a size class is free: add a slab if the capacity allows it, otherwise
+     * move a slab from a class whose graphs were used longer ago, otherwise evict the least
+     * recently used graph of the class.
+     *
+     * @param sizeClass The size class.
+     * @return True if a chunk is free, false if the class holds no chunk and gets no slab.
+     */
+    private boolean reserveChunk(SizeClass sizeClass) {
+      if (!sizeClass.free.isEmpty()) {
+        return true;
+      }
+
+      if (slabs.size() < maxSlabs) {
+        slabs.add(ByteBuffer.allocateDirect(SLAB_BYTES));
+        slabOwners.add(sizeClass);
+        sizeClass.carve(slabs.size() - 1);
+        return true;
+      }
+
+      SizeClass donor = null;
+
+      for (SizeClass candidate : sizeClasses) {
+        if (candidate != sizeClass && slabOwners.contains(candidate)
+            && (Objects.isNull(donor) || candidate.eldestUse() < donor.eldestUse())) {
+          donor = candidate;
+        }
+      }
+
+      // A class with nothing to evict takes a slab from any other.
+      long ownEldestUse = sizeClass.lru.isEmpty() ? Long.MAX_VALUE : sizeClass.eldestUse();
+
+      if (Objects.nonNull(donor) && donor.eldestUse() < ownEldestUse) {
+        moveSlab(donor, sizeClass);
+        return true;
+      }
+
+      if (sizeClass.lru.isEmpty()) {
+        return false;
+      }
+
+      remove(sizeClass.lru.keySet().iterator().next());
+      evictions++;
+      return true;
+    }
+
+    /**
+     * Move a slab between size classes, evicting the graphs stored in it. The slab taken is the
+     * one holding the least recently used graph of the donor, or any of its slabs if it holds none.
+     *
+     * @param donor The size class giving up a slab.
+     * @param receiver The size class getting it.
+     */
+    private void moveSlab(SizeClass donor, SizeClass receiver) {
+      int slab = donor.lru.isEmpty() ? slabOwners.indexOf(donor)
+          : donor.lru.values().iterator().next().slab;
+      List<Integer> evicted = new ArrayList<>();
+
+      donor.lru.forEach((projectId, entry) -> {
+        if (entry.slab == slab) {
+          evicted.add(projectId);
+        }
+      });
+
+      evicted.forEach(this::remove);
+      evictions += evicted.size();
+      donor.free.removeIf(chunk -> chunk / SLAB_BYTES == slab);
+
+      slabOwners.set(slab, receiver);
+      receiver.carve(slab);
+      slabsMoved++;
+    }
+  }
+
+  /**
+   * Chunks of one size, with their free list and the entries stored in them in LRU order.
+   */
+  private static class SizeClass {
+    private final int chunkBytes;
+    private final Deque<Long> free = new ArrayDeque<>();
+    private final LinkedHashMap<Integer, Entry> lru = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * Create an empty size class.
+     *
+     * @param chunkBytes The size of its chunks.
+     */
+    SizeClass(int chunkBytes) {
+      this.chunkBytes = chunkBytes;
+    }
+
+    /**
+     * Carve a slab into free chunks of the class.
+     *
+     * @param slab The slab number.
+     */
+    void carve(int slab) {
+      for (int offset = 0; offset < SLAB_BYTES; offset += chunkBytes) {
+        free.add((long) slab * SLAB_BYTES + offset);
+      }
+    }
+
+    /**
+     * @return When the least recently used entry of the class was last used, or the lowest value
+     *     if the class has no entry, so an idle class gives up its slabs first.
+     */
+    long eldestUse() {
+      return lru.isEmpty() ? Long.MIN_VALUE : lru.values().iterator().next().lastUsed;
+    }
+  }
+
+  /**
+   * Location of a serialized project graph.
+   */
+  private static class Entry {
+    private final SizeClass sizeClass;
+    private final int slab;
+    private final int offset;
+    private final int length;
+
+    private long lastUsed;
+
+    /**
+     * Create an entry.
+     *
+     * @param sizeClass The size class of its chunk.
+     * @param slab The slab number.
+     * @param offset The offset of the chunk in the slab.
+     * @param length The length of the serialized graph.
+     */
+    Entry(SizeClass sizeClass, int slab, int offset, int length) {
+      this.sizeClass = sizeClass;
+      this.slab = slab;
+      this.offset = offset;
+      this.length = length;
+    }
+  }
+}
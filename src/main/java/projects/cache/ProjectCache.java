@@ -0,0 +1,48 @@
+package projects.cache;
+
+import java.util.Collection;
+import java.util.Optional;
+import projects.entity.Project;
+
+/**
+ * In-process cache of fully loaded project graphs, keyed by project ID.
+ *
+ * @author Ari
+ * @since 2026-10-19
+ */
+public interface ProjectCache {
+
+  /**
+   * Get a cached project.
+   *
+   * @param projectId The project ID.
+   * @return The project, or empty if it is not cached.
+   */
+  Optional<Project> get(Integer projectId);
+
+  /**
+   * Cache a project. Its child collections must already be loaded.
+   *
+   * @param project The project to cache.
+   */
+  void put(Project project);
+
+  /**
+   * Remove a project from the cache.
+   *
+   * @param projectId The project ID.
+   */
+  void invalidate(Integer projectId);
+
+  /**
+   * Remove every project from the cache.
+   */
+  void clear();
+
+  /**
+   * Get the projects currently cached, for writing a snapshot of the cache.
+   *
+   * @return The cached projects.
+   */
+  Collection<Project> values();
+}
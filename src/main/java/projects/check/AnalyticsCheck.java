@@ -0,0 +1,332 @@
+package projects.check;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import projects.analytics.Aggregate;
+import projects.analytics.ProjectAnalytics;
+import projects.dao.DbConnection;
+import projects.entity.Material;
+import projects.entity.Project;
+import projects.entity.Step;
+import projects.service.ProjectService;
+import projects.store.InMemoryProjectStore;
+
+/**
+ * Checks the columnar analytics against simpler baselines: over an in-memory store, against the
+ * same aggregates computed project by project on the decimals of the graphs; with a database,
+ * against GROUP BY queries run by MySQL on every shard. Measures the scan and the baseline.
+ *
+ * @author Ari
+ * @since 2026-10-19
+ */
+final class AnalyticsCheck {
+  private static final int PROJECTS = 5000;
+  private static final int ROUNDS = 5;
+  private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+
+  // @formatter:off
+  private static final String MATERIAL_COST_SQL = ""
+      + "SELECT p.difficulty, COUNT(*), "
+      + "SUM(m.num_required * CAST(m.cost * 100 AS SIGNED)) "
+      + "FROM material m JOIN project p ON p.project_id = m.project_id "
+      + "WHERE p.deleted = FALSE AND p.difficulty IS NOT NULL "
+      + "AND m.num_required IS NOT NULL AND m.cost IS NOT NULL "
+      + "GROUP BY p.difficulty";
+  private static final String HOURS_VARIANCE_SQL = ""
+      + "SELECT difficulty, COUNT(*), "
+      + "SUM(CAST(actual_hours * 100 AS SIGNED) - CAST(estimated_hours * 100 AS SIGNED)) "
+      + "FROM project "
+      + "WHERE deleted = FALSE AND difficulty IS NOT NULL "
+      + "AND estimated_hours IS NOT NULL AND actual_hours IS NOT NULL "
+      + "GROUP BY difficulty";
+  private static final String STEPS_SQL = ""
+      + "SELECT s.project_id, COUNT(*), 0 "
+      + "FROM step s JOIN project p ON p.project_id = s.project_id "
+      + "WHERE p.deleted = FALSE "
+      + "GROUP BY s.project_id";
+  // @formatter:on
+
+  private AnalyticsCheck() {
+  }
+
+  /**
+   * Run the check.
+   *
+   * @throws Exception If the check fails.
+   */
+  static void run() throws Exception {
+    checkInMemory();
+    Checks.requireDatabase();
+    checkDatabase();
+  }
+
+  /**
+   * Fill an in-memory store with random projects, some of them missing the values the aggregates
+   * skip, and compare the analytics with the baseline.
+   */
+  private static void checkInMemory() {
+    InMemoryProjectStore store = new InMemoryProjectStore();
+    Random random = new Random(30);
+
+    for (int index = 0; index < PROJECTS; index++) {
+      addProject(store, random, index);
+    }
+
+    List<Project> projects = store.fetchAllProjects();
+    ProjectAnalytics analytics = new ProjectAnalytics(store.fetchProjectColumns());
+
+    compare("material cost", analytics.materialCostByDifficulty(), materialCost(projects), true);
+    compare("hours variance", analytics.hoursVarianceByDifficulty(), hoursVariance(projects),
+        true);
+    compare("steps", analytics.stepsPerProject(), steps(projects), false);
+
+    long scanNanos = 0;
+    long baselineNanos = 0;
+
+    for (int round = 0; round <= ROUNDS; round++) {
+      long start = System.nanoTime();
+      analytics.materialCostByDifficulty();
+      analytics.hoursVarianceByDifficulty();
+      analytics.stepsPerProject();
+      long scanned = System.nanoTime();
+      materialCost(projects);
+      hoursVariance(projects);
+      steps(projects);
+      long end = System.nanoTime();
+
+      // The first round warms up and is not counted.
+      if (round > 0) {
+        scanNanos += scanned - start;
+        baselineNanos += end - scanned;
+      }
+    }
+
+    System.out.printf("%,d projects, %,d materials, %,d steps: columnar scans %.2f ms, "
+        + "graph baseline %.2f ms%n", PROJECTS, analytics.getColumns().getMaterialCount(),
+        analytics.getColumns().getStepCount(), scanNanos / 1e6 / ROUNDS,
+        baselineNanos / 1e6 / ROUNDS);
+  }
+
+  /**
+   * Compare the analytics of the database with GROUP BY queries on every shard. The database
+   * should not be written to meanwhile.
+   *
+   * @throws Exception If the check fails.
+   */
+  private static void checkDatabase() throws Exception {
+    long start = System.nanoTime();
+    ProjectAnalytics analytics = new ProjectService().fetchProjectAnalytics();
+    long loaded = System.nanoTime();
+    Map<Integer, Aggregate> materialCost = analytics.materialCostByDifficulty();
+    Map<Integer, Aggregate> hoursVariance = analytics.hoursVarianceByDifficulty();
+    Map<Integer, Aggregate> steps = analytics.stepsPerProject();
+    long scanned = System.nanoTime();
+    Map<Integer, long[]> materialCostSql = query(MATERIAL_COST_SQL);
+    Map<Integer, long[]> hoursVarianceSql = query(HOURS_VARIANCE_SQL);
+    Map<Integer, long[]> stepsSql = query(STEPS_SQL);
+    long end = System.nanoTime();
+
+    compareSql("material cost", materialCost, materialCostSql, true);
+    compareSql("hours variance", hoursVariance, hoursVarianceSql, true);
+    compareSql("steps", steps, stepsSql, false);
+
+    System.out.printf("%,d projects: load %.1f ms, columnar scans %.2f ms, GROUP BY queries "
+        + "%.1f ms%n", analytics.getColumns().getProjectCount(), (loaded - start) / 1e6,
+        (scanned - loaded) / 1e6, (end - scanned) / 1e6);
+  }
+
+  /**
+   * Add a random project with materials and steps.
+   *
+   * @param store The store.
+   * @param random The source of randomness.
+   * @param index The number of the project.
+   */
+  private static void addProject(InMemoryProjectStore store, Random random, int index) {
+    Project project = new Project();
+    project.setProjectName("Analytics check " + index);
+    project.setDifficulty(random.nextInt(10) == 0 ? null : random.nextInt(1, 6));
+    project.setEstimatedHours(random.nextInt(10) == 0 ? null : hours(random));
+    project.setActualHours(random.nextInt(4) == 0 ? null : hours(random));
+    Integer projectId = store.insertProject(project).getProjectId();
+
+    for (int count = random.nextInt(6); count > 0; count--) {
+      Material material = new Material();
+      material.setProjectId(projectId);
+      material.setMaterialName("Material " + random.nextInt(50));
+      material.setNumRequired(random.nextInt(8) == 0 ? null : random.nextInt(1, 20));
+      material.setCost(
+          random.nextInt(8) == 0 ? null : BigDecimal.valueOf(random.nextInt(100_000), 2));
+      store.insertMaterial(material);
+    }
+
+    for (int count = random.nextInt(8); count > 0; count--) {
+      Step step = new Step();
+      step.setProjectId(projectId);
+      step.setStepText("Step " + count);
+      store.insertStep(step);
+    }
+  }
+
+  /**
+   * @param random The source of randomness.
+   * @return A random number of hours with two decimals.
+   */
+  private static BigDecimal hours(Random random) {
+    return BigDecimal.valueOf(random.nextInt(1, 50_000), 2);
+  }
+
+  /**
+   * Compute the material cost by difficulty project by project.
+   *
+   * @param projects The project graphs.
+   * @return The count, sum, minimum and maximum by difficulty, in hundredths.
+   */
+  private static Map<Integer, long[]> materialCost(List<Project> projects) {
+    Map<Integer, long[]> aggregates = new HashMap<>();
+
+    for (Project project : projects) {
+      for (Material material : project.getMaterials()) {
+        if (Objects.nonNull(project.getDifficulty()) && Objects.nonNull(material.getNumRequired())
+            && Objects.nonNull(material.getCost())) {
+          add(aggregates, project.getDifficulty(), material.getCost()
+              .multiply(BigDecimal.valueOf(material.getNumRequired())).multiply(HUNDRED));
+        }
+      }
+    }
+
+    return aggregates;
+  }
+
+  /**
+   * Compute the hours variance by difficulty project by project.
+   *
+   * @param projects The project graphs.
+   * @return The count, sum, minimum and maximum by difficulty, in hundredths.
+   */
+  private static Map<Integer, long[]> hoursVariance(List<Project> projects) {
+    Map<Integer, long[]> aggregates = new HashMap<>();
+
+    for (Project project : projects) {
+      if (Objects.nonNull(project.getDifficulty()) && Objects.nonNull(project.getEstimatedHours())
+          && Objects.nonNull(project.getActualHours())) {
+        add(aggregates, project.getDifficulty(), project.getActualHours()
+            .subtract(project.getEstimatedHours()).multiply(HUNDRED));
+      }
+    }
+
+    return aggregates;
+  }
+
+  /**
+   * Count the steps of each project.
+   *
+   * @param projects The project graphs.
+   * @return The count by project ID.
+   */
+  private static Map<Integer, long[]> steps(List<Project> projects) {
+    Map<Integer, long[]> aggregates = new HashMap<>();
+
+    for (Project project : projects) {
+      for (int count = project.getSteps().size(); count > 0; count--) {
+        add(aggregates, project.getProjectId(), BigDecimal.ZERO);
+      }
+    }
+
+    return aggregates;
+  }
+
+  /**
+   * Add a value to the aggregate of a group.
+   *
+   * @param aggregates The count, sum, minimum and maximum by group.
+   * @param key The group.
+   * @param value The value, a whole number.
+   */
+  private static void add(Map<Integer, long[]> aggregates, Integer key, BigDecimal value) {
+    long exact = value.longValueExact();
+    long[] aggregate = aggregates.computeIfAbsent(key,
+        group -> new long[] {0, 0, Long.MAX_VALUE, Long.MIN_VALUE});
+
+    aggregate[0]++;
+    aggregate[1] += exact;
+    aggregate[2] = Math.min(aggregate[2], exact);
+    aggregate[3] = Math.max(aggregate[3], exact);
+  }
+
+  /**
+   * Compare aggregates with those of the baseline.
+   *
+   * @param label The name of the aggregates.
+   * @param actual The aggregates of the analytics.
+   * @param expected The count, sum, minimum and maximum by group of the baseline.
+   * @param values True if the sums and extremes are compared, not just the counts.
+   */
+  private static void compare(String label, Map<Integer, Aggregate> actual,
+      Map<Integer, long[]> expected, boolean values) {
+    Checks.expect(actual.keySet().equals(expected.keySet()), label + ": the same groups");
+
+    expected.forEach((key, aggregate) -> {
+      Aggregate found = actual.get(key);
+
+      Checks.expect(found.getCount() == aggregate[0], label + " of " + key + ": count "
+          + aggregate[0] + ", not " + found.getCount());
+      Checks.expect(!values || found.getSum() == aggregate[1] && found.getMin() == aggregate[2]
+          && found.getMax() == aggregate[3], label + " of " + key + ": sum, minimum and maximum "
+          + aggregate[1] + ", " + aggregate[2] + ", " + aggregate[3] + ", not " + found);
+    });
+  }
+
+  /**
+   * Compare aggregates with the counts and sums MySQL computed.
+   *
+   * @param label The name of the aggregates.
+   * @param actual The aggregates of the analytics.
+   * @param expected The count and sum by group from MySQL.
+   * @param values True if the sums are compared, not just the counts.
+   */
+  private static void compareSql(String label, Map<Integer, Aggregate> actual,
+      Map<Integer, long[]> expected, boolean values) {
+    Checks.expect(actual.keySet().equals(expected.keySet()), label + ": the same groups");
+
+    expected.forEach((key, aggregate) -> {
+      Aggregate found = actual.get(key);
+
+      Checks.expect(found.getCount() == aggregate[0] && (!values || found.getSum() == aggregate[1]),
+          label + " of " + key + ": count and sum " + aggregate[0] + ", " + aggregate[1]
+              + ", not " + found);
+    });
+  }
+
+  /**
+   * Run a GROUP BY query on every shard and add up the counts and sums of each group.
+   *
+   * @param sql The query, selecting the group, the count and the sum.
+   * @return The count and sum by group.
+   * @throws Exception If an error occurs.
+   */
+  private static Map<Integer, long[]> query(String sql) throws Exception {
+    Map<Integer, long[]> aggregates = new HashMap<>();
+
+    for (int shard = 0; shard < DbConnection.getShardCount(); shard++) {
+      try (Connection conn = DbConnection.getConnection(shard);
+          PreparedStatement stmt = conn.prepareStatement(sql);
+          ResultSet rs = stmt.executeQuery()) {
+        while (rs.next()) {
+          long[] aggregate = aggregates.computeIfAbsent(rs.getInt(1), group -> new long[2]);
+          aggregate[0] += rs.getLong(2);
+          aggregate[1] += rs.getLong(3);
+        }
+      }
+    }
+
+    return aggregates;
+  }
+}
@@ -0,0 +1,208 @@
+package projects.check;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import projects.entity.Project;
+import projects.service.AsyncProjectService;
+import projects.service.ProjectService;
+import projects.service.VirtualThreads;
+import projects.store.InMemoryProjectStore;
+
+/**
+ * Checks the asynchronous facade: its futures complete with the results of the blocking service
+ * or with the exceptions it throws, a small pool saturated with project fetches does not wait on
+ * itself, and a closed facade takes no more work. Measures what a call through the facade costs
+ * over a blocking call and, with a database, what many concurrent callers gain.
+ *
+ * @author Ari
+ * @since 2026-10-19
+ */
+final class AsyncServiceCheck {
+  private static final int PROJECTS = 100;
+  private static final int CALLS = 20_000;
+  private static final int CONCURRENT_CALLS = 500;
+  private static final long TIMEOUT_SECONDS = 30;
+
+  private AsyncServiceCheck() {
+  }
+
+  /**
+   * Run the check.
+   *
+   * @throws Exception If the check fails.
+   */
+  static void run() throws Exception {
+    System.out.println("virtual threads: " + VirtualThreads.newPerTaskExecutor().isPresent());
+
+    ProjectService projectService = new ProjectService(new InMemoryProjectStore());
+    List<Integer> projectIds = addProjects(projectService);
+
+    checkResults(projectService, projectIds);
+    checkSaturatedPool(projectService, projectIds);
+    measure("in memory", projectService, projectIds, CALLS);
+
+    Checks.requireDatabase();
+    ProjectService databaseService = new ProjectService();
+    List<Integer> databaseIds = addProjects(databaseService);
+
+    try {
+      // Over MySQL a fetch queries the project and its children concurrently.
+      checkSaturatedPool(databaseService, databaseIds);
+      measure("MySQL", databaseService, databaseIds, CONCURRENT_CALLS);
+    } finally {
+      databaseIds.forEach(databaseService::deleteProject);
+    }
+  }
+
+  /**
+   * Check results, exceptions and closing.
+   *
+   * @param projectService The blocking service.
+   * @param projectIds The IDs of its projects.
+   * @throws Exception If the check fails.
+   */
+  private static void checkResults(ProjectService projectService, List<Integer> projectIds)
+      throws Exception {
+    AsyncProjectService async = new AsyncProjectService(projectService);
+
+    try {
+      Project added = async.addProject(project("Async check added")).get();
+      Checks.expect(async.fetchProjectById(added.getProjectId()).get().getProjectName()
+          .equals("Async check added"), "a fetch completes with the project added");
+      Checks.expect(cause(async.fetchProjectById(-1)) instanceof NoSuchElementException,
+          "a fetch of a missing project completes with NoSuchElementException");
+      Checks.expect(cause(async.searchProjectText("check", 0, 0))
+          instanceof IllegalArgumentException,
+          "a search with a bad page size completes with IllegalArgumentException");
+      Checks.expect(cause(async.deleteProject(added.getProjectId()).thenCompose(
+          deleted -> async.fetchProjectById(added.getProjectId())))
+          instanceof NoSuchElementException, "a fetch chained onto a delete sees the delete");
+      Checks.expect(async.fetchAllProjects().get().size() == projectIds.size(),
+          "a fetch of all projects completes with every project");
+    } finally {
+      async.close();
+    }
+
+    try {
+      async.fetchProjectById(projectIds.get(0));
+      Checks.expect(false, "a closed facade rejects new work");
+    } catch (RejectedExecutionException e) {
+      // Expected.
+    }
+  }
+
+  /**
+   * Fetch many projects at once through a facade over a pool of two threads.
+   *
+   * @param projectService The blocking service.
+   * @param projectIds The IDs of its projects.
+   * @throws Exception If the check fails.
+   */
+  private static void checkSaturatedPool(ProjectService projectService,
+      List<Integer> projectIds) throws Exception {
+    try (AsyncProjectService async =
+        new AsyncProjectService(projectService, Executors.newFixedThreadPool(2))) {
+      List<CompletableFuture<Project>> fetches = new ArrayList<>();
+
+      for (int call = 0; call < CONCURRENT_CALLS; call++) {
+        fetches.add(async.fetchProjectById(projectIds.get(call % projectIds.size())));
+      }
+
+      CompletableFuture.allOf(fetches.toArray(CompletableFuture[]::new))
+          .get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+  }
+
+  /**
+   * Fetch projects one after the other with blocking calls, then all at once through the facade,
+   * and report the fetches per second of each.
+   *
+   * @param label The name of the store.
+   * @param projectService The blocking service.
+   * @param projectIds The IDs of its projects.
+   * @param calls The number of fetches.
+   * @throws Exception If the check fails.
+   */
+  private static void measure(String label, ProjectService projectService,
+      List<Integer> projectIds, int calls) throws Exception {
+    try (AsyncProjectService async = new AsyncProjectService(projectService)) {
+      long blockingNanos = 0;
+      long asyncNanos = 0;
+
+      // The first round warms up and is not counted.
+      for (int round = 0; round < 2; round++) {
+        long start = System.nanoTime();
+
+        for (int call = 0; call < calls; call++) {
+          projectService.fetchProjectById(projectIds.get(call % projectIds.size()));
+        }
+
+        long blocked = System.nanoTime();
+        List<Future<Project>> fetches = new ArrayList<>(calls);
+
+        for (int call = 0; call < calls; call++) {
+          fetches.add(async.fetchProjectById(projectIds.get(call % projectIds.size())));
+        }
+
+        for (Future<Project> fetch : fetches) {
+          fetch.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        }
+
+        blockingNanos = blocked - start;
+        asyncNanos = System.nanoTime() - blocked;
+      }
+
+      System.out.printf("%s, %,d fetches: blocking %,.0f/s, async all at once %,.0f/s%n", label,
+          calls, calls / (blockingNanos / 1e9), calls / (asyncNanos / 1e9));
+    }
+  }
+
+  /**
+   * Get why a future completed exceptionally.
+   *
+   * @param future The future.
+   * @return The exception thrown by the operation, or null if it completed normally.
+   * @throws Exception If waiting fails.
+   */
+  private static Throwable cause(CompletableFuture<?> future) throws Exception {
+    try {
+      future.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+      return null;
+    } catch (ExecutionException e) {
+      return e.getCause();
+    }
+  }
+
+  /**
+   * Add projects.
+   *
+   * @param projectService The service.
+   * @return The IDs of the projects.
+   */
+  private static List<Integer> addProjects(ProjectService projectService) {
+    List<Integer> projectIds = new ArrayList<>();
+
+    for (int index = 0; index < PROJECTS; index++) {
+      projectIds.add(projectService.addProject(project("Async check " + index)).getProjectId());
+    }
+
+    return projectIds;
+  }
+
+  /**
+   * @param name The project name.
+   * @return A new project.
+   */
+  private static Project project(String name) {
+    Project project = new Project();
+    project.setProjectName(name);
+    return project;
+  }
+}
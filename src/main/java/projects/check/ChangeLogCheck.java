@@ -0,0 +1,89 @@
+package projects.check;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.stream.Collectors;
+import projects.dao.ChangeLogDao;
+import projects.dao.DbConnection;
+import projects.entity.ProjectChange;
+import projects.entity.ProjectChanges;
+
+/**
+ * Checks that a change committed after a change with a higher ID is still read from the log: the
+ * reader holds its watermark before the open write until it commits, then reads both changes. The
+ * changes are logged for project IDs no project uses and deleted at the end.
+ *
+ * @author Ari
+ * @since 2026-10-19
+ */
+final class ChangeLogCheck {
+  private static final int EARLY_PROJECT_ID = -1_000_001;
+  private static final int LATE_PROJECT_ID = -1_000_002;
+
+  private ChangeLogCheck() {
+  }
+
+  /**
+   * Run the check.
+   *
+   * @throws Exception If the check fails.
+   */
+  static void run() throws Exception {
+    Checks.requireDatabase();
+
+    ChangeLogDao changeLogDao = new ChangeLogDao();
+    long watermark = changeLogDao.fetchLatestWatermark(0);
+
+    try (Connection slow = DbConnection.getConnection(0);
+        Connection fast = DbConnection.getConnection(0)) {
+      slow.setAutoCommit(false);
+      logChange(slow, EARLY_PROJECT_ID);
+      logChange(fast, LATE_PROJECT_ID);
+
+      ProjectChanges held = changeLogDao.fetchChangesSince(0, watermark, 100);
+      Checks.expect(!projectIds(held).contains(LATE_PROJECT_ID),
+          "a change behind an open write is held back");
+
+      slow.commit();
+
+      ProjectChanges read = changeLogDao.fetchChangesSince(0, held.getWatermark(), 100);
+      Checks.expect(projectIds(read).containsAll(List.of(EARLY_PROJECT_ID, LATE_PROJECT_ID)),
+          "the late commit and the change behind it are read once it commits");
+      Checks.expect(read.getWatermark() > held.getWatermark(), "the watermark moves past both");
+    } finally {
+      try (Connection conn = DbConnection.getConnection(0);
+          PreparedStatement stmt = conn.prepareStatement(
+              "DELETE FROM project_change WHERE project_id IN (?, ?)")) {
+        stmt.setInt(1, EARLY_PROJECT_ID);
+        stmt.setInt(2, LATE_PROJECT_ID);
+        stmt.executeUpdate();
+      }
+    }
+  }
+
+  /**
+   * Log a change of a project.
+   *
+   * @param conn The connection to the database.
+   * @param projectId The project ID.
+   * @throws SQLException If an error occurs.
+   */
+  private static void logChange(Connection conn, int projectId) throws SQLException {
+    try (PreparedStatement stmt = conn.prepareStatement(
+        "INSERT INTO project_change (project_id, change_type) VALUES (?, 'UPSERT')")) {
+      stmt.setInt(1, projectId);
+      stmt.executeUpdate();
+    }
+  }
+
+  /**
+   * @param changes A page of changes.
+   * @return The IDs of the projects changed in the page.
+   */
+  private static List<Integer> projectIds(ProjectChanges changes) {
+    return changes.getChanges().stream().map(ProjectChange::getProjectId)
+        .collect(Collectors.toList());
+  }
+}
@@ -0,0 +1,141 @@
+package projects.check;
+
+import java.lang.management.ManagementFactory;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import projects.dao.DbConnection;
+import projects.exception.DbException;
+
+/**
+ * Self-checking runs of the application, standing in for the unit tests and benchmarks the build
+ * has no framework for. Each check exercises one feature, verifies its results against a simpler
+ * baseline and prints what it measured along the way. Checks that need the database are skipped
+ * when it cannot be reached.
+ *
+ * <p>Run them with {@code ProjectsApp --check [name...]}; with no names every check runs. The
+ * process exits with status 1 if any check fails.
+ *
+ * @author Ari
+ * @since 2026-10-19
+ */
+public final class Checks {
+
+  /**
+   * A check. It returns normally when it passes.
+   */
+  interface Check {
+
+    /**
+     * Run the check.
+     *
+     * @throws Exception If the check fails.
+     */
+    void run() throws Exception;
+  }
+
+  private static final Map<String, Check> CHECKS = new LinkedHashMap<>();
+
+  static {
+    CHECKS.put("project-order", ProjectOrderCheck::run);
+    CHECKS.put("analytics", AnalyticsCheck::run);
+    CHECKS.put("search", SearchCheck::run);
+    CHECKS.put("invalidation", InvalidationCheck::run);
+    CHECKS.put("store-recovery", StoreRecoveryCheck::run);
+    CHECKS.put("async-service", AsyncServiceCheck::run);
+    CHECKS.put("load-generator", LoadGeneratorCheck::run);
+    CHECKS.put("http", HttpServerCheck::run);
+    CHECKS.put("read-your-writes", ReadYourWritesCheck::run);
+    CHECKS.put("change-log", ChangeLogCheck::run);
+    CHECKS.put("text-compression", TextCompressionCheck::run);
+    CHECKS.put("off-heap-cache", OffHeapCacheCheck::run);
+  }
+
+  private Checks() {
+  }
+
+  /**
+   * Run checks and report each of them.
+   *
+   * @param names The names of the checks, or none for all of them.
+   * @return The number of checks that failed.
+   * @throws IllegalArgumentException If a check is unknown.
+   */
+  public static int run(List<String> names) {
+    List<String> selected = names.isEmpty() ? List.copyOf(CHECKS.keySet()) : names;
+    int failed = 0;
+
+    for (String name : selected) {
+      if (!CHECKS.containsKey(name)) {
+        throw new IllegalArgumentException("Unknown check " + name + "; known: " + CHECKS.keySet());
+      }
+    }
+
+    for (String name : selected) {
+      System.out.println("== " + name);
+      long start = System.nanoTime();
+
+      try {
+        CHECKS.get(name).run();
+        System.out.printf("passed %s in %.0f ms%n", name, (System.nanoTime() - start) / 1e6);
+      } catch (SkippedException e) {
+        System.out.println("skipped " + name + ": " + e.getMessage());
+      } catch (Exception | AssertionError e) {
+        failed++;
+        System.out.println("FAILED " + name + ": " + e);
+      }
+    }
+
+    return failed;
+  }
+
+  /**
+   * Fail the running check unless a condition holds.
+   *
+   * @param condition The condition.
+   * @param message What was expected.
+   * @throws AssertionError If the condition does not hold.
+   */
+  static void expect(boolean condition, String message) {
+    if (!condition) {
+      throw new AssertionError(message);
+    }
+  }
+
+  /**
+   * Skip the running check unless the database can be reached.
+   *
+   * @throws SkippedException If the database cannot be reached.
+   */
+  static void requireDatabase() {
+    try (Connection conn = DbConnection.getConnection(0)) {
+      conn.isValid(1);
+    } catch (DbException | SQLException e) {
+      throw new SkippedException("no database (" + e.getMessage() + ")");
+    }
+  }
+
+  /**
+   * @return The bytes allocated so far by the current thread.
+   */
+  static long allocatedBytes() {
+    return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+        .getCurrentThreadAllocatedBytes();
+  }
+
+  /**
+   * Thrown to skip a check that cannot run here.
+   */
+  static class SkippedException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * @param message Why the check was skipped.
+     */
+    SkippedException(String message) {
+      super(message);
+    }
+  }
+}
@@ -0,0 +1,186 @@
+package projects.check;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import projects.entity.Project;
+import projects.http.ProjectHttpServer;
+import projects.service.ProjectService;
+import projects.store.InMemoryProjectStore;
+
+/**
+ * Checks the status codes of the HTTP API on bad and conditional requests, then measures its
+ * throughput and latency serving project details over keep-alive connections. The server runs
+ * over the in-process store, so the numbers are those of the HTTP layer and the JSON encoding.
+ *
+ * @author Ari
+ * @since 2026-10-19
+ */
+final class HttpServerCheck {
+  private static final int PROJECTS = 1000;
+  private static final int[] CLIENTS = {1, 16, 64};
+  private static final long DURATION_NANOS = 3_000_000_000L;
+
+  private HttpServerCheck() {
+  }
+
+  /**
+   * Run the check.
+   *
+   * @throws Exception If the check fails.
+   */
+  static void run() throws Exception {
+    ProjectService projectService = new ProjectService(new InMemoryProjectStore());
+    List<Integer> projectIds = new ArrayList<>();
+
+    for (int index = 0; index < PROJECTS; index++) {
+      Project project = new Project();
+      project.setProjectName("Project " + index);
+      project.setEstimatedHours(new BigDecimal("12.50"));
+      project.setDifficulty(index % 5 + 1);
+      project.setNotes("Notes of project " + index + " with a few words to search for.");
+      projectIds.add(projectService.addProject(project).getProjectId());
+    }
+
+    ProjectHttpServer server = new ProjectHttpServer(projectService, 0);
+    server.start();
+
+    try {
+      String base = "http://localhost:" + server.getPort();
+      checkStatusCodes(base, projectIds.get(0));
+
+      for (int clients : CLIENTS) {
+        measure(base, projectIds, clients);
+      }
+    } finally {
+      server.stop(0);
+    }
+  }
+
+  /**
+   * Check the answers to bad, missing and conditional requests.
+   *
+   * @param base The URL of the server.
+   * @param projectId The ID of an existing project.
+   * @throws Exception If a request fails or is answered wrongly.
+   */
+  private static void checkStatusCodes(String base, Integer projectId) throws Exception {
+    HttpClient client = HttpClient.newHttpClient();
+    Map<String, Integer> expected = Map.of(
+        "/projects/text?q=words&page=-1", 400,
+        "/projects/text?q=words&size=0", 400,
+        "/projects/text?q=words&size=1000000", 400,
+        "/projects/text?q=words&page=2147483647&size=2", 400,
+        "/projects/text?q=words&page=1&size=10", 200,
+        "/projects/search?prefix=Pro&limit=-5", 400,
+        "/projects/search?prefix=Pro&limit=x", 400,
+        "/projects/0", 404,
+        "/projects/" + projectId, 200);
+
+    for (Map.Entry<String, Integer> entry : expected.entrySet()) {
+      int status = client.send(HttpRequest.newBuilder(URI.create(base + entry.getKey())).build(),
+          HttpResponse.BodyHandlers.discarding()).statusCode();
+      Checks.expect(status == entry.getValue(),
+          "GET " + entry.getKey() + " answered " + status + ", not " + entry.getValue());
+    }
+
+    HttpResponse<Void> created = client.send(HttpRequest.newBuilder(URI.create(base + "/projects"))
+        .POST(HttpRequest.BodyPublishers.ofString("{\"notes\":\"no name\"}")).build(),
+        HttpResponse.BodyHandlers.discarding());
+    Checks.expect(created.statusCode() == 400, "a project without a name answered 400");
+
+    HttpResponse<Void> first = client.send(
+        HttpRequest.newBuilder(URI.create(base + "/projects/" + projectId)).build(),
+        HttpResponse.BodyHandlers.discarding());
+    String etag = first.headers().firstValue("ETag").orElse("");
+    HttpResponse<Void> again = client.send(
+        HttpRequest.newBuilder(URI.create(base + "/projects/" + projectId))
+            .header("If-None-Match", etag).build(),
+        HttpResponse.BodyHandlers.discarding());
+    Checks.expect(!etag.isEmpty() && again.statusCode() == 304,
+        "an unchanged project answered 304");
+  }
+
+  /**
+   * Fetch random projects from several clients, each sending its next request as soon as the
+   * previous one is answered, and report the throughput and latency percentiles.
+   *
+   * @param base The URL of the server.
+   * @param projectIds The IDs of the projects.
+   * @param clients The number of clients.
+   * @throws InterruptedException If interrupted.
+   */
+  private static void measure(String base, List<Integer> projectIds, int clients)
+      throws InterruptedException {
+    List<long[]> latencies = new ArrayList<>();
+    AtomicLong errors = new AtomicLong();
+    List<Thread> threads = new ArrayList<>();
+    long end = System.nanoTime() + DURATION_NANOS;
+
+    for (int index = 0; index < clients; index++) {
+      long[] micros = new long[1 << 20];
+      latencies.add(micros);
+      threads.add(new Thread(() -> {
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        int count = 0;
+
+        while (System.nanoTime() < end && count < micros.length) {
+          Integer projectId =
+              projectIds.get(ThreadLocalRandom.current().nextInt(projectIds.size()));
+          long start = System.nanoTime();
+
+          try {
+            HttpResponse<byte[]> response = client.send(
+                HttpRequest.newBuilder(URI.create(base + "/projects/" + projectId)).build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+
+            if (response.statusCode() != 200) {
+              errors.incrementAndGet();
+            }
+          } catch (Exception e) {
+            errors.incrementAndGet();
+          }
+
+          micros[count++] = (System.nanoTime() - start) / 1000;
+        }
+
+        micros[micros.length - 1] = count;
+      }));
+    }
+
+    threads.forEach(Thread::start);
+
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    long[] all = latencies.stream()
+        .flatMapToLong(micros -> Arrays.stream(micros, 0, (int) micros[micros.length - 1]))
+        .sorted().toArray();
+
+    System.out.printf("GET /projects/{id}, %2d clients: %,8.0f requests/s, p50 %,6d us, "
+        + "p99 %,6d us, p99.9 %,6d us, errors %d%n", clients, all.length / (DURATION_NANOS / 1e9),
+        percentile(all, 50), percentile(all, 99), percentile(all, 99.9), errors.get());
+    Checks.expect(errors.get() == 0, "no failed request");
+  }
+
+  /**
+   * Get a percentile of sorted values.
+   *
+   * @param sorted The values, in ascending order.
+   * @param percentile The percentile.
+   * @return The value.
+   */
+  private static long percentile(long[] sorted, double percentile) {
+    return sorted.length == 0 ? 0
+        : sorted[(int) Math.min(sorted.length - 1, Math.ceil(percentile / 100 * sorted.length))];
+  }
+}
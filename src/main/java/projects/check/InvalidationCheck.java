@@ -0,0 +1,158 @@
+package projects.check;
+
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import projects.cache.HeapProjectCache;
+import projects.entity.Project;
+import projects.service.ProjectService;
+import projects.store.InMemoryProjectStore;
+
+/**
+ * Checks that cached projects do not outlive their changes: a write invalidates the cache of the
+ * service it went through as soon as it commits and, with a database, the caches of the other
+ * nodes once their change log pollers pick it up. The other node is a second service with its own
+ * cache in the same process. Measures how long a remote change takes to reach it.
+ *
+ * @author Ari
+ * @since 2026-10-19
+ */
+final class InvalidationCheck {
+  private static final long DEADLINE_NANOS = 15_000_000_000L;
+  private static final long POLL_MILLIS = 10;
+
+  private InvalidationCheck() {
+  }
+
+  /**
+   * Run the check.
+   *
+   * @throws Exception If the check fails.
+   */
+  static void run() throws Exception {
+    checkLocal();
+    Checks.requireDatabase();
+    checkRemote();
+  }
+
+  /**
+   * Modify and delete a cached project through the service caching it, over an in-memory store.
+   */
+  private static void checkLocal() {
+    HeapProjectCache cache = new HeapProjectCache();
+    ProjectService projectService = new ProjectService(new InMemoryProjectStore(), cache);
+    Integer projectId = projectService.addProject(project("Before")).getProjectId();
+
+    projectService.fetchProjectById(projectId);
+    Checks.expect(cache.get(projectId).isPresent(), "a fetched project is cached");
+
+    Project modified = projectService.fetchProjectById(projectId);
+    modified.setProjectName("After");
+    projectService.modifyProjectDetails(modified);
+    Checks.expect(cache.get(projectId).isEmpty(), "a modified project leaves the cache");
+    Checks.expect(projectService.fetchProjectById(projectId).getProjectName().equals("After"),
+        "the modified project is read back");
+
+    projectService.deleteProject(projectId);
+    Checks.expect(!isFound(projectService, projectId), "a deleted project is not read back");
+  }
+
+  /**
+   * Write through one node and wait for the other to drop its cached copy, first of a modified
+   * project, then of a deleted one.
+   *
+   * @throws InterruptedException If interrupted.
+   */
+  private static void checkRemote() throws InterruptedException {
+    HeapProjectCache localCache = new HeapProjectCache();
+    HeapProjectCache remoteCache = new HeapProjectCache();
+    ProjectService local = new ProjectService(localCache);
+    ProjectService remote = new ProjectService(remoteCache);
+    Integer projectId = null;
+
+    local.startBackgroundTasks();
+    remote.startBackgroundTasks();
+
+    try {
+      projectId = local.addProject(project("Invalidation check before")).getProjectId();
+      remote.fetchProjectById(projectId);
+      Checks.expect(remoteCache.get(projectId).isPresent(), "the other node caches the project");
+
+      Project modified = local.fetchProjectById(projectId);
+      modified.setProjectName("Invalidation check after");
+      local.modifyProjectDetails(modified);
+      long written = System.nanoTime();
+
+      Checks.expect(localCache.get(projectId).isEmpty(),
+          "the writing node drops its copy as the write commits");
+
+      boolean staleAtFirst = remoteCache.get(projectId).isPresent();
+      long seen = awaitInvalidated(remoteCache, projectId);
+      Checks.expect(remote.fetchProjectById(projectId).getProjectName()
+          .equals("Invalidation check after"), "the other node reads the modified project");
+
+      remote.fetchProjectById(projectId);
+      local.deleteProject(projectId);
+      long deleted = System.nanoTime();
+      long gone = awaitInvalidated(remoteCache, projectId);
+      Checks.expect(!isFound(remote, projectId), "the other node no longer finds the project");
+      projectId = null;
+
+      System.out.printf("a modification reached the other node in %.0f ms (stale until then: "
+          + "%b), a deletion in %.0f ms%n", (seen - written) / 1e6, staleAtFirst,
+          (gone - deleted) / 1e6);
+    } finally {
+      local.stopBackgroundTasks();
+      remote.stopBackgroundTasks();
+
+      if (Objects.nonNull(projectId)) {
+        local.deleteProject(projectId);
+      }
+    }
+  }
+
+  /**
+   * Wait for a project to leave a cache.
+   *
+   * @param cache The cache.
+   * @param projectId The project ID.
+   * @return The time it left, in nanoseconds.
+   * @throws InterruptedException If interrupted.
+   * @throws AssertionError If it is still cached at the deadline.
+   */
+  private static long awaitInvalidated(HeapProjectCache cache, Integer projectId)
+      throws InterruptedException {
+    long deadline = System.nanoTime() + DEADLINE_NANOS;
+
+    while (cache.get(projectId).isPresent()) {
+      Checks.expect(System.nanoTime() < deadline, "the other node drops its copy within "
+          + DEADLINE_NANOS / 1_000_000_000L + " s");
+      Thread.sleep(POLL_MILLIS);
+    }
+
+    return System.nanoTime();
+  }
+
+  /**
+   * @param projectService The service.
+   * @param projectId The project ID.
+   * @return True if the service finds the project.
+   */
+  private static boolean isFound(ProjectService projectService, Integer projectId) {
+    try {
+      projectService.fetchProjectById(projectId);
+      return true;
+    } catch (NoSuchElementException e) {
+      return false;
+    }
+  }
+
+  /**
+   * @param name The project name.
+   * @return A new project.
+   */
+  private static Project project(String name) {
+    Project project = new Project();
+    project.setProjectName(name);
+    return project;
+  }
+}
@@ -0,0 +1,139 @@
+package projects.check;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import projects.entity.Project;
+import projects.load.LatencyHistogram;
+import projects.load.LoadGenerator;
+import projects.service.ProjectService;
+import projects.store.InMemoryProjectStore;
+
+/**
+ * Checks the latency measurement of the load generator: the histogram percentiles against those
+ * of the sorted values, and the correction for coordinated omission against a stall of known
+ * length. During the stall the operations that fall due are held up behind the stalled one; their
+ * latencies from the time they were due must show the wait, while their service times do not.
+ *
+ * @author Ari
+ * @since 2026-10-19
+ */
+final class LoadGeneratorCheck {
+  private static final int VALUES = 100_000;
+  private static final double[] PERCENTILES = {0, 50, 90, 99, 99.9, 99.99, 100};
+  private static final double PRECISION = 0.01;
+
+  private static final int RATE = 200;
+  private static final int DURATION_SECONDS = 3;
+  private static final int STALLED_FETCH = RATE;
+  private static final long STALL_MILLIS = 500;
+
+  private LoadGeneratorCheck() {
+  }
+
+  /**
+   * Run the check.
+   *
+   * @throws Exception If the check fails.
+   */
+  static void run() throws Exception {
+    checkPercentiles();
+    checkStall();
+  }
+
+  /**
+   * Record random latencies spanning several powers of ten and compare the percentiles with the
+   * sorted values.
+   */
+  private static void checkPercentiles() {
+    Random random = new Random(46);
+    LatencyHistogram histogram = new LatencyHistogram();
+    long[] values = new long[VALUES];
+
+    for (int index = 0; index < VALUES; index++) {
+      values[index] = (long) Math.exp(random.nextGaussian() * 2 + 7);
+      histogram.record(values[index]);
+    }
+
+    Arrays.sort(values);
+    Checks.expect(histogram.getCount() == VALUES, "every value is counted");
+
+    for (double percentile : PERCENTILES) {
+      long exact = values[Math.max(0, (int) Math.ceil(percentile / 100 * VALUES) - 1)];
+      long reported = histogram.getValueAtPercentile(percentile);
+
+      Checks.expect(reported >= exact && reported <= exact + exact * PRECISION + 1,
+          "p" + percentile + " within 1% above " + exact + ", not " + reported);
+    }
+
+    Checks.expect(histogram.getMax() >= values[VALUES - 1]
+        && histogram.getMax() <= values[VALUES - 1] * (1 + PRECISION) + 1,
+        "the maximum within 1% above " + values[VALUES - 1]);
+  }
+
+  /**
+   * Run the load generator against a store that stalls one fetch, on a single thread at a fixed
+   * rate, and compare the latencies with the service times.
+   *
+   * @throws Exception If the check fails.
+   */
+  private static void checkStall() throws Exception {
+    Path report = Files.createTempFile("load-check", ".hgrm");
+
+    try {
+      LoadGenerator generator = new LoadGenerator(new ProjectService(new StallingStore()),
+          Map.of("seed", "100", "threads", "1", "rate", String.valueOf(RATE), "duration",
+              String.valueOf(DURATION_SECONDS), "mix", "select", "skew", "0", "report",
+              report.toString()));
+      generator.run();
+
+      LatencyHistogram latencies = generator.getLatencies();
+      LatencyHistogram serviceTimes = generator.getServiceTimes();
+
+      // The operations due during the stall wait from 0 up to its length, evenly spread, so a
+      // tenth of the operations due over the run waited longer than this.
+      double stalledShare = STALL_MILLIS / 1000.0 / DURATION_SECONDS;
+      long expectedP90Millis = Math.round(STALL_MILLIS * (1 - 0.1 / stalledShare));
+      long p90Millis = latencies.getValueAtPercentile(90) / 1000;
+
+      System.out.printf("stall of %d ms in %d s at %d ops/s: p90 %d ms from the due time "
+          + "(about %d ms expected), %d ms from the start; max %d ms and %d ms%n", STALL_MILLIS,
+          DURATION_SECONDS, RATE, p90Millis, expectedP90Millis,
+          serviceTimes.getValueAtPercentile(90) / 1000, latencies.getMax() / 1000,
+          serviceTimes.getMax() / 1000);
+
+      Checks.expect(latencies.getMax() / 1000 >= STALL_MILLIS,
+          "the stalled fetch counts the whole stall");
+      Checks.expect(p90Millis >= expectedP90Millis * 3 / 4,
+          "the fetches held up behind the stall count their wait");
+      Checks.expect(serviceTimes.getValueAtPercentile(90) / 1000 < expectedP90Millis / 4,
+          "the service times of the fetches held up do not count it");
+    } finally {
+      Files.deleteIfExists(report);
+    }
+  }
+
+  /**
+   * In-memory store in which one fetch by ID stalls.
+   */
+  private static class StallingStore extends InMemoryProjectStore {
+    private final AtomicInteger fetches = new AtomicInteger();
+
+    @Override
+    public Optional<Project> fetchProjectById(Integer projectId, boolean eager) {
+      if (fetches.incrementAndGet() == STALLED_FETCH) {
+        try {
+          Thread.sleep(STALL_MILLIS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+
+      return super.fetchProjectById(projectId, eager);
+    }
+  }
+}
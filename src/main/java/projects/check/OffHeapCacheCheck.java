@@ -0,0 +1,144 @@
+package projects.check;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import projects.cache.OffHeapProjectCache;
+import projects.entity.Project;
+
+/**
+ * Checks the off-heap project cache: graphs come back as they were put, a cache full of small
+ * graphs makes room for large ones by moving slabs between size classes, and reads of different
+ * projects from several threads spread over the stripes. Measures the read throughput with one
+ * stripe and with the default stripes.
+ *
+ * @author Ari
+ * @since 2026-10-19
+ */
+final class OffHeapCacheCheck {
+  private static final long MEGABYTE = 1 << 20;
+  private static final int SMALL_PROJECTS = 40_000;
+  private static final int LARGE_PROJECTS = 40;
+  private static final int HOT_PROJECTS = 2000;
+  private static final int THREADS = 8;
+  private static final long DURATION_NANOS = 2_000_000_000L;
+
+  private OffHeapCacheCheck() {
+  }
+
+  /**
+   * Run the check.
+   *
+   * @throws Exception If the check fails.
+   */
+  static void run() throws Exception {
+    checkRoundTrip();
+    checkRebalance();
+    measure(new OffHeapProjectCache(256 * MEGABYTE, 1));
+    measure(new OffHeapProjectCache(256 * MEGABYTE));
+  }
+
+  /**
+   * Check that graphs come back as they were put and go once invalidated.
+   */
+  private static void checkRoundTrip() {
+    OffHeapProjectCache cache = new OffHeapProjectCache(16 * MEGABYTE);
+
+    for (int projectId = 1; projectId <= HOT_PROJECTS; projectId++) {
+      cache.put(project(projectId, 100 + projectId % 3000));
+    }
+
+    for (int projectId = 1; projectId <= HOT_PROJECTS; projectId++) {
+      Optional<Project> cached = cache.get(projectId);
+      Checks.expect(cached.isPresent()
+          && cached.get().getNotes().equals(project(projectId, 100 + projectId % 3000).getNotes()),
+          "project " + projectId + " comes back as it was put");
+    }
+
+    cache.invalidate(1);
+    Checks.expect(cache.get(1).isEmpty(), "an invalidated project is gone");
+    Checks.expect(cache.values().size() == HOT_PROJECTS - 1, "values() holds every project");
+  }
+
+  /**
+   * Fill a cache with small graphs, then put large ones, which get slabs from the small graphs'
+   * size class rather than being turned away.
+   */
+  private static void checkRebalance() {
+    OffHeapProjectCache cache = new OffHeapProjectCache(8 * MEGABYTE);
+
+    for (int projectId = 1; projectId <= SMALL_PROJECTS; projectId++) {
+      cache.put(project(projectId, 300));
+    }
+
+    int cached = 0;
+
+    for (int projectId = SMALL_PROJECTS + 1; projectId <= SMALL_PROJECTS + LARGE_PROJECTS;
+        projectId++) {
+      cache.put(project(projectId, 100_000));
+      cached += cache.get(projectId).isPresent() ? 1 : 0;
+    }
+
+    long small = cache.values().stream()
+        .filter(project -> project.getProjectId() <= SMALL_PROJECTS).count();
+
+    System.out.println("after " + LARGE_PROJECTS + " large graphs, " + small + " small ones left: "
+        + cache);
+    Checks.expect(cached == LARGE_PROJECTS, "every large graph is cached, not " + cached);
+    Checks.expect(small > 0, "the small graphs keep the slabs the large ones do not need");
+  }
+
+  /**
+   * Read random hot projects from several threads and report the reads per second.
+   *
+   * @param cache The cache.
+   * @throws InterruptedException If interrupted.
+   */
+  private static void measure(OffHeapProjectCache cache) throws InterruptedException {
+    for (int projectId = 1; projectId <= HOT_PROJECTS; projectId++) {
+      cache.put(project(projectId, 500));
+    }
+
+    LongAdder reads = new LongAdder();
+    List<Thread> threads = new ArrayList<>();
+    long end = System.nanoTime() + DURATION_NANOS;
+
+    for (int index = 0; index < THREADS; index++) {
+      threads.add(new Thread(() -> {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        while (System.nanoTime() < end) {
+          cache.get(random.nextInt(1, HOT_PROJECTS + 1));
+          reads.increment();
+        }
+      }));
+    }
+
+    threads.forEach(Thread::start);
+
+    for (Thread thread : threads) {
+      thread.join();
+    }
+
+    String statistics = cache.toString();
+    System.out.printf("%d threads reading, %s: %,.0f reads/s%n", THREADS,
+        statistics.substring(0, statistics.indexOf(',')), reads.sum() / (DURATION_NANOS / 1e9));
+  }
+
+  /**
+   * Create a project with notes of a given length.
+   *
+   * @param projectId The project ID.
+   * @param notesLength The length of the notes.
+   * @return The project.
+   */
+  private static Project project(int projectId, int notesLength) {
+    Project project = new Project();
+    project.setProjectId(projectId);
+    project.setProjectName("Project " + projectId);
+    project.setNotes(String.valueOf((char) ('a' + projectId % 26)).repeat(notesLength));
+    return project;
+  }
+}
@@ -0,0 +1,103 @@
+package projects.check;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import projects.entity.Hundredths;
+import projects.entity.Project;
+import projects.entity.ProjectCriteria;
+import projects.entity.ProjectCriteria.SortField;
+import projects.store.ProjectOrder;
+
+/**
+ * Checks that sorting by hours on the hundredths gives the order the decimals gave, and measures
+ * what each costs in time and allocation.
+ *
+ * @author Ari
+ * @since 2026-10-19
+ */
+final class ProjectOrderCheck {
+  private static final int PROJECTS = 200_000;
+  private static final int ROUNDS = 5;
+
+  private ProjectOrderCheck() {
+  }
+
+  /**
+   * Run the check.
+   */
+  static void run() {
+    List<Project> projects = randomProjects(new Random(42));
+
+    ProjectCriteria criteria = new ProjectCriteria();
+    criteria.setSortField(SortField.ESTIMATED_HOURS);
+    Comparator<Project> hundredths = ProjectOrder.of(criteria);
+    Comparator<Project> decimals = Comparator.comparing(Project::getEstimatedHours,
+        Comparator.nullsFirst(Comparator.<BigDecimal>naturalOrder()))
+        .thenComparing(Project::getProjectId);
+
+    List<Project> byHundredths = new ArrayList<>(projects);
+    List<Project> byDecimals = new ArrayList<>(projects);
+    byHundredths.sort(hundredths);
+    byDecimals.sort(decimals);
+    Checks.expect(byHundredths.equals(byDecimals), "the same order from hundredths and decimals");
+
+    criteria.setDescending(true);
+    byHundredths.sort(ProjectOrder.of(criteria));
+    byDecimals.sort(decimals.reversed());
+    Checks.expect(byHundredths.equals(byDecimals), "the same descending order");
+
+    measure("decimals", projects, decimals);
+    measure("hundredths", projects, hundredths);
+  }
+
+  /**
+   * Time sorts of shuffled copies of the projects and count the bytes they allocate.
+   *
+   * @param label The name of the order.
+   * @param projects The projects.
+   * @param order The order.
+   */
+  private static void measure(String label, List<Project> projects, Comparator<Project> order) {
+    long nanos = 0;
+    long bytes = 0;
+
+    for (int round = 0; round <= ROUNDS; round++) {
+      List<Project> copy = new ArrayList<>(projects);
+      long startBytes = Checks.allocatedBytes();
+      long start = System.nanoTime();
+      copy.sort(order);
+
+      // The first round warms up the comparator and is not counted.
+      if (round > 0) {
+        nanos += System.nanoTime() - start;
+        bytes += Checks.allocatedBytes() - startBytes;
+      }
+    }
+
+    System.out.printf("sort %,d projects by estimated hours, %-10s %7.1f ms %,13d bytes%n",
+        projects.size(), label, nanos / 1e6 / ROUNDS, bytes / ROUNDS);
+  }
+
+  /**
+   * Create projects with random hours, one in ten of them null, and many ties.
+   *
+   * @param random The source of randomness.
+   * @return The projects.
+   */
+  private static List<Project> randomProjects(Random random) {
+    List<Project> projects = new ArrayList<>(PROJECTS);
+
+    for (int id = 1; id <= PROJECTS; id++) {
+      Project project = new Project();
+      project.setProjectId(id);
+      project.setEstimatedHundredths(
+          random.nextInt(10) == 0 ? Hundredths.NULL : random.nextInt(20_000) - 100);
+      projects.add(project);
+    }
+
+    return projects;
+  }
+}
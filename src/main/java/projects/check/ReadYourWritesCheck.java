@@ -0,0 +1,130 @@
+package projects.check;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import projects.dao.DbConnection;
+import projects.entity.Project;
+import projects.service.AsyncProjectService;
+import projects.service.ProjectService;
+
+/**
+ * Checks that reads follow writes to the primary when the work hops threads: a write pins the
+ * project it wrote for every thread, and the pin of the writer travels with the work it hands
+ * over but not to unrelated work reusing the same pooled thread. With a database, projects written
+ * on one thread are then read back straight away on others; run it with projects.replicas set to
+ * a lagging replica to see the routing at work.
+ *
+ * @author Ari
+ * @since 2026-10-19
+ */
+final class ReadYourWritesCheck {
+  private static final int PROJECT_ID = 1_000_000_007;
+  private static final int ROUNDS = 200;
+
+  private ReadYourWritesCheck() {
+  }
+
+  /**
+   * Run the check.
+   *
+   * @throws Exception If the check fails.
+   */
+  static void run() throws Exception {
+    checkRouting();
+    Checks.requireDatabase();
+    checkStaleness();
+  }
+
+  /**
+   * Check where reads are routed after writes on other threads.
+   *
+   * @throws Exception If the check fails.
+   */
+  private static void checkRouting() throws Exception {
+    ExecutorService pool = Executors.newSingleThreadExecutor();
+
+    try {
+      Checks.expect(!pool.submit(() -> DbConnection.readsFromPrimary(List.of())).get(),
+          "reads of a pooled thread with no writes go to a replica");
+
+      Thread writer = new Thread(() -> DbConnection.pinProject(PROJECT_ID));
+      writer.start();
+      writer.join();
+
+      Checks.expect(pool.submit(() -> DbConnection.readsFromPrimary(List.of(PROJECT_ID))).get(),
+          "reads of a project written on another thread go to the primary");
+      Checks.expect(!pool.submit(() -> DbConnection.readsFromPrimary(List.of(PROJECT_ID + 1)))
+          .get(), "reads of another project still go to a replica");
+
+      DbConnection.Pin request = new DbConnection.Pin();
+      boolean[] carried = new boolean[1];
+
+      DbConnection.withPin(request, () -> {
+        request.pin();
+        Runnable read = () -> carried[0] = DbConnection.readsFromPrimary(List.of());
+        DbConnection.carryPin(pool).execute(read);
+      });
+
+      Checks.expect(pool.submit(() -> carried[0]).get(),
+          "reads handed over by work that wrote go to the primary");
+      Checks.expect(!pool.submit(() -> DbConnection.readsFromPrimary(List.of())).get(),
+          "the pin of that work does not stay with the pooled thread");
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+  /**
+   * Add projects on one thread and read each of them straight away on others: through the async
+   * facade, and through a pooled thread under a fresh pin as the HTTP server reads. Reports the
+   * reads that missed the write.
+   *
+   * @throws Exception If the check fails.
+   */
+  private static void checkStaleness() throws Exception {
+    ProjectService projectService = new ProjectService();
+    ExecutorService pool = Executors.newFixedThreadPool(4);
+    List<Integer> projectIds = new ArrayList<>();
+    int stale = 0;
+
+    try (AsyncProjectService async = new AsyncProjectService(projectService)) {
+      for (int round = 0; round < ROUNDS; round++) {
+        Project project = new Project();
+        project.setProjectName("Read-your-writes check " + round);
+        project.setEstimatedHours(new BigDecimal("1.00"));
+
+        Integer projectId = async.addProject(project).get().getProjectId();
+        projectIds.add(projectId);
+
+        boolean chained =
+            async.fetchProjectById(projectId).handle((fetched, e) -> Objects.isNull(e)).get();
+        boolean pooled = pool.submit(() -> {
+          boolean[] found = new boolean[1];
+          DbConnection.withPin(new DbConnection.Pin(), () -> {
+            try {
+              projectService.fetchProjectById(projectId);
+              found[0] = true;
+            } catch (NoSuchElementException e) {
+              found[0] = false;
+            }
+          });
+          return found[0];
+        }).get();
+
+        stale += (chained ? 0 : 1) + (pooled ? 0 : 1);
+      }
+    } finally {
+      pool.shutdown();
+      projectIds.forEach(projectService::deleteProject);
+    }
+
+    System.out.printf("%d projects read back on other threads right after their insert: "
+        + "%d stale reads%n", ROUNDS, stale);
+    Checks.expect(stale == 0, "no read misses a write made on another thread");
+  }
+}
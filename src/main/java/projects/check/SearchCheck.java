@@ -0,0 +1,242 @@
+package projects.check;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import projects.entity.Project;
+import projects.entity.ProjectMatch;
+import projects.entity.Step;
+import projects.service.ProjectService;
+import projects.store.InMemoryProjectStore;
+
+/**
+ * Checks the text search: the ranking and the paging of the in-memory store against occurrences
+ * counted by a regular expression, and, with a database, that MySQL finds words in the notes and in
+ * the step descriptions, ranks projects using a word more often first, leaves out deleted projects
+ * and pages across the shards without losing or repeating matches. Measures the search time.
+ *
+ * @author Ari
+ * @since 2026-10-19
+ */
+final class SearchCheck {
+  private static final int PROJECTS = 2000;
+  private static final int PAGE_SIZE = 25;
+  private static final int SEARCHES = 50;
+  private static final String TERMS = "Deck joist";
+
+  private static final List<String> WORDS = List.of("cut", "board", "length", "sand", "edges",
+      "drill", "pilot", "holes", "screws", "glue", "clamp", "measure", "hinges", "door", "frame",
+      "level", "square", "stain", "finish", "deck", "joist", "post", "concrete", "brackets",
+      "bolts");
+
+  private SearchCheck() {
+  }
+
+  /**
+   * Run the check.
+   *
+   * @throws Exception If the check fails.
+   */
+  static void run() throws Exception {
+    checkInMemory();
+    Checks.requireDatabase();
+    checkDatabase();
+  }
+
+  /**
+   * Search an in-memory store of random projects page by page and compare the matches with the
+   * projects ranked by occurrences of the words counted by a regular expression.
+   */
+  private static void checkInMemory() {
+    InMemoryProjectStore store = new InMemoryProjectStore();
+    ProjectService projectService = new ProjectService(store);
+    Random random = new Random(32);
+
+    for (int index = 0; index < PROJECTS; index++) {
+      Project project = new Project();
+      project.setProjectName("Search check " + index);
+      project.setNotes(random.nextInt(5) == 0 ? null : text(random));
+      Integer projectId = projectService.addProject(project).getProjectId();
+
+      for (int count = random.nextInt(4); count > 0; count--) {
+        Step step = new Step();
+        step.setProjectId(projectId);
+        step.setStepText(text(random));
+        projectService.addStep(step);
+      }
+    }
+
+    Integer deletedId = projectService.fetchAllProjects().get(0).getProjectId();
+    projectService.deleteProject(deletedId);
+
+    List<ProjectMatch> expected = rank(projectService.fetchAllProjects());
+    List<ProjectMatch> found = new ArrayList<>();
+    int pages = 0;
+
+    // Warm up the search, which scores every project for each page.
+    projectService.searchProjectText(TERMS, 0, PAGE_SIZE);
+    long start = System.nanoTime();
+
+    for (boolean more = true; more; pages++) {
+      List<ProjectMatch> matches = projectService.searchProjectText(TERMS, pages, PAGE_SIZE);
+      found.addAll(matches);
+      more = matches.size() == PAGE_SIZE;
+    }
+
+    long nanos = System.nanoTime() - start;
+
+    Checks.expect(!expected.isEmpty(), "some projects match");
+    Checks.expect(found.stream().noneMatch(match -> match.getProjectId().equals(deletedId)),
+        "a deleted project is not found");
+    Checks.expect(describe(found).equals(describe(expected)),
+        "the pages hold every match once, ranked by occurrences then ID");
+
+    System.out.printf("%,d projects, %d matches in %d pages: %.2f ms a page%n", PROJECTS,
+        found.size(), pages, nanos / 1e6 / pages);
+  }
+
+  /**
+   * Add projects using a word nobody else uses, a different number of times each, search for it
+   * in MySQL and delete them again.
+   */
+  private static void checkDatabase() {
+    ProjectService projectService = new ProjectService();
+    String word = "chk" + Long.toString(System.nanoTime(), 36);
+    List<Integer> ranked = new ArrayList<>();
+    List<Integer> projectIds = new ArrayList<>();
+
+    try {
+      // Notes using the word five times down to once, so the first should rank first.
+      for (int count = 5; count > 0; count--) {
+        Project project = new Project();
+        project.setProjectName("Search check " + word + " " + count);
+        project.setNotes(String.join(" ", Collections.nCopies(count, word))
+            + " sand the edges and finish the frame");
+        Integer projectId = projectService.addProject(project).getProjectId();
+        ranked.add(projectId);
+        projectIds.add(projectId);
+      }
+
+      Project stepOnly = new Project();
+      stepOnly.setProjectName("Search check " + word + " step");
+      Integer stepOnlyId = projectService.addProject(stepOnly).getProjectId();
+      projectIds.add(stepOnlyId);
+
+      Step step = new Step();
+      step.setProjectId(stepOnlyId);
+      step.setStepText("fasten the brackets, then " + word);
+      projectService.addStep(step);
+
+      Project deleted = new Project();
+      deleted.setProjectName("Search check " + word + " deleted");
+      deleted.setNotes(word + " " + word + " " + word + " " + word + " " + word + " " + word);
+      Integer deletedId = projectService.addProject(deleted).getProjectId();
+      projectService.deleteProject(deletedId);
+
+      List<ProjectMatch> all = projectService.searchProjectText(word, 0, 100);
+      List<Integer> found = all.stream().map(ProjectMatch::getProjectId)
+          .collect(Collectors.toList());
+      List<ProjectMatch> paged = new ArrayList<>();
+
+      for (int page = 0; page < 4; page++) {
+        paged.addAll(projectService.searchProjectText(word, page, 2));
+      }
+
+      long start = System.nanoTime();
+
+      for (int search = 0; search < SEARCHES; search++) {
+        projectService.searchProjectText(word, 0, PAGE_SIZE);
+      }
+
+      long nanos = System.nanoTime() - start;
+
+      System.out.println("matches: " + all);
+      Checks.expect(found.size() == projectIds.size() && found.containsAll(projectIds),
+          "every project using the word is found, in its notes or its steps, once");
+      Checks.expect(!found.contains(deletedId), "a deleted project is not found");
+      Checks.expect(found.stream().filter(ranked::contains).collect(Collectors.toList())
+          .equals(ranked), "projects using the word more often rank first");
+      Checks.expect(describe(paged).equals(describe(all)),
+          "pages of two hold the matches of one page, in the same order");
+      System.out.printf("%d searches on %d shards: %.2f ms each%n", SEARCHES,
+          projectService.getShardCount(), nanos / 1e6 / SEARCHES);
+    } finally {
+      projectIds.forEach(projectService::deleteProject);
+    }
+  }
+
+  /**
+   * Generate text from the vocabulary, in mixed case.
+   *
+   * @param random The source of randomness.
+   * @return The text.
+   */
+  private static String text(Random random) {
+    StringBuilder text = new StringBuilder();
+
+    for (int count = random.nextInt(3, 30); count > 0; count--) {
+      String word = WORDS.get(random.nextInt(WORDS.size()));
+      text.append(random.nextInt(5) == 0 ? word.toUpperCase() : word);
+      text.append(random.nextInt(8) == 0 ? ", " : " ");
+    }
+
+    return text.toString();
+  }
+
+  /**
+   * Rank projects by the occurrences of the search words in their notes and steps.
+   *
+   * @param projects The project graphs.
+   * @return The matches, most occurrences first, then by project ID.
+   */
+  private static List<ProjectMatch> rank(List<Project> projects) {
+    List<Pattern> patterns = new ArrayList<>();
+
+    for (String word : TERMS.split(" ")) {
+      patterns.add(Pattern.compile("\\b" + word + "\\b", Pattern.CASE_INSENSITIVE));
+    }
+
+    List<ProjectMatch> matches = new ArrayList<>();
+
+    for (Project project : projects) {
+      List<String> texts = new ArrayList<>();
+      texts.add(project.getNotes());
+      project.getSteps().forEach(step -> texts.add(step.getStepText()));
+      int occurrences = 0;
+
+      for (String text : texts) {
+        for (Pattern pattern : patterns) {
+          for (Matcher matcher = pattern.matcher(Objects.toString(text, "")); matcher.find();) {
+            occurrences++;
+          }
+        }
+      }
+
+      if (occurrences > 0) {
+        ProjectMatch match = new ProjectMatch();
+        match.setProjectId(project.getProjectId());
+        match.setScore((double) occurrences);
+        matches.add(match);
+      }
+    }
+
+    matches.sort(Comparator.comparing(ProjectMatch::getScore).reversed()
+        .thenComparing(ProjectMatch::getProjectId));
+    return matches;
+  }
+
+  /**
+   * @param matches Matches.
+   * @return The project IDs and scores of the matches, in order.
+   */
+  private static List<String> describe(List<ProjectMatch> matches) {
+    return matches.stream().map(match -> match.getProjectId() + ":" + match.getScore())
+        .collect(Collectors.toList());
+  }
+}
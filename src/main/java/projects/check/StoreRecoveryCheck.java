@@ -0,0 +1,219 @@
+package projects.check;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import projects.entity.Material;
+import projects.entity.Project;
+import projects.entity.Step;
+import projects.store.InMemoryProjectStore;
+import projects.store.ProjectStore;
+
+/**
+ * Checks that the durable in-memory store comes back as it was: random writes are made to a store
+ * in a temporary directory and to a store living in memory only, and the durable store, reopened
+ * from its log, from a snapshot and its log, and from a log whose last record a crash cut short,
+ * must hold the same graphs as the other. Measures the writes, each forced to disk, and the
+ * recovery.
+ *
+ * @author Ari
+ * @since 2026-10-19
+ */
+final class StoreRecoveryCheck {
+  private static final int WRITES = 1000;
+
+  private StoreRecoveryCheck() {
+  }
+
+  /**
+   * Run the check.
+   *
+   * @throws Exception If the check fails.
+   */
+  static void run() throws Exception {
+    Path directory = Files.createTempDirectory("projects-store-check");
+    InMemoryProjectStore expected = new InMemoryProjectStore();
+    Random random = new Random(40);
+
+    try {
+      InMemoryProjectStore durable = new InMemoryProjectStore(directory);
+      long start = System.nanoTime();
+      write(random, WRITES, durable, expected);
+      long nanos = System.nanoTime() - start;
+      durable.close();
+
+      System.out.printf("%d writes forced to disk: %.0f us each%n", WRITES,
+          nanos / 1e3 / WRITES);
+
+      durable = reopen(directory, "from the log", expected);
+      durable.snapshot();
+      write(random, WRITES / 10, durable, expected);
+      durable.close();
+
+      durable = reopen(directory, "from a snapshot and the log", expected);
+
+      // Cut the record of a last insert short, as a crash while appending it would.
+      String beforeLast = describe(expected);
+      long seed = random.nextLong();
+      write(new Random(seed), 0, null, durable);
+      write(new Random(seed), 0, null, expected);
+      durable.close();
+      truncateNewestLog(directory, 3);
+
+      durable = new InMemoryProjectStore(directory);
+      Checks.expect(describe(durable).equals(beforeLast),
+          "a record cut short by a crash is dropped with nothing else");
+      durable.close();
+    } finally {
+      try (Stream<Path> files = Files.walk(directory)) {
+        for (Path file : files.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+          Files.delete(file);
+        }
+      }
+    }
+  }
+
+  /**
+   * Reopen the durable store and compare it with the expected one. Later writes to both check that
+   * new IDs follow the recovered ones.
+   *
+   * @param directory The directory of the durable store.
+   * @param label How the store is recovered.
+   * @param expected The store living in memory only.
+   * @return The reopened store.
+   * @throws IOException If an error occurs.
+   */
+  private static InMemoryProjectStore reopen(Path directory, String label,
+      InMemoryProjectStore expected) throws IOException {
+    long start = System.nanoTime();
+    InMemoryProjectStore durable = new InMemoryProjectStore(directory);
+    long nanos = System.nanoTime() - start;
+
+    Checks.expect(describe(durable).equals(describe(expected)),
+        "the store recovered " + label + " holds the graphs written");
+    System.out.printf("recovered %d projects %s in %.1f ms%n",
+        durable.fetchAllProjects().size(), label, nanos / 1e6);
+    return durable;
+  }
+
+  /**
+   * Make the same random writes to two stores.
+   *
+   * @param random The source of randomness.
+   * @param count The number of writes.
+   * @param stores The stores.
+   */
+  private static void write(Random random, int count, ProjectStore... stores) {
+    for (int index = 0; index < count; index++) {
+      List<Project> projects = stores[0].fetchAllProjects();
+      Project target = projects.isEmpty() ? null : projects.get(random.nextInt(projects.size()));
+      int choice = projects.isEmpty() ? 0 : random.nextInt(9);
+      long seed = random.nextLong();
+
+      for (ProjectStore store : stores) {
+        write(new Random(seed), choice, target, store);
+      }
+    }
+  }
+
+  /**
+   * Make one write to a store.
+   *
+   * @param random The source of randomness, seeded alike for every store.
+   * @param choice The kind of write.
+   * @param target A project of the store, or null if it has none.
+   * @param store The store.
+   */
+  private static void write(Random random, int choice, Project target, ProjectStore store) {
+    switch (choice) {
+      case 0:
+      case 1:
+        Project project = new Project();
+        project.setProjectName("Recovery check " + random.nextInt(1_000_000));
+        project.setEstimatedHours(BigDecimal.valueOf(random.nextInt(10_000), 2));
+        project.setDifficulty(random.nextInt(1, 6));
+        project.setNotes("notes " + random.nextInt());
+        store.insertProject(project);
+        break;
+      case 2:
+        Project modified = store.fetchProjectById(target.getProjectId()).orElseThrow();
+        modified.setProjectName("Renamed " + random.nextInt(1_000_000));
+        modified.setNotes(random.nextBoolean() ? null : "changed " + random.nextInt());
+        store.modifyProjectDetails(modified);
+        break;
+      case 3:
+      case 4:
+        Material material = new Material();
+        material.setProjectId(target.getProjectId());
+        material.setMaterialName("Material " + random.nextInt(100));
+        material.setNumRequired(random.nextInt(1, 10));
+        material.setCost(BigDecimal.valueOf(random.nextInt(100_000), 2));
+        store.insertMaterial(material);
+        break;
+      case 5:
+        List<Material> materials = target.getMaterials();
+
+        if (!materials.isEmpty()) {
+          store.deleteMaterial(materials.get(random.nextInt(materials.size())).getMaterialId());
+        }
+
+        break;
+      case 6:
+        Step step = new Step();
+        step.setProjectId(target.getProjectId());
+        step.setStepText("Step " + random.nextInt(1000));
+        store.insertStep(step);
+        break;
+      case 7:
+        store.cloneProject(target.getProjectId(), "Clone " + random.nextInt(1_000_000));
+        break;
+      default:
+        store.deleteProject(target.getProjectId());
+        break;
+    }
+  }
+
+  /**
+   * Describe every graph of a store, IDs included.
+   *
+   * @param store The store.
+   * @return The description.
+   */
+  private static String describe(ProjectStore store) {
+    List<String> graphs = new ArrayList<>();
+    store.fetchAllProjects().forEach(project -> graphs.add(project.toString()));
+    graphs.sort(Comparator.naturalOrder());
+    return String.join("\n", graphs);
+  }
+
+  /**
+   * Cut bytes off the end of the newest log.
+   *
+   * @param directory The directory of the store.
+   * @param bytes The number of bytes cut.
+   * @throws IOException If an error occurs.
+   */
+  private static void truncateNewestLog(Path directory, int bytes) throws IOException {
+    Path newest;
+
+    try (Stream<Path> files = Files.list(directory)) {
+      newest = files.filter(file -> file.getFileName().toString().matches("wal-\\d+\\.log"))
+          .max(Comparator.comparingLong(file ->
+              Long.parseLong(file.getFileName().toString().replaceAll("\\D", ""))))
+          .orElseThrow();
+    }
+
+    try (FileChannel channel = FileChannel.open(newest, StandardOpenOption.WRITE)) {
+      channel.truncate(channel.size() - bytes);
+    }
+  }
+}
@@ -0,0 +1,158 @@
+package projects.check;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import projects.dao.DbConnection;
+import projects.entity.CompressedText;
+
+/**
+ * Measures what compressing step descriptions with zlib saves and costs, at the level InnoDB and
+ * the MySQL protocol use by default, for descriptions of several sizes. The text is generated from
+ * a vocabulary of build instructions, so it repeats about as much as real descriptions do. With a
+ * database, also reports the row format and size of the text tables.
+ *
+ * @author Ari
+ * @since 2026-10-19
+ */
+final class TextCompressionCheck {
+  private static final int[] SIZES = {256, 1024, 4096, 16_384};
+  private static final int VALUES = 2000;
+  private static final int LEVEL = 6;
+
+  private static final List<String> WORDS = List.of("cut", "the", "board", "to", "length", "and",
+      "sand", "edges", "drill", "pilot", "holes", "for", "screws", "apply", "wood", "glue", "clamp",
+      "overnight", "measure", "twice", "mark", "with", "a", "pencil", "attach", "hinges", "door",
+      "frame", "level", "check", "square", "corners", "stain", "finish", "coat", "let", "dry",
+      "hours", "inch", "deck", "joist", "post", "concrete", "mix", "pour", "into", "form", "then",
+      "remove", "excess", "before", "it", "sets", "fasten", "brackets", "using", "lag", "bolts");
+
+  private TextCompressionCheck() {
+  }
+
+  /**
+   * Run the check.
+   *
+   * @throws Exception If the check fails.
+   */
+  static void run() throws Exception {
+    Random random = new Random(49);
+
+    for (int size : SIZES) {
+      measure(size, random);
+    }
+
+    try {
+      Checks.requireDatabase();
+      reportTables();
+    } catch (Checks.SkippedException e) {
+      System.out.println("table sizes not reported: " + e.getMessage());
+    }
+  }
+
+  /**
+   * Compress and inflate descriptions of one size, check they round-trip and report the ratio and
+   * the time per value. The streams are reused, as InnoDB and the connector reuse theirs. The first
+   * pass warms up and is not counted.
+   *
+   * @param size The size of the descriptions in bytes.
+   * @param random The source of randomness.
+   * @throws DataFormatException If a value does not inflate.
+   */
+  private static void measure(int size, Random random) throws DataFormatException {
+    byte[][] values = new byte[VALUES][];
+
+    for (int index = 0; index < VALUES; index++) {
+      values[index] = description(size, random).getBytes(StandardCharsets.UTF_8);
+    }
+
+    long before = 0;
+    long after = 0;
+    long compressNanos = 0;
+    long inflateNanos = 0;
+    byte[] buffer = new byte[size * 2 + 64];
+    byte[] inflated = new byte[size];
+    Deflater deflater = new Deflater(LEVEL);
+    Inflater inflater = new Inflater();
+
+    for (int pass = 0; pass < 2; pass++) {
+      for (byte[] value : values) {
+        long start = System.nanoTime();
+        deflater.reset();
+        deflater.setInput(value);
+        deflater.finish();
+        int length = deflater.deflate(buffer);
+        long compressed = System.nanoTime();
+
+        inflater.reset();
+        inflater.setInput(buffer, 0, length);
+        int count = inflater.inflate(inflated);
+        long end = System.nanoTime();
+
+        Checks.expect(count == value.length
+            && Arrays.equals(inflated, 0, count, value, 0, value.length), "a lossless round trip");
+
+        if (pass > 0) {
+          before += value.length;
+          after += length;
+          compressNanos += compressed - start;
+          inflateNanos += end - compressed;
+        }
+      }
+    }
+
+    deflater.end();
+    inflater.end();
+
+    double megabytesPerSecond = before / 1e6 / (compressNanos / 1e9);
+    System.out.printf("%,6d-byte descriptions: %5.1f%% of the size, compress %6.1f us, "
+        + "inflate %5.1f us, %6.1f MB/s compressing%n", size, 100.0 * after / before,
+        compressNanos / 1e3 / VALUES, inflateNanos / 1e3 / VALUES, megabytesPerSecond);
+  }
+
+  /**
+   * Generate a description of build instructions.
+   *
+   * @param size The size in bytes.
+   * @param random The source of randomness.
+   * @return The description.
+   */
+  private static String description(int size, Random random) {
+    StringBuilder text = new StringBuilder(size + 16);
+
+    while (text.length() < size) {
+      text.append(WORDS.get(random.nextInt(WORDS.size())));
+      text.append(random.nextInt(12) == 0 ? ". " : " ");
+    }
+
+    return text.substring(0, size);
+  }
+
+  /**
+   * Report the row format and the size on disk of the text tables of the first shard.
+   *
+   * @throws Exception If an error occurs.
+   */
+  private static void reportTables() throws Exception {
+    String sql = "SELECT table_name, row_format, data_length, table_rows "
+        + "FROM information_schema.tables "
+        + "WHERE table_schema = DATABASE() AND table_name IN ('project', 'step')";
+
+    try (Connection conn = DbConnection.getConnection(0);
+        PreparedStatement stmt = conn.prepareStatement(sql);
+        ResultSet rs = stmt.executeQuery()) {
+      while (rs.next()) {
+        System.out.printf("table %-8s %-10s %,14d bytes, about %,d rows (compressText=%b)%n",
+            rs.getString("table_name"), rs.getString("row_format"), rs.getLong("data_length"),
+            rs.getLong("table_rows"), CompressedText.isEnabled());
+      }
+    }
+  }
+}
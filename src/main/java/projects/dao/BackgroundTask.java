@@ -0,0 +1,68 @@
+package projects.dao;
+
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs a maintenance task repeatedly on its own daemon thread, with a fixed delay between runs.
+ * A failed run is reported, whatever it threw, and the next run goes ahead as scheduled.
+ *
+ * @author Ari
+ * @since 2026-10-19
+ */
+public class BackgroundTask {
+  private final String name;
+  private final Runnable task;
+
+  private ScheduledExecutorService scheduler;
+
+  /**
+   * Create a background task.
+   *
+   * @param name The name of the task, also used for its thread.
+   * @param task The task to run.
+   */
+  public BackgroundTask(String name, Runnable task) {
+    this.name = name;
+    this.task = task;
+  }
+
+  /**
+   * Start running the task. Does nothing if the task is already running.
+   *
+   * @param delay The delay before the first run and between two runs.
+   * @param unit The unit of the delay.
+   */
+  public synchronized void start(long delay, TimeUnit unit) {
+    if (Objects.nonNull(scheduler)) {
+      return;
+    }
+
+    scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, name);
+      thread.setDaemon(true);
+      return thread;
+    });
+
+    scheduler.scheduleWithFixedDelay(() -> {
+      try {
+        task.run();
+      } catch (RuntimeException e) {
+        // A DbException or a bug alike; escaping here would silently cancel every later run.
+        System.out.println("Background task " + name + " failed: " + e);
+      }
+    }, delay, delay, unit);
+  }
+
+  /**
+   * Stop running the task. A run in progress is allowed to finish.
+   */
+  public synchronized void stop() {
+    if (Objects.nonNull(scheduler)) {
+      scheduler.shutdown();
+      scheduler = null;
+    }
+  }
+}
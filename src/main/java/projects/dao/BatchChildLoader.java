@@ -0,0 +1,140 @@
+package projects.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import projects.entity.Category;
+import projects.entity.Material;
+import projects.entity.ProjectChildLoader;
+import projects.entity.Step;
+import projects.exception.DbException;
+import provided.util.DaoBase;
+
+/**
+ * Lazily loads the child collections of a group of projects that were fetched together. The first
+ * access to a collection of any project in the group loads that collection for the whole group
+ * with one query, so iterating over the group costs one query per collection rather than one per
+ * project.
+ *
+ * @author Ari
+ * @since 2026-10-19
+ */
+class BatchChildLoader extends DaoBase implements ProjectChildLoader {
+
+  /* Upper bound on the number of IDs bound into a single IN list. */
+  private static final int MAX_IDS_PER_QUERY = 500;
+
+  private final int shard;
+  private final List<Integer> projectIds;
+
+  private Map<Integer, List<Category>> categories;
+  private Map<Integer, List<Material>> materials;
+  private Map<Integer, List<Step>> steps;
+
+  /**
+   * Create a loader for a group of projects.
+   *
+   * @param shard The shard holding the projects.
+   * @param projectIds The IDs of the projects loaded together.
+   */
+  BatchChildLoader(int shard, Collection<Integer> projectIds) {
+    this.shard = shard;
+    this.projectIds = new ArrayList<>(projectIds);
+  }
+
+  @Override
+  public synchronized List<Category> loadCategories(Integer projectId) {
+    if (Objects.isNull(categories)) {
+      // @formatter:off
+      String sql = ""
+          + "SELECT pc.project_id, c.* FROM " + ProjectDao.CATEGORY_TABLE + " c "
+          + "JOIN " + ProjectDao.PROJECT_CATEGORY_TABLE + " pc "
+          + "USING (category_id) "
+          + "WHERE pc.project_id IN (%s)";
+      // @formatter:on
+
+      categories = loadGroup(sql, Rows::category);
+    }
+
+    return categories.getOrDefault(projectId, Collections.emptyList());
+  }
+
+  @Override
+  public synchronized List<Material> loadMaterials(Integer projectId) {
+    if (Objects.isNull(materials)) {
+      // @formatter:off
+      String sql = ""
+          + "SELECT " + ProjectDao.MATERIAL_COLUMNS + " FROM " + ProjectDao.MATERIAL_TABLE + " "
+          + "WHERE project_id IN (%s) "
+          + "ORDER BY material_id";
+      // @formatter:on
+
+      materials = loadGroup(sql, Rows::material);
+    }
+
+    return materials.getOrDefault(projectId, Collections.emptyList());
+  }
+
+  @Override
+  public synchronized List<Step> loadSteps(Integer projectId) {
+    if (Objects.isNull(steps)) {
+      // @formatter:off
+      String sql = ""
+          + "SELECT " + ProjectDao.STEP_COLUMNS + " FROM " + ProjectDao.STEP_TABLE + " "
+          + "WHERE project_id IN (%s) "
+          + "ORDER BY step_number";
+      // @formatter:on
+
+      steps = loadGroup(sql, Rows::step);
+    }
+
+    return steps.getOrDefault(projectId, Collections.emptyList());
+  }
+
+  /**
+   * Load one child collection for every project in the group, grouped by project ID.
+   *
+   * @param <T> The type of the child rows.
+   * @param sql The query, with a %s placeholder for the IN list.
+   * @param mapper Reads a child row.
+   * @return The child rows grouped by project ID.
+   * @throws DbException If an error occurs.
+   */
+  private <T> Map<Integer, List<T>> loadGroup(String sql, Rows.RowMapper<T> mapper) {
+    Map<Integer, List<T>> rows = new HashMap<>();
+
+    try (Connection conn = DbConnection.getReadConnection(shard, projectIds)) {
+      for (int from = 0; from < projectIds.size(); from += MAX_IDS_PER_QUERY) {
+        List<Integer> ids =
+            projectIds.subList(from, Math.min(from + MAX_IDS_PER_QUERY, projectIds.size()));
+        String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+
+        try (PreparedStatement stmt = conn.prepareStatement(String.format(sql, placeholders))) {
+          for (int index = 0; index < ids.size(); index++) {
+            setParameter(stmt, index + 1, ids.get(index), Integer.class);
+          }
+
+          try (ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+              rows.computeIfAbsent(rs.getInt("project_id"), id -> new LinkedList<>())
+                  .add(mapper.map(rs));
+            }
+          }
+        }
+      }
+
+      return rows;
+    } catch (SQLException sqle) {
+      throw new DbException(sqle);
+    }
+  }
+}
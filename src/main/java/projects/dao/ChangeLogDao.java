@@ -0,0 +1,307 @@
+package projects.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import projects.entity.ProjectChange;
+import projects.entity.ProjectChange.ChangeType;
+import projects.entity.ProjectChanges;
+import projects.exception.DbException;
+import provided.util.DaoBase;
+
+/**
+ * ChangeLogDao class of the database test application. Every DAO write to a project graph appends
+ * a row to the project_change table in the same transaction, so readers can follow the changes in
+ * order from a watermark instead of re-reading every project. Each shard has its own log, followed
+ * with its own watermark.
+ *
+ * @author Ari
+ * @since 2026-10-19
+ */
+public class ChangeLogDao extends DaoBase {
+
+  static final String PROJECT_CHANGE_TABLE = "project_change";
+
+  /*
+   * A change committed behind a gap is held back until the gap is filled, or until no transaction
+   * that could fill it is still open. Where the open transactions cannot be seen, the gap is given
+   * up once the change behind it is this old: longer than a DAO transaction can wait on a lock.
+   */
+  private static final int GAP_TIMEOUT_SECONDS = 60;
+
+  /* The changes kept in the log, for readers that stopped following it for a while. */
+  private static final int RETENTION_DAYS = 7;
+  private static final int PRUNE_BATCH_SIZE = 1000;
+
+  /* MySQL error: the user lacks the PROCESS privilege needed to see the open transactions. */
+  private static final int ACCESS_DENIED = 1227;
+
+  private volatile boolean openTransactionsVisible = true;
+
+  /**
+   * Append a change to the log within the current transaction.
+   *
+   * @param conn The connection to the database.
+   * @param projectId The ID of the project changed.
+   * @param changeType The kind of change.
+   * @throws SQLException If an error occurs.
+   */
+  void appendChange(Connection conn, Integer projectId, ChangeType changeType)
+      throws SQLException {
+    // @formatter:off
+    String sql = ""
+        + "INSERT INTO " + PROJECT_CHANGE_TABLE + " "
+        + "(project_id, change_type) "
+        + "VALUES "
+        + "(?, ?)";
+    // @formatter:on
+
+    try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+      setParameter(stmt, 1, projectId, Integer.class);
+      setParameter(stmt, 2, changeType.name(), String.class);
+      stmt.executeUpdate();
+    }
+  }
+
+  /**
+   * Fetch the watermark of the end of the log of a shard, for readers only interested in later
+   * changes. Changes still held back behind a gap come after it.
+   *
+   * @param shard The shard number.
+   * @return The watermark, or 0 if the log is empty.
+   * @throws DbException If an error occurs.
+   */
+  public long fetchLatestWatermark(int shard) {
+    // @formatter:off
+    String sql = ""
+        + "SELECT change_id FROM " + PROJECT_CHANGE_TABLE + " "
+        + "WHERE changed_at < NOW(3) - INTERVAL " + GAP_TIMEOUT_SECONDS + " SECOND "
+        + "ORDER BY change_id DESC "
+        + "LIMIT 1";
+    // @formatter:on
+
+    long watermark;
+
+    try (Connection conn = DbConnection.getConnection(shard)) {
+      try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (ResultSet rs = stmt.executeQuery()) {
+          watermark = rs.next() ? rs.getLong("change_id") : 0;
+        }
+      }
+    } catch (SQLException sqle) {
+      throw new DbException(sqle);
+    }
+
+    // Every gap before a change that old is settled; walk the recent changes up to the first gap.
+    long previous;
+
+    do {
+      previous = watermark;
+      watermark = fetchChangesSince(shard, previous, PRUNE_BATCH_SIZE).getWatermark();
+    } while (watermark != previous);
+
+    return watermark;
+  }
+
+  /**
+   * Fetch the oldest watermark the log of a shard still holds every later change for. A reader
+   * whose watermark is older may have missed pruned changes and must start over.
+   *
+   * @param shard The shard number.
+   * @return The watermark.
+   * @throws DbException If an error occurs.
+   */
+  public long fetchOldestWatermark(int shard) {
+    // @formatter:off
+    String sql = ""
+        + "SELECT MIN(change_id) AS change_id FROM " + PROJECT_CHANGE_TABLE;
+    // @formatter:on
+
+    try (Connection conn = DbConnection.getConnection(shard)) {
+      try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (ResultSet rs = stmt.executeQuery()) {
+          rs.next();
+          long oldest = rs.getLong("change_id");
+
+          // Pruning always leaves the latest change, so an empty log has never been pruned.
+          return rs.wasNull() ? 0 : Math.max(0, oldest - DbConnection.getShardCount());
+        }
+      }
+    } catch (SQLException sqle) {
+      throw new DbException(sqle);
+    }
+  }
+
+  /**
+   * Delete the changes older than the retention period from the log of every shard, in batches.
+   * The latest change of a shard is kept, so {@link #fetchOldestWatermark(int)} can tell a pruned
+   * log from an empty one.
+   *
+   * @return The number of changes deleted.
+   * @throws DbException If an error occurs.
+   */
+  public int pruneChanges() {
+    int pruned = 0;
+
+    for (int shard = 0; shard < DbConnection.getShardCount(); shard++) {
+      pruned += pruneChanges(shard);
+    }
+
+    return pruned;
+  }
+
+  /**
+   * Delete the changes older than the retention period from the log of one shard.
+   *
+   * @param shard The shard number.
+   * @return The number of changes deleted.
+   * @throws DbException If an error occurs.
+   */
+  private int pruneChanges(int shard) {
+    // @formatter:off
+    String latestSql = ""
+        + "SELECT MAX(change_id) AS change_id FROM " + PROJECT_CHANGE_TABLE;
+    String deleteSql = ""
+        + "DELETE FROM " + PROJECT_CHANGE_TABLE + " "
+        + "WHERE changed_at < NOW(3) - INTERVAL " + RETENTION_DAYS + " DAY AND change_id < ? "
+        + "ORDER BY change_id "
+        + "LIMIT " + PRUNE_BATCH_SIZE;
+    // @formatter:on
+
+    try (Connection conn = DbConnection.getConnection(shard)) {
+      long latest;
+
+      try (PreparedStatement stmt = conn.prepareStatement(latestSql);
+          ResultSet rs = stmt.executeQuery()) {
+        rs.next();
+        latest = rs.getLong("change_id");
+      }
+
+      int pruned = 0;
+      int deleted;
+
+      // Autocommit: each batch commits on its own, so the log is never locked for long.
+      try (PreparedStatement stmt = conn.prepareStatement(deleteSql)) {
+        stmt.setLong(1, latest);
+
+        do {
+          deleted = stmt.executeUpdate();
+          pruned += deleted;
+        } while (deleted == PRUNE_BATCH_SIZE);
+      }
+
+      return pruned;
+    } catch (SQLException sqle) {
+      throw new DbException(sqle);
+    }
+  }
+
+  /**
+   * Fetch the changes made on a shard after a watermark. Several changes to the same project
+   * within the page are collapsed into the latest one.
+   *
+   * <p>Change IDs are allocated at insert but become visible at commit, so a change can commit
+   * behind one with a higher ID that is already visible. The page therefore ends at the first gap
+   * in the IDs, and the watermark stays before it, until the gap is filled or settled: the write
+   * that left it rolled back, or it is older than any write still open could be. A change is never
+   * skipped for committing late, only for being given up after the gap timeout.
+   *
+   * @param shard The shard number.
+   * @param watermark The watermark returned by the previous call, or 0 to start from the beginning.
+   * @param limit The maximum number of log rows read.
+   * @return The changes and the watermark for the next call.
+   * @throws DbException If an error occurs.
+   */
+  public ProjectChanges fetchChangesSince(int shard, long watermark, int limit) {
+    try {
+      return fetchChangesSince(shard, watermark, limit, openTransactionsVisible);
+    } catch (DbException e) {
+      if (!openTransactionsVisible || !(e.getCause() instanceof SQLException)
+          || ((SQLException) e.getCause()).getErrorCode() != ACCESS_DENIED) {
+        throw e;
+      }
+
+      System.out.println("Change log gaps will wait " + GAP_TIMEOUT_SECONDS + " s: the open "
+          + "transactions cannot be seen without the PROCESS privilege.");
+      openTransactionsVisible = false;
+      return fetchChangesSince(shard, watermark, limit, false);
+    }
+  }
+
+  /**
+   * Fetch the changes made on a shard after a watermark, up to the first gap not settled yet.
+   *
+   * @param shard The shard number.
+   * @param watermark The watermark returned by the previous call, or 0 to start from the beginning.
+   * @param limit The maximum number of log rows read.
+   * @param checkOpenTransactions True to settle a gap as soon as no transaction that could fill it
+   *     is open, false to settle it only after the gap timeout.
+   * @return The changes and the watermark for the next call.
+   * @throws DbException If an error occurs.
+   */
+  private ProjectChanges fetchChangesSince(int shard, long watermark, int limit,
+      boolean checkOpenTransactions) {
+    // A write filling a gap allocated its ID before the change behind the gap was inserted, so
+    // its transaction started no later. InnoDB reports start times truncated to the second, which
+    // only makes the check stricter.
+    // @formatter:off
+    String settledSql = checkOpenTransactions
+        ? "(t.oldest IS NULL OR c.changed_at < t.oldest "
+            + "OR c.changed_at < NOW(3) - INTERVAL " + GAP_TIMEOUT_SECONDS + " SECOND) "
+        : "(c.changed_at < NOW(3) - INTERVAL " + GAP_TIMEOUT_SECONDS + " SECOND) ";
+    String sql = ""
+        + "SELECT c.change_id, c.project_id, c.change_type, " + settledSql + "AS settled "
+        + "FROM " + PROJECT_CHANGE_TABLE + " c "
+        + (checkOpenTransactions
+            ? "CROSS JOIN (SELECT MIN(trx_started) AS oldest "
+                + "FROM information_schema.innodb_trx) t "
+            : "")
+        + "WHERE c.change_id > ? "
+        + "ORDER BY c.change_id "
+        + "LIMIT ?";
+    // @formatter:on
+
+    // The IDs of a shard are allocated in steps of the number of shards.
+    long step = DbConnection.getShardCount();
+
+    try (Connection conn = DbConnection.getConnection(shard)) {
+      try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+        stmt.setLong(1, watermark);
+        setParameter(stmt, 2, limit, Integer.class);
+
+        try (ResultSet rs = stmt.executeQuery()) {
+          Map<Integer, ProjectChange> latest = new LinkedHashMap<>();
+          long next = watermark;
+
+          while (rs.next()) {
+            long changeId = rs.getLong("change_id");
+
+            if (changeId - next > step && !rs.getBoolean("settled")) {
+              break;
+            }
+
+            ProjectChange change = new ProjectChange();
+            change.setChangeId(changeId);
+            change.setProjectId(rs.getInt("project_id"));
+            change.setChangeType(ChangeType.valueOf(rs.getString("change_type")));
+
+            // Re-insert so the project moves to the position of its latest change.
+            latest.remove(change.getProjectId());
+            latest.put(change.getProjectId(), change);
+            next = changeId;
+          }
+
+          ProjectChanges changes = new ProjectChanges();
+          changes.getChanges().addAll(latest.values());
+          changes.setWatermark(next);
+          return changes;
+        }
+      }
+    } catch (SQLException sqle) {
+      throw new DbException(sqle);
+    }
+  }
+}
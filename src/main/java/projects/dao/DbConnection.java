@@ -1,12 +1,48 @@
 package projects.dao;
 
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
 import java.sql.Connection;
-import java.sql.DriverManager;
+import java.sql.Driver;
+import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import projects.entity.CompressedText;
 import projects.exception.DbException;
 
 /**
  * DbConnection class of the database test application.
+ *
+ * <p>Projects may be sharded by project ID across several schemas, on one server or several. Shard
+ * k allocates every ID (projects, children and change log alike) from the sequence k + 1, k + 1 +
+ * N, k + 1 + 2N... where N is the number of shards, so the shard of any row is found from its ID
+ * alone with {@link #shardOf(Integer)}. Shards are listed as host:port/schema entries, separated by
+ * commas, in the projects.shards system property; by default there is a single shard.</p>
+ *
+ * <p>Writes go to the primary of a shard. Reads that can tolerate a little replication lag may go
+ * to a replica instead, picked round-robin among the replicas of the shard that are currently
+ * caught up; with no such replica they go to the primary as well. Replicas are added with
+ * {@link #addReplica(int, String, int)} or, for the first shard, listed as host:port pairs in the
+ * projects.replicas system property.</p>
+ *
+ * <p>So that a caller reads its own writes even when the replicas lag behind, reads go to the
+ * primary for a few seconds after a write in two ways, neither tied to a thread. Reads of a project
+ * written through this process, by any thread, are pinned by project ID; see
+ * {@link #pinProject(Integer)}. Other reads are pinned by the {@link Pin} of the work the calling
+ * thread is doing, which work handed to other threads carries along; see
+ * {@link #carryPin(Executor)}.</p>
  */
 public class DbConnection {
 
@@ -17,22 +53,384 @@ public class DbConnection {
   private static String SCHEMA = "projects";
   private static String USER = "projects";
 
+  /* SHARD AND REPLICA ROUTING */
+  private static final String SHARDS_PROPERTY = "projects.shards";
+  private static final String REPLICAS_PROPERTY = "projects.replicas";
+  private static final long MAX_REPLICA_LAG_SECONDS = 1;
+  private static final long LAG_CHECK_MILLIS = 1000;
+  private static final long PRIMARY_PIN_MILLIS = 5000;
+  private static final int PINNED_PROJECTS_PRUNE_SIZE = 10_000;
+
+  private static final List<Shard> SHARDS = new ArrayList<>();
+  private static final AtomicInteger NEXT_SHARD = new AtomicInteger();
+
+  /* Until when the reads of each recently written project stay on the primary, by project ID. */
+  private static final Map<Integer, Long> PINNED_PROJECTS = new ConcurrentHashMap<>();
+
+  /* The pin of the work the calling thread is doing; a thread doing none has one of its own. */
+  private static final ThreadLocal<Pin> PIN = ThreadLocal.withInitial(Pin::new);
+
+  /* True while the reads of a thread must see every committed write, whatever the replicas. */
+  private static final ThreadLocal<Boolean> PRIMARY_READS = ThreadLocal.withInitial(() -> false);
+
+  /* The connections reused by the calling thread, by shard, while it holds a session. */
+  private static final ThreadLocal<Session> SESSION = new ThreadLocal<>();
+
+  static {
+    String shards = System.getProperty(SHARDS_PROPERTY, "");
+
+    for (String shard : shards.split(",")) {
+      if (!shard.isBlank()) {
+        String[] hostPortAndSchema = shard.trim().split("[:/]");
+        SHARDS.add(new Shard(hostPortAndSchema[0], Integer.parseInt(hostPortAndSchema[1]),
+            hostPortAndSchema[2]));
+      }
+    }
+
+    if (SHARDS.isEmpty()) {
+      SHARDS.add(new Shard(HOST, PORT, SCHEMA));
+    }
+
+    String replicas = System.getProperty(REPLICAS_PROPERTY, "");
+
+    for (String replica : replicas.split(",")) {
+      if (!replica.isBlank()) {
+        String[] hostAndPort = replica.trim().split(":");
+        addReplica(0, hostAndPort[0], Integer.parseInt(hostAndPort[1]));
+      }
+    }
+  }
+
   /**
-   * Establish a connection with the database.
+   * Establish a connection with the primary database of the first shard.
    *
    * @return the {@link java.sql.Connection Connection} object.
    * @throws DbException If an error occurs.
    */
   public static Connection getConnection() {
-    String uri = String.format("jdbc:mysql://%s:%d/%s?user=%s&password=%s",
-        HOST, PORT, SCHEMA, USER, PASSWORD);
+    return getConnection(0);
+  }
+
+  /**
+   * Establish a connection with the primary database of a shard. The reads made under the pin of
+   * the calling thread go to the primary for a few seconds afterwards.
+   *
+   * @param shard The shard number.
+   * @return the {@link java.sql.Connection Connection} object.
+   * @throws DbException If an error occurs.
+   */
+  public static Connection getConnection(int shard) {
+    if (Objects.nonNull(SESSION.get())) {
+      return SESSION.get().connection(shard);
+    }
+
+    PIN.get().pin();
+    Connection conn = SHARDS.get(shard).connect();
+
+    if (SHARDS.size() > 1) {
+      allocateIdsFor(conn, shard);
+    }
+
+    return conn;
+  }
+
+  /**
+   * Establish a connection for reads from the first shard.
+   *
+   * @return the {@link java.sql.Connection Connection} object.
+   * @throws DbException If an error occurs.
+   */
+  public static Connection getReadConnection() {
+    return getReadConnection(0);
+  }
+
+  /**
+   * Establish a connection for reads from a shard: to a caught-up replica if there is one and the
+   * pin of the calling thread has not used a primary recently, otherwise to the primary.
+   *
+   * @param shard The shard number.
+   * @return the {@link java.sql.Connection Connection} object.
+   * @throws DbException If an error occurs.
+   */
+  public static Connection getReadConnection(int shard) {
+    return getReadConnection(shard, List.of());
+  }
+
+  /**
+   * Establish a connection for reads of projects of a shard: as
+   * {@link #getReadConnection(int)}, but to the primary as well if any of the projects was written
+   * recently through this process.
+   *
+   * @param shard The shard number.
+   * @param projectIds The IDs of the projects read.
+   * @return the {@link java.sql.Connection Connection} object.
+   * @throws DbException If an error occurs.
+   */
+  public static Connection getReadConnection(int shard, Collection<Integer> projectIds) {
+    if (Objects.nonNull(SESSION.get())) {
+      return SESSION.get().connection(shard);
+    }
+
+    Shard target = SHARDS.get(shard);
+
+    if (target.replicas.isEmpty() || readsFromPrimary(projectIds)) {
+      return target.connect();
+    }
+
+    int start = Math.floorMod(target.nextReplica.getAndIncrement(), target.replicas.size());
+
+    for (int i = 0; i < target.replicas.size(); i++) {
+      Replica replica = target.replicas.get((start + i) % target.replicas.size());
+      Connection conn = replica.connectIfCaughtUp();
+
+      if (Objects.nonNull(conn)) {
+        return conn;
+      }
+    }
+
+    // No replica is caught up: fall back to the primary.
+    return target.connect();
+  }
+
+  /**
+   * Run reads that must not see replication lag, such as those filling a cache: read connections
+   * opened by the calling thread meanwhile go to the primary.
+   *
+   * @param <T> The type of the result.
+   * @param reads The reads.
+   * @return The result of the reads.
+   */
+  public static <T> T readFromPrimary(Supplier<T> reads) {
+    boolean previous = PRIMARY_READS.get();
+    PRIMARY_READS.set(true);
+
+    try {
+      return reads.get();
+    } finally {
+      PRIMARY_READS.set(previous);
+    }
+  }
+
+  /**
+   * Tell whether reads of projects made now by the calling thread must go to the primary, replicas
+   * or not: inside {@link #readFromPrimary(Supplier)}, under a pin used by a recent write, or when
+   * any of the projects was written recently.
+   *
+   * @param projectIds The IDs of the projects read, or none for other reads.
+   * @return True if the reads must go to the primary.
+   */
+  public static boolean readsFromPrimary(Collection<Integer> projectIds) {
+    long now = System.currentTimeMillis();
+
+    return PRIMARY_READS.get() || PIN.get().isPinned() || projectIds.stream()
+        .anyMatch(projectId -> now < PINNED_PROJECTS.getOrDefault(projectId, 0L));
+  }
+
+  /**
+   * Send the reads of a project to the primary for a few seconds, whichever thread makes them. Call
+   * after committing a write to the project.
+   *
+   * @param projectId The project ID.
+   */
+  public static void pinProject(Integer projectId) {
+    long now = System.currentTimeMillis();
+    PINNED_PROJECTS.put(projectId, now + PRIMARY_PIN_MILLIS);
+
+    if (PINNED_PROJECTS.size() > PINNED_PROJECTS_PRUNE_SIZE) {
+      PINNED_PROJECTS.values().removeIf(until -> until <= now);
+    }
+  }
+
+  /**
+   * @return The pin of the work the calling thread is doing.
+   */
+  public static Pin currentPin() {
+    return PIN.get();
+  }
+
+  /**
+   * Run a task under a pin: writes made meanwhile by the calling thread pin it, and its reads are
+   * routed by it.
+   *
+   * @param pin The pin.
+   * @param task The task.
+   */
+  public static void withPin(Pin pin, Runnable task) {
+    Pin previous = PIN.get();
+    PIN.set(pin);
+
+    try {
+      task.run();
+    } finally {
+      PIN.set(previous);
+    }
+  }
+
+  /**
+   * Wrap an executor so the tasks it runs carry the pin of the thread submitting them: a read in a
+   * task sees the writes made before by the work that submitted it, and the other way around.
+   *
+   * @param executor The executor.
+   * @return The wrapped executor.
+   */
+  public static Executor carryPin(Executor executor) {
+    return task -> {
+      Pin pin = PIN.get();
+      executor.execute(() -> withPin(pin, task));
+    };
+  }
+
+  /**
+   * Establish a connection with the primary database of a shard for reading long results through
+   * a server-side cursor: statements given a fetch size read that many rows per round trip rather
+   * than the whole result at once. The connection does not pin the reads of the calling thread.
+   *
+   * @param shard The shard number.
+   * @return the {@link java.sql.Connection Connection} object.
+   * @throws DbException If an error occurs.
+   */
+  public static Connection getCursorConnection(int shard) {
+    Shard target = SHARDS.get(shard);
+    return connect(target.host, target.port, target.schema, "&useCursorFetch=true");
+  }
+
+  /**
+   * Open a session on the calling thread: until the session is closed, every connection the thread
+   * asks for, to read or to write, is the same connection to the primary of the shard, opened on
+   * first use. Closing a connection of the session only ends its open transaction, if any. Suits a
+   * thread running many short operations in a row, which would otherwise connect for each.
+   *
+   * @return The session, to close when done.
+   * @throws IllegalStateException If the thread already holds a session.
+   */
+  public static Session openSession() {
+    if (Objects.nonNull(SESSION.get())) {
+      throw new IllegalStateException("The thread already holds a database session.");
+    }
+
+    Session session = new Session();
+    SESSION.set(session);
+    return session;
+  }
+
+  /**
+   * @return The number of shards.
+   */
+  public static int getShardCount() {
+    return SHARDS.size();
+  }
+
+  /**
+   * Tell whether an ID can name a row at all. The sequences of every shard start at 1, so callers
+   * answer "not found" for any other ID without asking a shard.
+   *
+   * @param id The ID, or null.
+   * @return True if the ID is positive.
+   */
+  public static boolean isRowId(Integer id) {
+    return Objects.nonNull(id) && id > 0;
+  }
+
+  /**
+   * Get the shard holding a row. An ID that is not positive names no row (see
+   * {@link #isRowId(Integer)}) but still maps to a valid shard.
+   *
+   * @param id The ID of a project, or of any row allocated by a shard.
+   * @return The shard number.
+   */
+  public static int shardOf(Integer id) {
+    return Math.floorMod(id - 1, SHARDS.size());
+  }
+
+  /**
+   * Pick the shard of a new project, round-robin.
+   *
+   * @return The shard number.
+   */
+  public static int nextShard() {
+    return Math.floorMod(NEXT_SHARD.getAndIncrement(), SHARDS.size());
+  }
+
+  /**
+   * Add a replica of the first shard to route reads to.
+   *
+   * @param host The host of the replica.
+   * @param port The port of the replica.
+   */
+  public static void addReplica(String host, int port) {
+    addReplica(0, host, port);
+  }
+
+  /**
+   * Add a replica of a shard to route reads to.
+   *
+   * @param shard The shard number.
+   * @param host The host of the replica.
+   * @param port The port of the replica.
+   */
+  public static void addReplica(int shard, String host, int port) {
+    Shard target = SHARDS.get(shard);
+    target.replicas.add(new Replica(host, port, target.schema));
+  }
+
+  /**
+   * Stop routing reads to replicas.
+   */
+  public static void clearReplicas() {
+    SHARDS.forEach(shard -> shard.replicas.clear());
+  }
+
+  /**
+   * Make the inserts of a session allocate IDs from the sequence of a shard.
+   *
+   * @param conn The connection to the primary of the shard.
+   * @param shard The shard number.
+   * @throws DbException If an error occurs.
+   */
+  private static void allocateIdsFor(Connection conn, int shard) {
+    String sql = String.format("SET SESSION auto_increment_increment = %d, "
+        + "auto_increment_offset = %d", SHARDS.size(), shard + 1);
+
+    try (Statement stmt = conn.createStatement()) {
+      stmt.execute(sql);
+    } catch (SQLException sqle) {
+      Replica.close(conn);
+      throw new DbException("Unable to set up ID allocation for shard " + shard + ".", sqle);
+    }
+  }
+
+  /**
+   * Establish a connection with a database server.
+   *
+   * @param host The host of the server.
+   * @param port The port of the server.
+   * @param schema The schema.
+   * @return the {@link java.sql.Connection Connection} object.
+   * @throws DbException If an error occurs.
+   */
+  private static Connection connect(String host, int port, String schema) {
+    return connect(host, port, schema, "");
+  }
+
+  /**
+   * Establish a connection with a database server.
+   *
+   * @param host The host of the server.
+   * @param port The port of the server.
+   * @param schema The schema.
+   * @param options Further connection properties, each starting with an ampersand.
+   * @return the {@link java.sql.Connection Connection} object.
+   * @throws DbException If an error occurs.
+   */
+  private static Connection connect(String host, int port, String schema, String options) {
+    String uri = String.format("jdbc:mysql://%s:%d/%s?user=%s&password=%s%s%s",
+        host, port, schema, USER, PASSWORD, options,
+        CompressedText.isEnabled() ? "&useCompression=true" : "");
 
     // Try to connect to the database.
     try {
-      Connection connection = DriverManager.getConnection(uri);
-      System.out.println("Connected to database: " + SCHEMA + ".");
-      // Success: Return
-      return connection;
+      // Success: Return. Connections are also opened by background tasks, so stay quiet here.
+      return MySqlDriver.INSTANCE.connect(uri, new Properties());
     } catch (SQLException sqle) { // Connection threw an exception:
       // Throw DbException with the cause. & a message of failure.
       throw new DbException("Unable to connect to database.", sqle);
@@ -40,4 +438,217 @@ public class DbConnection {
 
   }
 
+  /**
+   * Holds the MySQL driver, created on the first connection rather than when the class loads. The
+   * driver is called directly: {@link java.sql.DriverManager} would first scan the class path for
+   * every JDBC driver through the service loader, which is a good part of the startup time of a
+   * short-lived process.
+   */
+  private static class MySqlDriver {
+    static final Driver INSTANCE = create();
+
+    /**
+     * Create the driver.
+     *
+     * @return The driver.
+     * @throws DbException If the driver cannot be created.
+     */
+    private static Driver create() {
+      try {
+        return new com.mysql.cj.jdbc.Driver();
+      } catch (SQLException sqle) {
+        throw new DbException("Unable to load the MySQL driver.", sqle);
+      }
+    }
+  }
+
+  /**
+   * Until when the reads of a unit of work, such as a request, stay on the primary after its last
+   * write. A pin is shared by the threads working on the same unit of work, each installing it with
+   * {@link DbConnection#withPin(Pin, Runnable)} or {@link DbConnection#carryPin(Executor)}.
+   */
+  public static final class Pin {
+    private volatile long until;
+
+    /**
+     * Keep the reads made under the pin on the primary for a few seconds from now.
+     */
+    public void pin() {
+      until = System.currentTimeMillis() + PRIMARY_PIN_MILLIS;
+    }
+
+    /**
+     * @return True if the reads made under the pin go to the primary.
+     */
+    public boolean isPinned() {
+      return System.currentTimeMillis() < until;
+    }
+  }
+
+  /**
+   * Connections reused by one thread, one per shard.
+   */
+  public static class Session implements AutoCloseable {
+    private final Map<Integer, Connection> connections = new HashMap<>();
+
+    /**
+     * Get the connection of the session to a shard, connecting on first use. The connection
+     * returned ignores close, apart from rolling back a transaction left open.
+     *
+     * @param shard The shard number.
+     * @return The connection.
+     */
+    private Connection connection(int shard) {
+      Connection conn = connections.get(shard);
+
+      if (Objects.isNull(conn)) {
+        conn = SHARDS.get(shard).connect();
+
+        if (SHARDS.size() > 1) {
+          allocateIdsFor(conn, shard);
+        }
+
+        connections.put(shard, conn);
+      }
+
+      Connection reused = conn;
+
+      return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+          new Class<?>[] {Connection.class}, (proxy, method, args) -> {
+            if (method.getName().equals("close")) {
+              if (!reused.getAutoCommit()) {
+                reused.rollback();
+              }
+
+              return null;
+            }
+
+            try {
+              return method.invoke(reused, args);
+            } catch (InvocationTargetException e) {
+              throw e.getCause();
+            }
+          });
+    }
+
+    /**
+     * Close the connections of the session and end it.
+     */
+    @Override
+    public void close() {
+      connections.values().forEach(Replica::close);
+      connections.clear();
+      SESSION.remove();
+    }
+  }
+
+  /**
+   * A shard: the schema of its primary and its replicas.
+   */
+  private static class Shard {
+    private final String host;
+    private final int port;
+    private final String schema;
+    private final List<Replica> replicas = new CopyOnWriteArrayList<>();
+    private final AtomicInteger nextReplica = new AtomicInteger();
+
+    Shard(String host, int port, String schema) {
+      this.host = host;
+      this.port = port;
+      this.schema = schema;
+    }
+
+    Connection connect() {
+      return DbConnection.connect(host, port, schema);
+    }
+  }
+
+  /**
+   * A replica and the result of its last lag check.
+   */
+  private static class Replica {
+    private final String host;
+    private final int port;
+    private final String schema;
+
+    private volatile long checkedAt;
+    private volatile boolean caughtUp;
+
+    Replica(String host, int port, String schema) {
+      this.host = host;
+      this.port = port;
+      this.schema = schema;
+    }
+
+    /**
+     * Connect to the replica unless it is known to lag behind. The lag is checked at most once per
+     * check interval, on the connection about to be returned.
+     *
+     * @return The connection, or null if the replica lags behind or cannot be reached.
+     */
+    Connection connectIfCaughtUp() {
+      long now = System.currentTimeMillis();
+
+      if (now - checkedAt < LAG_CHECK_MILLIS && !caughtUp) {
+        return null;
+      }
+
+      Connection conn = null;
+
+      try {
+        conn = connect(host, port, schema);
+
+        if (now - checkedAt >= LAG_CHECK_MILLIS) {
+          caughtUp = checkLag(conn);
+          checkedAt = now;
+        }
+
+        if (caughtUp) {
+          return conn;
+        }
+      } catch (DbException e) {
+        caughtUp = false;
+        checkedAt = now;
+      }
+
+      close(conn);
+      return null;
+    }
+
+    /**
+     * Check the replication lag. A server that is not replicating is never caught up.
+     *
+     * @param conn The connection to the replica.
+     * @return True if the replica is no more than the maximum lag behind the primary.
+     */
+    private boolean checkLag(Connection conn) {
+      try (Statement stmt = conn.createStatement();
+          ResultSet rs = stmt.executeQuery("SHOW REPLICA STATUS")) {
+        if (!rs.next()) {
+          return false;
+        }
+
+        long lag = rs.getLong("Seconds_Behind_Source");
+        return !rs.wasNull() && lag <= MAX_REPLICA_LAG_SECONDS;
+      } catch (SQLException sqle) {
+        return false;
+      }
+    }
+
+    /**
+     * Close a connection, ignoring errors.
+     *
+     * @param conn The connection, or null.
+     */
+    static void close(Connection conn) {
+      if (Objects.nonNull(conn)) {
+        try {
+          conn.close();
+        } catch (SQLException sqle) {
+          // The connection is discarded either way.
+        }
+      }
+    }
+  }
+
 }
@@ -5,15 +5,38 @@ import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.function.Consumer;
+import projects.analytics.ProjectColumns;
 import projects.entity.Category;
+import projects.entity.CompressedText;
+import projects.entity.Hundredths;
 import projects.entity.Material;
 import projects.entity.Project;
+import projects.entity.ProjectChange;
+import projects.entity.ProjectChange.ChangeType;
+import projects.entity.ProjectCriteria;
+import projects.entity.ProjectMatch;
+import projects.entity.ProjectRollup;
+import projects.entity.ProjectSummary;
 import projects.entity.Step;
 import projects.exception.DbException;
+import projects.store.ProjectOrder;
+import projects.store.ProjectStore;
 import provided.util.DaoBase;
 
 /**
@@ -22,13 +45,95 @@ import provided.util.DaoBase;
  * @author Ari
  * @since 2023-10-30
  */
-public class ProjectDao extends DaoBase {
+public class ProjectDao extends DaoBase implements ProjectStore {
 
-  private static final String CATEGORY_TABLE = "category";
-  private static final String MATERIAL_TABLE = "material";
-  private static final String PROJECT_TABLE = "project";
-  private static final String PROJECT_CATEGORY_TABLE = "project_category";
-  private static final String STEP_TABLE = "step";
+  static final String CATEGORY_TABLE = "category";
+  static final String MATERIAL_TABLE = "material";
+  static final String PROJECT_TABLE = "project";
+  static final String PROJECT_CATEGORY_TABLE = "project_category";
+  static final String PROJECT_ROLLUP_TABLE = "project_rollup";
+  static final String STEP_TABLE = "step";
+
+  /* Rows rewritten per transaction by the text column migration. */
+  private static final int MIGRATION_BATCH_SIZE = 500;
+  private static final int TEXT_KEY_BLOCK_SIZE = 8;
+
+  /* Step columns aliased to the field names of the Step entity. */
+  static final String STEP_COLUMNS =
+      "step_id, project_id, step_number AS step_order, step_description AS step_text";
+
+  /* Hours and costs are read in hundredths, which the driver parses without a BigDecimal. */
+  static final String PROJECT_COLUMNS = "project_id, project_name, "
+      + "CAST(estimated_hours * 100 AS SIGNED) AS estimated_hundredths, "
+      + "CAST(actual_hours * 100 AS SIGNED) AS actual_hundredths, difficulty, notes";
+  static final String MATERIAL_COLUMNS = "material_id, project_id, material_name, num_required, "
+      + "CAST(cost * 100 AS SIGNED) AS cost_hundredths";
+
+  /* Rollups recomputed from the material and step tables, one row per project. */
+  // @formatter:off
+  private static final String EXPECTED_ROLLUP_SQL = ""
+      + "SELECT p.project_id, "
+      + "(SELECT COUNT(*) FROM " + MATERIAL_TABLE + " m "
+      + "WHERE m.project_id = p.project_id) AS material_count, "
+      + "(SELECT COALESCE(SUM(m.num_required * m.cost), 0) FROM " + MATERIAL_TABLE + " m "
+      + "WHERE m.project_id = p.project_id) AS total_material_cost, "
+      + "(SELECT COUNT(*) FROM " + STEP_TABLE + " s "
+      + "WHERE s.project_id = p.project_id) AS step_count "
+      + "FROM " + PROJECT_TABLE + " p";
+  // @formatter:on
+
+  private final ChangeLogDao changeLog = new ChangeLogDao();
+  private final ProjectNameIndex nameIndex = new ProjectNameIndex();
+  private final List<Consumer<Integer>> changeListeners = new CopyOnWriteArrayList<>();
+
+  /**
+   * Register a listener called with the project ID after every committed write to a project graph
+   * made through this DAO.
+   *
+   * @param listener The listener.
+   */
+  @Override
+  public void addChangeListener(Consumer<Integer> listener) {
+    changeListeners.add(listener);
+  }
+
+  /**
+   * Pin the reads of a project to the primary after a committed write, and notify the change
+   * listeners of the write.
+   *
+   * @param projectId The ID of the project changed.
+   */
+  private void fireChange(Integer projectId) {
+    DbConnection.pinProject(projectId);
+    changeListeners.forEach(listener -> listener.accept(projectId));
+  }
+
+  /**
+   * Apply a change made by another application node to the in-memory state of this DAO.
+   *
+   * @param change The change read from the change log.
+   * @throws DbException If an error occurs.
+   */
+  @Override
+  public void applyRemoteChange(ProjectChange change) {
+    if (!nameIndex.isLoaded()) {
+      return;
+    }
+
+    if (change.getChangeType() == ChangeType.DELETE) {
+      nameIndex.remove(change.getProjectId());
+      return;
+    }
+
+    // Re-read the name; the project may have been deleted since the change was logged.
+    Optional<String> projectName = fetchProjectName(change.getProjectId());
+
+    if (projectName.isPresent()) {
+      nameIndex.put(change.getProjectId(), projectName.get());
+    } else {
+      nameIndex.remove(change.getProjectId());
+    }
+  }
 
   /**
    * Insert a project into the database.
@@ -37,6 +142,7 @@ public class ProjectDao extends DaoBase {
    * @return The project inserted.
    * @throws DbException If an error occurs.
    */
+  @Override
   public Project insertProject(Project project) {
     // SQL Statement to insert project values into database.
     // @formatter:off
@@ -44,11 +150,14 @@ public class ProjectDao extends DaoBase {
         + "INSERT INTO " + PROJECT_TABLE + " "
         + "(project_name, estimated_hours, actual_hours, difficulty, notes) "
         + "VALUES "
-        + "(?, ?, ?, ?, ?)";
+        + "(?, ? / 100, ? / 100, ?, ?)";
     // @formatter:on
 
+    // Pick the shard of the project; it allocates the project ID.
+    int shard = DbConnection.nextShard();
+
     // Attempt connection & transaction.
-    try (Connection conn = DbConnection.getConnection()) {
+    try (Connection conn = DbConnection.getConnection(shard)) {
       // Start transaction.
       startTransaction(conn);
 
@@ -56,8 +165,8 @@ public class ProjectDao extends DaoBase {
       try (PreparedStatement stmt = conn.prepareStatement(sql)) {
         // Set project details as parameters.
         setParameter(stmt, 1, project.getProjectName(), String.class);
-        setParameter(stmt, 2, project.getEstimatedHours(), BigDecimal.class);
-        setParameter(stmt, 3, project.getActualHours(), BigDecimal.class);
+        setHundredths(stmt, 2, project.getEstimatedHundredths());
+        setHundredths(stmt, 3, project.getActualHundredths());
         setParameter(stmt, 4, project.getDifficulty(), Integer.class);
         setParameter(stmt, 5, project.getNotes(), String.class);
 
@@ -66,7 +175,10 @@ public class ProjectDao extends DaoBase {
 
         // Grab the ID of the project inserted and commit the transaction.
         Integer projectId = getLastInsertId(conn, PROJECT_TABLE);
+        changeLog.appendChange(conn, projectId, ChangeType.UPSERT);
         commitTransaction(conn);
+        nameIndex.put(projectId, project.getProjectName());
+        fireChange(projectId);
 
         // Set the project's ID and return.
         project.setProjectId(projectId);
@@ -82,19 +194,27 @@ public class ProjectDao extends DaoBase {
   }
 
   /**
-   * Modify a project.
+   * Modify a project. The actual hours are left alone: they change only through the work log and
+   * the fold, so an update made from an older copy of the project cannot lose folded hours.
    */
+  @Override
   public boolean modifyProjectDetails(Project project) {
+    if (!DbConnection.isRowId(project.getProjectId())) {
+      return false;
+    }
+
     // SQL Statement to update project values in database.
     // @formatter:off
     String sql = ""
         + "UPDATE " + PROJECT_TABLE + " "
-        + "SET project_name = ?, estimated_hours = ?, actual_hours = ?, difficulty = ?, notes = ? "
-        + "WHERE project_id = ?";
+        + "SET project_name = ?, estimated_hours = ? / 100, difficulty = ?, notes = ? "
+        + "WHERE project_id = ? AND deleted = FALSE";
     // @formatter:on
 
+    int shard = DbConnection.shardOf(project.getProjectId());
+
     // Attempt connection & transaction.
-    try (Connection conn = DbConnection.getConnection()) {
+    try (Connection conn = DbConnection.getConnection(shard)) {
       // Start transaction.
       startTransaction(conn);
 
@@ -102,18 +222,26 @@ public class ProjectDao extends DaoBase {
       try (PreparedStatement stmt = conn.prepareStatement(sql)) {
         // Set project details as parameters.
         setParameter(stmt, 1, project.getProjectName(), String.class);
-        setParameter(stmt, 2, project.getEstimatedHours(), BigDecimal.class);
-        setParameter(stmt, 3, project.getActualHours(), BigDecimal.class);
-        setParameter(stmt, 4, project.getDifficulty(), Integer.class);
-        setParameter(stmt, 5, project.getNotes(), String.class);
-        setParameter(stmt, 6, project.getProjectId(), Integer.class);
+        setHundredths(stmt, 2, project.getEstimatedHundredths());
+        setParameter(stmt, 3, project.getDifficulty(), Integer.class);
+        setParameter(stmt, 4, project.getNotes(), String.class);
+        setParameter(stmt, 5, project.getProjectId(), Integer.class);
 
         // Execute the statement.
         boolean modified = stmt.executeUpdate() > 0;
 
-        // Commit the transaction.
+        if (modified) {
+          changeLog.appendChange(conn, project.getProjectId(), ChangeType.UPSERT);
+        }
+
+        // Commit the transaction and keep the name index in sync.
         commitTransaction(conn);
 
+        if (modified) {
+          nameIndex.put(project.getProjectId(), project.getProjectName());
+          fireChange(project.getProjectId());
+        }
+
         // Return true if rows were affected.
         return modified;
       } catch (Exception e) {
@@ -127,22 +255,31 @@ public class ProjectDao extends DaoBase {
   }
 
   /**
-   * Delete a project.
+   * Delete a project. The project row is only tombstoned here so the call returns immediately; the
+   * {@link ProjectPurger} removes the children and the row itself in small batches later on.
    */
+  @Override
   public boolean deleteProject(Integer projectId) {
-    // SQL Statement to delete project values from database.
+    if (!DbConnection.isRowId(projectId)) {
+      return false;
+    }
+
+    // SQL Statement to tombstone the project in database.
     // @formatter:off
     String sql = ""
-        + "DELETE FROM " + PROJECT_TABLE + " "
-        + "WHERE project_id = ?";
+        + "UPDATE " + PROJECT_TABLE + " "
+        + "SET deleted = TRUE "
+        + "WHERE project_id = ? AND deleted = FALSE";
     // @formatter:on
 
+    int shard = DbConnection.shardOf(projectId);
+
     // Attempt connection & transaction.
-    try (Connection conn = DbConnection.getConnection()) {
+    try (Connection conn = DbConnection.getConnection(shard)) {
       // Start transaction.
       startTransaction(conn);
 
-      // Attempt to delete project values from database.
+      // Attempt to tombstone the project in database.
       try (PreparedStatement stmt = conn.prepareStatement(sql)) {
         // Set project details as parameters.
         setParameter(stmt, 1, projectId, Integer.class);
@@ -150,9 +287,18 @@ public class ProjectDao extends DaoBase {
         // Execute the statement.
         boolean deleted = stmt.executeUpdate() > 0;
 
-        // Commit the transaction.
+        if (deleted) {
+          changeLog.appendChange(conn, projectId, ChangeType.DELETE);
+        }
+
+        // Commit the transaction and keep the name index in sync.
         commitTransaction(conn);
 
+        if (deleted) {
+          nameIndex.remove(projectId);
+          fireChange(projectId);
+        }
+
         // Return true if rows were affected.
         return deleted;
       } catch (Exception e) {
@@ -166,68 +312,372 @@ public class ProjectDao extends DaoBase {
   }
 
   /**
-   * Fetch all projects from the database.
+   * Clone a project, its materials, steps and category links. Every row is copied inside MySQL with
+   * set-based INSERT ... SELECT statements in a single transaction.
+   *
+   * @param sourceId The ID of the project to clone.
+   * @param newName The name of the new project.
+   * @return The ID of the new project, or empty if the source project does not exist.
+   * @throws DbException If an error occurs.
    */
-  public List<Project> fetchAllProjects() {
-    String sql = "SELECT * FROM " + PROJECT_TABLE + " ORDER BY project_name";
+  @Override
+  public Optional<Integer> cloneProject(Integer sourceId, String newName) {
+    if (!DbConnection.isRowId(sourceId)) {
+      return Optional.empty();
+    }
+
+    // @formatter:off
+    String projectSql = ""
+        + "INSERT INTO " + PROJECT_TABLE + " "
+        + "(project_name, estimated_hours, actual_hours, difficulty, notes) "
+        + "SELECT ?, estimated_hours, actual_hours, difficulty, notes "
+        + "FROM " + PROJECT_TABLE + " "
+        + "WHERE project_id = ? AND deleted = FALSE";
+    String materialSql = ""
+        + "INSERT INTO " + MATERIAL_TABLE + " "
+        + "(project_id, material_name, num_required, cost) "
+        + "SELECT ?, material_name, num_required, cost "
+        + "FROM " + MATERIAL_TABLE + " "
+        + "WHERE project_id = ? "
+        + "ORDER BY material_id";
+    String stepSql = ""
+        + "INSERT INTO " + STEP_TABLE + " "
+        + "(project_id, step_number, step_description) "
+        + "SELECT ?, step_number, step_description "
+        + "FROM " + STEP_TABLE + " "
+        + "WHERE project_id = ? "
+        + "ORDER BY step_number";
+    String categorySql = ""
+        + "INSERT INTO " + PROJECT_CATEGORY_TABLE + " "
+        + "(project_id, category_id) "
+        + "SELECT ?, category_id "
+        + "FROM " + PROJECT_CATEGORY_TABLE + " "
+        + "WHERE project_id = ?";
+    // @formatter:on
+
+    int shard = DbConnection.shardOf(sourceId);
 
-    try (Connection conn = DbConnection.getConnection()) {
+    // Attempt connection & transaction.
+    try (Connection conn = DbConnection.getConnection(shard)) {
+      // Start transaction.
       startTransaction(conn);
 
-      try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-        try (ResultSet rs = stmt.executeQuery()) {
-          List<Project> projects = new LinkedList<>();
+      try {
+        // Copy the project row; nothing is copied if the source project does not exist.
+        try (PreparedStatement stmt = conn.prepareStatement(projectSql)) {
+          setParameter(stmt, 1, newName, String.class);
+          setParameter(stmt, 2, sourceId, Integer.class);
 
-          while (rs.next()) {
-            projects.add(extract(rs, Project.class));
+          if (stmt.executeUpdate() == 0) {
+            rollbackTransaction(conn);
+            return Optional.empty();
           }
-
-          return projects;
         }
+
+        // Copy the children onto the new project and commit the transaction.
+        Integer projectId = getLastInsertId(conn, PROJECT_TABLE);
+        copyChildRows(conn, materialSql, projectId, sourceId);
+        copyChildRows(conn, stepSql, projectId, sourceId);
+        copyChildRows(conn, categorySql, projectId, sourceId);
+        refreshRollup(conn, projectId);
+        changeLog.appendChange(conn, projectId, ChangeType.UPSERT);
+        commitTransaction(conn);
+        nameIndex.put(projectId, newName);
+        fireChange(projectId);
+
+        return Optional.of(projectId);
       } catch (Exception e) {
+        // Rollback transaction on failure.
         rollbackTransaction(conn);
         throw new DbException(e);
       }
     } catch (SQLException sqle) {
       throw new DbException(sqle);
     }
+  }
 
+  /**
+   * Copy the child rows of one project onto another with an INSERT ... SELECT statement.
+   *
+   * @param conn The connection to the database.
+   * @param sql The INSERT ... SELECT statement.
+   * @param projectId The ID of the project receiving the rows.
+   * @param sourceId The ID of the project the rows are copied from.
+   * @throws SQLException If an error occurs.
+   */
+  private void copyChildRows(Connection conn, String sql, Integer projectId, Integer sourceId)
+      throws SQLException {
+    try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+      setParameter(stmt, 1, projectId, Integer.class);
+      setParameter(stmt, 2, sourceId, Integer.class);
+      stmt.executeUpdate();
+    }
   }
 
   /**
-   * Fetch a project by project ID.
+   * Insert a material into the database and add it to the project's rollup.
    *
-   * @param projectId The project ID.
-   * @return The project.
+   * @param material The material to insert.
+   * @return The material inserted.
+   * @throws DbException If the project does not exist or an error occurs.
    */
-  public Optional<Project> fetchProjectById(Integer projectId) {
-    String sql = "SELECT * FROM " + PROJECT_TABLE + " WHERE project_id = ?";
+  @Override
+  public Material insertMaterial(Material material) {
+    if (!DbConnection.isRowId(material.getProjectId())) {
+      throw new DbException(
+          "Project with project ID=" + material.getProjectId() + " does not exist.");
+    }
+
+    // @formatter:off
+    String sql = ""
+        + "INSERT INTO " + MATERIAL_TABLE + " "
+        + "(project_id, material_name, num_required, cost) "
+        + "VALUES "
+        + "(?, ?, ?, ? / 100)";
+    // @formatter:on
+
+    int shard = DbConnection.shardOf(material.getProjectId());
+
+    try (Connection conn = DbConnection.getConnection(shard)) {
+      startTransaction(conn);
+
+      try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+        setParameter(stmt, 1, material.getProjectId(), Integer.class);
+        setParameter(stmt, 2, material.getMaterialName(), String.class);
+        setParameter(stmt, 3, material.getNumRequired(), Integer.class);
+        setHundredths(stmt, 4, material.getCostHundredths());
+        stmt.executeUpdate();
+
+        // Grab the ID, update the rollup and commit the transaction.
+        Integer materialId = getLastInsertId(conn, MATERIAL_TABLE);
+        applyRollupDelta(conn, material.getProjectId(), 1, materialCost(material), 0);
+        changeLog.appendChange(conn, material.getProjectId(), ChangeType.UPSERT);
+        commitTransaction(conn);
+        fireChange(material.getProjectId());
+
+        material.setMaterialId(materialId);
+        return material;
+      } catch (Exception e) {
+        rollbackTransaction(conn);
+        throw new DbException(e);
+      }
+    } catch (SQLException sqle) {
+      throw new DbException(sqle);
+    }
+  }
+
+  /**
+   * Modify a material and apply the change in cost to the project's rollup.
+   *
+   * @param material The material to modify.
+   * @return True if the material was modified, false if it does not exist.
+   * @throws DbException If an error occurs.
+   */
+  @Override
+  public boolean modifyMaterial(Material material) {
+    if (!DbConnection.isRowId(material.getMaterialId())) {
+      return false;
+    }
+
+    // @formatter:off
+    String sql = ""
+        + "UPDATE " + MATERIAL_TABLE + " "
+        + "SET material_name = ?, num_required = ?, cost = ? / 100 "
+        + "WHERE material_id = ?";
+    // @formatter:on
+
+    int shard = DbConnection.shardOf(material.getMaterialId());
+
+    try (Connection conn = DbConnection.getConnection(shard)) {
+      startTransaction(conn);
+
+      try {
+        // Lock the current row; its cost is needed for the rollup delta.
+        Optional<Material> current = fetchMaterialForUpdate(conn, material.getMaterialId());
+
+        if (current.isEmpty()) {
+          rollbackTransaction(conn);
+          return false;
+        }
+
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+          setParameter(stmt, 1, material.getMaterialName(), String.class);
+          setParameter(stmt, 2, material.getNumRequired(), Integer.class);
+          setHundredths(stmt, 3, material.getCostHundredths());
+          setParameter(stmt, 4, material.getMaterialId(), Integer.class);
+          stmt.executeUpdate();
+        }
+
+        long costDelta =
+            Hundredths.subtract(materialCost(material), materialCost(current.get()));
+        applyRollupDelta(conn, current.get().getProjectId(), 0, costDelta, 0);
+        changeLog.appendChange(conn, current.get().getProjectId(), ChangeType.UPSERT);
+        commitTransaction(conn);
+        fireChange(current.get().getProjectId());
+        return true;
+      } catch (Exception e) {
+        rollbackTransaction(conn);
+        throw new DbException(e);
+      }
+    } catch (SQLException sqle) {
+      throw new DbException(sqle);
+    }
+  }
+
+  /**
+   * Delete a material and remove it from the project's rollup.
+   *
+   * @param materialId The material ID.
+   * @return True if the material was deleted, false if it does not exist.
+   * @throws DbException If an error occurs.
+   */
+  @Override
+  public boolean deleteMaterial(Integer materialId) {
+    if (!DbConnection.isRowId(materialId)) {
+      return false;
+    }
+
+    String sql = "DELETE FROM " + MATERIAL_TABLE + " WHERE material_id = ?";
 
-    try (Connection conn = DbConnection.getConnection()) {
+    int shard = DbConnection.shardOf(materialId);
+
+    try (Connection conn = DbConnection.getConnection(shard)) {
       startTransaction(conn);
 
       try {
-        Project project = null;
+        // Lock the current row; its cost is needed for the rollup delta.
+        Optional<Material> current = fetchMaterialForUpdate(conn, materialId);
+
+        if (current.isEmpty()) {
+          rollbackTransaction(conn);
+          return false;
+        }
 
         try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-          setParameter(stmt, 1, projectId, Integer.class);
+          setParameter(stmt, 1, materialId, Integer.class);
+          stmt.executeUpdate();
+        }
+
+        applyRollupDelta(conn, current.get().getProjectId(), -1,
+            Math.negateExact(materialCost(current.get())), 0);
+        changeLog.appendChange(conn, current.get().getProjectId(), ChangeType.UPSERT);
+        commitTransaction(conn);
+        fireChange(current.get().getProjectId());
+        return true;
+      } catch (Exception e) {
+        rollbackTransaction(conn);
+        throw new DbException(e);
+      }
+    } catch (SQLException sqle) {
+      throw new DbException(sqle);
+    }
+  }
+
+  /**
+   * Insert a step into the database and add it to the project's rollup. If the step has no order,
+   * it is added after the project's last step.
+   *
+   * @param step The step to insert.
+   * @return The step inserted.
+   * @throws DbException If the project does not exist or an error occurs.
+   */
+  @Override
+  public Step insertStep(Step step) {
+    if (!DbConnection.isRowId(step.getProjectId())) {
+      throw new DbException("Project with project ID=" + step.getProjectId() + " does not exist.");
+    }
+
+    // @formatter:off
+    String sql = ""
+        + "INSERT INTO " + STEP_TABLE + " "
+        + "(project_id, step_number, step_description) "
+        + "VALUES "
+        + "(?, ?, ?)";
+    // @formatter:on
+
+    int shard = DbConnection.shardOf(step.getProjectId());
+
+    try (Connection conn = DbConnection.getConnection(shard)) {
+      startTransaction(conn);
+
+      try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+        Integer stepOrder = Objects.nonNull(step.getStepOrder()) ? step.getStepOrder()
+            : getNextSequenceNumber(conn, step.getProjectId(), STEP_TABLE, "project_id");
+
+        setParameter(stmt, 1, step.getProjectId(), Integer.class);
+        setParameter(stmt, 2, stepOrder, Integer.class);
+        setParameter(stmt, 3, step.getStepText(), String.class);
+        stmt.executeUpdate();
+
+        // Grab the ID, update the rollup and commit the transaction.
+        Integer stepId = getLastInsertId(conn, STEP_TABLE);
+        applyRollupDelta(conn, step.getProjectId(), 0, 0, 1);
+        changeLog.appendChange(conn, step.getProjectId(), ChangeType.UPSERT);
+        commitTransaction(conn);
+        fireChange(step.getProjectId());
+
+        step.setStepId(stepId);
+        step.setStepOrder(stepOrder);
+        return step;
+      } catch (Exception e) {
+        rollbackTransaction(conn);
+        throw new DbException(e);
+      }
+    } catch (SQLException sqle) {
+      throw new DbException(sqle);
+    }
+  }
+
+  /**
+   * Delete a step and remove it from the project's rollup.
+   *
+   * @param stepId The step ID.
+   * @return True if the step was deleted, false if it does not exist.
+   * @throws DbException If an error occurs.
+   */
+  @Override
+  public boolean deleteStep(Integer stepId) {
+    if (!DbConnection.isRowId(stepId)) {
+      return false;
+    }
+
+    String selectSql = "SELECT project_id FROM " + STEP_TABLE + " WHERE step_id = ? FOR UPDATE";
+    String deleteSql = "DELETE FROM " + STEP_TABLE + " WHERE step_id = ?";
+
+    int shard = DbConnection.shardOf(stepId);
+
+    try (Connection conn = DbConnection.getConnection(shard)) {
+      startTransaction(conn);
+
+      try {
+        Integer projectId = null;
+
+        // Lock the current row; its project is needed for the rollup delta.
+        try (PreparedStatement stmt = conn.prepareStatement(selectSql)) {
+          setParameter(stmt, 1, stepId, Integer.class);
 
           try (ResultSet rs = stmt.executeQuery()) {
             if (rs.next()) {
-              project = extract(rs, Project.class);
+              projectId = rs.getInt("project_id");
             }
           }
         }
 
-        if (Objects.nonNull(project)) {
-          project.getCategories().addAll(fetchCategoriesForProject(conn, projectId));
-          project.getMaterials().addAll(fetchMaterialsForProject(conn, projectId));
-          project.getSteps().addAll(fetchStepsForProject(conn, projectId));
+        if (Objects.isNull(projectId)) {
+          rollbackTransaction(conn);
+          return false;
         }
 
-        commitTransaction(conn);
-        return Optional.ofNullable(project);
+        try (PreparedStatement stmt = conn.prepareStatement(deleteSql)) {
+          setParameter(stmt, 1, stepId, Integer.class);
+          stmt.executeUpdate();
+        }
 
+        applyRollupDelta(conn, projectId, 0, 0, -1);
+        changeLog.appendChange(conn, projectId, ChangeType.UPSERT);
+        commitTransaction(conn);
+        fireChange(projectId);
+        return true;
       } catch (Exception e) {
         rollbackTransaction(conn);
         throw new DbException(e);
@@ -238,48 +688,1130 @@ public class ProjectDao extends DaoBase {
   }
 
   /**
-   * Fetch all categories for a project.
+   * Fetch a material and lock its row until the end of the transaction.
    *
    * @param conn The connection to the database.
-   * @param projectId The project ID.
-   * @return The list of categories.
+   * @param materialId The material ID.
+   * @return The material, or empty if it does not exist.
    * @throws SQLException If an error occurs.
    */
-  private List<Category> fetchCategoriesForProject(Connection conn, Integer projectId)
+  private Optional<Material> fetchMaterialForUpdate(Connection conn, Integer materialId)
       throws SQLException {
-    // @formatter:off
-    String sql = "SELECT c.* FROM " + CATEGORY_TABLE + " c "
-        + "JOIN " + PROJECT_CATEGORY_TABLE + " pc "
-        + "USING (category_id) "
-        + "WHERE pc.project_id = ?";
-    // @formatter:on
+    String sql = "SELECT " + MATERIAL_COLUMNS + " FROM " + MATERIAL_TABLE + " "
+        + "WHERE material_id = ? FOR UPDATE";
 
     try (PreparedStatement stmt = conn.prepareStatement(sql)) {
-      setParameter(stmt, 1, projectId, Integer.class);
-
-      try (ResultSet resultSet = stmt.executeQuery()) {
-        List<Category> categories = new LinkedList<>();
-
-        while (resultSet.next()) {
-          categories.add(extract(resultSet, Category.class));
-        }
+      setParameter(stmt, 1, materialId, Integer.class);
 
-        return categories;
+      try (ResultSet rs = stmt.executeQuery()) {
+        return rs.next() ? Optional.of(Rows.material(rs)) : Optional.empty();
       }
     }
   }
 
   /**
-   * Fetch all steps for a project.
+   * Get the cost a material contributes to its project's rollup. Like SUM(num_required * cost) in
+   * SQL, it is zero when either value is unknown.
+   *
+   * @param material The material.
+   * @return The number required times the cost, in hundredths.
+   */
+  private long materialCost(Material material) {
+    long cost = Hundredths.times(material.getCostHundredths(), material.getNumRequired());
+    return Hundredths.isNull(cost) ? 0 : cost;
+  }
+
+  /**
+   * Apply a change to a project's rollup within the current transaction.
    *
    * @param conn The connection to the database.
    * @param projectId The project ID.
-   * @return The list of steps.
+   * @param materialDelta The change in the number of materials.
+   * @param costDelta The change in the total material cost, in hundredths.
+   * @param stepDelta The change in the number of steps.
    * @throws SQLException If an error occurs.
    */
-  private List<Step> fetchStepsForProject(Connection conn, Integer projectId)
+  private void applyRollupDelta(Connection conn, Integer projectId, int materialDelta,
+      long costDelta, int stepDelta) throws SQLException {
+    // @formatter:off
+    String sql = ""
+        + "INSERT INTO " + PROJECT_ROLLUP_TABLE + " "
+        + "(project_id, material_count, total_material_cost, step_count) "
+        + "VALUES (?, ?, ? / 100, ?) "
+        + "ON DUPLICATE KEY UPDATE "
+        + "material_count = material_count + VALUES(material_count), "
+        + "total_material_cost = total_material_cost + VALUES(total_material_cost), "
+        + "step_count = step_count + VALUES(step_count)";
+    // @formatter:on
+
+    try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+      setParameter(stmt, 1, projectId, Integer.class);
+      setParameter(stmt, 2, materialDelta, Integer.class);
+      setHundredths(stmt, 3, costDelta);
+      setParameter(stmt, 4, stepDelta, Integer.class);
+      stmt.executeUpdate();
+    }
+  }
+
+  /**
+   * Bind an amount in hundredths to a parameter written as "? / 100" in the SQL, which MySQL turns
+   * back into an exact decimal.
+   *
+   * @param stmt The prepared statement.
+   * @param parameterIndex The one-based index of the parameter.
+   * @param hundredths The amount in hundredths, or {@link Hundredths#NULL}.
+   * @throws SQLException If an error occurs.
+   */
+  private void setHundredths(PreparedStatement stmt, int parameterIndex, long hundredths)
       throws SQLException {
-    String sql = "SELECT * FROM " + STEP_TABLE + " WHERE project_id = ?";
+    setParameter(stmt, parameterIndex, Hundredths.isNull(hundredths) ? null : hundredths,
+        Long.class);
+  }
+
+  /**
+   * Recompute one project's rollup from its materials and steps within the current transaction.
+   *
+   * @param conn The connection to the database.
+   * @param projectId The project ID.
+   * @throws SQLException If an error occurs.
+   */
+  private void refreshRollup(Connection conn, Integer projectId) throws SQLException {
+    // @formatter:off
+    String sql = ""
+        + "REPLACE INTO " + PROJECT_ROLLUP_TABLE + " "
+        + "(project_id, material_count, total_material_cost, step_count) "
+        + "SELECT e.* FROM (" + EXPECTED_ROLLUP_SQL + ") e "
+        + "WHERE e.project_id = ?";
+    // @formatter:on
+
+    try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+      setParameter(stmt, 1, projectId, Integer.class);
+      stmt.executeUpdate();
+    }
+  }
+
+  /**
+   * Fetch all projects from the database. The child collections of the projects are loaded on first
+   * access, one query per collection for all projects returned from a shard.
+   */
+  @Override
+  public List<Project> fetchAllProjects() {
+    return Shards.gather(this::fetchAllProjects,
+        Comparator.comparing(Project::getProjectName, ProjectOrder.NAME_ORDER));
+  }
+
+  /**
+   * Stream all projects, ordered by name. Rows are read from server-side cursors as the subscriber
+   * requests them, so the projects never all sit in memory at once. The child collections of the
+   * projects are loaded on first access.
+   *
+   * @return The publisher of the projects; each subscription reads the projects afresh.
+   */
+  public Flow.Publisher<Project> streamAllProjects() {
+    return new ProjectPublisher();
+  }
+
+  /**
+   * Fetch all projects of one shard, ordered by name.
+   *
+   * @param shard The shard number.
+   * @return The list of projects.
+   * @throws DbException If an error occurs.
+   */
+  private List<Project> fetchAllProjects(int shard) {
+    // @formatter:off
+    String sql = ""
+        + "SELECT " + PROJECT_COLUMNS + " FROM " + PROJECT_TABLE + " "
+        + "WHERE deleted = FALSE "
+        + "ORDER BY project_name";
+    // @formatter:on
+
+    try (Connection conn = DbConnection.getReadConnection(shard)) {
+      startTransaction(conn);
+
+      try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (ResultSet rs = stmt.executeQuery()) {
+          List<Project> projects = new LinkedList<>();
+
+          while (rs.next()) {
+            projects.add(Rows.project(rs));
+          }
+
+          attachChildLoader(projects, shard);
+          return projects;
+        }
+      } catch (Exception e) {
+        rollbackTransaction(conn);
+        throw new DbException(e);
+      }
+    } catch (SQLException sqle) {
+      throw new DbException(sqle);
+    }
+
+  }
+
+  /**
+   * Search projects matching criteria. The filters, sort and limits are all applied by MySQL; with
+   * several shards, the page is cut from the merged results of the shards. The child collections
+   * of the projects found are loaded on first access.
+   *
+   * @param criteria The search criteria.
+   * @return The list of projects found.
+   * @throws DbException If an error occurs.
+   */
+  @Override
+  public List<Project> searchProjects(ProjectCriteria criteria) {
+    List<ProjectSearchQuery.Row> rows;
+
+    if (DbConnection.getShardCount() == 1) {
+      rows = searchProjects(new ProjectSearchQuery(criteria), 0);
+    } else {
+      // Each shard returns its first offset + limit rows, sorted by the key the merge uses; the
+      // page is cut from the merged rows.
+      ProjectSearchQuery query = new ProjectSearchQuery(criteria, true);
+      rows = Shards.page(Shards.gather(shard -> searchProjects(query, shard),
+          query.getMergeOrder()), Objects.requireNonNullElse(criteria.getOffset(), 0),
+          Objects.requireNonNullElse(criteria.getLimit(), Integer.MAX_VALUE));
+    }
+
+    List<Project> projects = new LinkedList<>();
+    rows.forEach(row -> projects.add(row.getProject()));
+    return projects;
+  }
+
+  /**
+   * Run a compiled project search on one shard.
+   *
+   * @param query The compiled search.
+   * @param shard The shard number.
+   * @return The rows found.
+   * @throws DbException If an error occurs.
+   */
+  private List<ProjectSearchQuery.Row> searchProjects(ProjectSearchQuery query, int shard) {
+    try (Connection conn = DbConnection.getReadConnection(shard)) {
+      startTransaction(conn);
+
+      try (PreparedStatement stmt = conn.prepareStatement(query.getSql())) {
+        bindSearchParameters(stmt, query);
+
+        try (ResultSet rs = stmt.executeQuery()) {
+          List<ProjectSearchQuery.Row> rows = new LinkedList<>();
+          List<Project> projects = new LinkedList<>();
+
+          while (rs.next()) {
+            ProjectSearchQuery.Row row = query.row(rs);
+            rows.add(row);
+            projects.add(row.getProject());
+          }
+
+          commitTransaction(conn);
+          attachChildLoader(projects, shard);
+          return rows;
+        }
+      } catch (Exception e) {
+        rollbackTransaction(conn);
+        throw new DbException(e);
+      }
+    } catch (SQLException sqle) {
+      throw new DbException(sqle);
+    }
+  }
+
+  /**
+   * Search projects by words in their notes and step descriptions, ranked by relevance. Both
+   * columns are searched through their FULLTEXT indexes in natural language mode; a project's score
+   * is the sum of the scores of its notes and of every matching step.
+   *
+   * @param terms The words to search for.
+   * @param page The zero-based page number.
+   * @param pageSize The number of results per page.
+   * @return The page of matching projects, best match first.
+   * @throws DbException If an error occurs.
+   */
+  @Override
+  public List<ProjectMatch> searchProjectText(String terms, int page, int pageSize) {
+    // Computed in long so a page past the last int row fails rather than wrapping around.
+    int offset = Math.toIntExact((long) page * pageSize);
+
+    if (DbConnection.getShardCount() == 1) {
+      return searchProjectText(terms, offset, pageSize, 0);
+    }
+
+    // Each shard returns its best rows up to the end of the page; the page is cut after merging.
+    int rows = Math.toIntExact((long) offset + pageSize);
+    Comparator<ProjectMatch> order = Comparator.comparing(ProjectMatch::getScore).reversed()
+        .thenComparing(ProjectMatch::getProjectId);
+    List<ProjectMatch> matches =
+        Shards.gather(shard -> searchProjectText(terms, 0, rows, shard), order);
+
+    return Shards.page(matches, offset, pageSize);
+  }
+
+  /**
+   * Search projects by words on one shard.
+   *
+   * @param terms The words to search for.
+   * @param offset The number of matches to skip.
+   * @param limit The maximum number of matches returned.
+   * @param shard The shard number.
+   * @return The matching projects, best match first.
+   * @throws DbException If an error occurs.
+   */
+  private List<ProjectMatch> searchProjectText(String terms, int offset, int limit, int shard) {
+    // @formatter:off
+    String sql = ""
+        + "SELECT p.project_id, p.project_name, SUM(m.score) AS score FROM ("
+        + "SELECT project_id, MATCH (notes) AGAINST (?) AS score "
+        + "FROM " + PROJECT_TABLE + " WHERE MATCH (notes) AGAINST (?) "
+        + "UNION ALL "
+        + "SELECT project_id, MATCH (step_description) AGAINST (?) AS score "
+        + "FROM " + STEP_TABLE + " WHERE MATCH (step_description) AGAINST (?)"
+        + ") m "
+        + "JOIN " + PROJECT_TABLE + " p USING (project_id) "
+        + "WHERE p.deleted = FALSE "
+        + "GROUP BY p.project_id, p.project_name "
+        + "ORDER BY score DESC, p.project_id "
+        + "LIMIT ? OFFSET ?";
+    // @formatter:on
+
+    try (Connection conn = DbConnection.getReadConnection(shard)) {
+      startTransaction(conn);
+
+      try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+        for (int index = 1; index <= 4; index++) {
+          setParameter(stmt, index, terms, String.class);
+        }
+
+        setParameter(stmt, 5, limit, Integer.class);
+        setParameter(stmt, 6, offset, Integer.class);
+
+        try (ResultSet rs = stmt.executeQuery()) {
+          List<ProjectMatch> matches = new LinkedList<>();
+
+          while (rs.next()) {
+            matches.add(extract(rs, ProjectMatch.class));
+          }
+
+          commitTransaction(conn);
+          return matches;
+        }
+      } catch (Exception e) {
+        rollbackTransaction(conn);
+        throw new DbException(e);
+      }
+    } catch (SQLException sqle) {
+      throw new DbException(sqle);
+    }
+  }
+
+  /**
+   * Explain the plan of a project search, one line per table accessed, so that the indexes used by
+   * the generated SQL can be checked. Every shard runs the same SQL, so the plan is taken from the
+   * first shard.
+   *
+   * @param criteria The search criteria.
+   * @return The plan lines, as "table: type, key, rows, extra".
+   * @throws DbException If an error occurs.
+   */
+  public List<String> explainSearch(ProjectCriteria criteria) {
+    ProjectSearchQuery query = new ProjectSearchQuery(criteria, DbConnection.getShardCount() > 1);
+
+    try (Connection conn = DbConnection.getReadConnection(0)) {
+      try (PreparedStatement stmt = conn.prepareStatement("EXPLAIN " + query.getSql())) {
+        bindSearchParameters(stmt, query);
+
+        try (ResultSet rs = stmt.executeQuery()) {
+          List<String> plan = new LinkedList<>();
+
+          while (rs.next()) {
+            plan.add(rs.getString("table") + ": " + rs.getString("type") + ", "
+                + rs.getString("key") + ", " + rs.getString("rows") + ", "
+                + rs.getString("Extra"));
+          }
+
+          return plan;
+        }
+      }
+    } catch (SQLException sqle) {
+      throw new DbException(sqle);
+    }
+  }
+
+  /**
+   * Bind the parameters of a compiled project search.
+   *
+   * @param stmt The prepared statement.
+   * @param query The compiled search.
+   * @throws SQLException If an error occurs.
+   */
+  private void bindSearchParameters(PreparedStatement stmt, ProjectSearchQuery query)
+      throws SQLException {
+    for (int index = 0; index < query.getValues().size(); index++) {
+      setParameter(stmt, index + 1, query.getValues().get(index), query.getTypes().get(index));
+    }
+  }
+
+  /**
+   * Find projects by name prefix, ignoring case. The lookup is served by an in-memory index of the
+   * project names that is loaded on first use and kept in sync with the writes of this DAO.
+   *
+   * @param prefix The start of the project name.
+   * @param limit The maximum number of projects returned.
+   * @return The projects found, ordered by name; only the ID and name are set.
+   * @throws DbException If an error occurs.
+   */
+  @Override
+  public List<ProjectSummary> findProjectsByNamePrefix(String prefix, int limit) {
+    nameIndex.loadIfNeeded(this::fetchProjectNames);
+    return nameIndex.findByPrefix(prefix, limit);
+  }
+
+  /**
+   * Fetch the names of all projects, served from the project summary index.
+   *
+   * @return The project names by project ID.
+   * @throws DbException If an error occurs.
+   */
+  private Map<Integer, String> fetchProjectNames() {
+    Map<Integer, String> names = new HashMap<>();
+
+    for (int shard = 0; shard < DbConnection.getShardCount(); shard++) {
+      names.putAll(fetchProjectNames(shard));
+    }
+
+    return names;
+  }
+
+  /**
+   * Fetch the names of the projects of one shard.
+   *
+   * @param shard The shard number.
+   * @return The project names by project ID.
+   * @throws DbException If an error occurs.
+   */
+  private Map<Integer, String> fetchProjectNames(int shard) {
+    // @formatter:off
+    String sql = ""
+        + "SELECT project_id, project_name "
+        + "FROM " + PROJECT_TABLE + " "
+        + "WHERE deleted = FALSE";
+    // @formatter:on
+
+    // Read from the primary: a write committed before the load must be in it, since the index
+    // ignores updates until it is loaded.
+    try (Connection conn = DbConnection.getConnection(shard)) {
+      try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (ResultSet rs = stmt.executeQuery()) {
+          Map<Integer, String> names = new HashMap<>();
+
+          while (rs.next()) {
+            names.put(rs.getInt("project_id"), rs.getString("project_name"));
+          }
+
+          return names;
+        }
+      }
+    } catch (SQLException sqle) {
+      throw new DbException(sqle);
+    }
+  }
+
+  /**
+   * Fetch the name of a project.
+   *
+   * @param projectId The project ID.
+   * @return The project name, or empty if the project does not exist or is deleted.
+   * @throws DbException If an error occurs.
+   */
+  private Optional<String> fetchProjectName(Integer projectId) {
+    if (!DbConnection.isRowId(projectId)) {
+      return Optional.empty();
+    }
+
+    // @formatter:off
+    String sql = ""
+        + "SELECT project_name FROM " + PROJECT_TABLE + " "
+        + "WHERE project_id = ? AND deleted = FALSE";
+    // @formatter:on
+
+    int shard = DbConnection.shardOf(projectId);
+
+    try (Connection conn = DbConnection.getConnection(shard)) {
+      try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+        setParameter(stmt, 1, projectId, Integer.class);
+
+        try (ResultSet rs = stmt.executeQuery()) {
+          return rs.next() ? Optional.of(rs.getString("project_name")) : Optional.empty();
+        }
+      }
+    } catch (SQLException sqle) {
+      throw new DbException(sqle);
+    }
+  }
+
+  /**
+   * Fetch summaries of all projects from the database. Only the columns of the project summary
+   * index are selected, so the query never reads the notes.
+   *
+   * @return The list of project summaries, ordered by name.
+   * @throws DbException If an error occurs.
+   */
+  @Override
+  public List<ProjectSummary> fetchProjectSummaries() {
+    return Shards.gather(this::fetchProjectSummaries,
+        Comparator.comparing(ProjectSummary::getProjectName, ProjectOrder.NAME_ORDER));
+  }
+
+  /**
+   * Fetch summaries of the projects of one shard, ordered by name.
+   *
+   * @param shard The shard number.
+   * @return The list of project summaries.
+   * @throws DbException If an error occurs.
+   */
+  private List<ProjectSummary> fetchProjectSummaries(int shard) {
+    // @formatter:off
+    String sql = ""
+        + "SELECT project_id, project_name, difficulty, estimated_hours, actual_hours "
+        + "FROM " + PROJECT_TABLE + " "
+        + "WHERE deleted = FALSE "
+        + "ORDER BY project_name";
+    // @formatter:on
+
+    try (Connection conn = DbConnection.getReadConnection(shard)) {
+      startTransaction(conn);
+
+      try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (ResultSet rs = stmt.executeQuery()) {
+          List<ProjectSummary> summaries = new LinkedList<>();
+
+          while (rs.next()) {
+            summaries.add(Rows.summary(rs));
+          }
+
+          commitTransaction(conn);
+          return summaries;
+        }
+      } catch (Exception e) {
+        rollbackTransaction(conn);
+        throw new DbException(e);
+      }
+    } catch (SQLException sqle) {
+      throw new DbException(sqle);
+    }
+  }
+
+  /**
+   * Fetch the cost and progress rollups of many projects in one query over the rollup table.
+   * Projects with no materials or steps yet have zero counts and cost.
+   *
+   * @param projectIds The project IDs.
+   * @return The rollups, ordered by project name.
+   * @throws DbException If an error occurs.
+   */
+  @Override
+  public List<ProjectRollup> fetchProjectRollups(Collection<Integer> projectIds) {
+    Map<Integer, List<Integer>> idsByShard = new HashMap<>();
+    projectIds.stream().filter(DbConnection::isRowId).forEach(projectId -> idsByShard
+        .computeIfAbsent(DbConnection.shardOf(projectId), shard -> new LinkedList<>())
+        .add(projectId));
+
+    return Shards.gather(
+        shard -> fetchProjectRollups(idsByShard.getOrDefault(shard, List.of()), shard),
+        Comparator.comparing(ProjectRollup::getProjectName, ProjectOrder.NAME_ORDER));
+  }
+
+  /**
+   * Fetch the rollups of projects of one shard.
+   *
+   * @param projectIds The project IDs, all on the shard.
+   * @param shard The shard number.
+   * @return The rollups, ordered by project name.
+   * @throws DbException If an error occurs.
+   */
+  private List<ProjectRollup> fetchProjectRollups(Collection<Integer> projectIds, int shard) {
+    if (projectIds.isEmpty()) {
+      return new LinkedList<>();
+    }
+
+    // @formatter:off
+    String sql = ""
+        + "SELECT p.project_id, p.project_name, p.estimated_hours, p.actual_hours, "
+        + "r.material_count, r.total_material_cost, r.step_count "
+        + "FROM " + PROJECT_TABLE + " p "
+        + "LEFT JOIN " + PROJECT_ROLLUP_TABLE + " r USING (project_id) "
+        + "WHERE p.deleted = FALSE AND p.project_id IN ("
+        + String.join(", ", Collections.nCopies(projectIds.size(), "?")) + ") "
+        + "ORDER BY p.project_name";
+    // @formatter:on
+
+    try (Connection conn = DbConnection.getReadConnection(shard, projectIds)) {
+      startTransaction(conn);
+
+      try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+        int index = 1;
+
+        for (Integer projectId : projectIds) {
+          setParameter(stmt, index++, projectId, Integer.class);
+        }
+
+        try (ResultSet rs = stmt.executeQuery()) {
+          List<ProjectRollup> rollups = new LinkedList<>();
+
+          while (rs.next()) {
+            ProjectRollup rollup = new ProjectRollup();
+            rollup.setProjectId(rs.getInt("project_id"));
+            rollup.setProjectName(rs.getString("project_name"));
+            rollup.setEstimatedHours(rs.getBigDecimal("estimated_hours"));
+            rollup.setActualHours(rs.getBigDecimal("actual_hours"));
+            rollup.setMaterialCount(rs.getInt("material_count"));
+            rollup.setTotalMaterialCost(Objects.requireNonNullElse(
+                rs.getBigDecimal("total_material_cost"), BigDecimal.ZERO));
+            rollup.setStepCount(rs.getInt("step_count"));
+            rollups.add(rollup);
+          }
+
+          commitTransaction(conn);
+          return rollups;
+        }
+      } catch (Exception e) {
+        rollbackTransaction(conn);
+        throw new DbException(e);
+      }
+    } catch (SQLException sqle) {
+      throw new DbException(sqle);
+    }
+  }
+
+  /**
+   * Recompute every project's rollup from the material and step tables. The stored rollups are
+   * compared to the recomputed ones first, so the result tells whether they had drifted.
+   *
+   * @return The number of projects whose stored rollup was missing or wrong.
+   * @throws DbException If an error occurs.
+   */
+  @Override
+  public int rebuildProjectRollups() {
+    int mismatches = 0;
+
+    for (int shard = 0; shard < DbConnection.getShardCount(); shard++) {
+      mismatches += rebuildProjectRollups(shard);
+    }
+
+    return mismatches;
+  }
+
+  /**
+   * Recompute the rollups of the projects of one shard.
+   *
+   * @param shard The shard number.
+   * @return The number of projects whose stored rollup was missing or wrong.
+   * @throws DbException If an error occurs.
+   */
+  private int rebuildProjectRollups(int shard) {
+    // @formatter:off
+    String verifySql = ""
+        + "SELECT COUNT(*) FROM (" + EXPECTED_ROLLUP_SQL + ") e "
+        + "LEFT JOIN " + PROJECT_ROLLUP_TABLE + " r USING (project_id) "
+        + "WHERE COALESCE(r.material_count, 0) <> e.material_count "
+        + "OR COALESCE(r.total_material_cost, 0) <> e.total_material_cost "
+        + "OR COALESCE(r.step_count, 0) <> e.step_count";
+    String deleteSql = "DELETE FROM " + PROJECT_ROLLUP_TABLE;
+    String insertSql = ""
+        + "INSERT INTO " + PROJECT_ROLLUP_TABLE + " "
+        + "(project_id, material_count, total_material_cost, step_count) "
+        + EXPECTED_ROLLUP_SQL;
+    // @formatter:on
+
+    try (Connection conn = DbConnection.getConnection(shard)) {
+      startTransaction(conn);
+
+      try {
+        int mismatches;
+
+        try (PreparedStatement stmt = conn.prepareStatement(verifySql);
+            ResultSet rs = stmt.executeQuery()) {
+          rs.next();
+          mismatches = rs.getInt(1);
+        }
+
+        try (PreparedStatement stmt = conn.prepareStatement(deleteSql)) {
+          stmt.executeUpdate();
+        }
+
+        try (PreparedStatement stmt = conn.prepareStatement(insertSql)) {
+          stmt.executeUpdate();
+        }
+
+        commitTransaction(conn);
+        return mismatches;
+      } catch (Exception e) {
+        rollbackTransaction(conn);
+        throw new DbException(e);
+      }
+    } catch (SQLException sqle) {
+      throw new DbException(sqle);
+    }
+  }
+
+  /**
+   * Move the project notes and step descriptions to the text storage mode now configured. Values
+   * compressed in the columns by earlier versions are stored as plain text again, so the text
+   * search finds them; rows are rewritten in small locked batches, so this part can run while the
+   * application serves requests. The text itself does not change, so no change is logged and no
+   * cache is invalidated. Then the project and step tables are rebuilt with the row format of the
+   * mode, compressed or not, unless they have it already. A rebuild of a table with a FULLTEXT
+   * index may copy the table and block writes to it meanwhile.
+   *
+   * @return The number of rows rewritten.
+   * @throws DbException If an error occurs.
+   * @see CompressedText
+   */
+  public int migrateTextColumns() {
+    int rewritten = 0;
+
+    for (int shard = 0; shard < DbConnection.getShardCount(); shard++) {
+      rewritten += migrateTextColumn(shard, PROJECT_TABLE, "project_id", "notes");
+      rewritten += migrateTextColumn(shard, STEP_TABLE, "step_id", "step_description");
+      applyTextRowFormat(shard, PROJECT_TABLE);
+      applyTextRowFormat(shard, STEP_TABLE);
+    }
+
+    return rewritten;
+  }
+
+  /**
+   * Rebuild a table of a shard with the row format of the text storage mode, unless it has it.
+   *
+   * @param shard The shard number.
+   * @param table The table.
+   * @throws DbException If an error occurs.
+   */
+  private void applyTextRowFormat(int shard, String table) {
+    // @formatter:off
+    String formatSql = ""
+        + "SELECT row_format FROM information_schema.tables "
+        + "WHERE table_schema = DATABASE() AND table_name = ?";
+    String alterSql = CompressedText.isEnabled()
+        ? "ALTER TABLE " + table + " ROW_FORMAT=COMPRESSED KEY_BLOCK_SIZE=" + TEXT_KEY_BLOCK_SIZE
+        : "ALTER TABLE " + table + " ROW_FORMAT=DYNAMIC KEY_BLOCK_SIZE=0";
+    // @formatter:on
+
+    String wanted = CompressedText.isEnabled() ? "Compressed" : "Dynamic";
+
+    try (Connection conn = DbConnection.getConnection(shard)) {
+      try (PreparedStatement stmt = conn.prepareStatement(formatSql)) {
+        setParameter(stmt, 1, table, String.class);
+
+        try (ResultSet rs = stmt.executeQuery()) {
+          if (rs.next() && wanted.equalsIgnoreCase(rs.getString("row_format"))) {
+            return;
+          }
+        }
+      }
+
+      try (Statement stmt = conn.createStatement()) {
+        stmt.execute(alterSql);
+      }
+    } catch (SQLException sqle) {
+      throw new DbException(sqle);
+    }
+  }
+
+  /**
+   * Rewrite one text column of one shard, batch by batch in ID order.
+   *
+   * @param shard The shard number.
+   * @param table The table.
+   * @param idColumn The primary key column, an integer.
+   * @param textColumn The text column.
+   * @return The number of rows rewritten.
+   * @throws DbException If an error occurs.
+   */
+  private int migrateTextColumn(int shard, String table, String idColumn, String textColumn) {
+    // @formatter:off
+    String selectSql = ""
+        + "SELECT " + idColumn + ", " + textColumn + " FROM " + table + " "
+        + "WHERE " + idColumn + " > ? AND " + textColumn + " IS NOT NULL "
+        + "ORDER BY " + idColumn + " "
+        + "LIMIT " + MIGRATION_BATCH_SIZE + " "
+        + "FOR UPDATE";
+    String updateSql = ""
+        + "UPDATE " + table + " SET " + textColumn + " = ? WHERE " + idColumn + " = ?";
+    // @formatter:on
+
+    int rewritten = 0;
+    int lastId = 0;
+    int read = MIGRATION_BATCH_SIZE;
+
+    while (read == MIGRATION_BATCH_SIZE) {
+      read = 0;
+
+      try (Connection conn = DbConnection.getConnection(shard)) {
+        startTransaction(conn);
+
+        try (PreparedStatement select = conn.prepareStatement(selectSql);
+            PreparedStatement update = conn.prepareStatement(updateSql)) {
+          setParameter(select, 1, lastId, Integer.class);
+
+          try (ResultSet rs = select.executeQuery()) {
+            while (rs.next()) {
+              read++;
+              lastId = rs.getInt(idColumn);
+
+              String stored = rs.getString(textColumn);
+              String migrated = CompressedText.decode(stored);
+
+              if (!migrated.equals(stored)) {
+                setParameter(update, 1, migrated, String.class);
+                setParameter(update, 2, lastId, Integer.class);
+                update.addBatch();
+                rewritten++;
+              }
+            }
+          }
+
+          update.executeBatch();
+          commitTransaction(conn);
+        } catch (Exception e) {
+          rollbackTransaction(conn);
+          throw new DbException(e);
+        }
+      } catch (SQLException sqle) {
+        throw new DbException(sqle);
+      }
+    }
+
+    return rewritten;
+  }
+
+  /**
+   * Fetch a columnar snapshot of the project, material and step tables. The three tables of a
+   * shard are read in one transaction so the snapshot of each shard is consistent. Hours and costs
+   * are converted to hundredths by MySQL so no BigDecimal is created per row.
+   *
+   * @return The snapshot.
+   * @throws DbException If an error occurs.
+   */
+  @Override
+  public ProjectColumns fetchProjectColumns() {
+    ProjectColumns.Builder builder = new ProjectColumns.Builder();
+
+    for (int shard = 0; shard < DbConnection.getShardCount(); shard++) {
+      fetchProjectColumns(builder, shard);
+    }
+
+    return builder.build();
+  }
+
+  /**
+   * Add the rows of one shard to a columnar snapshot.
+   *
+   * @param builder The snapshot builder.
+   * @param shard The shard number.
+   * @throws DbException If an error occurs.
+   */
+  private void fetchProjectColumns(ProjectColumns.Builder builder, int shard) {
+    // @formatter:off
+    String projectSql = ""
+        + "SELECT project_id, project_name, difficulty, "
+        + "CAST(estimated_hours * 100 AS SIGNED) AS estimated_hours, "
+        + "CAST(actual_hours * 100 AS SIGNED) AS actual_hours "
+        + "FROM " + PROJECT_TABLE + " "
+        + "WHERE deleted = FALSE";
+    String materialSql = ""
+        + "SELECT project_id, material_name, num_required, "
+        + "CAST(cost * 100 AS SIGNED) AS cost "
+        + "FROM " + MATERIAL_TABLE;
+    String stepSql = "SELECT project_id FROM " + STEP_TABLE;
+    // @formatter:on
+
+    try (Connection conn = DbConnection.getReadConnection(shard)) {
+      startTransaction(conn);
+
+      try {
+        try (PreparedStatement stmt = conn.prepareStatement(projectSql);
+            ResultSet rs = stmt.executeQuery()) {
+          while (rs.next()) {
+            builder.addProject(rs.getInt("project_id"), rs.getString("project_name"),
+                getInt(rs, "difficulty"), getLong(rs, "estimated_hours"),
+                getLong(rs, "actual_hours"));
+          }
+        }
+
+        try (PreparedStatement stmt = conn.prepareStatement(materialSql);
+            ResultSet rs = stmt.executeQuery()) {
+          while (rs.next()) {
+            builder.addMaterial(rs.getInt("project_id"), rs.getString("material_name"),
+                getInt(rs, "num_required"), getLong(rs, "cost"));
+          }
+        }
+
+        try (PreparedStatement stmt = conn.prepareStatement(stepSql);
+            ResultSet rs = stmt.executeQuery()) {
+          while (rs.next()) {
+            builder.addStep(rs.getInt("project_id"));
+          }
+        }
+
+        commitTransaction(conn);
+      } catch (Exception e) {
+        rollbackTransaction(conn);
+        throw new DbException(e);
+      }
+    } catch (SQLException sqle) {
+      throw new DbException(sqle);
+    }
+  }
+
+  /**
+   * Read a nullable int column for the columnar snapshot.
+   *
+   * @param rs The result set.
+   * @param column The column name.
+   * @return The value, or {@link ProjectColumns#NULL_INT} if the column is null.
+   * @throws SQLException If an error occurs.
+   */
+  private int getInt(ResultSet rs, String column) throws SQLException {
+    int value = rs.getInt(column);
+    return rs.wasNull() ? ProjectColumns.NULL_INT : value;
+  }
+
+  /**
+   * Read a nullable long column for the columnar snapshot.
+   *
+   * @param rs The result set.
+   * @param column The column name.
+   * @return The value, or {@link ProjectColumns#NULL_LONG} if the column is null.
+   * @throws SQLException If an error occurs.
+   */
+  private long getLong(ResultSet rs, String column) throws SQLException {
+    long value = rs.getLong(column);
+    return rs.wasNull() ? ProjectColumns.NULL_LONG : value;
+  }
+
+  /**
+   * Fetch a project by project ID. The child collections are loaded on first access.
+   *
+   * @param projectId The project ID.
+   * @return The project.
+   */
+  @Override
+  public Optional<Project> fetchProjectById(Integer projectId) {
+    return fetchProjectById(projectId, false);
+  }
+
+  /**
+   * Fetch a project by project ID.
+   *
+   * @param projectId The project ID.
+   * @param eager True to load the child collections now, false to load them on first access.
+   * @return The project.
+   */
+  @Override
+  public Optional<Project> fetchProjectById(Integer projectId, boolean eager) {
+    if (!DbConnection.isRowId(projectId)) {
+      return Optional.empty();
+    }
+
+    int shard = DbConnection.shardOf(projectId);
+
+    try (Connection conn = DbConnection.getReadConnection(shard, List.of(projectId))) {
+      startTransaction(conn);
+
+      try {
+        Project project = fetchProjectRow(conn, projectId);
+
+        if (Objects.nonNull(project) && !eager) {
+          attachChildLoader(List.of(project), shard);
+        } else if (Objects.nonNull(project)) {
+          project.getCategories().addAll(fetchCategoriesForProject(conn, projectId));
+          project.getMaterials().addAll(fetchMaterialsForProject(conn, projectId));
+          project.getSteps().addAll(fetchStepsForProject(conn, projectId));
+        }
+
+        commitTransaction(conn);
+        return Optional.ofNullable(project);
+
+      } catch (Exception e) {
+        rollbackTransaction(conn);
+        throw new DbException(e);
+      }
+    } catch (SQLException sqle) {
+      throw new DbException(sqle);
+    }
+  }
+
+  /**
+   * Fetch a project by project ID with its child collections loaded, running the query for the
+   * project and the queries for its categories, materials and steps at the same time on separate
+   * connections. This trades three more connections for the latency of three round trips. The
+   * queries do not share a transaction, so a write committed while they run may show in some of
+   * the collections and not in others.
+   *
+   * @param projectId The project ID.
+   * @param executor Runs the queries.
+   * @return The project, or empty if it does not exist.
+   * @throws DbException If an error occurs.
+   */
+  public Optional<Project> fetchProjectById(Integer projectId, Executor executor) {
+    if (!DbConnection.isRowId(projectId)) {
+      return Optional.empty();
+    }
+
+    CompletableFuture<Project> details = CompletableFuture.supplyAsync(
+        () -> readProject(projectId, conn -> fetchProjectRow(conn, projectId)), executor);
+    CompletableFuture<List<Category>> categories = CompletableFuture.supplyAsync(
+        () -> readProject(projectId, conn -> fetchCategoriesForProject(conn, projectId)), executor);
+    CompletableFuture<List<Material>> materials = CompletableFuture.supplyAsync(
+        () -> readProject(projectId, conn -> fetchMaterialsForProject(conn, projectId)), executor);
+    CompletableFuture<List<Step>> steps = CompletableFuture.supplyAsync(
+        () -> readProject(projectId, conn -> fetchStepsForProject(conn, projectId)), executor);
+
+    try {
+      Project project = details.join();
+
+      if (Objects.nonNull(project)) {
+        project.getCategories().addAll(categories.join());
+        project.getMaterials().addAll(materials.join());
+        project.getSteps().addAll(steps.join());
+      }
+
+      return Optional.ofNullable(project);
+    } catch (CompletionException e) {
+      throw e.getCause() instanceof DbException ? (DbException) e.getCause()
+          : new DbException(e.getCause());
+    }
+  }
+
+  /**
+   * Run a read of a project on its own connection to the project's shard, in its own transaction.
+   *
+   * @param <T> The type of the result.
+   * @param projectId The project ID.
+   * @param read The read.
+   * @return The result of the read.
+   * @throws DbException If an error occurs.
+   */
+  private <T> T readProject(Integer projectId, ShardRead<T> read) {
+    try (Connection conn =
+        DbConnection.getReadConnection(DbConnection.shardOf(projectId), List.of(projectId))) {
+      startTransaction(conn);
+
+      try {
+        T result = read.apply(conn);
+        commitTransaction(conn);
+        return result;
+
+      } catch (Exception e) {
+        rollbackTransaction(conn);
+        throw new DbException(e);
+      }
+    } catch (SQLException sqle) {
+      throw new DbException(sqle);
+    }
+  }
+
+  /**
+   * A read run on a connection.
+   *
+   * @param <T> The type of the result.
+   */
+  private interface ShardRead<T> {
+
+    /**
+     * Run the read.
+     *
+     * @param conn The connection to the database.
+     * @return The result of the read.
+     * @throws SQLException If an error occurs.
+     */
+    T apply(Connection conn) throws SQLException;
+  }
+
+  /**
+   * Fetch the row of a project, without its children.
+   *
+   * @param conn The connection to the database.
+   * @param projectId The project ID.
+   * @return The project, or null if it does not exist.
+   * @throws SQLException If an error occurs.
+   */
+  private Project fetchProjectRow(Connection conn, Integer projectId) throws SQLException {
+    String sql = "SELECT " + PROJECT_COLUMNS + " FROM " + PROJECT_TABLE + " "
+        + "WHERE project_id = ? AND deleted = FALSE";
+
+    try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+      setParameter(stmt, 1, projectId, Integer.class);
+
+      try (ResultSet rs = stmt.executeQuery()) {
+        return rs.next() ? Rows.project(rs) : null;
+      }
+    }
+  }
+
+  /**
+   * Load the child collections of projects fetched together on first access, in one batch.
+   *
+   * @param projects The projects fetched together.
+   * @param shard The shard the projects were fetched from.
+   */
+  private void attachChildLoader(List<Project> projects, int shard) {
+    List<Integer> projectIds = new LinkedList<>();
+    projects.forEach(project -> projectIds.add(project.getProjectId()));
+
+    BatchChildLoader childLoader = new BatchChildLoader(shard, projectIds);
+    projects.forEach(project -> project.setChildLoader(childLoader));
+  }
+
+  /**
+   * Fetch all categories for a project.
+   *
+   * @param conn The connection to the database.
+   * @param projectId The project ID.
+   * @return The list of categories.
+   * @throws SQLException If an error occurs.
+   */
+  private List<Category> fetchCategoriesForProject(Connection conn, Integer projectId)
+      throws SQLException {
+    // @formatter:off
+    String sql = "SELECT c.* FROM " + CATEGORY_TABLE + " c "
+        + "JOIN " + PROJECT_CATEGORY_TABLE + " pc "
+        + "USING (category_id) "
+        + "WHERE pc.project_id = ?";
+    // @formatter:on
+
+    try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+      setParameter(stmt, 1, projectId, Integer.class);
+
+      try (ResultSet resultSet = stmt.executeQuery()) {
+        List<Category> categories = new LinkedList<>();
+
+        while (resultSet.next()) {
+          categories.add(Rows.category(resultSet));
+        }
+
+        return categories;
+      }
+    }
+  }
+
+  /**
+   * Fetch all steps for a project.
+   *
+   * @param conn The connection to the database.
+   * @param projectId The project ID.
+   * @return The list of steps.
+   * @throws SQLException If an error occurs.
+   */
+  private List<Step> fetchStepsForProject(Connection conn, Integer projectId)
+      throws SQLException {
+    // @formatter:off
+    String sql = ""
+        + "SELECT " + STEP_COLUMNS + " FROM " + STEP_TABLE + " "
+        + "WHERE project_id = ? "
+        + "ORDER BY step_number";
+    // @formatter:on
 
     try (PreparedStatement stmt = conn.prepareStatement(sql)) {
       setParameter(stmt, 1, projectId, Integer.class);
@@ -288,7 +1820,7 @@ public class ProjectDao extends DaoBase {
         List<Step> steps = new LinkedList<>();
 
         while (resultSet.next()) {
-          steps.add(extract(resultSet, Step.class));
+          steps.add(Rows.step(resultSet));
         }
 
         return steps;
@@ -306,7 +1838,7 @@ public class ProjectDao extends DaoBase {
    */
   private List<Material> fetchMaterialsForProject(Connection conn, Integer projectId)
       throws SQLException {
-    String sql = "SELECT * FROM " + MATERIAL_TABLE + " WHERE project_id = ?";
+    String sql = "SELECT " + MATERIAL_COLUMNS + " FROM " + MATERIAL_TABLE + " WHERE project_id = ?";
 
     try (PreparedStatement stmt = conn.prepareStatement(sql)) {
       setParameter(stmt, 1, projectId, Integer.class);
@@ -315,7 +1847,7 @@ public class ProjectDao extends DaoBase {
         List<Material> materials = new LinkedList<>();
 
         while (resultSet.next()) {
-          materials.add(extract(resultSet, Material.class));
+          materials.add(Rows.material(resultSet));
         }
 
         return materials;
@@ -0,0 +1,137 @@
+package projects.dao;
+
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Supplier;
+import projects.entity.ProjectSummary;
+
+/**
+ * In-memory sorted index of project names for type-ahead lookup by name prefix. Keys are the
+ * lower-cased name followed by the project ID, so equal names are kept apart and a prefix lookup
+ * is a range scan over the sorted map.
+ *
+ * <p>Lookups are lock-free. Loading and updates are serialized: updates are applied after the
+ * write has committed, so an update either reaches the database before a load reads it or waits
+ * for the load to finish and is then applied on top of it.</p>
+ *
+ * @author Ari
+ * @since 2026-10-19
+ */
+class ProjectNameIndex {
+  private static final char KEY_SEPARATOR = '\u0000';
+
+  private final ConcurrentSkipListMap<String, ProjectSummary> byKey = new ConcurrentSkipListMap<>();
+  private final Map<Integer, String> keysById = new ConcurrentHashMap<>();
+  private volatile boolean loaded;
+
+  /**
+   * Load the index if it has not been loaded yet.
+   *
+   * @param names Supplies the names of all projects by project ID.
+   */
+  synchronized void loadIfNeeded(Supplier<Map<Integer, String>> names) {
+    if (!loaded) {
+      names.get().forEach(this::index);
+      loaded = true;
+    }
+  }
+
+  /**
+   * Add or rename a project. Ignored until the index is loaded, since the load reads the
+   * committed name.
+   *
+   * @param projectId The project ID.
+   * @param projectName The project name.
+   */
+  synchronized void put(Integer projectId, String projectName) {
+    if (loaded) {
+      remove(projectId);
+      index(projectId, projectName);
+    }
+  }
+
+  /**
+   * Remove a project.
+   *
+   * @param projectId The project ID.
+   */
+  synchronized void remove(Integer projectId) {
+    String key = keysById.remove(projectId);
+
+    if (Objects.nonNull(key)) {
+      byKey.remove(key);
+    }
+  }
+
+  /**
+   * Clear the index so that it is loaded again on next use.
+   */
+  synchronized void clear() {
+    loaded = false;
+    byKey.clear();
+    keysById.clear();
+  }
+
+  /**
+   * @return True if the index has been loaded.
+   */
+  boolean isLoaded() {
+    return loaded;
+  }
+
+  /**
+   * Find the projects whose name starts with a prefix, ignoring case.
+   *
+   * @param prefix The name prefix.
+   * @param limit The maximum number of projects returned.
+   * @return The projects found, ordered by name; only the ID and name are set.
+   */
+  List<ProjectSummary> findByPrefix(String prefix, int limit) {
+    String from = normalize(prefix);
+    ConcurrentNavigableMap<String, ProjectSummary> range =
+        byKey.subMap(from, true, from + Character.MAX_VALUE, true);
+    List<ProjectSummary> matches = new LinkedList<>();
+
+    for (ProjectSummary summary : range.values()) {
+      if (matches.size() >= limit) {
+        break;
+      }
+
+      matches.add(summary);
+    }
+
+    return matches;
+  }
+
+  /**
+   * Add a project to both maps.
+   *
+   * @param projectId The project ID.
+   * @param projectName The project name.
+   */
+  private void index(Integer projectId, String projectName) {
+    ProjectSummary summary = new ProjectSummary();
+    summary.setProjectId(projectId);
+    summary.setProjectName(projectName);
+
+    String key = normalize(projectName) + KEY_SEPARATOR + projectId;
+    byKey.put(key, summary);
+    keysById.put(projectId, key);
+  }
+
+  /**
+   * Normalize a name for case-insensitive ordering.
+   *
+   * @param name The name.
+   * @return The normalized name.
+   */
+  private static String normalize(String name) {
+    return name.toLowerCase(Locale.ROOT);
+  }
+}
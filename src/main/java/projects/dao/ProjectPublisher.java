@@ -0,0 +1,295 @@
+package projects.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import projects.entity.Project;
+import projects.exception.DbException;
+import projects.store.ProjectOrder;
+import provided.util.DaoBase;
+
+/**
+ * Publishes every project, ordered by name, reading the rows through server-side cursors only as
+ * fast as the subscriber requests them. Each subscription opens one cursor per shard on its first
+ * request and merges the shards as it goes, so at most {@value #FETCH_SIZE} rows per shard are held
+ * in memory. The child collections of each batch of rows are loaded together on first access.
+ *
+ * <p>The cursors and their connections are released when the last project is published, when the
+ * stream fails and when the subscription is cancelled. A subscriber that stops requesting without
+ * cancelling keeps them open.
+ *
+ * @author Ari
+ * @since 2026-10-19
+ */
+class ProjectPublisher extends DaoBase implements Flow.Publisher<Project> {
+
+  /* Rows read per round trip, and per batch of child collections. */
+  private static final int FETCH_SIZE = 500;
+
+  private static final Comparator<Project> ORDER =
+      Comparator.comparing(Project::getProjectName, ProjectOrder.NAME_ORDER);
+
+  @Override
+  public void subscribe(Flow.Subscriber<? super Project> subscriber) {
+    subscriber.onSubscribe(new CursorSubscription(subscriber));
+  }
+
+  /**
+   * A subscription reading its own cursors. Requests and cancellations may come from any thread,
+   * including from within the subscriber's callbacks; the cursors are only used by one thread at a
+   * time, which drains the demand.
+   */
+  private class CursorSubscription implements Flow.Subscription {
+    private final Flow.Subscriber<? super Project> subscriber;
+    private final AtomicLong demand = new AtomicLong();
+    private final AtomicInteger draining = new AtomicInteger();
+
+    private volatile boolean cancelled;
+    private volatile IllegalArgumentException badRequest;
+
+    private List<ShardCursor> cursors;
+    private boolean done;
+
+    /**
+     * Create a subscription.
+     *
+     * @param subscriber The subscriber.
+     */
+    CursorSubscription(Flow.Subscriber<? super Project> subscriber) {
+      this.subscriber = subscriber;
+    }
+
+    @Override
+    public void request(long n) {
+      if (n <= 0) {
+        badRequest = new IllegalArgumentException("Requested " + n + " projects.");
+      } else {
+        demand.getAndAccumulate(n, (current, added) ->
+            current + added < 0 ? Long.MAX_VALUE : current + added);
+      }
+
+      drain();
+    }
+
+    @Override
+    public void cancel() {
+      cancelled = true;
+      drain();
+    }
+
+    /**
+     * Publish projects while there is demand. Only one thread drains at a time; a thread arriving
+     * while another drains leaves it to go round once more.
+     */
+    private void drain() {
+      if (draining.getAndIncrement() != 0) {
+        return;
+      }
+
+      int missed = 1;
+
+      do {
+        if (!done) {
+          drainOnce();
+        }
+
+        missed = draining.addAndGet(-missed);
+      } while (missed != 0);
+    }
+
+    /**
+     * Publish the projects requested so far, then complete, fail or stop as the stream requires.
+     */
+    private void drainOnce() {
+      try {
+        if (Objects.nonNull(badRequest)) {
+          finish();
+          subscriber.onError(badRequest);
+          return;
+        }
+
+        while (!cancelled && demand.get() > 0) {
+          Project project = next();
+
+          if (Objects.isNull(project)) {
+            finish();
+            subscriber.onComplete();
+            return;
+          }
+
+          demand.decrementAndGet();
+          subscriber.onNext(project);
+        }
+
+        if (cancelled) {
+          finish();
+        }
+      } catch (RuntimeException e) {
+        // A failed read, or a subscriber breaking the rules by throwing: end the stream.
+        finish();
+        subscriber.onError(e);
+      }
+    }
+
+    /**
+     * Take the next project in name order from the shards, opening the cursors on first use.
+     *
+     * @return The project, or null once every cursor is exhausted.
+     * @throws DbException If an error occurs.
+     */
+    private Project next() {
+      if (Objects.isNull(cursors)) {
+        cursors = new ArrayList<>();
+
+        for (int shard = 0; shard < DbConnection.getShardCount(); shard++) {
+          cursors.add(new ShardCursor(shard));
+        }
+      }
+
+      ShardCursor first = null;
+
+      for (ShardCursor cursor : cursors) {
+        Project head = cursor.peek();
+
+        if (Objects.nonNull(head)
+            && (Objects.isNull(first) || ORDER.compare(head, first.peek()) < 0)) {
+          first = cursor;
+        }
+      }
+
+      return Objects.isNull(first) ? null : first.buffered.poll();
+    }
+
+    /**
+     * Mark the stream done and release the cursors.
+     */
+    private void finish() {
+      done = true;
+
+      if (Objects.nonNull(cursors)) {
+        cursors.forEach(ShardCursor::close);
+      }
+    }
+  }
+
+  /**
+   * A cursor over the projects of one shard, with the rows of the last round trip.
+   */
+  private class ShardCursor {
+    private final int shard;
+    private final Deque<Project> buffered = new ArrayDeque<>();
+
+    private Connection conn;
+    private PreparedStatement stmt;
+    private ResultSet rs;
+    private boolean exhausted;
+
+    /**
+     * Open the cursor.
+     *
+     * @param shard The shard number.
+     * @throws DbException If an error occurs.
+     */
+    ShardCursor(int shard) {
+      this.shard = shard;
+
+      // @formatter:off
+      String sql = ""
+          + "SELECT " + ProjectDao.PROJECT_COLUMNS + " FROM " + ProjectDao.PROJECT_TABLE + " "
+          + "WHERE deleted = FALSE "
+          + "ORDER BY project_name";
+      // @formatter:on
+
+      conn = DbConnection.getCursorConnection(shard);
+
+      try {
+        startTransaction(conn);
+        stmt = conn.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY,
+            ResultSet.CONCUR_READ_ONLY);
+        stmt.setFetchSize(FETCH_SIZE);
+        rs = stmt.executeQuery();
+      } catch (SQLException e) {
+        close();
+        throw new DbException(e);
+      }
+    }
+
+    /**
+     * Get the next project of the shard without taking it, reading the next batch if needed.
+     *
+     * @return The project, or null if the shard has no more projects.
+     * @throws DbException If an error occurs.
+     */
+    Project peek() {
+      if (buffered.isEmpty() && !exhausted) {
+        fill();
+      }
+
+      return buffered.peek();
+    }
+
+    /**
+     * Read the next batch of rows and share a child loader among them.
+     *
+     * @throws DbException If an error occurs.
+     */
+    private void fill() {
+      List<Integer> projectIds = new LinkedList<>();
+
+      try {
+        while (buffered.size() < FETCH_SIZE && rs.next()) {
+          Project project = Rows.project(rs);
+          buffered.add(project);
+          projectIds.add(project.getProjectId());
+        }
+      } catch (SQLException e) {
+        throw new DbException(e);
+      }
+
+      exhausted = buffered.size() < FETCH_SIZE;
+
+      BatchChildLoader childLoader = new BatchChildLoader(shard, projectIds);
+      buffered.forEach(project -> project.setChildLoader(childLoader));
+    }
+
+    /**
+     * Release the cursor and its connection, ignoring errors.
+     */
+    void close() {
+      try {
+        if (Objects.nonNull(rs)) {
+          rs.close();
+        }
+
+        if (Objects.nonNull(stmt)) {
+          stmt.close();
+        }
+
+        if (Objects.nonNull(conn) && !conn.isClosed()) {
+          commitTransaction(conn);
+        }
+      } catch (SQLException e) {
+        // The connection is discarded either way.
+      } finally {
+        try {
+          if (Objects.nonNull(conn)) {
+            conn.close();
+          }
+        } catch (SQLException e) {
+          // The connection is discarded either way.
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,219 @@
+package projects.dao;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import projects.exception.DbException;
+import provided.util.DaoBase;
+
+/**
+ * Background purger for tombstoned projects. Child rows and then the project row itself are
+ * deleted in small batches, each in its own short transaction, with a pause between batches so
+ * that purging a large project never holds locks for long. Run it in the background with a
+ * {@link BackgroundTask}.
+ *
+ * @author Ari
+ * @since 2026-10-19
+ */
+public class ProjectPurger extends DaoBase {
+
+  private static final int DEFAULT_BATCH_SIZE = 500;
+  private static final long DEFAULT_PAUSE_MILLIS = 50;
+  private static final int PROJECTS_PER_RUN = 10;
+
+  private final int batchSize;
+  private final long pauseMillis;
+
+  private final AtomicLong projectsPurged = new AtomicLong();
+  private final AtomicLong rowsPurged = new AtomicLong();
+  private final AtomicLong batchesRun = new AtomicLong();
+
+  /**
+   * Create a purger with the default batch size and pause.
+   */
+  public ProjectPurger() {
+    this(DEFAULT_BATCH_SIZE, DEFAULT_PAUSE_MILLIS);
+  }
+
+  /**
+   * Create a purger.
+   *
+   * @param batchSize The maximum number of rows deleted per transaction.
+   * @param pauseMillis The pause between two batches, in milliseconds.
+   */
+  public ProjectPurger(int batchSize, long pauseMillis) {
+    this.batchSize = batchSize;
+    this.pauseMillis = pauseMillis;
+  }
+
+  /**
+   * Purge the tombstoned projects currently waiting in the database.
+   *
+   * @return The number of projects purged.
+   * @throws DbException If an error occurs.
+   */
+  public int purgeOnce() {
+    int purged = 0;
+
+    for (int shard = 0; shard < DbConnection.getShardCount(); shard++) {
+      for (Integer projectId : fetchTombstonedProjectIds(shard)) {
+        purgeProject(projectId);
+        purged++;
+      }
+    }
+
+    return purged;
+  }
+
+  /**
+   * Purge one tombstoned project: its children first, then the project row.
+   *
+   * @param projectId The project ID.
+   * @throws DbException If an error occurs.
+   */
+  private void purgeProject(Integer projectId) {
+    // @formatter:off
+    String projectSql = ""
+        + "DELETE FROM " + ProjectDao.PROJECT_TABLE + " "
+        + "WHERE project_id = ? AND deleted = TRUE";
+    // @formatter:on
+
+    purgeChildren(ProjectDao.MATERIAL_TABLE, projectId);
+    purgeChildren(ProjectDao.STEP_TABLE, projectId);
+    purgeChildren(WorkLogDao.WORK_LOG_TABLE, projectId);
+    purgeChildren(ProjectDao.PROJECT_CATEGORY_TABLE, projectId);
+
+    rowsPurged.addAndGet(executeBatch(projectSql, projectId, null));
+    projectsPurged.incrementAndGet();
+  }
+
+  /**
+   * Delete the child rows of a project one batch at a time.
+   *
+   * @param table The child table.
+   * @param projectId The project ID.
+   * @throws DbException If an error occurs.
+   */
+  private void purgeChildren(String table, Integer projectId) {
+    String sql = "DELETE FROM " + table + " WHERE project_id = ? LIMIT ?";
+    int deleted;
+
+    do {
+      deleted = executeBatch(sql, projectId, batchSize);
+      rowsPurged.addAndGet(deleted);
+      pause();
+    } while (deleted >= batchSize);
+  }
+
+  /**
+   * Execute one delete statement in its own transaction.
+   *
+   * @param sql The delete statement.
+   * @param projectId The project ID.
+   * @param limit The row limit, or null if the statement has no limit.
+   * @return The number of rows deleted.
+   * @throws DbException If an error occurs.
+   */
+  private int executeBatch(String sql, Integer projectId, Integer limit) {
+    try (Connection conn = DbConnection.getConnection(DbConnection.shardOf(projectId))) {
+      startTransaction(conn);
+
+      try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+        setParameter(stmt, 1, projectId, Integer.class);
+
+        if (Objects.nonNull(limit)) {
+          setParameter(stmt, 2, limit, Integer.class);
+        }
+
+        int deleted = stmt.executeUpdate();
+
+        commitTransaction(conn);
+        batchesRun.incrementAndGet();
+        return deleted;
+      } catch (Exception e) {
+        rollbackTransaction(conn);
+        throw new DbException(e);
+      }
+    } catch (SQLException sqle) {
+      throw new DbException(sqle);
+    }
+  }
+
+  /**
+   * Fetch the IDs of tombstoned projects waiting to be purged on a shard.
+   *
+   * @param shard The shard number.
+   * @return The list of project IDs.
+   * @throws DbException If an error occurs.
+   */
+  private List<Integer> fetchTombstonedProjectIds(int shard) {
+    // @formatter:off
+    String sql = ""
+        + "SELECT project_id FROM " + ProjectDao.PROJECT_TABLE + " "
+        + "WHERE deleted = TRUE "
+        + "ORDER BY project_id "
+        + "LIMIT ?";
+    // @formatter:on
+
+    try (Connection conn = DbConnection.getConnection(shard)) {
+      try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+        setParameter(stmt, 1, PROJECTS_PER_RUN, Integer.class);
+
+        try (ResultSet rs = stmt.executeQuery()) {
+          List<Integer> projectIds = new LinkedList<>();
+
+          while (rs.next()) {
+            projectIds.add(rs.getInt("project_id"));
+          }
+
+          return projectIds;
+        }
+      }
+    } catch (SQLException sqle) {
+      throw new DbException(sqle);
+    }
+  }
+
+  /**
+   * Pause between two batches to limit the purge rate.
+   */
+  private void pause() {
+    try {
+      Thread.sleep(pauseMillis);
+    } catch (InterruptedException ie) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * @return The number of projects purged so far.
+   */
+  public long getProjectsPurged() {
+    return projectsPurged.get();
+  }
+
+  /**
+   * @return The number of rows purged so far, children included.
+   */
+  public long getRowsPurged() {
+    return rowsPurged.get();
+  }
+
+  /**
+   * @return The number of delete batches run so far.
+   */
+  public long getBatchesRun() {
+    return batchesRun.get();
+  }
+
+  @Override
+  public String toString() {
+    return "projectsPurged=" + projectsPurged + ", rowsPurged=" + rowsPurged + ", batchesRun="
+        + batchesRun;
+  }
+}
@@ -0,0 +1,218 @@
+package projects.dao;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import projects.entity.Project;
+import projects.entity.ProjectCriteria;
+import projects.store.ProjectOrder;
+
+/**
+ * Compiles {@link ProjectCriteria} into a parameterized query over the project table. Category and
+ * material criteria become correlated EXISTS sub-queries that MySQL turns into semi-joins over the
+ * project_category and material indexes.
+ *
+ * <p>Results merged from several shards must be sorted the way each shard sorted them, or the page
+ * is cut at the wrong row. Numbers compare the same in Java as in MySQL, but names do not: a
+ * {@link java.text.Collator} only approximates the MySQL collation. A query run on every shard
+ * sorting by name therefore sorts by, and returns, the collation weights of the names, and the
+ * merge compares those bytes.
+ *
+ * @author Ari
+ * @since 2026-10-19
+ */
+class ProjectSearchQuery {
+  private final StringBuilder sql = new StringBuilder();
+  private final List<Object> values = new ArrayList<>();
+  private final List<Class<?>> types = new ArrayList<>();
+  private final Comparator<Row> mergeOrder;
+  private final boolean nameWeight;
+
+  /**
+   * Compile the criteria.
+   *
+   * @param criteria The search criteria.
+   */
+  ProjectSearchQuery(ProjectCriteria criteria) {
+    this(criteria, false);
+  }
+
+  /**
+   * Compile the criteria, either for one database or for each of several shards whose results are
+   * merged.
+   *
+   * @param criteria The search criteria.
+   * @param fanOut True if the query runs on every shard and the offset is applied after merging.
+   */
+  ProjectSearchQuery(ProjectCriteria criteria, boolean fanOut) {
+    // @formatter:off
+    nameWeight = fanOut && criteria.getSortField() == ProjectCriteria.SortField.NAME;
+    sql.append("SELECT ").append(ProjectDao.PROJECT_COLUMNS)
+        .append(nameWeight ? ", WEIGHT_STRING(p.project_name) AS name_weight" : "")
+        .append(" FROM ").append(ProjectDao.PROJECT_TABLE).append(" p ")
+        .append("WHERE p.deleted = FALSE");
+    // @formatter:on
+
+    if (Objects.nonNull(criteria.getMinDifficulty())) {
+      sql.append(" AND p.difficulty >= ?");
+      bind(criteria.getMinDifficulty(), Integer.class);
+    }
+
+    if (Objects.nonNull(criteria.getMaxDifficulty())) {
+      sql.append(" AND p.difficulty <= ?");
+      bind(criteria.getMaxDifficulty(), Integer.class);
+    }
+
+    if (Objects.nonNull(criteria.getOverBudget())) {
+      sql.append(criteria.getOverBudget()
+          ? " AND p.actual_hours > p.estimated_hours"
+          : " AND p.actual_hours <= p.estimated_hours");
+    }
+
+    if (Objects.nonNull(criteria.getCategoryName())) {
+      // @formatter:off
+      sql.append(" AND EXISTS (SELECT 1 FROM ").append(ProjectDao.PROJECT_CATEGORY_TABLE)
+          .append(" pc JOIN ").append(ProjectDao.CATEGORY_TABLE).append(" c USING (category_id)")
+          .append(" WHERE pc.project_id = p.project_id AND c.category_name = ?)");
+      // @formatter:on
+      bind(criteria.getCategoryName(), String.class);
+    }
+
+    if (Objects.nonNull(criteria.getMaterialName())) {
+      // @formatter:off
+      sql.append(" AND EXISTS (SELECT 1 FROM ").append(ProjectDao.MATERIAL_TABLE).append(" m")
+          .append(" WHERE m.project_id = p.project_id AND m.material_name = ?)");
+      // @formatter:on
+      bind(criteria.getMaterialName(), String.class);
+    }
+
+    // Sort on the requested column; the project ID keeps the order stable across pages.
+    String direction = criteria.isDescending() ? " DESC" : "";
+    String sortColumn = nameWeight ? "name_weight" : sortColumn(criteria.getSortField());
+    sql.append(" ORDER BY ").append(sortColumn).append(direction)
+        .append(", p.project_id").append(direction);
+    Comparator<Project> order = ProjectOrder.of(criteria);
+
+    if (nameWeight) {
+      Comparator<Row> byWeight = Comparator.<Row, byte[]>comparing(row -> row.nameWeight,
+          Arrays::compareUnsigned).thenComparing(row -> row.project.getProjectId());
+      mergeOrder = criteria.isDescending() ? byWeight.reversed() : byWeight;
+    } else {
+      mergeOrder = Comparator.comparing(row -> row.project, order);
+    }
+
+    if (fanOut) {
+      // Each shard returns every row that can land on the page; the page is cut after merging.
+      if (Objects.nonNull(criteria.getLimit())) {
+        int offset = Objects.requireNonNullElse(criteria.getOffset(), 0);
+        long rows = (long) criteria.getLimit() + offset;
+        sql.append(" LIMIT ?");
+        bind((int) Math.min(rows, Integer.MAX_VALUE), Integer.class);
+      }
+    } else if (Objects.nonNull(criteria.getLimit()) || Objects.nonNull(criteria.getOffset())) {
+      sql.append(" LIMIT ? OFFSET ?");
+      bind(Objects.requireNonNullElse(criteria.getLimit(), Integer.MAX_VALUE), Integer.class);
+      bind(Objects.requireNonNullElse(criteria.getOffset(), 0), Integer.class);
+    }
+  }
+
+  /**
+   * Get the column to sort by.
+   *
+   * @param sortField The sort field of the criteria.
+   * @return The qualified column name.
+   */
+  private static String sortColumn(ProjectCriteria.SortField sortField) {
+    switch (sortField) {
+      case DIFFICULTY:
+        return "p.difficulty";
+      case ESTIMATED_HOURS:
+        return "p.estimated_hours";
+      case ACTUAL_HOURS:
+        return "p.actual_hours";
+      case NAME:
+      default:
+        return "p.project_name";
+    }
+  }
+
+  /**
+   * Add a parameter value.
+   *
+   * @param value The value.
+   * @param type The Java class of the value.
+   */
+  private void bind(Object value, Class<?> type) {
+    values.add(value);
+    types.add(type);
+  }
+
+  /**
+   * @return The compiled SQL.
+   */
+  String getSql() {
+    return sql.toString();
+  }
+
+  /**
+   * @return The order to merge the rows of several shards in, the order the SQL sorts them in.
+   */
+  Comparator<Row> getMergeOrder() {
+    return mergeOrder;
+  }
+
+  /**
+   * Read a row of the results.
+   *
+   * @param rs The result set, positioned on the row.
+   * @return The row.
+   * @throws SQLException If a column is missing.
+   */
+  Row row(ResultSet rs) throws SQLException {
+    return new Row(Rows.project(rs), nameWeight ? rs.getBytes("name_weight") : null);
+  }
+
+  /**
+   * @return The parameter values, in placeholder order.
+   */
+  List<Object> getValues() {
+    return values;
+  }
+
+  /**
+   * @return The Java classes of the parameter values, in placeholder order.
+   */
+  List<Class<?>> getTypes() {
+    return types;
+  }
+
+  /**
+   * A project found, with the key it was sorted by when that is not one of its fields.
+   */
+  static class Row {
+    private final Project project;
+    private final byte[] nameWeight;
+
+    /**
+     * Create a row.
+     *
+     * @param project The project.
+     * @param nameWeight The collation weight of the project name, or null if not selected.
+     */
+    Row(Project project, byte[] nameWeight) {
+      this.project = project;
+      this.nameWeight = nameWeight;
+    }
+
+    /**
+     * @return The project.
+     */
+    Project getProject() {
+      return project;
+    }
+  }
+}
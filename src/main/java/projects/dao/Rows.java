@@ -0,0 +1,140 @@
+package projects.dao;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import projects.entity.Category;
+import projects.entity.Hundredths;
+import projects.entity.Material;
+import projects.entity.Project;
+import projects.entity.ProjectSummary;
+import projects.entity.Step;
+
+/**
+ * Builds the entities read on the common paths from the current row of a result set, column by
+ * column. {@link provided.util.DaoBase#extract(ResultSet, Class)} does the same through
+ * reflection, which costs a constructor and field lookup per row and loads the reflection
+ * machinery on the first query of a short-lived process. Columns that are NULL stay null; hours
+ * and costs are read as hundredths (see {@link projects.entity.Hundredths}).
+ *
+ * @author Ari
+ * @since 2026-10-19
+ */
+final class Rows {
+
+  private Rows() {
+  }
+
+  /**
+   * Maps the current row of a result set to an object.
+   *
+   * @param <T> The type of the object.
+   */
+  interface RowMapper<T> {
+
+    /**
+     * Map the row.
+     *
+     * @param rs The result set, positioned on the row.
+     * @return The object.
+     * @throws SQLException If a column is missing.
+     */
+    T map(ResultSet rs) throws SQLException;
+  }
+
+  /**
+   * Read the details of a project, without its children.
+   *
+   * @param rs The result set, positioned on a row selected with
+   *     {@link ProjectDao#PROJECT_COLUMNS}.
+   * @return The project.
+   * @throws SQLException If a column is missing.
+   */
+  static Project project(ResultSet rs) throws SQLException {
+    Project project = new Project();
+    project.setProjectId(rs.getObject("project_id", Integer.class));
+    project.setProjectName(rs.getString("project_name"));
+    project.setEstimatedHundredths(hundredths(rs, "estimated_hundredths"));
+    project.setActualHundredths(hundredths(rs, "actual_hundredths"));
+    project.setDifficulty(rs.getObject("difficulty", Integer.class));
+    project.setNotes(rs.getString("notes"));
+    return project;
+  }
+
+  /**
+   * Read a project summary.
+   *
+   * @param rs The result set, positioned on a row with the summary columns.
+   * @return The summary.
+   * @throws SQLException If a column is missing.
+   */
+  static ProjectSummary summary(ResultSet rs) throws SQLException {
+    ProjectSummary summary = new ProjectSummary();
+    summary.setProjectId(rs.getObject("project_id", Integer.class));
+    summary.setProjectName(rs.getString("project_name"));
+    summary.setDifficulty(rs.getObject("difficulty", Integer.class));
+    summary.setEstimatedHours(rs.getBigDecimal("estimated_hours"));
+    summary.setActualHours(rs.getBigDecimal("actual_hours"));
+    return summary;
+  }
+
+  /**
+   * Read a material.
+   *
+   * @param rs The result set, positioned on a row selected with
+   *     {@link ProjectDao#MATERIAL_COLUMNS}.
+   * @return The material.
+   * @throws SQLException If a column is missing.
+   */
+  static Material material(ResultSet rs) throws SQLException {
+    Material material = new Material();
+    material.setMaterialId(rs.getObject("material_id", Integer.class));
+    material.setProjectId(rs.getObject("project_id", Integer.class));
+    material.setMaterialName(rs.getString("material_name"));
+    material.setNumRequired(rs.getObject("num_required", Integer.class));
+    material.setCostHundredths(hundredths(rs, "cost_hundredths"));
+    return material;
+  }
+
+  /**
+   * Read a step.
+   *
+   * @param rs The result set, positioned on a row selected with {@link ProjectDao#STEP_COLUMNS}.
+   * @return The step.
+   * @throws SQLException If a column is missing.
+   */
+  static Step step(ResultSet rs) throws SQLException {
+    Step step = new Step();
+    step.setStepId(rs.getObject("step_id", Integer.class));
+    step.setProjectId(rs.getObject("project_id", Integer.class));
+    step.setStepText(rs.getString("step_text"));
+    step.setStepOrder(rs.getObject("step_order", Integer.class));
+    return step;
+  }
+
+  /**
+   * Read a category.
+   *
+   * @param rs The result set, positioned on a row of the category table.
+   * @return The category.
+   * @throws SQLException If a column is missing.
+   */
+  static Category category(ResultSet rs) throws SQLException {
+    Category category = new Category();
+    category.setCategoryId(rs.getObject("category_id", Integer.class));
+    category.setCategoryName(rs.getString("category_name"));
+    return category;
+  }
+
+  /**
+   * Read an amount selected in hundredths.
+   *
+   * @param rs The result set, positioned on the row.
+   * @param column The column, an integer.
+   * @return The amount in hundredths, or {@link Hundredths#NULL}.
+   * @throws SQLException If the column is missing.
+   */
+  private static long hundredths(ResultSet rs, String column) throws SQLException {
+    long value = rs.getLong(column);
+    return rs.wasNull() ? Hundredths.NULL : value;
+  }
+}
@@ -0,0 +1,58 @@
+package projects.dao;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Scatter-gather over the shards of the project tables.
+ *
+ * @author Ari
+ * @since 2026-10-19
+ */
+final class Shards {
+
+  private Shards() {
+  }
+
+  /**
+   * Run a query on every shard, in parallel, and merge the results.
+   *
+   * @param <T> The type of the rows.
+   * @param query Runs the query on one shard, given the shard number.
+   * @param order The order of the rows, which the result of each shard must already be sorted by.
+   * @return The rows of all shards, sorted.
+   */
+  static <T> List<T> gather(IntFunction<List<T>> query, Comparator<? super T> order) {
+    if (DbConnection.getShardCount() == 1) {
+      return query.apply(0);
+    }
+
+    List<List<T>> results = IntStream.range(0, DbConnection.getShardCount()).parallel()
+        .mapToObj(query).collect(Collectors.toList());
+    List<T> rows = new ArrayList<>();
+    results.forEach(rows::addAll);
+
+    // The list is a run of sorted runs, which the merge sort merges in linear time per run.
+    rows.sort(order);
+    return rows;
+  }
+
+  /**
+   * Apply an offset and a limit to merged rows.
+   *
+   * @param <T> The type of the rows.
+   * @param rows The merged rows.
+   * @param offset The number of rows to skip.
+   * @param limit The maximum number of rows kept.
+   * @return The rows kept.
+   */
+  static <T> List<T> page(List<T> rows, int offset, int limit) {
+    int from = Math.min(offset, rows.size());
+    int to = (int) Math.min((long) from + limit, rows.size());
+    return new ArrayList<>(rows.subList(from, to));
+  }
+}
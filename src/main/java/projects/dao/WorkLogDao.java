@@ -0,0 +1,468 @@
+package projects.dao;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import projects.entity.ProjectChange.ChangeType;
+import projects.entity.WorkLog;
+import projects.exception.DbException;
+import provided.util.DaoBase;
+
+/**
+ * WorkLogDao class of the database test application. Time entries are appended to the work_log
+ * table and added to one of several counter stripes of the project, picked at random, so that
+ * concurrent loggers on the same project rarely touch the same row and never update the project
+ * row itself. The stripes are folded into project.actual_hours periodically by
+ * {@link #foldHours()}.
+ *
+ * @author Ari
+ * @since 2026-10-19
+ */
+public class WorkLogDao extends DaoBase {
+
+  static final String WORK_LOG_TABLE = "work_log";
+  static final String HOURS_STRIPE_TABLE = "project_hours_stripe";
+
+  private static final int STRIPES = 16;
+
+  /* Upper bound on the projects folded per transaction; the rest wait for the next fold. */
+  private static final int FOLD_BATCH_SIZE = 500;
+
+  /* The largest value of project.actual_hours, a DECIMAL(7,2). */
+  private static final BigDecimal MAX_ACTUAL_HOURS = new BigDecimal("99999.99");
+
+  private final ChangeLogDao changeLog = new ChangeLogDao();
+
+  /**
+   * Log a time entry against a project. The project row is share-locked first, the order the
+   * fold locks in, so a project cannot be deleted while hours are logged against it.
+   *
+   * @param workLog The time entry to log.
+   * @return The time entry logged, or empty if the project does not exist or is deleted.
+   * @throws IllegalArgumentException If the hours are missing or not positive, or would take the
+   *     actual hours of the project past what the column holds.
+   * @throws DbException If an error occurs.
+   */
+  public Optional<WorkLog> insertWorkLog(WorkLog workLog) {
+    if (!DbConnection.isRowId(workLog.getProjectId())) {
+      return Optional.empty();
+    }
+
+    if (Objects.isNull(workLog.getHours()) || workLog.getHours().signum() <= 0) {
+      throw new IllegalArgumentException("Logged hours must be positive.");
+    }
+
+    // @formatter:off
+    String projectSql = ""
+        + "SELECT COALESCE(p.actual_hours, 0) "
+        + "+ COALESCE((SELECT SUM(s.hours) FROM " + HOURS_STRIPE_TABLE + " s "
+        + "WHERE s.project_id = p.project_id), 0) AS total_hours "
+        + "FROM " + ProjectDao.PROJECT_TABLE + " p "
+        + "WHERE p.project_id = ? AND p.deleted = FALSE "
+        + "FOR SHARE OF p";
+    String logSql = ""
+        + "INSERT INTO " + WORK_LOG_TABLE + " "
+        + "(project_id, crew_member, hours) "
+        + "VALUES "
+        + "(?, ?, ?)";
+    String stripeSql = ""
+        + "INSERT INTO " + HOURS_STRIPE_TABLE + " "
+        + "(project_id, stripe, hours) "
+        + "VALUES (?, ?, ?) "
+        + "ON DUPLICATE KEY UPDATE hours = hours + VALUES(hours)";
+    // @formatter:on
+
+    int shard = DbConnection.shardOf(workLog.getProjectId());
+
+    try (Connection conn = DbConnection.getConnection(shard)) {
+      startTransaction(conn);
+
+      try {
+        BigDecimal totalHours = fetchTotalHours(conn, projectSql, workLog.getProjectId());
+
+        if (Objects.isNull(totalHours)) {
+          commitTransaction(conn);
+          return Optional.empty();
+        }
+
+        if (totalHours.add(workLog.getHours()).compareTo(MAX_ACTUAL_HOURS) > 0) {
+          throw new IllegalArgumentException("Project " + workLog.getProjectId() + " would have "
+              + "more than " + MAX_ACTUAL_HOURS + " actual hours.");
+        }
+
+        try (PreparedStatement stmt = conn.prepareStatement(logSql)) {
+          setParameter(stmt, 1, workLog.getProjectId(), Integer.class);
+          setParameter(stmt, 2, workLog.getCrewMember(), String.class);
+          setParameter(stmt, 3, workLog.getHours(), BigDecimal.class);
+          stmt.executeUpdate();
+        }
+
+        Integer workLogId = getLastInsertId(conn, WORK_LOG_TABLE);
+
+        // Add the hours to a random stripe so concurrent loggers spread over several rows.
+        try (PreparedStatement stmt = conn.prepareStatement(stripeSql)) {
+          setParameter(stmt, 1, workLog.getProjectId(), Integer.class);
+          setParameter(stmt, 2, ThreadLocalRandom.current().nextInt(STRIPES), Integer.class);
+          setParameter(stmt, 3, workLog.getHours(), BigDecimal.class);
+          stmt.executeUpdate();
+        }
+
+        commitTransaction(conn);
+        DbConnection.pinProject(workLog.getProjectId());
+
+        workLog.setWorkLogId(workLogId);
+        return Optional.of(workLog);
+      } catch (IllegalArgumentException e) {
+        rollbackTransaction(conn);
+        throw e;
+      } catch (Exception e) {
+        rollbackTransaction(conn);
+        throw new DbException(e);
+      }
+    } catch (SQLException sqle) {
+      throw new DbException(sqle);
+    }
+  }
+
+  /**
+   * Lock a project row shared and read its actual hours, folded and pending.
+   *
+   * @param conn The connection, in a transaction.
+   * @param sql The query.
+   * @param projectId The project ID.
+   * @return The hours, or null if the project does not exist or is deleted.
+   * @throws SQLException If an error occurs.
+   */
+  private BigDecimal fetchTotalHours(Connection conn, String sql, Integer projectId)
+      throws SQLException {
+    try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+      setParameter(stmt, 1, projectId, Integer.class);
+
+      try (ResultSet rs = stmt.executeQuery()) {
+        return rs.next() ? rs.getBigDecimal("total_hours") : null;
+      }
+    }
+  }
+
+  /**
+   * Fetch the time entries of a project, most recent first.
+   *
+   * @param projectId The project ID.
+   * @return The list of time entries.
+   * @throws DbException If an error occurs.
+   */
+  public List<WorkLog> fetchWorkLogs(Integer projectId) {
+    if (!DbConnection.isRowId(projectId)) {
+      return new LinkedList<>();
+    }
+
+    // @formatter:off
+    String sql = ""
+        + "SELECT * FROM " + WORK_LOG_TABLE + " "
+        + "WHERE project_id = ? "
+        + "ORDER BY logged_at DESC, work_log_id DESC";
+    // @formatter:on
+
+    try (Connection conn =
+        DbConnection.getReadConnection(DbConnection.shardOf(projectId), List.of(projectId))) {
+      try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+        setParameter(stmt, 1, projectId, Integer.class);
+
+        try (ResultSet rs = stmt.executeQuery()) {
+          List<WorkLog> workLogs = new LinkedList<>();
+
+          while (rs.next()) {
+            workLogs.add(extract(rs, WorkLog.class));
+          }
+
+          return workLogs;
+        }
+      }
+    } catch (SQLException sqle) {
+      throw new DbException(sqle);
+    }
+  }
+
+  /**
+   * Fetch the up-to-date actual hours of a project: the hours already folded into the project row
+   * plus the hours still waiting in its stripes.
+   *
+   * @param projectId The project ID.
+   * @return The actual hours, or null if the project has no hours at all.
+   * @throws DbException If an error occurs.
+   */
+  public BigDecimal fetchActualHours(Integer projectId) {
+    if (!DbConnection.isRowId(projectId)) {
+      return null;
+    }
+
+    // @formatter:off
+    String sql = ""
+        + "SELECT p.actual_hours, "
+        + "(SELECT SUM(s.hours) FROM " + HOURS_STRIPE_TABLE + " s "
+        + "WHERE s.project_id = p.project_id) AS pending_hours "
+        + "FROM " + ProjectDao.PROJECT_TABLE + " p "
+        + "WHERE p.project_id = ? AND p.deleted = FALSE";
+    // @formatter:on
+
+    try (Connection conn =
+        DbConnection.getReadConnection(DbConnection.shardOf(projectId), List.of(projectId))) {
+      try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+        setParameter(stmt, 1, projectId, Integer.class);
+
+        try (ResultSet rs = stmt.executeQuery()) {
+          if (!rs.next()) {
+            return null;
+          }
+
+          BigDecimal actualHours = rs.getBigDecimal("actual_hours");
+          BigDecimal pendingHours = rs.getBigDecimal("pending_hours");
+
+          if (Objects.isNull(pendingHours)) {
+            return actualHours;
+          }
+
+          return Objects.isNull(actualHours) ? pendingHours : actualHours.add(pendingHours);
+        }
+      }
+    } catch (SQLException sqle) {
+      throw new DbException(sqle);
+    }
+  }
+
+  /**
+   * Fold the hours waiting in the stripes into project.actual_hours. The stripes read are locked
+   * until the fold commits, so hours logged meanwhile either wait or land in a new stripe row that
+   * the next fold picks up; nothing is counted twice or lost. Logging checks that the hours fit the
+   * column, but concurrent loggers can still overshoot together: the fold then fills the column
+   * and leaves the excess in a stripe rather than failing, so other projects keep folding.
+   *
+   * @return The number of projects whose actual hours were updated.
+   * @throws DbException If an error occurs.
+   */
+  public int foldHours() {
+    int folded = 0;
+
+    for (int shard = 0; shard < DbConnection.getShardCount(); shard++) {
+      folded += foldHours(shard);
+    }
+
+    return folded;
+  }
+
+  /**
+   * Fold the hours waiting in the stripes of one shard. Loggers lock a project row (shared, for
+   * the foreign key checks) before its stripes, so the fold takes the same order: it locks the
+   * project rows first, in ID order, and only then the stripes of those projects. Taking the
+   * stripes first would deadlock with a logger holding the project row.
+   *
+   * @param shard The shard number.
+   * @return The number of projects whose actual hours were updated.
+   * @throws DbException If an error occurs.
+   */
+  private int foldHours(int shard) {
+    // @formatter:off
+    String pendingSql = ""
+        + "SELECT DISTINCT project_id FROM " + HOURS_STRIPE_TABLE + " "
+        + "ORDER BY project_id "
+        + "LIMIT " + FOLD_BATCH_SIZE;
+    String projectLockSql = ""
+        + "SELECT project_id, COALESCE(actual_hours, 0) AS actual_hours "
+        + "FROM " + ProjectDao.PROJECT_TABLE + " "
+        + "WHERE project_id IN (%s) "
+        + "ORDER BY project_id "
+        + "FOR UPDATE";
+    String selectSql = ""
+        + "SELECT project_id, stripe, hours FROM " + HOURS_STRIPE_TABLE + " "
+        + "WHERE project_id IN (%s) "
+        + "FOR UPDATE";
+    String projectSql = ""
+        + "UPDATE " + ProjectDao.PROJECT_TABLE + " "
+        + "SET actual_hours = COALESCE(actual_hours, 0) + ? "
+        + "WHERE project_id = ?";
+    String deleteSql = ""
+        + "DELETE FROM " + HOURS_STRIPE_TABLE + " "
+        + "WHERE project_id = ? AND stripe = ?";
+    String carrySql = ""
+        + "INSERT INTO " + HOURS_STRIPE_TABLE + " "
+        + "(project_id, stripe, hours) "
+        + "VALUES (?, 0, ?) "
+        + "ON DUPLICATE KEY UPDATE hours = hours + VALUES(hours)";
+    // @formatter:on
+
+    try (Connection conn = DbConnection.getConnection(shard)) {
+      startTransaction(conn);
+
+      try {
+        // Find the projects with pending hours without locking anything.
+        List<Integer> pending = selectIds(conn, pendingSql, List.of());
+
+        if (pending.isEmpty()) {
+          commitTransaction(conn);
+          return 0;
+        }
+
+        // Lock the project rows first; a project deleted meanwhile is skipped.
+        Map<Integer, BigDecimal> actualByProject =
+            lockProjects(conn, withPlaceholders(projectLockSql, pending), pending);
+        List<Integer> locked = new ArrayList<>(actualByProject.keySet());
+
+        if (locked.isEmpty()) {
+          commitTransaction(conn);
+          return 0;
+        }
+
+        Map<Integer, BigDecimal> hoursByProject = new HashMap<>();
+        Map<Integer, BigDecimal> carriedByProject = new HashMap<>();
+
+        // Then lock and total the stripes, deleting each one as it is read.
+        try (PreparedStatement select =
+            conn.prepareStatement(withPlaceholders(selectSql, locked));
+            PreparedStatement delete = conn.prepareStatement(deleteSql)) {
+          for (int index = 0; index < locked.size(); index++) {
+            setParameter(select, index + 1, locked.get(index), Integer.class);
+          }
+
+          try (ResultSet rs = select.executeQuery()) {
+            while (rs.next()) {
+              int projectId = rs.getInt("project_id");
+
+              hoursByProject.merge(projectId, rs.getBigDecimal("hours"), BigDecimal::add);
+
+              setParameter(delete, 1, projectId, Integer.class);
+              setParameter(delete, 2, rs.getInt("stripe"), Integer.class);
+              delete.addBatch();
+            }
+          }
+
+          delete.executeBatch();
+        }
+
+        // Fold no more than fits the column; the rest goes back into a stripe.
+        for (Map.Entry<Integer, BigDecimal> entry : hoursByProject.entrySet()) {
+          BigDecimal room = MAX_ACTUAL_HOURS.subtract(actualByProject.get(entry.getKey()))
+              .max(BigDecimal.ZERO);
+
+          if (entry.getValue().compareTo(room) > 0) {
+            carriedByProject.put(entry.getKey(), entry.getValue().subtract(room));
+            entry.setValue(room);
+          }
+        }
+
+        try (PreparedStatement stmt = conn.prepareStatement(carrySql)) {
+          for (Map.Entry<Integer, BigDecimal> entry : carriedByProject.entrySet()) {
+            setParameter(stmt, 1, entry.getKey(), Integer.class);
+            setParameter(stmt, 2, entry.getValue(), BigDecimal.class);
+            stmt.addBatch();
+          }
+
+          stmt.executeBatch();
+        }
+
+        hoursByProject.values().removeIf(hours -> hours.signum() == 0);
+
+        try (PreparedStatement stmt = conn.prepareStatement(projectSql)) {
+          for (Map.Entry<Integer, BigDecimal> entry : hoursByProject.entrySet()) {
+            setParameter(stmt, 1, entry.getValue(), BigDecimal.class);
+            setParameter(stmt, 2, entry.getKey(), Integer.class);
+            stmt.addBatch();
+          }
+
+          stmt.executeBatch();
+        }
+
+        // The actual hours of the projects folded have changed.
+        for (Integer projectId : hoursByProject.keySet()) {
+          changeLog.appendChange(conn, projectId, ChangeType.UPSERT);
+        }
+
+        commitTransaction(conn);
+        return hoursByProject.size();
+      } catch (Exception e) {
+        rollbackTransaction(conn);
+        throw new DbException(e);
+      }
+    } catch (SQLException sqle) {
+      throw new DbException(sqle);
+    }
+  }
+
+  /**
+   * Lock project rows and read their actual hours.
+   *
+   * @param conn The connection, in a transaction.
+   * @param sql The locking query, selecting project_id and actual_hours.
+   * @param projectIds The project IDs, the parameters of the query.
+   * @return The actual hours by project ID, in the order the rows were locked.
+   * @throws SQLException If an error occurs.
+   */
+  private Map<Integer, BigDecimal> lockProjects(Connection conn, String sql,
+      List<Integer> projectIds) throws SQLException {
+    try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+      for (int index = 0; index < projectIds.size(); index++) {
+        setParameter(stmt, index + 1, projectIds.get(index), Integer.class);
+      }
+
+      try (ResultSet rs = stmt.executeQuery()) {
+        Map<Integer, BigDecimal> actualByProject = new LinkedHashMap<>();
+
+        while (rs.next()) {
+          actualByProject.put(rs.getInt("project_id"), rs.getBigDecimal("actual_hours"));
+        }
+
+        return actualByProject;
+      }
+    }
+  }
+
+  /**
+   * Run a query returning one column of IDs.
+   *
+   * @param conn The connection.
+   * @param sql The query.
+   * @param parameters The integer parameters of the query, in order.
+   * @return The IDs, in the order of the query.
+   * @throws SQLException If an error occurs.
+   */
+  private List<Integer> selectIds(Connection conn, String sql, List<Integer> parameters)
+      throws SQLException {
+    try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+      for (int index = 0; index < parameters.size(); index++) {
+        setParameter(stmt, index + 1, parameters.get(index), Integer.class);
+      }
+
+      try (ResultSet rs = stmt.executeQuery()) {
+        List<Integer> ids = new ArrayList<>();
+
+        while (rs.next()) {
+          ids.add(rs.getInt(1));
+        }
+
+        return ids;
+      }
+    }
+  }
+
+  /**
+   * Fill the %s of a query with one placeholder per ID.
+   *
+   * @param sql The query, with a %s placeholder for an IN list.
+   * @param ids The IDs the IN list will hold.
+   * @return The query.
+   */
+  private static String withPlaceholders(String sql, List<Integer> ids) {
+    return String.format(sql, String.join(", ", Collections.nCopies(ids.size(), "?")));
+  }
+}
@@ -0,0 +1,113 @@
+package projects.entity;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Compression of the long text columns, the project notes and the step descriptions. Both columns
+ * carry the FULLTEXT indexes of the text search, so their values are always stored as plain text:
+ * the index must see the words. With the projects.compressText system property set to true, the
+ * text is compressed below and around them instead, where the index never sees it:
+ *
+ * <ul>
+ * <li>at rest, by InnoDB: {@code ProjectsApp --migrate-text} rebuilds the project and step tables
+ * with ROW_FORMAT=COMPRESSED, which compresses their pages and the off-page text with zlib;</li>
+ * <li>on the wire, by the MySQL protocol: every connection asks for compression, so the notes and
+ * step descriptions a project fetch reads travel compressed.</li>
+ * </ul>
+ *
+ * <p>Earlier versions stored long values compressed in the columns themselves, as the control
+ * character U+0001 and "deflate1:" followed by the Base64 of the raw Deflate stream of their UTF-8
+ * bytes, which hid them from the text search. Such values are still read, and inflated by the
+ * entities on first access; {@code --migrate-text} stores them as plain text again.
+ *
+ * @author Ari
+ * @since 2026-10-19
+ */
+public final class CompressedText {
+  private static final String MARKER = "\u0001deflate1:";
+  private static final String ENABLED_PROPERTY = "projects.compressText";
+  private static final boolean ENABLED = Boolean.getBoolean(ENABLED_PROPERTY);
+
+  private static final LongAdder INFLATED = new LongAdder();
+  private static final LongAdder INFLATE_NANOS = new LongAdder();
+
+  private CompressedText() {
+  }
+
+  /**
+   * @return True if the text tables are to be compressed at rest and connections compress their
+   *     traffic.
+   */
+  public static boolean isEnabled() {
+    return ENABLED;
+  }
+
+  /**
+   * Get the text of a stored value.
+   *
+   * @param stored The stored value, compressed or not, or null.
+   * @return The text.
+   * @throws IllegalStateException If the compressed value is corrupt.
+   */
+  public static String decode(String stored) {
+    if (!isCompressed(stored)) {
+      return stored;
+    }
+
+    long start = System.nanoTime();
+    byte[] bytes = Base64.getDecoder().decode(stored.substring(MARKER.length()));
+    Inflater inflater = new Inflater(true);
+    ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length * 3);
+    byte[] buffer = new byte[4096];
+
+    try {
+      inflater.setInput(bytes);
+
+      while (!inflater.finished()) {
+        int count = inflater.inflate(buffer);
+
+        if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+          throw new IllegalStateException("Truncated compressed text.");
+        }
+
+        out.write(buffer, 0, count);
+      }
+    } catch (DataFormatException e) {
+      throw new IllegalStateException("Corrupt compressed text.", e);
+    } finally {
+      inflater.end();
+    }
+
+    INFLATED.increment();
+    INFLATE_NANOS.add(System.nanoTime() - start);
+    return out.toString(StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Tell whether a stored value is compressed in the column.
+   *
+   * @param stored The stored value, or null.
+   * @return True if the value is compressed.
+   */
+  public static boolean isCompressed(String stored) {
+    return Objects.nonNull(stored) && stored.startsWith(MARKER);
+  }
+
+  /**
+   * Report the mode and the column-compressed values inflated by this process.
+   *
+   * @return The statistics.
+   */
+  public static String statistics() {
+    long inflated = INFLATED.sum();
+
+    return String.format("enabled=%b, inflated=%d, inflateMicrosEach=%.1f", ENABLED, inflated,
+        inflated == 0 ? 0.0 : INFLATE_NANOS.sum() / 1e3 / inflated);
+  }
+}
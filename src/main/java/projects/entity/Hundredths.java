@@ -0,0 +1,118 @@
+package projects.entity;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Objects;
+
+/**
+ * Fixed-point arithmetic on hours and costs held as a long count of hundredths, the scale of the
+ * DECIMAL(7,2) columns they are stored in. Null is {@link #NULL}, so a value takes no object at
+ * all; {@link BigDecimal} is only created at the edges, for callers that ask for one.
+ *
+ * <p>Like SUM() in SQL, {@link #add(long, long)} treats a null as absent rather than as poisoning
+ * the total. Arithmetic overflow throws {@link ArithmeticException}, which with 92 quadrillion
+ * hundredths to spare means corrupt data.
+ *
+ * @author Ari
+ * @since 2026-10-19
+ */
+public final class Hundredths {
+
+  /* Stands for null; the same value as ProjectColumns.NULL_LONG. */
+  public static final long NULL = Long.MIN_VALUE;
+
+  private static final int SCALE = 2;
+
+  private Hundredths() {
+  }
+
+  /**
+   * Convert a decimal, rounding half up to hundredths as MySQL does when storing it.
+   *
+   * @param value The decimal, or null.
+   * @return The value in hundredths, or {@link #NULL}.
+   * @throws ArithmeticException If the value does not fit a long.
+   */
+  public static long of(BigDecimal value) {
+    if (Objects.isNull(value)) {
+      return NULL;
+    }
+
+    return value.setScale(SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+  }
+
+  /**
+   * Convert to a decimal with two decimal places, as read from the database.
+   *
+   * @param hundredths The value in hundredths, or {@link #NULL}.
+   * @return The decimal, or null.
+   */
+  public static BigDecimal toBigDecimal(long hundredths) {
+    return isNull(hundredths) ? null : BigDecimal.valueOf(hundredths, SCALE);
+  }
+
+  /**
+   * @param hundredths A value in hundredths.
+   * @return True if the value stands for null.
+   */
+  public static boolean isNull(long hundredths) {
+    return hundredths == NULL;
+  }
+
+  /**
+   * Add two values, skipping nulls.
+   *
+   * @param left A value in hundredths, or {@link #NULL}.
+   * @param right A value in hundredths, or {@link #NULL}.
+   * @return The sum, or {@link #NULL} if both are null.
+   */
+  public static long add(long left, long right) {
+    if (isNull(left)) {
+      return right;
+    }
+
+    return isNull(right) ? left : Math.addExact(left, right);
+  }
+
+  /**
+   * Subtract a value, nulls counting as zero.
+   *
+   * @param left A value in hundredths, or {@link #NULL}.
+   * @param right A value in hundredths, or {@link #NULL}.
+   * @return The difference.
+   */
+  public static long subtract(long left, long right) {
+    return Math.subtractExact(isNull(left) ? 0 : left, isNull(right) ? 0 : right);
+  }
+
+  /**
+   * Multiply a value by a count, such as a material cost by the number required.
+   *
+   * @param hundredths The value in hundredths, or {@link #NULL}.
+   * @param count The count, or null.
+   * @return The product, or {@link #NULL} if either is null.
+   */
+  public static long times(long hundredths, Integer count) {
+    if (isNull(hundredths) || Objects.isNull(count)) {
+      return NULL;
+    }
+
+    return Math.multiplyExact(hundredths, count.longValue());
+  }
+
+  /**
+   * Format a value with two decimal places, as {@link BigDecimal#toPlainString()} would.
+   *
+   * @param hundredths The value in hundredths, or {@link #NULL}.
+   * @return The text, or "null".
+   */
+  public static String toString(long hundredths) {
+    if (isNull(hundredths)) {
+      return "null";
+    }
+
+    long units = Math.abs(hundredths / 100);
+    long cents = Math.abs(hundredths % 100);
+    return (hundredths < 0 ? "-" : "") + units + (cents < 10 ? ".0" : ".") + cents;
+  }
+}
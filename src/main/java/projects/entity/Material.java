@@ -14,7 +14,9 @@ public class Material {
   private Integer projectId;
   private String materialName;
   private Integer numRequired;
-  private BigDecimal cost;
+
+  /* Cost in hundredths, or Hundredths.NULL. */
+  private long cost = Hundredths.NULL;
 
   public Integer getMaterialId() {
     return materialId;
@@ -49,16 +51,30 @@ public class Material {
   }
 
   public BigDecimal getCost() {
-    return cost;
+    return Hundredths.toBigDecimal(cost);
   }
 
   public void setCost(BigDecimal cost) {
+    this.cost = Hundredths.of(cost);
+  }
+
+  /**
+   * @return The cost in hundredths, or {@link Hundredths#NULL}.
+   */
+  public long getCostHundredths() {
+    return cost;
+  }
+
+  /**
+   * @param cost The cost in hundredths, or {@link Hundredths#NULL}.
+   */
+  public void setCostHundredths(long cost) {
     this.cost = cost;
   }
 
   @Override
   public String toString() {
     return "ID=" + materialId + ", materialName=" + materialName + ", numRequired=" + numRequired
-        + ", cost=" + cost;
+        + ", cost=" + Hundredths.toString(cost);
   }
 }
@@ -6,6 +6,7 @@ package projects.entity;
 import java.math.BigDecimal;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * @author Promineo
@@ -14,8 +15,11 @@ import java.util.List;
 public class Project {
   private Integer projectId;
   private String projectName;
-  private BigDecimal estimatedHours;
-  private BigDecimal actualHours;
+
+  /* Hours in hundredths, or Hundredths.NULL. */
+  private long estimatedHours = Hundredths.NULL;
+  private long actualHours = Hundredths.NULL;
+
   private Integer difficulty;
   private String notes;
 
@@ -23,6 +27,12 @@ public class Project {
   private List<Step> steps = new LinkedList<>();
   private List<Category> categories = new LinkedList<>();
 
+  /* Loads the child collections on first access; null when the collections are already loaded. */
+  private ProjectChildLoader childLoader;
+  private boolean materialsLoaded;
+  private boolean stepsLoaded;
+  private boolean categoriesLoaded;
+
   public Integer getProjectId() {
     return projectId;
   }
@@ -40,18 +50,46 @@ public class Project {
   }
 
   public BigDecimal getEstimatedHours() {
-    return estimatedHours;
+    return Hundredths.toBigDecimal(estimatedHours);
   }
 
   public void setEstimatedHours(BigDecimal estimatedHours) {
+    this.estimatedHours = Hundredths.of(estimatedHours);
+  }
+
+  /**
+   * @return The estimated hours in hundredths, or {@link Hundredths#NULL}.
+   */
+  public long getEstimatedHundredths() {
+    return estimatedHours;
+  }
+
+  /**
+   * @param estimatedHours The estimated hours in hundredths, or {@link Hundredths#NULL}.
+   */
+  public void setEstimatedHundredths(long estimatedHours) {
     this.estimatedHours = estimatedHours;
   }
 
   public BigDecimal getActualHours() {
-    return actualHours;
+    return Hundredths.toBigDecimal(actualHours);
   }
 
   public void setActualHours(BigDecimal actualHours) {
+    this.actualHours = Hundredths.of(actualHours);
+  }
+
+  /**
+   * @return The actual hours in hundredths, or {@link Hundredths#NULL}.
+   */
+  public long getActualHundredths() {
+    return actualHours;
+  }
+
+  /**
+   * @param actualHours The actual hours in hundredths, or {@link Hundredths#NULL}.
+   */
+  public void setActualHundredths(long actualHours) {
     this.actualHours = actualHours;
   }
 
@@ -63,7 +101,16 @@ public class Project {
     this.difficulty = difficulty;
   }
 
+  /**
+   * Get the notes, inflating them on first access if they were read compressed.
+   *
+   * @return The notes.
+   */
   public String getNotes() {
+    if (CompressedText.isCompressed(notes)) {
+      notes = CompressedText.decode(notes);
+    }
+
     return notes;
   }
 
@@ -71,44 +118,71 @@ public class Project {
     this.notes = notes;
   }
 
-  public List<Material> getMaterials() {
+  public synchronized List<Material> getMaterials() {
+    if (Objects.nonNull(childLoader) && !materialsLoaded) {
+      materials.addAll(childLoader.loadMaterials(projectId));
+      materialsLoaded = true;
+    }
+
     return materials;
   }
 
-  public List<Step> getSteps() {
+  public synchronized List<Step> getSteps() {
+    if (Objects.nonNull(childLoader) && !stepsLoaded) {
+      steps.addAll(childLoader.loadSteps(projectId));
+      stepsLoaded = true;
+    }
+
     return steps;
   }
 
-  public List<Category> getCategories() {
+  public synchronized List<Category> getCategories() {
+    if (Objects.nonNull(childLoader) && !categoriesLoaded) {
+      categories.addAll(childLoader.loadCategories(projectId));
+      categoriesLoaded = true;
+    }
+
     return categories;
   }
 
+  /**
+   * Load the child collections on first access instead of up front.
+   *
+   * @param childLoader The loader used for the child collections.
+   */
+  public synchronized void setChildLoader(ProjectChildLoader childLoader) {
+    this.childLoader = childLoader;
+    materialsLoaded = false;
+    stepsLoaded = false;
+    categoriesLoaded = false;
+  }
+
   @Override
   public String toString() {
     String result = "";
     
     result += "\n   ID=" + projectId;
     result += "\n   name=" + projectName;
-    result += "\n   estimatedHours=" + estimatedHours;
-    result += "\n   actualHours=" + actualHours;
+    result += "\n   estimatedHours=" + Hundredths.toString(estimatedHours);
+    result += "\n   actualHours=" + Hundredths.toString(actualHours);
     result += "\n   difficulty=" + difficulty;
-    result += "\n   notes=" + notes;
+    result += "\n   notes=" + getNotes();
     
     result += "\n   Materials:";
     
-    for(Material material : materials) {
+    for(Material material : getMaterials()) {
       result += "\n      " + material;
     }
     
     result += "\n   Steps:";
     
-    for(Step step : steps) {
+    for(Step step : getSteps()) {
       result += "\n      " + step;
     }
     
     result += "\n   Categories:";
     
-    for(Category category : categories) {
+    for(Category category : getCategories()) {
       result += "\n      " + category;
     }
     
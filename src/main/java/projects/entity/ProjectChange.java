@@ -0,0 +1,54 @@
+/**
+ * 
+ */
+package projects.entity;
+
+/**
+ * A change to a project graph recorded in the change log: the project row or any of its
+ * materials, steps or categories was written (UPSERT) or the project was deleted (DELETE).
+ *
+ * @author Ari
+ * @since 2026-10-19
+ */
+public class ProjectChange {
+
+  /**
+   * Kinds of change.
+   */
+  public enum ChangeType {
+    UPSERT, DELETE
+  }
+
+  private Long changeId;
+  private Integer projectId;
+  private ChangeType changeType;
+
+  public Long getChangeId() {
+    return changeId;
+  }
+
+  public void setChangeId(Long changeId) {
+    this.changeId = changeId;
+  }
+
+  public Integer getProjectId() {
+    return projectId;
+  }
+
+  public void setProjectId(Integer projectId) {
+    this.projectId = projectId;
+  }
+
+  public ChangeType getChangeType() {
+    return changeType;
+  }
+
+  public void setChangeType(ChangeType changeType) {
+    this.changeType = changeType;
+  }
+
+  @Override
+  public String toString() {
+    return "ID=" + changeId + ", projectId=" + projectId + ", changeType=" + changeType;
+  }
+}
@@ -0,0 +1,36 @@
+/**
+ * 
+ */
+package projects.entity;
+
+import java.util.LinkedList;
+import java.util.List;
+
+/**
+ * One page of the change log: the latest change of every project changed in the page, in change
+ * order, and the watermark to pass when asking for the next page.
+ *
+ * @author Ari
+ * @since 2026-10-19
+ */
+public class ProjectChanges {
+  private List<ProjectChange> changes = new LinkedList<>();
+  private Long watermark;
+
+  public List<ProjectChange> getChanges() {
+    return changes;
+  }
+
+  public Long getWatermark() {
+    return watermark;
+  }
+
+  public void setWatermark(Long watermark) {
+    this.watermark = watermark;
+  }
+
+  @Override
+  public String toString() {
+    return "watermark=" + watermark + ", changes=" + changes;
+  }
+}
@@ -0,0 +1,36 @@
+package projects.entity;
+
+import java.util.List;
+
+/**
+ * Loads the child collections of a {@link Project} the first time they are accessed.
+ *
+ * @author Ari
+ * @since 2026-10-19
+ */
+public interface ProjectChildLoader {
+
+  /**
+   * Load the categories of a project.
+   *
+   * @param projectId The project ID.
+   * @return The list of categories.
+   */
+  List<Category> loadCategories(Integer projectId);
+
+  /**
+   * Load the materials of a project.
+   *
+   * @param projectId The project ID.
+   * @return The list of materials.
+   */
+  List<Material> loadMaterials(Integer projectId);
+
+  /**
+   * Load the steps of a project.
+   *
+   * @param projectId The project ID.
+   * @return The list of steps.
+   */
+  List<Step> loadSteps(Integer projectId);
+}
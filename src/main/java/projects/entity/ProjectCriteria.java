@@ -0,0 +1,116 @@
+/**
+ * 
+ */
+package projects.entity;
+
+import java.util.Objects;
+
+/**
+ * Search criteria for projects. Every criterion left null is ignored; the criteria that are set
+ * must all match.
+ *
+ * @author Ari
+ * @since 2026-10-19
+ */
+public class ProjectCriteria {
+
+  /**
+   * Fields that search results can be sorted by.
+   */
+  public enum SortField {
+    NAME, DIFFICULTY, ESTIMATED_HOURS, ACTUAL_HOURS
+  }
+
+  private Integer minDifficulty;
+  private Integer maxDifficulty;
+  private Boolean overBudget;
+  private String categoryName;
+  private String materialName;
+  private SortField sortField = SortField.NAME;
+  private boolean descending;
+  private Integer limit;
+  private Integer offset;
+
+  public Integer getMinDifficulty() {
+    return minDifficulty;
+  }
+
+  public void setMinDifficulty(Integer minDifficulty) {
+    this.minDifficulty = minDifficulty;
+  }
+
+  public Integer getMaxDifficulty() {
+    return maxDifficulty;
+  }
+
+  public void setMaxDifficulty(Integer maxDifficulty) {
+    this.maxDifficulty = maxDifficulty;
+  }
+
+  /**
+   * @return True for projects whose actual hours exceed the estimate, false for the others.
+   */
+  public Boolean getOverBudget() {
+    return overBudget;
+  }
+
+  public void setOverBudget(Boolean overBudget) {
+    this.overBudget = overBudget;
+  }
+
+  public String getCategoryName() {
+    return categoryName;
+  }
+
+  public void setCategoryName(String categoryName) {
+    this.categoryName = categoryName;
+  }
+
+  public String getMaterialName() {
+    return materialName;
+  }
+
+  public void setMaterialName(String materialName) {
+    this.materialName = materialName;
+  }
+
+  public SortField getSortField() {
+    return sortField;
+  }
+
+  public void setSortField(SortField sortField) {
+    this.sortField = Objects.requireNonNull(sortField);
+  }
+
+  public boolean isDescending() {
+    return descending;
+  }
+
+  public void setDescending(boolean descending) {
+    this.descending = descending;
+  }
+
+  public Integer getLimit() {
+    return limit;
+  }
+
+  public void setLimit(Integer limit) {
+    this.limit = limit;
+  }
+
+  public Integer getOffset() {
+    return offset;
+  }
+
+  public void setOffset(Integer offset) {
+    this.offset = offset;
+  }
+
+  @Override
+  public String toString() {
+    return "minDifficulty=" + minDifficulty + ", maxDifficulty=" + maxDifficulty + ", overBudget="
+        + overBudget + ", categoryName=" + categoryName + ", materialName=" + materialName
+        + ", sortField=" + sortField + ", descending=" + descending + ", limit=" + limit
+        + ", offset=" + offset;
+  }
+}
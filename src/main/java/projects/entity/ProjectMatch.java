@@ -0,0 +1,45 @@
+/**
+ * 
+ */
+package projects.entity;
+
+/**
+ * A project found by a full-text search, with its relevance score.
+ *
+ * @author Ari
+ * @since 2026-10-19
+ */
+public class ProjectMatch {
+  private Integer projectId;
+  private String projectName;
+  private Double score;
+
+  public Integer getProjectId() {
+    return projectId;
+  }
+
+  public void setProjectId(Integer projectId) {
+    this.projectId = projectId;
+  }
+
+  public String getProjectName() {
+    return projectName;
+  }
+
+  public void setProjectName(String projectName) {
+    this.projectName = projectName;
+  }
+
+  public Double getScore() {
+    return score;
+  }
+
+  public void setScore(Double score) {
+    this.score = score;
+  }
+
+  @Override
+  public String toString() {
+    return "ID=" + projectId + ", projectName=" + projectName + ", score=" + score;
+  }
+}
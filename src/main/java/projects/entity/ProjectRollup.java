@@ -0,0 +1,101 @@
+/**
+ * 
+ */
+package projects.entity;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Objects;
+
+/**
+ * Cost and progress rollup of a project: material and step counts, total material cost
+ * (number required times cost) and the hours spent against the estimate.
+ *
+ * @author Ari
+ * @since 2026-10-19
+ */
+public class ProjectRollup {
+  private Integer projectId;
+  private String projectName;
+  private Integer materialCount;
+  private BigDecimal totalMaterialCost;
+  private Integer stepCount;
+  private BigDecimal estimatedHours;
+  private BigDecimal actualHours;
+
+  public Integer getProjectId() {
+    return projectId;
+  }
+
+  public void setProjectId(Integer projectId) {
+    this.projectId = projectId;
+  }
+
+  public String getProjectName() {
+    return projectName;
+  }
+
+  public void setProjectName(String projectName) {
+    this.projectName = projectName;
+  }
+
+  public Integer getMaterialCount() {
+    return materialCount;
+  }
+
+  public void setMaterialCount(Integer materialCount) {
+    this.materialCount = materialCount;
+  }
+
+  public BigDecimal getTotalMaterialCost() {
+    return totalMaterialCost;
+  }
+
+  public void setTotalMaterialCost(BigDecimal totalMaterialCost) {
+    this.totalMaterialCost = totalMaterialCost;
+  }
+
+  public Integer getStepCount() {
+    return stepCount;
+  }
+
+  public void setStepCount(Integer stepCount) {
+    this.stepCount = stepCount;
+  }
+
+  public BigDecimal getEstimatedHours() {
+    return estimatedHours;
+  }
+
+  public void setEstimatedHours(BigDecimal estimatedHours) {
+    this.estimatedHours = estimatedHours;
+  }
+
+  public BigDecimal getActualHours() {
+    return actualHours;
+  }
+
+  public void setActualHours(BigDecimal actualHours) {
+    this.actualHours = actualHours;
+  }
+
+  /**
+   * @return The actual hours as a percentage of the estimate, or null if either is unknown.
+   */
+  public BigDecimal getProgressPercent() {
+    if (Objects.isNull(estimatedHours) || Objects.isNull(actualHours)
+        || estimatedHours.signum() == 0) {
+      return null;
+    }
+
+    return actualHours.multiply(BigDecimal.valueOf(100))
+        .divide(estimatedHours, 2, RoundingMode.HALF_UP);
+  }
+
+  @Override
+  public String toString() {
+    return "ID=" + projectId + ", projectName=" + projectName + ", materialCount=" + materialCount
+        + ", totalMaterialCost=" + totalMaterialCost + ", stepCount=" + stepCount
+        + ", progressPercent=" + getProgressPercent();
+  }
+}
@@ -0,0 +1,67 @@
+/**
+ * 
+ */
+package projects.entity;
+
+import java.math.BigDecimal;
+
+/**
+ * Lightweight projection of a project for list views. It carries only the header columns that are
+ * served from the project summary index, so no notes or children are loaded.
+ *
+ * @author Ari
+ * @since 2026-10-19
+ */
+public class ProjectSummary {
+  private Integer projectId;
+  private String projectName;
+  private Integer difficulty;
+  private BigDecimal estimatedHours;
+  private BigDecimal actualHours;
+
+  public Integer getProjectId() {
+    return projectId;
+  }
+
+  public void setProjectId(Integer projectId) {
+    this.projectId = projectId;
+  }
+
+  public String getProjectName() {
+    return projectName;
+  }
+
+  public void setProjectName(String projectName) {
+    this.projectName = projectName;
+  }
+
+  public Integer getDifficulty() {
+    return difficulty;
+  }
+
+  public void setDifficulty(Integer difficulty) {
+    this.difficulty = difficulty;
+  }
+
+  public BigDecimal getEstimatedHours() {
+    return estimatedHours;
+  }
+
+  public void setEstimatedHours(BigDecimal estimatedHours) {
+    this.estimatedHours = estimatedHours;
+  }
+
+  public BigDecimal getActualHours() {
+    return actualHours;
+  }
+
+  public void setActualHours(BigDecimal actualHours) {
+    this.actualHours = actualHours;
+  }
+
+  @Override
+  public String toString() {
+    return "ID=" + projectId + ", projectName=" + projectName + ", difficulty=" + difficulty
+        + ", estimatedHours=" + estimatedHours + ", actualHours=" + actualHours;
+  }
+}
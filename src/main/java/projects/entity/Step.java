@@ -29,7 +29,16 @@ public class Step {
     this.projectId = projectId;
   }
 
+  /**
+   * Get the step text, inflating it on first access if it was read compressed.
+   *
+   * @return The step text.
+   */
   public String getStepText() {
+    if (CompressedText.isCompressed(stepText)) {
+      stepText = CompressedText.decode(stepText);
+    }
+
     return stepText;
   }
 
@@ -47,6 +56,6 @@ public class Step {
 
   @Override
   public String toString() {
-    return "ID=" + stepId + ", stepText=" + stepText;
+    return "ID=" + stepId + ", stepText=" + getStepText();
   }
 }
@@ -0,0 +1,67 @@
+/**
+ * 
+ */
+package projects.entity;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * A time entry logged by a crew member against a project.
+ *
+ * @author Ari
+ * @since 2026-10-19
+ */
+public class WorkLog {
+  private Integer workLogId;
+  private Integer projectId;
+  private String crewMember;
+  private BigDecimal hours;
+  private LocalDateTime loggedAt;
+
+  public Integer getWorkLogId() {
+    return workLogId;
+  }
+
+  public void setWorkLogId(Integer workLogId) {
+    this.workLogId = workLogId;
+  }
+
+  public Integer getProjectId() {
+    return projectId;
+  }
+
+  public void setProjectId(Integer projectId) {
+    this.projectId = projectId;
+  }
+
+  public String getCrewMember() {
+    return crewMember;
+  }
+
+  public void setCrewMember(String crewMember) {
+    this.crewMember = crewMember;
+  }
+
+  public BigDecimal getHours() {
+    return hours;
+  }
+
+  public void setHours(BigDecimal hours) {
+    this.hours = hours;
+  }
+
+  public LocalDateTime getLoggedAt() {
+    return loggedAt;
+  }
+
+  public void setLoggedAt(LocalDateTime loggedAt) {
+    this.loggedAt = loggedAt;
+  }
+
+  @Override
+  public String toString() {
+    return "ID=" + workLogId + ", crewMember=" + crewMember + ", hours=" + hours + ", loggedAt="
+        + loggedAt;
+  }
+}
@@ -0,0 +1,432 @@
+package projects.http;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import projects.entity.Category;
+import projects.entity.Material;
+import projects.entity.Project;
+import projects.entity.ProjectMatch;
+import projects.entity.ProjectSummary;
+import projects.entity.Step;
+import projects.entity.WorkLog;
+
+/**
+ * JSON encoding of the entities served by the HTTP API, and decoding of the flat objects it
+ * accepts. Decimals are written as JSON numbers with their scale kept.
+ *
+ * @author Ari
+ * @since 2026-10-19
+ */
+final class Json {
+
+  private Json() {
+  }
+
+  /**
+   * Encode a project.
+   *
+   * @param project The project.
+   * @param withChildren True to include the materials, steps and categories.
+   * @return The JSON object.
+   */
+  static String project(Project project, boolean withChildren) {
+    StringBuilder json = new StringBuilder("{");
+    field(json, "projectId", project.getProjectId()).append(',');
+    field(json, "projectName", project.getProjectName()).append(',');
+    field(json, "estimatedHours", project.getEstimatedHours()).append(',');
+    field(json, "actualHours", project.getActualHours()).append(',');
+    field(json, "difficulty", project.getDifficulty()).append(',');
+    field(json, "notes", project.getNotes());
+
+    if (withChildren) {
+      json.append(",\"materials\":").append(array(project.getMaterials(), Json::material));
+      json.append(",\"steps\":").append(array(project.getSteps(), Json::step));
+      json.append(",\"categories\":").append(array(project.getCategories(), Json::category));
+    }
+
+    return json.append('}').toString();
+  }
+
+  /**
+   * Encode a project summary.
+   *
+   * @param summary The summary.
+   * @return The JSON object.
+   */
+  static String summary(ProjectSummary summary) {
+    StringBuilder json = new StringBuilder("{");
+    field(json, "projectId", summary.getProjectId()).append(',');
+    field(json, "projectName", summary.getProjectName()).append(',');
+    field(json, "difficulty", summary.getDifficulty()).append(',');
+    field(json, "estimatedHours", summary.getEstimatedHours()).append(',');
+    field(json, "actualHours", summary.getActualHours());
+    return json.append('}').toString();
+  }
+
+  /**
+   * Encode a text search match.
+   *
+   * @param match The match.
+   * @return The JSON object.
+   */
+  static String match(ProjectMatch match) {
+    StringBuilder json = new StringBuilder("{");
+    field(json, "projectId", match.getProjectId()).append(',');
+    field(json, "projectName", match.getProjectName()).append(',');
+    field(json, "score", match.getScore());
+    return json.append('}').toString();
+  }
+
+  /**
+   * Encode a time entry.
+   *
+   * @param workLog The time entry.
+   * @return The JSON object.
+   */
+  static String workLog(WorkLog workLog) {
+    StringBuilder json = new StringBuilder("{");
+    field(json, "workLogId", workLog.getWorkLogId()).append(',');
+    field(json, "projectId", workLog.getProjectId()).append(',');
+    field(json, "crewMember", workLog.getCrewMember()).append(',');
+    field(json, "hours", workLog.getHours()).append(',');
+    field(json, "loggedAt", Objects.toString(workLog.getLoggedAt(), null));
+    return json.append('}').toString();
+  }
+
+  /**
+   * Encode an error.
+   *
+   * @param message The error message.
+   * @return The JSON object.
+   */
+  static String error(String message) {
+    return field(new StringBuilder("{"), "error", message).append('}').toString();
+  }
+
+  /**
+   * Encode a list.
+   *
+   * @param <T> The type of the elements.
+   * @param elements The elements.
+   * @param encoder Encodes one element.
+   * @return The JSON array.
+   */
+  static <T> String array(List<T> elements, Function<T, String> encoder) {
+    StringBuilder json = new StringBuilder("[");
+
+    for (T element : elements) {
+      json.append(json.length() > 1 ? "," : "").append(encoder.apply(element));
+    }
+
+    return json.append(']').toString();
+  }
+
+  /**
+   * Encode a material.
+   *
+   * @param material The material.
+   * @return The JSON object.
+   */
+  private static String material(Material material) {
+    StringBuilder json = new StringBuilder("{");
+    field(json, "materialId", material.getMaterialId()).append(',');
+    field(json, "materialName", material.getMaterialName()).append(',');
+    field(json, "numRequired", material.getNumRequired()).append(',');
+    field(json, "cost", material.getCost());
+    return json.append('}').toString();
+  }
+
+  /**
+   * Encode a step.
+   *
+   * @param step The step.
+   * @return The JSON object.
+   */
+  private static String step(Step step) {
+    StringBuilder json = new StringBuilder("{");
+    field(json, "stepId", step.getStepId()).append(',');
+    field(json, "stepText", step.getStepText()).append(',');
+    field(json, "stepOrder", step.getStepOrder());
+    return json.append('}').toString();
+  }
+
+  /**
+   * Encode a category.
+   *
+   * @param category The category.
+   * @return The JSON object.
+   */
+  private static String category(Category category) {
+    StringBuilder json = new StringBuilder("{");
+    field(json, "categoryId", category.getCategoryId()).append(',');
+    field(json, "categoryName", category.getCategoryName());
+    return json.append('}').toString();
+  }
+
+  /**
+   * Append a field.
+   *
+   * @param json The object being encoded.
+   * @param name The name of the field.
+   * @param value The value: a string, a number or null.
+   * @return The object being encoded.
+   */
+  private static StringBuilder field(StringBuilder json, String name, Object value) {
+    quote(json, name).append(':');
+
+    if (Objects.isNull(value)) {
+      return json.append("null");
+    }
+
+    if (value instanceof String) {
+      return quote(json, (String) value);
+    }
+
+    return json.append(value instanceof BigDecimal ? ((BigDecimal) value).toPlainString() : value);
+  }
+
+  /**
+   * Append a string literal.
+   *
+   * @param json The object being encoded.
+   * @param value The string.
+   * @return The object being encoded.
+   */
+  private static StringBuilder quote(StringBuilder json, String value) {
+    json.append('"');
+
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+
+      if (c == '"' || c == '\\') {
+        json.append('\\').append(c);
+      } else if (c == '\n') {
+        json.append("\\n");
+      } else if (c == '\r') {
+        json.append("\\r");
+      } else if (c == '\t') {
+        json.append("\\t");
+      } else if (c < 0x20) {
+        json.append(String.format("\\u%04x", (int) c));
+      } else {
+        json.append(c);
+      }
+    }
+
+    return json.append('"');
+  }
+
+  /**
+   * Decode a flat JSON object: its values must be strings, numbers, booleans or null.
+   *
+   * @param text The JSON text.
+   * @return The fields; numbers are decoded as decimals.
+   * @throws IllegalArgumentException If the text is not such an object.
+   */
+  static Map<String, Object> parseObject(String text) {
+    Parser parser = new Parser(text);
+    Map<String, Object> fields = parser.object();
+    parser.skipSpace();
+
+    if (parser.position < text.length()) {
+      throw parser.error("end of input");
+    }
+
+    return fields;
+  }
+
+  /**
+   * Recursive-descent parser over the text of a flat object.
+   */
+  private static class Parser {
+    private final String text;
+    private int position;
+
+    /**
+     * Create a parser.
+     *
+     * @param text The JSON text.
+     */
+    Parser(String text) {
+      this.text = text;
+    }
+
+    /**
+     * Parse an object.
+     *
+     * @return The fields.
+     */
+    Map<String, Object> object() {
+      Map<String, Object> fields = new HashMap<>();
+      expect('{');
+      skipSpace();
+
+      if (peek() == '}') {
+        position++;
+        return fields;
+      }
+
+      do {
+        skipSpace();
+        String name = string();
+        skipSpace();
+        expect(':');
+        skipSpace();
+        fields.put(name, value());
+        skipSpace();
+      } while (consume(','));
+
+      expect('}');
+      return fields;
+    }
+
+    /**
+     * Parse a scalar value.
+     *
+     * @return The value.
+     */
+    private Object value() {
+      char c = peek();
+
+      if (c == '"') {
+        return string();
+      }
+
+      for (String literal : List.of("null", "true", "false")) {
+        if (text.startsWith(literal, position)) {
+          position += literal.length();
+          return literal.equals("null") ? null : Boolean.valueOf(literal);
+        }
+      }
+
+      int start = position;
+
+      while (position < text.length() && "+-.eE0123456789".indexOf(text.charAt(position)) >= 0) {
+        position++;
+      }
+
+      try {
+        return new BigDecimal(text.substring(start, position));
+      } catch (NumberFormatException e) {
+        throw error("a string, number, boolean or null");
+      }
+    }
+
+    /**
+     * Parse a string literal.
+     *
+     * @return The string.
+     */
+    private String string() {
+      expect('"');
+      StringBuilder value = new StringBuilder();
+
+      while (peek() != '"') {
+        char c = text.charAt(position++);
+
+        if (c != '\\') {
+          value.append(c);
+          continue;
+        }
+
+        char escaped = peek();
+        position++;
+
+        switch (escaped) {
+          case 'n':
+            value.append('\n');
+            break;
+          case 'r':
+            value.append('\r');
+            break;
+          case 't':
+            value.append('\t');
+            break;
+          case 'b':
+            value.append('\b');
+            break;
+          case 'f':
+            value.append('\f');
+            break;
+          case 'u':
+            if (position + 4 > text.length()) {
+              throw error("four hex digits");
+            }
+
+            value.append((char) Integer.parseInt(text.substring(position, position + 4), 16));
+            position += 4;
+            break;
+          default:
+            value.append(escaped);
+            break;
+        }
+      }
+
+      position++;
+      return value.toString();
+    }
+
+    /**
+     * Skip white space.
+     */
+    void skipSpace() {
+      while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+        position++;
+      }
+    }
+
+    /**
+     * Get the next character without consuming it.
+     *
+     * @return The character.
+     */
+    private char peek() {
+      if (position >= text.length()) {
+        throw error("more input");
+      }
+
+      return text.charAt(position);
+    }
+
+    /**
+     * Consume a character if it comes next.
+     *
+     * @param c The character.
+     * @return True if it was consumed.
+     */
+    private boolean consume(char c) {
+      if (position < text.length() && text.charAt(position) == c) {
+        position++;
+        return true;
+      }
+
+      return false;
+    }
+
+    /**
+     * Consume a character that must come next.
+     *
+     * @param c The character.
+     */
+    private void expect(char c) {
+      if (!consume(c)) {
+        throw error("'" + c + "'");
+      }
+    }
+
+    /**
+     * Build a parse error.
+     *
+     * @param expected What was expected.
+     * @return The error.
+     */
+    IllegalArgumentException error(String expected) {
+      return new IllegalArgumentException("Invalid JSON at " + position + ": expected " + expected
+          + ".");
+    }
+  }
+}
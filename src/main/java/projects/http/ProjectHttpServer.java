@@ -0,0 +1,563 @@
+package projects.http;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Flow;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+import projects.dao.DbConnection;
+import projects.entity.Project;
+import projects.entity.WorkLog;
+import projects.exception.DbException;
+import projects.service.ProjectService;
+import projects.service.VirtualThreads;
+
+/**
+ * Embedded HTTP/JSON server exposing the {@link ProjectService} operations, so the application can
+ * run behind a load balancer. Connections are kept alive between requests. Requests are handled on
+ * virtual threads where the runtime has them, otherwise on a bounded pool; when its queue is full,
+ * the thread accepting connections handles the next request itself, which holds off new requests
+ * until the pool catches up.
+ *
+ * <pre>
+ * GET    /projects                     all projects, streamed, without children
+ * GET    /projects/summaries           all project summaries
+ * GET    /projects/search?prefix=&amp;limit=  projects by name prefix
+ * GET    /projects/text?q=&amp;page=&amp;size=   projects by words in their notes and steps
+ * GET    /projects/{id}                a project with its children; honors If-None-Match
+ * POST   /projects                     add a project
+ * PUT    /projects/{id}                modify the details of a project
+ * DELETE /projects/{id}                delete a project
+ * GET    /projects/{id}/work           the time entries of a project, most recent first
+ * POST   /projects/{id}/work           log a time entry, the only way actual hours change
+ * </pre>
+ *
+ * @author Ari
+ * @since 2026-10-19
+ */
+public class ProjectHttpServer {
+  private static final int POOL_THREADS = 64;
+  private static final int POOL_QUEUE = 1000;
+  private static final int STREAM_BATCH = 100;
+  private static final int DEFAULT_SEARCH_LIMIT = 10;
+  private static final int DEFAULT_PAGE_SIZE = 20;
+
+  private static final Pattern PROJECT_PATH = Pattern.compile("/projects/(\\d+)");
+  private static final Pattern WORK_PATH = Pattern.compile("/projects/(\\d+)/work");
+
+  static {
+    // The JDK server writes the headers and the body of a response separately; with Nagle's
+    // algorithm on, the body waits for the client's delayed ACK, some 40 ms on every request. The
+    // server reads the property once, when the first one is created; -D still overrides it.
+    System.getProperties().putIfAbsent("sun.net.httpserver.nodelay", "true");
+  }
+
+  private final ProjectService projectService;
+  private final HttpServer server;
+  private final ExecutorService executor;
+
+  /**
+   * Create a server. It does not listen until started.
+   *
+   * @param projectService The service handling the requests.
+   * @param port The port to listen on.
+   * @throws UncheckedIOException If the port cannot be bound.
+   */
+  public ProjectHttpServer(ProjectService projectService, int port) {
+    this.projectService = projectService;
+    this.executor = VirtualThreads.newPerTaskExecutor().orElseGet(() -> new ThreadPoolExecutor(
+        POOL_THREADS, POOL_THREADS, 0, TimeUnit.SECONDS,
+        new ArrayBlockingQueue<>(POOL_QUEUE), new ThreadPoolExecutor.CallerRunsPolicy()));
+
+    try {
+      server = HttpServer.create(new InetSocketAddress(port), 0);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+
+    server.createContext("/projects", this::handle);
+    // Each request reads its own writes under a pin of its own, rather than under the pin of the
+    // requests the pooled thread handled before.
+    server.setExecutor(task -> executor.execute(() -> DbConnection.withPin(new DbConnection.Pin(),
+        task)));
+  }
+
+  /**
+   * Start listening.
+   */
+  public void start() {
+    server.start();
+  }
+
+  /**
+   * @return The port listened on, the one bound if the server was created for port 0.
+   */
+  public int getPort() {
+    return server.getAddress().getPort();
+  }
+
+  /**
+   * Stop listening, giving the requests in progress a moment to finish.
+   *
+   * @param delaySeconds The most time given to the requests in progress.
+   */
+  public void stop(int delaySeconds) {
+    server.stop(delaySeconds);
+    executor.shutdown();
+  }
+
+  /**
+   * Route a request and turn the exceptions of the service into error responses.
+   *
+   * @param exchange The request and its response.
+   */
+  private void handle(HttpExchange exchange) {
+    try (exchange) {
+      try {
+        route(exchange);
+      } catch (NoSuchElementException e) {
+        send(exchange, 404, Json.error(e.getMessage()));
+      } catch (IllegalArgumentException | ClassCastException | ArithmeticException e) {
+        send(exchange, 400, Json.error("Bad request: " + e.getMessage()));
+      } catch (UnsupportedOperationException e) {
+        send(exchange, 501, Json.error(e.getMessage()));
+      } catch (DbException e) {
+        send(exchange, 500, Json.error(e.getMessage()));
+      } catch (RuntimeException e) {
+        System.out.println("Request " + exchange.getRequestURI() + " failed: " + e);
+        send(exchange, 500, Json.error("Internal error."));
+      }
+    } catch (IOException e) {
+      // The client went away; nothing left to answer.
+    }
+  }
+
+  /**
+   * Dispatch a request to its operation.
+   *
+   * @param exchange The request and its response.
+   * @throws IOException If the response cannot be written.
+   */
+  private void route(HttpExchange exchange) throws IOException {
+    String method = exchange.getRequestMethod();
+    String path = exchange.getRequestURI().getPath();
+    Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+    Matcher projectPath = PROJECT_PATH.matcher(path);
+    Matcher workPath = WORK_PATH.matcher(path);
+
+    if (path.equals("/projects") && method.equals("GET")) {
+      streamProjects(exchange);
+    } else if (path.equals("/projects") && method.equals("POST")) {
+      Project project = projectService.addProject(readProject(exchange, true));
+      send(exchange, 201, Json.project(project, false));
+    } else if (path.equals("/projects/summaries") && method.equals("GET")) {
+      send(exchange, 200, Json.array(projectService.fetchProjectSummaries(), Json::summary));
+    } else if (path.equals("/projects/search") && method.equals("GET")) {
+      String prefix = query.getOrDefault("prefix", "");
+      int limit =
+          intParameter(query, "limit", DEFAULT_SEARCH_LIMIT, 1, ProjectService.MAX_PAGE_SIZE);
+      send(exchange, 200,
+          Json.array(projectService.findProjectsByNamePrefix(prefix, limit), Json::summary));
+    } else if (path.equals("/projects/text") && method.equals("GET")) {
+      String terms = query.getOrDefault("q", "");
+      int size = intParameter(query, "size", DEFAULT_PAGE_SIZE, 1, ProjectService.MAX_PAGE_SIZE);
+      int page = intParameter(query, "page", 0, 0, Integer.MAX_VALUE / size - 1);
+      send(exchange, 200,
+          Json.array(projectService.searchProjectText(terms, page, size), Json::match));
+    } else if (projectPath.matches()) {
+      routeProject(exchange, method, Integer.valueOf(projectPath.group(1)));
+    } else if (workPath.matches()) {
+      routeWork(exchange, method, Integer.valueOf(workPath.group(1)));
+    } else {
+      send(exchange, 404, Json.error("No resource at " + path + "."));
+    }
+  }
+
+  /**
+   * Dispatch a request on one project.
+   *
+   * @param exchange The request and its response.
+   * @param method The request method.
+   * @param projectId The project ID.
+   * @throws IOException If the response cannot be written.
+   */
+  private void routeProject(HttpExchange exchange, String method, Integer projectId)
+      throws IOException {
+    switch (method) {
+      case "GET":
+        sendProject(exchange, projectService.fetchProjectById(projectId, true));
+        break;
+      case "PUT":
+        Project project = readProject(exchange, false);
+        project.setProjectId(projectId);
+        projectService.modifyProjectDetails(project);
+        sendProject(exchange, projectService.fetchProjectById(projectId, true));
+        break;
+      case "DELETE":
+        projectService.deleteProject(projectId);
+        exchange.sendResponseHeaders(204, -1);
+        break;
+      default:
+        send(exchange, 405, Json.error(method + " is not allowed on a project."));
+        break;
+    }
+  }
+
+  /**
+   * Dispatch a request on the time entries of one project.
+   *
+   * @param exchange The request and its response.
+   * @param method The request method.
+   * @param projectId The project ID.
+   * @throws IOException If the response cannot be written.
+   */
+  private void routeWork(HttpExchange exchange, String method, Integer projectId)
+      throws IOException {
+    switch (method) {
+      case "GET":
+        send(exchange, 200, Json.array(projectService.fetchWorkLogs(projectId), Json::workLog));
+        break;
+      case "POST":
+        WorkLog workLog = readWorkLog(exchange);
+        workLog.setProjectId(projectId);
+        send(exchange, 201, Json.workLog(projectService.logWork(workLog)));
+        break;
+      default:
+        send(exchange, 405, Json.error(method + " is not allowed on the work of a project."));
+        break;
+    }
+  }
+
+  /**
+   * Send a project with its children, tagged with the hash of its JSON so a client holding the same
+   * version is answered 304 without a body.
+   *
+   * @param exchange The request and its response.
+   * @param project The project.
+   * @throws IOException If the response cannot be written.
+   */
+  private void sendProject(HttpExchange exchange, Project project) throws IOException {
+    String json = Json.project(project, true);
+    byte[] body = json.getBytes(StandardCharsets.UTF_8);
+
+    CRC32 crc = new CRC32();
+    crc.update(body);
+    String etag = "\"" + Long.toHexString(crc.getValue()) + "-" + body.length + "\"";
+
+    exchange.getResponseHeaders().set("ETag", etag);
+    exchange.getResponseHeaders().set("Cache-Control", "no-cache");
+
+    String ifNoneMatch = exchange.getRequestHeaders().getFirst("If-None-Match");
+
+    if (Objects.nonNull(ifNoneMatch) && List.of(ifNoneMatch.split("\\s*,\\s*")).contains(etag)) {
+      exchange.sendResponseHeaders(304, -1);
+      return;
+    }
+
+    send(exchange, 200, body);
+  }
+
+  /**
+   * Stream every project as a JSON array, in chunks, pulling the projects from the database in
+   * batches as the response is written.
+   *
+   * @param exchange The request and its response.
+   * @throws IOException If the response cannot be written.
+   */
+  private void streamProjects(HttpExchange exchange) throws IOException {
+    Flow.Publisher<Project> projects = projectService.streamAllProjects();
+
+    exchange.getResponseHeaders().set("Content-Type", "application/json");
+    exchange.sendResponseHeaders(200, 0);
+
+    Writer out = new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8);
+    JsonArraySubscriber subscriber = new JsonArraySubscriber(out);
+    projects.subscribe(subscriber);
+
+    try {
+      subscriber.done.join();
+    } catch (RuntimeException e) {
+      // The status line is gone; drop the connection before the final chunk so the client sees
+      // the failure rather than a well-formed but truncated array.
+      System.out.println("Project stream failed: " + e);
+      abort(exchange);
+      throw new IOException("Project stream failed.", e);
+    }
+
+    out.flush();
+  }
+
+  /**
+   * Make the end of an exchange drop its connection instead of completing the response. The
+   * server closes the connection when closing the response body fails, so the body is replaced
+   * with one that cannot be written or closed.
+   *
+   * @param exchange The request and its response, whose headers are sent.
+   */
+  private static void abort(HttpExchange exchange) {
+    exchange.setStreams(null, new OutputStream() {
+      @Override
+      public void write(int b) throws IOException {
+        throw new IOException("Response aborted.");
+      }
+
+      @Override
+      public void close() throws IOException {
+        throw new IOException("Response aborted.");
+      }
+    });
+  }
+
+  /**
+   * Writes the projects it receives as the elements of a JSON array, requesting them in batches.
+   */
+  private static class JsonArraySubscriber implements Flow.Subscriber<Project> {
+    private final Writer out;
+    private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+    private Flow.Subscription subscription;
+    private int received;
+    private boolean first = true;
+
+    /**
+     * Create a subscriber.
+     *
+     * @param out The response body.
+     */
+    JsonArraySubscriber(Writer out) {
+      this.out = out;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+      this.subscription = subscription;
+      write("[");
+      subscription.request(STREAM_BATCH);
+    }
+
+    @Override
+    public void onNext(Project project) {
+      write((first ? "" : ",") + Json.project(project, false));
+      first = false;
+
+      if (++received % STREAM_BATCH == 0) {
+        subscription.request(STREAM_BATCH);
+      }
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+      done.completeExceptionally(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+      write("]");
+      done.complete(null);
+    }
+
+    /**
+     * Write part of the array, cancelling the stream if the client went away.
+     *
+     * @param json The JSON text.
+     */
+    private void write(String json) {
+      try {
+        out.write(json);
+      } catch (IOException e) {
+        subscription.cancel();
+        done.completeExceptionally(e);
+      }
+    }
+  }
+
+  /**
+   * Read a project from the JSON body of a request.
+   *
+   * @param exchange The request.
+   * @param withActualHours True if the actual hours are read, which is only when a project is
+   *     created; afterwards they change through the work log.
+   * @return The project.
+   * @throws IOException If the body cannot be read.
+   * @throws IllegalArgumentException If the body is not a project with a name.
+   */
+  private static Project readProject(HttpExchange exchange, boolean withActualHours)
+      throws IOException {
+    Map<String, Object> fields = readFields(exchange);
+    String projectName = field(fields, "projectName", String.class);
+
+    if (Objects.isNull(projectName) || projectName.isBlank()) {
+      throw new IllegalArgumentException("projectName is required.");
+    }
+
+    Project project = new Project();
+    project.setProjectName(projectName);
+    project.setEstimatedHours(field(fields, "estimatedHours", BigDecimal.class));
+    project.setNotes(field(fields, "notes", String.class));
+
+    if (withActualHours) {
+      project.setActualHours(field(fields, "actualHours", BigDecimal.class));
+    }
+
+    BigDecimal difficulty = field(fields, "difficulty", BigDecimal.class);
+
+    if (Objects.nonNull(difficulty)) {
+      project.setDifficulty(difficulty.intValueExact());
+    }
+
+    return project;
+  }
+
+  /**
+   * Read a time entry from the JSON body of a request.
+   *
+   * @param exchange The request.
+   * @return The time entry, without its project.
+   * @throws IOException If the body cannot be read.
+   * @throws IllegalArgumentException If the body is not a time entry.
+   */
+  private static WorkLog readWorkLog(HttpExchange exchange) throws IOException {
+    Map<String, Object> fields = readFields(exchange);
+    String crewMember = field(fields, "crewMember", String.class);
+    BigDecimal hours = field(fields, "hours", BigDecimal.class);
+
+    if (Objects.isNull(crewMember) || crewMember.isBlank() || Objects.isNull(hours)) {
+      throw new IllegalArgumentException("crewMember and hours are required.");
+    }
+
+    WorkLog workLog = new WorkLog();
+    workLog.setCrewMember(crewMember);
+    workLog.setHours(hours);
+    return workLog;
+  }
+
+  /**
+   * Read the JSON object in the body of a request.
+   *
+   * @param exchange The request.
+   * @return The fields of the object.
+   * @throws IOException If the body cannot be read.
+   * @throws IllegalArgumentException If the body is not a flat JSON object.
+   */
+  private static Map<String, Object> readFields(HttpExchange exchange) throws IOException {
+    try (InputStream in = exchange.getRequestBody()) {
+      return Json.parseObject(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+    }
+  }
+
+  /**
+   * Get a field of a JSON object.
+   *
+   * @param <T> The type of the field.
+   * @param fields The fields of the object.
+   * @param name The name of the field.
+   * @param type The type of the field: String for a string, BigDecimal for a number.
+   * @return The value, or null if the field is missing or null.
+   * @throws IllegalArgumentException If the field has another type.
+   */
+  private static <T> T field(Map<String, Object> fields, String name, Class<T> type) {
+    Object value = fields.get(name);
+
+    if (Objects.nonNull(value) && !type.isInstance(value)) {
+      throw new IllegalArgumentException(name + " must be a "
+          + (type == String.class ? "string" : "number") + ".");
+    }
+
+    return type.cast(value);
+  }
+
+  /**
+   * Send a JSON response.
+   *
+   * @param exchange The request and its response.
+   * @param status The status code.
+   * @param json The JSON body.
+   * @throws IOException If the response cannot be written.
+   */
+  private static void send(HttpExchange exchange, int status, String json) throws IOException {
+    send(exchange, status, json.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Send a JSON response with a known length, so the connection can be kept alive.
+   *
+   * @param exchange The request and its response.
+   * @param status The status code.
+   * @param body The JSON body.
+   * @throws IOException If the response cannot be written.
+   */
+  private static void send(HttpExchange exchange, int status, byte[] body) throws IOException {
+    exchange.getResponseHeaders().set("Content-Type", "application/json");
+    exchange.sendResponseHeaders(status, body.length);
+
+    try (OutputStream out = exchange.getResponseBody()) {
+      out.write(body);
+    }
+  }
+
+  /**
+   * Decode the parameters of a query string.
+   *
+   * @param rawQuery The raw query string, or null.
+   * @return The parameters.
+   */
+  private static Map<String, String> parseQuery(String rawQuery) {
+    Map<String, String> parameters = new HashMap<>();
+
+    if (Objects.nonNull(rawQuery)) {
+      for (String pair : rawQuery.split("&")) {
+        String[] nameAndValue = pair.split("=", 2);
+        parameters.put(URLDecoder.decode(nameAndValue[0], StandardCharsets.UTF_8),
+            nameAndValue.length > 1
+                ? URLDecoder.decode(nameAndValue[1], StandardCharsets.UTF_8) : "");
+      }
+    }
+
+    return parameters;
+  }
+
+  /**
+   * Get an integer query parameter.
+   *
+   * @param query The parameters.
+   * @param name The name of the parameter.
+   * @param defaultValue The value if the parameter is missing.
+   * @param min The smallest value allowed.
+   * @param max The largest value allowed.
+   * @return The value.
+   * @throws IllegalArgumentException If the parameter is not an integer in range.
+   */
+  private static int intParameter(Map<String, String> query, String name, int defaultValue,
+      int min, int max) {
+    String value = query.get(name);
+    int parsed = Objects.isNull(value) || value.isBlank() ? defaultValue : Integer.parseInt(value);
+
+    if (parsed < min || parsed > max) {
+      throw new IllegalArgumentException(
+          name + " must be between " + min + " and " + max + ", not " + parsed + ".");
+    }
+
+    return parsed;
+  }
+}
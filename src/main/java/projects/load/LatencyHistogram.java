@@ -0,0 +1,155 @@
+package projects.load;
+
+import java.io.PrintStream;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram of latencies in microseconds with a fixed relative precision, recorded concurrently
+ * without locks. Values below {@value #LINEAR_LIMIT} are counted exactly; above that, each power
+ * of two is split into {@value #SUB_BUCKETS} buckets, so a value is known to within 1%. This is
+ * the layout of HdrHistogram at two significant digits.
+ *
+ * @author Ari
+ * @since 2026-10-19
+ */
+public class LatencyHistogram {
+  private static final int SUB_BUCKET_BITS = 7;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int LINEAR_LIMIT = 2 * SUB_BUCKETS;
+
+  /* Enough buckets for any non-negative long. */
+  private static final int BUCKETS = LINEAR_LIMIT + (63 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+  /**
+   * Record a latency.
+   *
+   * @param micros The latency in microseconds; negative values are recorded as zero.
+   */
+  public void record(long micros) {
+    counts.incrementAndGet(indexOf(Math.max(0, micros)));
+  }
+
+  /**
+   * Add the counts of another histogram.
+   *
+   * @param other The other histogram.
+   */
+  void add(LatencyHistogram other) {
+    for (int i = 0; i < BUCKETS; i++) {
+      counts.addAndGet(i, other.counts.get(i));
+    }
+  }
+
+  /**
+   * @return The number of latencies recorded.
+   */
+  public long getCount() {
+    long count = 0;
+
+    for (int i = 0; i < BUCKETS; i++) {
+      count += counts.get(i);
+    }
+
+    return count;
+  }
+
+  /**
+   * Get the latency at a percentile.
+   *
+   * @param percentile The percentile, from 0 to 100.
+   * @return The highest latency of the bucket holding the percentile, in microseconds, or 0 if
+   *     nothing was recorded.
+   */
+  public long getValueAtPercentile(double percentile) {
+    long total = getCount();
+    long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+    long seen = 0;
+
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += counts.get(i);
+
+      if (seen >= rank && total > 0) {
+        return highestValueOf(i);
+      }
+    }
+
+    return 0;
+  }
+
+  /**
+   * @return The highest latency recorded, to the precision of the histogram, in microseconds.
+   */
+  public long getMax() {
+    for (int i = BUCKETS - 1; i >= 0; i--) {
+      if (counts.get(i) > 0) {
+        return highestValueOf(i);
+      }
+    }
+
+    return 0;
+  }
+
+  /**
+   * Print the percentile distribution in the layout of HdrHistogram's .hgrm files, so the output
+   * can be plotted with the usual tools.
+   *
+   * @param out The output.
+   * @param unitMicros The microseconds per unit of the values printed, such as 1000 for ms.
+   */
+  void printDistribution(PrintStream out, double unitMicros) {
+    long total = getCount();
+    out.printf("%12s %14s %10s %14s%n%n", "Value", "Percentile", "TotalCount", "1/(1-Percentile)");
+
+    long seen = 0;
+
+    for (int i = 0; i < BUCKETS; i++) {
+      long count = counts.get(i);
+
+      if (count == 0) {
+        continue;
+      }
+
+      seen += count;
+      double fraction = (double) seen / total;
+      String inverse = seen == total ? "" : String.format("%14.2f", 1 / (1 - fraction));
+
+      out.printf("%12.3f %14.12f %10d %s%n", highestValueOf(i) / unitMicros, fraction, seen,
+          inverse);
+    }
+
+    out.printf("#[Max = %12.3f, Total count = %12d]%n", getMax() / unitMicros, total);
+  }
+
+  /**
+   * Find the bucket of a value.
+   *
+   * @param value The value, not negative.
+   * @return The bucket index.
+   */
+  private static int indexOf(long value) {
+    if (value < LINEAR_LIMIT) {
+      return (int) value;
+    }
+
+    int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+    return LINEAR_LIMIT + (shift - 1) * SUB_BUCKETS + (int) (value >>> shift) - SUB_BUCKETS;
+  }
+
+  /**
+   * Get the highest value counted in a bucket.
+   *
+   * @param index The bucket index.
+   * @return The value.
+   */
+  private static long highestValueOf(int index) {
+    if (index < LINEAR_LIMIT) {
+      return index;
+    }
+
+    int shift = (index - LINEAR_LIMIT) / SUB_BUCKETS + 1;
+    long subBucket = (index - LINEAR_LIMIT) % SUB_BUCKETS + SUB_BUCKETS;
+    return ((subBucket + 1) << shift) - 1;
+  }
+}
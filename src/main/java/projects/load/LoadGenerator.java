@@ -0,0 +1,375 @@
+package projects.load;
+
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import projects.entity.Material;
+import projects.entity.Project;
+import projects.entity.Step;
+import projects.service.ProjectService;
+import projects.store.InMemoryProjectStore;
+
+/**
+ * Workload driver for the service layer. It seeds a store to a given size, then runs a mix of
+ * {@link ProjectService} operations from many threads at a fixed total rate and reports the
+ * throughput and the latency percentiles of each operation.
+ *
+ * <p>Each thread issues its operations on a fixed schedule, and latency is measured from the time
+ * an operation was due rather than from the time it started. An operation held up behind a slow
+ * one therefore counts the wait, which corrects for coordinated omission; the service time alone
+ * is reported alongside.
+ *
+ * <p>Options are given as name=value arguments:
+ *
+ * <pre>
+ * store=memory     memory for the in-process store, mysql for the configured database
+ * seed=10000       number of projects seeded, each with two materials and two steps
+ * threads=32       number of client threads
+ * rate=2000        operations per second, over all threads
+ * duration=30      seconds of measurement
+ * mix=select:70,list:5,add:10,update:10,delete:5
+ * skew=0.99        Zipfian skew of the projects selected and updated, 0 for uniform
+ * report=load.hgrm file receiving the corrected latency distribution of all operations
+ * </pre>
+ *
+ * @author Ari
+ * @since 2026-10-19
+ */
+public class LoadGenerator {
+
+  /**
+   * The operations of the mix, those of the interactive menu.
+   */
+  enum Operation {
+    ADD, LIST, SELECT, UPDATE, DELETE
+  }
+
+  private static final double MICROS_PER_MS = 1000.0;
+
+  private final ProjectService projectService;
+  private final Map<String, String> options;
+  private final Map<Operation, LatencyHistogram> corrected = new EnumMap<>(Operation.class);
+  private final Map<Operation, LatencyHistogram> service = new EnumMap<>(Operation.class);
+  private final Queue<Integer> addedIds = new ConcurrentLinkedQueue<>();
+  private final AtomicLong errors = new AtomicLong();
+
+  private Operation[] mix;
+  private ZipfianIds hotIds;
+
+  /**
+   * Create a driver.
+   *
+   * @param options The options, by name.
+   */
+  LoadGenerator(Map<String, String> options) {
+    this(options.getOrDefault("store", "memory").equals("mysql") ? new ProjectService()
+        : new ProjectService(new InMemoryProjectStore()), options);
+  }
+
+  /**
+   * Create a driver of a given service. The store option is ignored.
+   *
+   * @param projectService The service.
+   * @param options The options, by name.
+   */
+  public LoadGenerator(ProjectService projectService, Map<String, String> options) {
+    this.options = options;
+    this.projectService = projectService;
+
+    for (Operation operation : Operation.values()) {
+      corrected.put(operation, new LatencyHistogram());
+      service.put(operation, new LatencyHistogram());
+    }
+  }
+
+  /**
+   * Run a workload from the command line.
+   *
+   * @param args The options, as name=value.
+   */
+  public static void main(String[] args) {
+    Map<String, String> options = new HashMap<>();
+
+    for (String arg : args) {
+      String[] nameAndValue = arg.split("=", 2);
+
+      if (nameAndValue.length != 2) {
+        throw new IllegalArgumentException("Options are name=value, not " + arg + ".");
+      }
+
+      options.put(nameAndValue[0], nameAndValue[1]);
+    }
+
+    new LoadGenerator(options).run();
+  }
+
+  /**
+   * Seed the store, run the workload and report.
+   */
+  public void run() {
+    mix = parseMix(option("mix", "select:70,list:5,add:10,update:10,delete:5"));
+    int threads = Integer.parseInt(option("threads", "32"));
+    double rate = Double.parseDouble(option("rate", "2000"));
+    long durationNanos = (long) (Double.parseDouble(option("duration", "30")) * 1e9);
+
+    List<Integer> seededIds = seed(Integer.parseInt(option("seed", "10000")));
+    hotIds = new ZipfianIds(seededIds, Double.parseDouble(option("skew", "0.99")));
+
+    long intervalNanos = (long) (1e9 * threads / rate);
+    long start = System.nanoTime();
+    long end = start + durationNanos;
+    List<Thread> workers = new ArrayList<>();
+
+    for (int i = 0; i < threads; i++) {
+      // Stagger the threads so their schedules interleave evenly.
+      long first = start + intervalNanos * i / threads;
+      Thread worker = new Thread(() -> drive(first, intervalNanos, end), "load-" + i);
+      worker.start();
+      workers.add(worker);
+    }
+
+    for (Thread worker : workers) {
+      try {
+        worker.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+
+    report((System.nanoTime() - start) / 1e9, rate);
+  }
+
+  /**
+   * Issue operations on a fixed schedule until the end of the run.
+   *
+   * @param first The time the first operation is due, in nanoseconds.
+   * @param intervalNanos The time between two operations.
+   * @param end The end of the run.
+   */
+  private void drive(long first, long intervalNanos, long end) {
+    for (long due = first; due < end; due += intervalNanos) {
+      long now = System.nanoTime();
+
+      if (now < due) {
+        LockSupport.parkNanos(due - now);
+      }
+
+      Operation operation = mix[ThreadLocalRandom.current().nextInt(mix.length)];
+      long started = System.nanoTime();
+
+      try {
+        execute(operation);
+      } catch (RuntimeException e) {
+        errors.incrementAndGet();
+      }
+
+      long finished = System.nanoTime();
+      corrected.get(operation).record((finished - due) / 1000);
+      service.get(operation).record((finished - started) / 1000);
+    }
+  }
+
+  /**
+   * Run one operation.
+   *
+   * @param operation The operation.
+   */
+  private void execute(Operation operation) {
+    switch (operation) {
+      case ADD:
+        addedIds.add(projectService.addProject(newProject("Load project")).getProjectId());
+        break;
+      case LIST:
+        projectService.fetchProjectSummaries();
+        break;
+      case SELECT:
+        projectService.fetchProjectById(hotIds.next(), true).getMaterials();
+        break;
+      case UPDATE:
+        Project project = newProject("Updated project");
+        project.setProjectId(hotIds.next());
+        projectService.modifyProjectDetails(project);
+        break;
+      case DELETE:
+        // Only delete what the run added, so the seeded projects stay selectable.
+        Integer projectId = addedIds.poll();
+
+        if (projectId == null) {
+          projectId = projectService.addProject(newProject("Load project")).getProjectId();
+        }
+
+        projectService.deleteProject(projectId);
+        break;
+      default:
+        throw new IllegalStateException("Unknown operation " + operation + ".");
+    }
+  }
+
+  /**
+   * Seed the store with projects, each with two materials and two steps.
+   *
+   * @param count The number of projects.
+   * @return The IDs of the projects.
+   */
+  private List<Integer> seed(int count) {
+    List<Integer> ids = new ArrayList<>(count);
+
+    for (int i = 1; i <= count; i++) {
+      Project project = projectService.addProject(newProject("Seed project " + i));
+
+      for (int j = 1; j <= 2; j++) {
+        Material material = new Material();
+        material.setProjectId(project.getProjectId());
+        material.setMaterialName("Material " + j);
+        material.setNumRequired(j);
+        material.setCostHundredths(425);
+        projectService.addMaterial(material);
+
+        Step step = new Step();
+        step.setProjectId(project.getProjectId());
+        step.setStepText("Step " + j + " of seed project " + i);
+        step.setStepOrder(j);
+        projectService.addStep(step);
+      }
+
+      ids.add(project.getProjectId());
+    }
+
+    return ids;
+  }
+
+  /**
+   * Build a project with random details.
+   *
+   * @param name The project name.
+   * @return The project.
+   */
+  private static Project newProject(String name) {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    Project project = new Project();
+    project.setProjectName(name);
+    project.setEstimatedHundredths(random.nextInt(100, 10000));
+    project.setActualHundredths(random.nextInt(100, 10000));
+    project.setDifficulty(random.nextInt(1, 6));
+    project.setNotes("Generated by the load generator.");
+    return project;
+  }
+
+  /**
+   * @return The latencies of all operations, measured from the time each was due.
+   */
+  public LatencyHistogram getLatencies() {
+    LatencyHistogram all = new LatencyHistogram();
+    corrected.values().forEach(all::add);
+    return all;
+  }
+
+  /**
+   * @return The service times of all operations, measured from the time each started.
+   */
+  public LatencyHistogram getServiceTimes() {
+    LatencyHistogram all = new LatencyHistogram();
+    service.values().forEach(all::add);
+    return all;
+  }
+
+  /**
+   * Print the results to the console and the corrected distribution to the report file.
+   *
+   * @param seconds The length of the run.
+   * @param rate The target rate.
+   */
+  private void report(double seconds, double rate) {
+    LatencyHistogram all = getLatencies();
+
+    System.out.printf("%nTarget %.0f ops/s, achieved %.0f ops/s over %.1f s, %d errors%n", rate,
+        all.getCount() / seconds, seconds, errors.get());
+    System.out.printf("%-8s %9s %9s %9s %9s %9s %9s %12s%n", "op", "count", "p50 ms", "p90 ms",
+        "p99 ms", "p99.9 ms", "max ms", "svc p99 ms");
+
+    for (Operation operation : Operation.values()) {
+      printRow(operation.name().toLowerCase(), corrected.get(operation), service.get(operation));
+    }
+
+    printRow("all", all, null);
+
+    String file = option("report", "load.hgrm");
+
+    try (PrintStream out = new PrintStream(file)) {
+      all.printDistribution(out, MICROS_PER_MS);
+      System.out.println("Latency distribution written to " + file + ".");
+    } catch (FileNotFoundException e) {
+      System.out.println("Cannot write " + file + ": " + e.getMessage());
+    }
+  }
+
+  /**
+   * Print the percentiles of one operation.
+   *
+   * @param name The name of the row.
+   * @param histogram The corrected latencies.
+   * @param serviceTimes The service times, or null to leave them out.
+   */
+  private static void printRow(String name, LatencyHistogram histogram,
+      LatencyHistogram serviceTimes) {
+    if (histogram.getCount() == 0) {
+      return;
+    }
+
+    System.out.printf("%-8s %9d %9.2f %9.2f %9.2f %9.2f %9.2f %12s%n", name, histogram.getCount(),
+        histogram.getValueAtPercentile(50) / MICROS_PER_MS,
+        histogram.getValueAtPercentile(90) / MICROS_PER_MS,
+        histogram.getValueAtPercentile(99) / MICROS_PER_MS,
+        histogram.getValueAtPercentile(99.9) / MICROS_PER_MS,
+        histogram.getMax() / MICROS_PER_MS,
+        serviceTimes == null ? ""
+            : String.format("%.2f", serviceTimes.getValueAtPercentile(99) / MICROS_PER_MS));
+  }
+
+  /**
+   * Expand a mix into a table of operations drawn from uniformly.
+   *
+   * @param text The mix, as operation:weight pairs separated by commas.
+   * @return The table, with each operation as many times as its weight.
+   */
+  private static Operation[] parseMix(String text) {
+    List<Operation> table = new ArrayList<>();
+
+    for (String entry : text.split(",")) {
+      String[] operationAndWeight = entry.trim().split(":");
+      Operation operation = Operation.valueOf(operationAndWeight[0].toUpperCase());
+      int weight = operationAndWeight.length > 1 ? Integer.parseInt(operationAndWeight[1]) : 1;
+
+      for (int i = 0; i < weight; i++) {
+        table.add(operation);
+      }
+    }
+
+    if (table.isEmpty()) {
+      throw new IllegalArgumentException("The mix has no operation.");
+    }
+
+    return table.toArray(new Operation[0]);
+  }
+
+  /**
+   * Get an option.
+   *
+   * @param name The name of the option.
+   * @param defaultValue The value if the option is not given.
+   * @return The value.
+   */
+  private String option(String name, String defaultValue) {
+    return options.getOrDefault(name, defaultValue);
+  }
+}
@@ -0,0 +1,82 @@
+package projects.load;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Picks project IDs with a Zipfian skew: a few projects take most of the accesses, as in
+ * production traffic. The popularity ranks are shuffled over the IDs, so the hot projects are
+ * spread over the ID range and the shards rather than being the oldest projects. The generator is
+ * the one of the Yahoo! Cloud Serving Benchmark.
+ *
+ * @author Ari
+ * @since 2026-10-19
+ */
+class ZipfianIds {
+  private final List<Integer> ids;
+  private final double theta;
+  private final double zetaN;
+  private final double alpha;
+  private final double eta;
+
+  /**
+   * Create a generator.
+   *
+   * @param projectIds The IDs to pick from.
+   * @param theta The skew, between 0 (uniform) and 1 exclusive; 0.99 is the usual choice.
+   */
+  ZipfianIds(List<Integer> projectIds, double theta) {
+    if (projectIds.isEmpty() || theta < 0 || theta >= 1) {
+      throw new IllegalArgumentException("Need IDs to pick from and a skew in [0, 1).");
+    }
+
+    this.ids = new ArrayList<>(projectIds);
+    Collections.shuffle(ids, new Random(projectIds.size()));
+
+    this.theta = theta;
+    this.zetaN = zeta(ids.size(), theta);
+    this.alpha = 1 / (1 - theta);
+    this.eta = (1 - Math.pow(2.0 / ids.size(), 1 - theta)) / (1 - zeta(2, theta) / zetaN);
+  }
+
+  /**
+   * Pick an ID.
+   *
+   * @return The project ID.
+   */
+  Integer next() {
+    double u = ThreadLocalRandom.current().nextDouble();
+    double uz = u * zetaN;
+    int rank;
+
+    if (uz < 1) {
+      rank = 0;
+    } else if (uz < 1 + Math.pow(0.5, theta)) {
+      rank = 1;
+    } else {
+      rank = (int) (ids.size() * Math.pow(eta * u - eta + 1, alpha));
+    }
+
+    return ids.get(Math.min(rank, ids.size() - 1));
+  }
+
+  /**
+   * Compute the generalized harmonic number of the first n ranks.
+   *
+   * @param n The number of ranks.
+   * @param theta The skew.
+   * @return The sum of 1 / i^theta for i from 1 to n.
+   */
+  private static double zeta(long n, double theta) {
+    double sum = 0;
+
+    for (long i = 1; i <= n; i++) {
+      sum += 1 / Math.pow(i, theta);
+    }
+
+    return sum;
+  }
+}
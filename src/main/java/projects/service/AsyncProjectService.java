@@ -0,0 +1,340 @@
+package projects.service;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+import projects.analytics.ProjectAnalytics;
+import projects.dao.DbConnection;
+import projects.entity.Material;
+import projects.entity.Project;
+import projects.entity.ProjectChanges;
+import projects.entity.ProjectCriteria;
+import projects.entity.ProjectMatch;
+import projects.entity.ProjectRollup;
+import projects.entity.ProjectSummary;
+import projects.entity.Step;
+import projects.entity.WorkLog;
+
+/**
+ * Asynchronous facade of {@link ProjectService}. Every operation runs on a task of its own and
+ * returns a future completed with its result, or completed exceptionally with the exception the
+ * blocking operation throws.
+ *
+ * <p>By default the tasks run on virtual threads, one per task, so thousands of callers can wait
+ * on JDBC calls without holding a platform thread each. On a runtime without virtual threads they
+ * run on a fixed pool of {@value #FALLBACK_THREADS} platform threads instead.
+ *
+ * <p>A task carries the read pin of the thread submitting it, so a read chained onto a write, or
+ * submitted after it by the same caller, goes to the primary rather than to a replica that has not
+ * applied the write yet.
+ *
+ * @author Ari
+ * @since 2026-10-19
+ */
+public class AsyncProjectService implements AutoCloseable {
+  private static final int FALLBACK_THREADS = 64;
+
+  private final ProjectService projectService;
+  private final ExecutorService executor;
+  private final Executor queryExecutor;
+
+  /**
+   * Create a facade running its tasks on virtual threads where the runtime has them.
+   *
+   * @param projectService The blocking service.
+   */
+  public AsyncProjectService(ProjectService projectService) {
+    ExecutorService virtualThreads = VirtualThreads.newPerTaskExecutor().orElse(null);
+    this.projectService = projectService;
+
+    if (Objects.nonNull(virtualThreads)) {
+      this.executor = virtualThreads;
+      this.queryExecutor = virtualThreads;
+    } else {
+      this.executor = Executors.newFixedThreadPool(FALLBACK_THREADS, runnable -> {
+        Thread thread = new Thread(runnable, "project-service-async");
+        thread.setDaemon(true);
+        return thread;
+      });
+
+      // Tasks of a bounded pool must not wait on other tasks of the pool, or a burst of fetches
+      // takes every thread and waits forever; their queries run one after the other instead.
+      this.queryExecutor = Runnable::run;
+    }
+  }
+
+  /**
+   * Create a facade running its tasks on an executor, which {@link #close()} shuts down. The
+   * queries of a project fetch run one after the other on the task of the fetch.
+   *
+   * @param projectService The blocking service.
+   * @param executor The executor.
+   */
+  public AsyncProjectService(ProjectService projectService, ExecutorService executor) {
+    this.projectService = projectService;
+    this.executor = executor;
+    this.queryExecutor = Runnable::run;
+  }
+
+  /**
+   * Run an operation on a task of its own.
+   *
+   * @param <T> The type of the result.
+   * @param operation The operation.
+   * @return The future result.
+   */
+  private <T> CompletableFuture<T> submit(Supplier<T> operation) {
+    return CompletableFuture.supplyAsync(operation, DbConnection.carryPin(executor));
+  }
+
+  /**
+   * Run an operation without result on a task of its own.
+   *
+   * @param operation The operation.
+   * @return The future completion.
+   */
+  private CompletableFuture<Void> submit(Runnable operation) {
+    return CompletableFuture.runAsync(operation, DbConnection.carryPin(executor));
+  }
+
+  /**
+   * Add a project.
+   *
+   * @param project The project to add.
+   * @return The project added.
+   */
+  public CompletableFuture<Project> addProject(Project project) {
+    return submit(() -> projectService.addProject(project));
+  }
+
+  /**
+   * Fetch all projects.
+   *
+   * @return The list of projects.
+   */
+  public CompletableFuture<List<Project>> fetchAllProjects() {
+    return submit(projectService::fetchAllProjects);
+  }
+
+  /**
+   * Search projects matching criteria.
+   *
+   * @param criteria The search criteria.
+   * @return The list of projects found.
+   */
+  public CompletableFuture<List<Project>> searchProjects(ProjectCriteria criteria) {
+    return submit(() -> projectService.searchProjects(criteria));
+  }
+
+  /**
+   * Search projects by words in their notes and step descriptions.
+   *
+   * @param terms The words to search for.
+   * @param page The zero-based page number.
+   * @param pageSize The number of results per page.
+   * @return The page of matching projects, best match first.
+   */
+  public CompletableFuture<List<ProjectMatch>> searchProjectText(String terms, int page,
+      int pageSize) {
+    return submit(() -> projectService.searchProjectText(terms, page, pageSize));
+  }
+
+  /**
+   * Find projects by name prefix, ignoring case.
+   *
+   * @param prefix The start of the project name.
+   * @param limit The maximum number of projects returned.
+   * @return The projects found, ordered by name; only the ID and name are set.
+   */
+  public CompletableFuture<List<ProjectSummary>> findProjectsByNamePrefix(String prefix,
+      int limit) {
+    return submit(() -> projectService.findProjectsByNamePrefix(prefix, limit));
+  }
+
+  /**
+   * Fetch summaries of all projects.
+   *
+   * @return The list of project summaries.
+   */
+  public CompletableFuture<List<ProjectSummary>> fetchProjectSummaries() {
+    return submit(projectService::fetchProjectSummaries);
+  }
+
+  /**
+   * Fetch a project by project ID with its materials, steps and categories loaded. The project and
+   * its child collections are queried at the same time, each on a virtual thread of its own.
+   *
+   * @param projectId The project ID.
+   * @return The project.
+   */
+  public CompletableFuture<Project> fetchProjectById(Integer projectId) {
+    return submit(() -> projectService.fetchProjectById(projectId, queryExecutor));
+  }
+
+  /**
+   * Modify a project.
+   *
+   * @param project The project to modify.
+   * @return The future completion.
+   */
+  public CompletableFuture<Void> modifyProjectDetails(Project project) {
+    return submit(() -> projectService.modifyProjectDetails(project));
+  }
+
+  /**
+   * Delete a project.
+   *
+   * @param projectId The project ID.
+   * @return The future completion.
+   */
+  public CompletableFuture<Void> deleteProject(Integer projectId) {
+    return submit(() -> projectService.deleteProject(projectId));
+  }
+
+  /**
+   * Take a columnar snapshot of the projects, materials and steps for ad-hoc analytics.
+   *
+   * @return The analytics over the snapshot.
+   */
+  public CompletableFuture<ProjectAnalytics> fetchProjectAnalytics() {
+    return submit(projectService::fetchProjectAnalytics);
+  }
+
+  /**
+   * Clone a project with its materials, steps and categories.
+   *
+   * @param sourceId The ID of the project to clone.
+   * @param newName The name of the new project.
+   * @return The ID of the new project.
+   */
+  public CompletableFuture<Integer> cloneProject(Integer sourceId, String newName) {
+    return submit(() -> projectService.cloneProject(sourceId, newName));
+  }
+
+  /**
+   * Add a material to a project.
+   *
+   * @param material The material to add.
+   * @return The material added.
+   */
+  public CompletableFuture<Material> addMaterial(Material material) {
+    return submit(() -> projectService.addMaterial(material));
+  }
+
+  /**
+   * Modify a material.
+   *
+   * @param material The material to modify.
+   * @return The future completion.
+   */
+  public CompletableFuture<Void> modifyMaterial(Material material) {
+    return submit(() -> projectService.modifyMaterial(material));
+  }
+
+  /**
+   * Delete a material.
+   *
+   * @param materialId The material ID.
+   * @return The future completion.
+   */
+  public CompletableFuture<Void> deleteMaterial(Integer materialId) {
+    return submit(() -> projectService.deleteMaterial(materialId));
+  }
+
+  /**
+   * Add a step to a project.
+   *
+   * @param step The step to add.
+   * @return The step added.
+   */
+  public CompletableFuture<Step> addStep(Step step) {
+    return submit(() -> projectService.addStep(step));
+  }
+
+  /**
+   * Delete a step.
+   *
+   * @param stepId The step ID.
+   * @return The future completion.
+   */
+  public CompletableFuture<Void> deleteStep(Integer stepId) {
+    return submit(() -> projectService.deleteStep(stepId));
+  }
+
+  /**
+   * Fetch the cost and progress rollups of many projects.
+   *
+   * @param projectIds The project IDs.
+   * @return The rollups, ordered by project name.
+   */
+  public CompletableFuture<List<ProjectRollup>> fetchProjectRollups(
+      Collection<Integer> projectIds) {
+    return submit(() -> projectService.fetchProjectRollups(projectIds));
+  }
+
+  /**
+   * Recompute every project's rollup from scratch.
+   *
+   * @return The number of projects whose stored rollup was missing or wrong.
+   */
+  public CompletableFuture<Integer> rebuildProjectRollups() {
+    return submit(projectService::rebuildProjectRollups);
+  }
+
+  /**
+   * Log a time entry against a project.
+   *
+   * @param workLog The time entry to log.
+   * @return The time entry logged.
+   */
+  public CompletableFuture<WorkLog> logWork(WorkLog workLog) {
+    return submit(() -> projectService.logWork(workLog));
+  }
+
+  /**
+   * Fetch the time entries of a project, most recent first.
+   *
+   * @param projectId The project ID.
+   * @return The list of time entries.
+   */
+  public CompletableFuture<List<WorkLog>> fetchWorkLogs(Integer projectId) {
+    return submit(() -> projectService.fetchWorkLogs(projectId));
+  }
+
+  /**
+   * Fetch the up-to-date actual hours of a project, including hours not folded in yet.
+   *
+   * @param projectId The project ID.
+   * @return The actual hours, or null if no hours are known.
+   */
+  public CompletableFuture<BigDecimal> fetchActualHours(Integer projectId) {
+    return submit(() -> projectService.fetchActualHours(projectId));
+  }
+
+  /**
+   * Fetch the projects of a shard changed or deleted after a watermark, in change order.
+   *
+   * @param shard The shard number.
+   * @param watermark The watermark returned by the previous call, or 0 to start from the beginning.
+   * @param limit The maximum number of changes read.
+   * @return The changes and the next watermark.
+   */
+  public CompletableFuture<ProjectChanges> fetchChangesSince(int shard, long watermark,
+      int limit) {
+    return submit(() -> projectService.fetchChangesSince(shard, watermark, limit));
+  }
+
+  /**
+   * Stop accepting operations. Operations already submitted run to completion.
+   */
+  @Override
+  public void close() {
+    executor.shutdown();
+  }
+}
@@ -1,9 +1,38 @@
 package projects.service;
 
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.util.Collection;
 import java.util.List;
 import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import projects.analytics.ProjectAnalytics;
+import projects.cache.ChangeLogPoller;
+import projects.cache.MappedProjectSnapshot;
+import projects.cache.ProjectCache;
+import projects.dao.BackgroundTask;
+import projects.dao.ChangeLogDao;
+import projects.dao.DbConnection;
 import projects.dao.ProjectDao;
+import projects.dao.ProjectPurger;
+import projects.dao.WorkLogDao;
+import projects.entity.CompressedText;
+import projects.entity.Material;
 import projects.entity.Project;
+import projects.entity.ProjectChanges;
+import projects.entity.ProjectCriteria;
+import projects.entity.ProjectMatch;
+import projects.entity.ProjectRollup;
+import projects.entity.ProjectSummary;
+import projects.entity.Step;
+import projects.entity.WorkLog;
+import projects.exception.DbException;
+import projects.store.ProjectStore;
 
 /**
  * ProjectService class of the database test application.
@@ -12,7 +41,168 @@ import projects.entity.Project;
  * @since 2023-10-30
  */
 public class ProjectService {
-  private ProjectDao projectDao = new ProjectDao();
+  private static final long PURGE_DELAY_SECONDS = 10;
+  private static final long FOLD_DELAY_SECONDS = 30;
+  private static final long POLL_DELAY_SECONDS = 1;
+  private static final long SNAPSHOT_DELAY_SECONDS = 60;
+  private static final long PRUNE_DELAY_SECONDS = 3600;
+  private static final int GENERATION_STRIPES = 4096;
+
+  /** The most results a page of a text search or a name lookup may ask for. */
+  public static final int MAX_PAGE_SIZE = 1000;
+
+  private WorkLogDao workLogDao = new WorkLogDao();
+  private ChangeLogDao changeLogDao = new ChangeLogDao();
+  private ProjectPurger projectPurger = new ProjectPurger();
+
+  private BackgroundTask purgeTask = new BackgroundTask("project-purger", projectPurger::purgeOnce);
+  private BackgroundTask foldTask = new BackgroundTask("work-log-folder", workLogDao::foldHours);
+  private BackgroundTask pruneTask =
+      new BackgroundTask("change-log-pruner", changeLogDao::pruneChanges);
+
+  private final ProjectStore projectStore;
+  private final boolean databaseStore;
+  private final ProjectCache projectCache;
+  private final ChangeLogPoller changeLogPoller;
+
+  private Path snapshotFile;
+  private BackgroundTask snapshotTask;
+  private volatile MappedProjectSnapshot warmSnapshot;
+
+  /*
+   * Invalidation counts by stripe of project IDs. A project loaded for the cache is only kept
+   * there if its stripe was not invalidated during the load; a collision merely skips a put.
+   */
+  private final AtomicLongArray generations = new AtomicLongArray(GENERATION_STRIPES);
+
+  /**
+   * Create a service over the MySQL store, without a project cache.
+   */
+  public ProjectService() {
+    this(new ProjectDao(), null);
+  }
+
+  /**
+   * Create a service caching the projects fetched by ID. Writes made through this service
+   * invalidate the cache as soon as they commit; writes made by other application nodes sharing
+   * the database invalidate it once the change log poller picks them up.
+   *
+   * @param projectCache The project cache, or null for no cache.
+   */
+  public ProjectService(ProjectCache projectCache) {
+    this(new ProjectDao(), projectCache);
+  }
+
+  /**
+   * Create a service over a project store, without a project cache. Work logs, the change feed
+   * and the background tasks are available only over the MySQL store.
+   *
+   * @param projectStore The project store.
+   */
+  public ProjectService(ProjectStore projectStore) {
+    this(projectStore, null);
+  }
+
+  /**
+   * Create a service over a project store.
+   *
+   * @param projectStore The project store.
+   * @param projectCache The project cache, or null for no cache.
+   */
+  public ProjectService(ProjectStore projectStore, ProjectCache projectCache) {
+    this.projectStore = projectStore;
+    this.databaseStore = projectStore instanceof ProjectDao;
+    this.projectCache = projectCache;
+    this.changeLogPoller = new ChangeLogPoller(changeLogDao, change -> {
+      invalidateCached(change.getProjectId());
+      projectStore.applyRemoteChange(change);
+    });
+
+    if (Objects.nonNull(projectCache)) {
+      projectStore.addChangeListener(this::invalidateCached);
+    }
+  }
+
+  /**
+   * Warm the project cache from a snapshot file, and keep the file up to date while the background
+   * tasks run. The projects of the snapshot that changed since it was written are found in the
+   * change log and left out; the others are served from the memory-mapped file until they are
+   * cached again. A snapshot older than the changes the log still keeps is ignored. Call before
+   * serving requests.
+   *
+   * @param file The snapshot file, read if it exists.
+   * @throws IllegalStateException If the service has no project cache.
+   * @throws DbException If an error occurs.
+   */
+  public void enableWarmStart(Path file) {
+    requireDatabaseStore();
+
+    if (Objects.isNull(projectCache)) {
+      throw new IllegalStateException("Warm start needs a project cache.");
+    }
+
+    snapshotFile = file;
+    snapshotTask = new BackgroundTask("project-snapshot", this::writeSnapshot);
+
+    Optional<MappedProjectSnapshot> snapshot = MappedProjectSnapshot.open(file)
+        .filter(opened -> opened.getWatermarks().length == DbConnection.getShardCount());
+
+    if (snapshot.isEmpty()) {
+      return;
+    }
+
+    // A snapshot older than the retained log may have missed changes that were pruned since.
+    long[] watermarks = snapshot.get().getWatermarks();
+
+    for (int shard = 0; shard < watermarks.length; shard++) {
+      if (watermarks[shard] < changeLogDao.fetchOldestWatermark(shard)) {
+        return;
+      }
+    }
+
+    // Replay the changes made since the snapshot, which mark its projects stale, and carry on
+    // polling from there so no change falls between the replay and the poller.
+    warmSnapshot = snapshot.get();
+
+    try {
+      changeLogPoller.resumeFrom(watermarks);
+      changeLogPoller.pollOnce();
+    } catch (DbException e) {
+      warmSnapshot = null;
+      throw e;
+    }
+  }
+
+  /**
+   * Write the cached projects to the snapshot file, with the change log watermarks they are up to
+   * date with. Skipped until the change log poller has started.
+   */
+  private void writeSnapshot() {
+    long[] watermarks = changeLogPoller.getWatermarks();
+
+    if (Objects.nonNull(watermarks)) {
+      MappedProjectSnapshot.write(snapshotFile, projectCache.values(), watermarks);
+    }
+  }
+
+  /**
+   * Remove a changed project from the project cache and the warm-start snapshot.
+   *
+   * @param projectId The project ID.
+   */
+  private void invalidateCached(Integer projectId) {
+    generations.incrementAndGet(generationStripe(projectId));
+
+    if (Objects.nonNull(projectCache)) {
+      projectCache.invalidate(projectId);
+    }
+
+    MappedProjectSnapshot snapshot = warmSnapshot;
+
+    if (Objects.nonNull(snapshot)) {
+      snapshot.invalidate(projectId);
+    }
+  }
 
   /**
    * Add a project to the database.
@@ -21,7 +211,7 @@ public class ProjectService {
    * @return The project added.
    */
   public Project addProject(Project project) {
-    return projectDao.insertProject(project);
+    return projectStore.insertProject(project);
   }
 
   /**
@@ -30,27 +220,243 @@ public class ProjectService {
    * @return The list of projects.
    */
   public List<Project> fetchAllProjects() {
-    return projectDao.fetchAllProjects();
+    return projectStore.fetchAllProjects();
+  }
+
+  /**
+   * Stream all projects from the database, ordered by name, reading them only as fast as the
+   * subscriber requests them. Suits reports, exports and sync jobs that go through every project.
+   *
+   * @return The publisher of the projects.
+   */
+  public Flow.Publisher<Project> streamAllProjects() {
+    requireDatabaseStore();
+    return ((ProjectDao) projectStore).streamAllProjects();
+  }
+
+  /**
+   * Search projects matching criteria.
+   *
+   * @param criteria The search criteria.
+   * @return The list of projects found.
+   * @throws IllegalArgumentException If the limit or offset is negative.
+   */
+  public List<Project> searchProjects(ProjectCriteria criteria) {
+    if (Objects.nonNull(criteria.getLimit())) {
+      requireRange("limit", criteria.getLimit(), 0, Integer.MAX_VALUE);
+    }
+
+    if (Objects.nonNull(criteria.getOffset())) {
+      requireRange("offset", criteria.getOffset(), 0, Integer.MAX_VALUE);
+    }
+
+    return projectStore.searchProjects(criteria);
+  }
+
+  /**
+   * Search projects by words in their notes and step descriptions.
+   *
+   * @param terms The words to search for.
+   * @param page The zero-based page number.
+   * @param pageSize The number of results per page, from 1 to {@link #MAX_PAGE_SIZE}.
+   * @return The page of matching projects, best match first.
+   * @throws IllegalArgumentException If the page is negative, the page size out of range, or the
+   *     page so far that its last row is past Integer.MAX_VALUE.
+   */
+  public List<ProjectMatch> searchProjectText(String terms, int page, int pageSize) {
+    requireRange("size", pageSize, 1, MAX_PAGE_SIZE);
+    requireRange("page", page, 0, Integer.MAX_VALUE / pageSize - 1);
+    return projectStore.searchProjectText(terms, page, pageSize);
   }
 
   /**
-   * Fetch a project by project ID.
+   * Find projects by name prefix, ignoring case.
+   *
+   * @param prefix The start of the project name.
+   * @param limit The maximum number of projects returned, from 1 to {@link #MAX_PAGE_SIZE}.
+   * @return The projects found, ordered by name; only the ID and name are set.
+   * @throws IllegalArgumentException If the limit is out of range.
+   */
+  public List<ProjectSummary> findProjectsByNamePrefix(String prefix, int limit) {
+    requireRange("limit", limit, 1, MAX_PAGE_SIZE);
+    return projectStore.findProjectsByNamePrefix(prefix, limit);
+  }
+
+  /**
+   * Check that a paging argument is in range.
+   *
+   * @param name The name of the argument.
+   * @param value The value.
+   * @param min The smallest value allowed.
+   * @param max The largest value allowed.
+   * @throws IllegalArgumentException If the value is out of range.
+   */
+  private static void requireRange(String name, int value, int min, int max) {
+    if (value < min || value > max) {
+      throw new IllegalArgumentException(
+          name + " must be between " + min + " and " + max + ", not " + value + ".");
+    }
+  }
+
+  /**
+   * Fetch summaries of all projects from the database.
+   *
+   * @return The list of project summaries.
+   */
+  public List<ProjectSummary> fetchProjectSummaries() {
+    return projectStore.fetchProjectSummaries();
+  }
+
+  /**
+   * Fetch a project by project ID. Its child collections are loaded on first access.
    *
    * @param projectId The project ID.
    * @return The project.
    */
   public Project fetchProjectById(Integer projectId) {
-    return projectDao.fetchProjectById(projectId).orElseThrow(() ->
+    return fetchProjectById(projectId, false);
+  }
+
+  /**
+   * Fetch a project by project ID. With a project cache, the fully loaded graph is served from and
+   * added to the cache whatever the value of eager.
+   *
+   * @param projectId The project ID.
+   * @param eager True to load the materials, steps and categories up front.
+   * @return The project.
+   */
+  public Project fetchProjectById(Integer projectId, boolean eager) {
+    if (Objects.isNull(projectCache)) {
+      return projectStore.fetchProjectById(projectId, eager).orElseThrow(() ->
+          new NoSuchElementException("Project with project ID=" + projectId + " not found."));
+    }
+
+    return fetchCachedProject(projectId, null);
+  }
+
+  /**
+   * Fetch a project by project ID with its materials, steps and categories loaded. Over the MySQL
+   * store, the project and each of its child collections are queried at the same time on separate
+   * connections.
+   *
+   * @param projectId The project ID.
+   * @param executor Runs the concurrent queries.
+   * @return The project.
+   */
+  public Project fetchProjectById(Integer projectId, Executor executor) {
+    if (Objects.isNull(projectCache)) {
+      return loadProject(projectId, executor);
+    }
+
+    return fetchCachedProject(projectId, executor);
+  }
+
+  /**
+   * Fetch a project through the project cache, then the warm-start snapshot, then the store.
+   *
+   * @param projectId The project ID.
+   * @param executor Runs concurrent queries for the project and its children, or null to query
+   *     them one after the other.
+   * @return The project.
+   */
+  private Project fetchCachedProject(Integer projectId, Executor executor) {
+    Optional<Project> cached = projectCache.get(projectId);
+
+    if (cached.isPresent()) {
+      return cached.get();
+    }
+
+    long generation = generations.get(generationStripe(projectId));
+    MappedProjectSnapshot snapshot = warmSnapshot;
+    Optional<Project> mapped =
+        Objects.isNull(snapshot) ? Optional.empty() : snapshot.get(projectId);
+
+    if (mapped.isPresent()) {
+      cacheIfCurrent(mapped.get(), generation);
+      return mapped.get();
+    }
+
+    // Fill the cache from the primary: a lagging replica could hand back a pre-write graph.
+    Project project = databaseStore
+        ? DbConnection.readFromPrimary(() -> loadProject(projectId, onPrimary(executor)))
+        : loadProject(projectId, executor);
+
+    cacheIfCurrent(project, generation);
+    return project;
+  }
+
+  /**
+   * Cache a project unless it was invalidated since it started loading. The check is repeated
+   * after the put, so an invalidation racing with the put still removes the entry.
+   *
+   * @param project The project loaded.
+   * @param generation The generation of the project's stripe before it started loading.
+   */
+  private void cacheIfCurrent(Project project, long generation) {
+    int stripe = generationStripe(project.getProjectId());
+
+    if (generations.get(stripe) != generation) {
+      return;
+    }
+
+    projectCache.put(project);
+
+    if (generations.get(stripe) != generation) {
+      projectCache.invalidate(project.getProjectId());
+    }
+  }
+
+  /**
+   * Get the generation stripe of a project.
+   *
+   * @param projectId The project ID.
+   * @return The stripe.
+   */
+  private static int generationStripe(Integer projectId) {
+    return Math.floorMod(projectId, GENERATION_STRIPES);
+  }
+
+  /**
+   * Wrap an executor so the reads of the tasks it runs go to the primary.
+   *
+   * @param executor The executor, or null.
+   * @return The wrapped executor, or null.
+   */
+  private static Executor onPrimary(Executor executor) {
+    if (Objects.isNull(executor)) {
+      return null;
+    }
+
+    return task -> executor.execute(() -> DbConnection.readFromPrimary(() -> {
+      task.run();
+      return null;
+    }));
+  }
+
+  /**
+   * Load a project with its children from the store.
+   *
+   * @param projectId The project ID.
+   * @param executor Runs concurrent queries for the project and its children, or null to query
+   *     them one after the other.
+   * @return The project.
+   */
+  private Project loadProject(Integer projectId, Executor executor) {
+    Optional<Project> project = Objects.nonNull(executor) && databaseStore
+        ? ((ProjectDao) projectStore).fetchProjectById(projectId, executor)
+        : projectStore.fetchProjectById(projectId, true);
+
+    return project.orElseThrow(() ->
         new NoSuchElementException("Project with project ID=" + projectId + " not found."));
   }
 
   /**
-   * Modify a project.
+   * Modify a project. Its actual hours are not changed; log work against the project instead.
    *
    * @param project The project to modify.
    */
   public void modifyProjectDetails(Project project) {
-    if (!projectDao.modifyProjectDetails(project)) {
+    if (!projectStore.modifyProjectDetails(project)) {
       throw new NoSuchElementException(
           "Project with project ID=" + project.getProjectId() + " not found."
       );
@@ -63,8 +469,252 @@ public class ProjectService {
    * @param projectId The project ID.
    */
   public void deleteProject(Integer projectId) {
-    if (!projectDao.deleteProject(projectId)) {
+    if (!projectStore.deleteProject(projectId)) {
       throw new NoSuchElementException("Project with project ID=" + projectId + " not found.");
     }
   }
+
+  /**
+   * Take a columnar snapshot of the projects, materials and steps for ad-hoc analytics.
+   *
+   * @return The analytics over the snapshot.
+   */
+  public ProjectAnalytics fetchProjectAnalytics() {
+    return new ProjectAnalytics(projectStore.fetchProjectColumns());
+  }
+
+  /**
+   * Clone a project with its materials, steps and categories.
+   *
+   * @param sourceId The ID of the project to clone.
+   * @param newName The name of the new project.
+   * @return The ID of the new project.
+   */
+  public Integer cloneProject(Integer sourceId, String newName) {
+    return projectStore.cloneProject(sourceId, newName).orElseThrow(() ->
+        new NoSuchElementException("Project with project ID=" + sourceId + " not found."));
+  }
+
+  /**
+   * Add a material to a project.
+   *
+   * @param material The material to add.
+   * @return The material added.
+   */
+  public Material addMaterial(Material material) {
+    return projectStore.insertMaterial(material);
+  }
+
+  /**
+   * Modify a material.
+   *
+   * @param material The material to modify.
+   */
+  public void modifyMaterial(Material material) {
+    if (!projectStore.modifyMaterial(material)) {
+      throw new NoSuchElementException(
+          "Material with material ID=" + material.getMaterialId() + " not found."
+      );
+    }
+  }
+
+  /**
+   * Delete a material.
+   *
+   * @param materialId The material ID.
+   */
+  public void deleteMaterial(Integer materialId) {
+    if (!projectStore.deleteMaterial(materialId)) {
+      throw new NoSuchElementException("Material with material ID=" + materialId + " not found.");
+    }
+  }
+
+  /**
+   * Add a step to a project.
+   *
+   * @param step The step to add.
+   * @return The step added.
+   */
+  public Step addStep(Step step) {
+    return projectStore.insertStep(step);
+  }
+
+  /**
+   * Delete a step.
+   *
+   * @param stepId The step ID.
+   */
+  public void deleteStep(Integer stepId) {
+    if (!projectStore.deleteStep(stepId)) {
+      throw new NoSuchElementException("Step with step ID=" + stepId + " not found.");
+    }
+  }
+
+  /**
+   * Fetch the cost and progress rollups of many projects.
+   *
+   * @param projectIds The project IDs.
+   * @return The rollups, ordered by project name.
+   */
+  public List<ProjectRollup> fetchProjectRollups(Collection<Integer> projectIds) {
+    return projectStore.fetchProjectRollups(projectIds);
+  }
+
+  /**
+   * Recompute every project's rollup from scratch.
+   *
+   * @return The number of projects whose stored rollup was missing or wrong.
+   */
+  public int rebuildProjectRollups() {
+    return projectStore.rebuildProjectRollups();
+  }
+
+  /**
+   * Log a time entry against a project. Entries never update the project row directly, so crew
+   * members logging against the same project do not contend; the project's actual hours catch up
+   * when the logged hours are folded in the background.
+   *
+   * @param workLog The time entry to log.
+   * @return The time entry logged.
+   * @throws NoSuchElementException If the project does not exist.
+   * @throws IllegalArgumentException If the hours are not positive or would not fit the project.
+   */
+  public WorkLog logWork(WorkLog workLog) {
+    requireDatabaseStore();
+    return workLogDao.insertWorkLog(workLog).orElseThrow(() -> new NoSuchElementException(
+        "Project with project ID=" + workLog.getProjectId() + " not found."));
+  }
+
+  /**
+   * Fetch the time entries of a project, most recent first.
+   *
+   * @param projectId The project ID.
+   * @return The list of time entries.
+   */
+  public List<WorkLog> fetchWorkLogs(Integer projectId) {
+    requireDatabaseStore();
+    return workLogDao.fetchWorkLogs(projectId);
+  }
+
+  /**
+   * Fetch the up-to-date actual hours of a project, including hours not folded in yet.
+   *
+   * @param projectId The project ID.
+   * @return The actual hours, or null if no hours are known.
+   */
+  public BigDecimal fetchActualHours(Integer projectId) {
+    requireDatabaseStore();
+    return workLogDao.fetchActualHours(projectId);
+  }
+
+  /**
+   * Fetch the projects of a shard changed or deleted after a watermark, in change order. Pass the
+   * watermark returned to the next call for the same shard; fetch the graphs of the projects
+   * upserted with {@link #fetchProjectById(Integer, boolean)}.
+   *
+   * @param shard The shard number, from 0 to {@link #getShardCount()} - 1.
+   * @param watermark The watermark returned by the previous call, or 0 to start from the beginning.
+   * @param limit The maximum number of changes read.
+   * @return The changes and the next watermark.
+   */
+  public ProjectChanges fetchChangesSince(int shard, long watermark, int limit) {
+    requireDatabaseStore();
+    return changeLogDao.fetchChangesSince(shard, watermark, limit);
+  }
+
+  /**
+   * @return The number of shards the projects are spread over.
+   */
+  public int getShardCount() {
+    return DbConnection.getShardCount();
+  }
+
+  /**
+   * Start the background tasks: purging deleted projects, folding logged hours, following the
+   * changes made by other application nodes, pruning old changes and, with warm start, writing
+   * the snapshot file.
+   * Does nothing over a store other than MySQL.
+   */
+  public void startBackgroundTasks() {
+    if (!databaseStore) {
+      return;
+    }
+
+    purgeTask.start(PURGE_DELAY_SECONDS, TimeUnit.SECONDS);
+    foldTask.start(FOLD_DELAY_SECONDS, TimeUnit.SECONDS);
+    changeLogPoller.start(POLL_DELAY_SECONDS, TimeUnit.SECONDS);
+    pruneTask.start(PRUNE_DELAY_SECONDS, TimeUnit.SECONDS);
+
+    if (Objects.nonNull(snapshotTask)) {
+      snapshotTask.start(SNAPSHOT_DELAY_SECONDS, TimeUnit.SECONDS);
+    }
+  }
+
+  /**
+   * Stop the background tasks.
+   */
+  public void stopBackgroundTasks() {
+    purgeTask.stop();
+    foldTask.stop();
+    changeLogPoller.stop();
+    pruneTask.stop();
+
+    if (Objects.nonNull(snapshotTask)) {
+      snapshotTask.stop();
+    }
+  }
+
+  /**
+   * Get the progress of the background purge.
+   *
+   * @return The purge progress.
+   */
+  public String fetchPurgeProgress() {
+    return projectPurger.toString();
+  }
+
+  /**
+   * Get the statistics of the project cache, such as its memory use and hit rate.
+   *
+   * @return The cache statistics.
+   */
+  public String fetchCacheStatistics() {
+    return Objects.isNull(projectCache) ? "No project cache." : projectCache.toString();
+  }
+
+  /**
+   * Move the stored project notes and step descriptions to the configured text storage mode: store
+   * any value compressed in its column as plain text again, then compress the text tables at rest
+   * or not.
+   *
+   * @return The number of rows rewritten.
+   * @throws UnsupportedOperationException If the service runs over another store.
+   * @throws DbException If an error occurs.
+   * @see CompressedText
+   */
+  public int migrateTextColumns() {
+    requireDatabaseStore();
+    return ((ProjectDao) projectStore).migrateTextColumns();
+  }
+
+  /**
+   * Get the statistics of text compression in this process: the mode and the time spent
+   * inflating values compressed in their columns.
+   *
+   * @return The compression statistics.
+   */
+  public String fetchTextCompressionStatistics() {
+    return CompressedText.statistics();
+  }
+
+  /**
+   * Check that the service runs over the MySQL store.
+   *
+   * @throws UnsupportedOperationException If it runs over another store.
+   */
+  private void requireDatabaseStore() {
+    if (!databaseStore) {
+      throw new UnsupportedOperationException("Only available over the MySQL project store.");
+    }
+  }
 }
@@ -0,0 +1,33 @@
+package projects.service;
+
+import java.lang.reflect.Method;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Access to virtual threads, which the build target predates. They are looked up reflectively so
+ * the application still builds for and runs on runtimes that lack them.
+ *
+ * @author Ari
+ * @since 2026-10-19
+ */
+public final class VirtualThreads {
+
+  private VirtualThreads() {
+  }
+
+  /**
+   * Create an executor starting a virtual thread per task.
+   *
+   * @return The executor, or empty if the runtime has no virtual threads.
+   */
+  public static Optional<ExecutorService> newPerTaskExecutor() {
+    try {
+      Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+      return Optional.of((ExecutorService) factory.invoke(null));
+    } catch (ReflectiveOperationException e) {
+      return Optional.empty();
+    }
+  }
+}
@@ -0,0 +1,869 @@
+package projects.store;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import projects.analytics.ProjectColumns;
+import projects.dao.BackgroundTask;
+import projects.entity.Hundredths;
+import projects.entity.Material;
+import projects.entity.Project;
+import projects.entity.ProjectCriteria;
+import projects.entity.ProjectMatch;
+import projects.entity.ProjectRollup;
+import projects.entity.ProjectSummary;
+import projects.entity.Step;
+import projects.exception.DbException;
+
+/**
+ * {@link ProjectStore} keeping every project graph in process, for deployments without a database
+ * server and for tests. Projects are indexed by ID in a hash map and by lower-cased name in a
+ * sorted map; both are read without locking. Writes are serialized and replace the stored graph of
+ * the project with a new copy, so readers never see a graph being changed. Graphs handed out are
+ * copies too.
+ *
+ * <p>Given a directory, the store is durable: every write is appended to a write-ahead log and
+ * forced to disk before it is applied, and {@link #snapshot()} writes all graphs to a snapshot
+ * file and starts a new log, so that reopening the store loads the snapshot and replays only the
+ * log written since. Without a directory, the store lives in memory only.</p>
+ *
+ * @author Ari
+ * @since 2026-10-19
+ */
+public class InMemoryProjectStore implements ProjectStore, Closeable {
+  private static final String SNAPSHOT_FILE = "snapshot.bin";
+  private static final String SNAPSHOT_TEMP_FILE = "snapshot.tmp";
+  private static final String LOG_FILE_FORMAT = "wal-%d.log";
+  private static final int SNAPSHOT_MAGIC = 0x50524a53;
+
+  private static final byte PUT_RECORD = 1;
+  private static final byte DELETE_RECORD = 2;
+
+  private static final char KEY_SEPARATOR = '\u0000';
+  private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+  private final Map<Integer, Project> projects = new ConcurrentHashMap<>();
+  private final ConcurrentSkipListMap<String, Project> byName = new ConcurrentSkipListMap<>();
+  private final Map<Integer, Integer> materialProjects = new ConcurrentHashMap<>();
+  private final Map<Integer, Integer> stepProjects = new ConcurrentHashMap<>();
+  private final List<Consumer<Integer>> changeListeners = new CopyOnWriteArrayList<>();
+
+  /* Guards the ID counters, the log and the order in which writes are logged and applied. */
+  private final Object writeLock = new Object();
+  private int lastProjectId;
+  private int lastMaterialId;
+  private int lastStepId;
+
+  private final Path directory;
+  private final BackgroundTask snapshotTask;
+  private WriteAheadLog log;
+  private long logGeneration;
+
+  /**
+   * Create a store living in memory only.
+   */
+  public InMemoryProjectStore() {
+    this.directory = null;
+    this.snapshotTask = null;
+  }
+
+  /**
+   * Open a durable store, loading the latest snapshot and replaying the log written since.
+   *
+   * @param directory The directory of the snapshot and log files, created if missing.
+   * @throws DbException If the files cannot be read.
+   */
+  public InMemoryProjectStore(Path directory) {
+    this.directory = directory;
+    this.snapshotTask = new BackgroundTask("project-snapshot", this::snapshot);
+
+    try {
+      Files.createDirectories(directory);
+      logGeneration = loadSnapshot();
+
+      // Replay the logs not covered by the snapshot; the last one is appended to.
+      long generation = logGeneration;
+
+      while (Files.exists(logFile(generation + 1))) {
+        new WriteAheadLog(logFile(generation), this::replay).close();
+        generation++;
+      }
+
+      logGeneration = generation;
+      log = new WriteAheadLog(logFile(generation), this::replay);
+    } catch (IOException e) {
+      throw new DbException(e);
+    }
+  }
+
+  @Override
+  public void addChangeListener(Consumer<Integer> listener) {
+    changeListeners.add(listener);
+  }
+
+  @Override
+  public Project insertProject(Project project) {
+    Project stored = new Project();
+
+    synchronized (writeLock) {
+      stored.setProjectId(++lastProjectId);
+      copyDetails(project, stored);
+      commit(stored);
+    }
+
+    project.setProjectId(stored.getProjectId());
+    fireChange(stored.getProjectId());
+    return project;
+  }
+
+  @Override
+  public boolean modifyProjectDetails(Project project) {
+    synchronized (writeLock) {
+      Project current = projects.get(project.getProjectId());
+
+      if (Objects.isNull(current)) {
+        return false;
+      }
+
+      Project stored = ProjectCopies.copy(current);
+      copyDetails(project, stored);
+      stored.setActualHundredths(current.getActualHundredths());
+      commit(stored);
+    }
+
+    fireChange(project.getProjectId());
+    return true;
+  }
+
+  @Override
+  public boolean deleteProject(Integer projectId) {
+    synchronized (writeLock) {
+      if (!projects.containsKey(projectId)) {
+        return false;
+      }
+
+      logDelete(projectId);
+      remove(projectId);
+    }
+
+    fireChange(projectId);
+    return true;
+  }
+
+  @Override
+  public Optional<Integer> cloneProject(Integer sourceId, String newName) {
+    Project stored;
+
+    synchronized (writeLock) {
+      Project source = projects.get(sourceId);
+
+      if (Objects.isNull(source)) {
+        return Optional.empty();
+      }
+
+      stored = ProjectCopies.copy(source);
+      stored.setProjectId(++lastProjectId);
+      stored.setProjectName(newName);
+
+      for (Material material : stored.getMaterials()) {
+        material.setMaterialId(++lastMaterialId);
+        material.setProjectId(stored.getProjectId());
+      }
+
+      for (Step step : stored.getSteps()) {
+        step.setStepId(++lastStepId);
+        step.setProjectId(stored.getProjectId());
+      }
+
+      commit(stored);
+    }
+
+    fireChange(stored.getProjectId());
+    return Optional.of(stored.getProjectId());
+  }
+
+  @Override
+  public Material insertMaterial(Material material) {
+    synchronized (writeLock) {
+      Project stored = ProjectCopies.copy(requireProject(material.getProjectId()));
+      Material added = ProjectCopies.copy(material);
+
+      added.setMaterialId(++lastMaterialId);
+      stored.getMaterials().add(added);
+      commit(stored);
+      material.setMaterialId(added.getMaterialId());
+    }
+
+    fireChange(material.getProjectId());
+    return material;
+  }
+
+  @Override
+  public boolean modifyMaterial(Material material) {
+    Integer projectId;
+
+    synchronized (writeLock) {
+      projectId = materialProjects.get(material.getMaterialId());
+
+      if (Objects.isNull(projectId)) {
+        return false;
+      }
+
+      Project stored = ProjectCopies.copy(projects.get(projectId));
+      Material modified = ProjectCopies.copy(material);
+
+      modified.setProjectId(projectId);
+      stored.getMaterials().replaceAll(existing ->
+          existing.getMaterialId().equals(material.getMaterialId()) ? modified : existing);
+      commit(stored);
+    }
+
+    fireChange(projectId);
+    return true;
+  }
+
+  @Override
+  public boolean deleteMaterial(Integer materialId) {
+    Integer projectId;
+
+    synchronized (writeLock) {
+      projectId = materialProjects.get(materialId);
+
+      if (Objects.isNull(projectId)) {
+        return false;
+      }
+
+      Project stored = ProjectCopies.copy(projects.get(projectId));
+      stored.getMaterials().removeIf(material -> material.getMaterialId().equals(materialId));
+      commit(stored);
+    }
+
+    fireChange(projectId);
+    return true;
+  }
+
+  @Override
+  public Step insertStep(Step step) {
+    synchronized (writeLock) {
+      Project stored = ProjectCopies.copy(requireProject(step.getProjectId()));
+      Step added = ProjectCopies.copy(step);
+
+      // Number the step after the last one, as the MySQL store does.
+      if (Objects.isNull(added.getStepOrder())) {
+        added.setStepOrder(stored.getSteps().stream().map(Step::getStepOrder)
+            .filter(Objects::nonNull).max(Integer::compare).orElse(0) + 1);
+      }
+
+      added.setStepId(++lastStepId);
+      stored.getSteps().add(added);
+      stored.getSteps().sort(Comparator.comparing(Step::getStepOrder,
+          Comparator.nullsFirst(Comparator.naturalOrder())));
+      commit(stored);
+
+      step.setStepId(added.getStepId());
+      step.setStepOrder(added.getStepOrder());
+    }
+
+    fireChange(step.getProjectId());
+    return step;
+  }
+
+  @Override
+  public boolean deleteStep(Integer stepId) {
+    Integer projectId;
+
+    synchronized (writeLock) {
+      projectId = stepProjects.get(stepId);
+
+      if (Objects.isNull(projectId)) {
+        return false;
+      }
+
+      Project stored = ProjectCopies.copy(projects.get(projectId));
+      stored.getSteps().removeIf(step -> step.getStepId().equals(stepId));
+      commit(stored);
+    }
+
+    fireChange(projectId);
+    return true;
+  }
+
+  @Override
+  public List<Project> fetchAllProjects() {
+    List<Project> all = new LinkedList<>();
+    byName.values().forEach(project -> all.add(ProjectCopies.copy(project)));
+    return all;
+  }
+
+  @Override
+  public List<Project> searchProjects(ProjectCriteria criteria) {
+    Stream<Project> found = projects.values().stream();
+
+    if (Objects.nonNull(criteria.getMinDifficulty())) {
+      found = found.filter(project -> Objects.nonNull(project.getDifficulty())
+          && project.getDifficulty() >= criteria.getMinDifficulty());
+    }
+
+    if (Objects.nonNull(criteria.getMaxDifficulty())) {
+      found = found.filter(project -> Objects.nonNull(project.getDifficulty())
+          && project.getDifficulty() <= criteria.getMaxDifficulty());
+    }
+
+    if (Objects.nonNull(criteria.getOverBudget())) {
+      found = found.filter(project -> Objects.nonNull(project.getActualHours())
+          && Objects.nonNull(project.getEstimatedHours())
+          && (project.getActualHours().compareTo(project.getEstimatedHours()) > 0)
+              == criteria.getOverBudget());
+    }
+
+    if (Objects.nonNull(criteria.getCategoryName())) {
+      found = found.filter(project -> project.getCategories().stream().anyMatch(category ->
+          sameName(category.getCategoryName(), criteria.getCategoryName())));
+    }
+
+    if (Objects.nonNull(criteria.getMaterialName())) {
+      found = found.filter(project -> project.getMaterials().stream().anyMatch(material ->
+          sameName(material.getMaterialName(), criteria.getMaterialName())));
+    }
+
+    found = found.sorted(ProjectOrder.of(criteria));
+
+    if (Objects.nonNull(criteria.getOffset())) {
+      found = found.skip(criteria.getOffset());
+    }
+
+    if (Objects.nonNull(criteria.getLimit())) {
+      found = found.limit(criteria.getLimit());
+    }
+
+    List<Project> matches = new LinkedList<>();
+    found.forEach(project -> matches.add(ProjectCopies.copy(project)));
+    return matches;
+  }
+
+  /**
+   * Search projects by words in their notes and step descriptions. A project scores one point per
+   * occurrence of a search word, ignoring case; this approximates the MySQL full-text relevance,
+   * which also weighs words by how rare they are.
+   */
+  @Override
+  public List<ProjectMatch> searchProjectText(String terms, int page, int pageSize) {
+    List<String> words = words(terms);
+    List<ProjectMatch> matches = new ArrayList<>();
+
+    for (Project project : projects.values()) {
+      double score = score(project.getNotes(), words);
+
+      for (Step step : project.getSteps()) {
+        score += score(step.getStepText(), words);
+      }
+
+      if (score > 0) {
+        ProjectMatch match = new ProjectMatch();
+        match.setProjectId(project.getProjectId());
+        match.setProjectName(project.getProjectName());
+        match.setScore(score);
+        matches.add(match);
+      }
+    }
+
+    matches.sort(Comparator.comparing(ProjectMatch::getScore).reversed()
+        .thenComparing(ProjectMatch::getProjectId));
+
+    int from = (int) Math.min((long) page * pageSize, matches.size());
+    return new LinkedList<>(
+        matches.subList(from, (int) Math.min((long) from + pageSize, matches.size())));
+  }
+
+  @Override
+  public List<ProjectSummary> findProjectsByNamePrefix(String prefix, int limit) {
+    String from = normalize(prefix);
+    List<ProjectSummary> found = new LinkedList<>();
+
+    for (Project project : byName.subMap(from, from + Character.MAX_VALUE).values()) {
+      if (found.size() >= limit) {
+        break;
+      }
+
+      ProjectSummary summary = new ProjectSummary();
+      summary.setProjectId(project.getProjectId());
+      summary.setProjectName(project.getProjectName());
+      found.add(summary);
+    }
+
+    return found;
+  }
+
+  @Override
+  public List<ProjectSummary> fetchProjectSummaries() {
+    List<ProjectSummary> summaries = new LinkedList<>();
+
+    for (Project project : byName.values()) {
+      ProjectSummary summary = new ProjectSummary();
+      summary.setProjectId(project.getProjectId());
+      summary.setProjectName(project.getProjectName());
+      summary.setDifficulty(project.getDifficulty());
+      summary.setEstimatedHours(project.getEstimatedHours());
+      summary.setActualHours(project.getActualHours());
+      summaries.add(summary);
+    }
+
+    return summaries;
+  }
+
+  /**
+   * Fetch the rollups of many projects. Rollups are computed from the stored graph, which is
+   * always current.
+   */
+  @Override
+  public List<ProjectRollup> fetchProjectRollups(Collection<Integer> projectIds) {
+    List<ProjectRollup> rollups = new ArrayList<>();
+
+    for (Integer projectId : projectIds) {
+      Project project = projects.get(projectId);
+
+      if (Objects.nonNull(project)) {
+        ProjectRollup rollup = new ProjectRollup();
+        rollup.setProjectId(project.getProjectId());
+        rollup.setProjectName(project.getProjectName());
+        rollup.setEstimatedHours(project.getEstimatedHours());
+        rollup.setActualHours(project.getActualHours());
+        rollup.setMaterialCount(project.getMaterials().size());
+        long totalCost = 0;
+
+        for (Material material : project.getMaterials()) {
+          totalCost = Hundredths.add(totalCost,
+              Hundredths.times(material.getCostHundredths(), material.getNumRequired()));
+        }
+
+        rollup.setTotalMaterialCost(Hundredths.toBigDecimal(totalCost));
+        rollup.setStepCount(project.getSteps().size());
+        rollups.add(rollup);
+      }
+    }
+
+    rollups.sort(Comparator.comparing(ProjectRollup::getProjectName, ProjectOrder.NAME_ORDER));
+    return rollups;
+  }
+
+  /**
+   * Rollups are computed on demand, so there is nothing to rebuild.
+   *
+   * @return Always 0.
+   */
+  @Override
+  public int rebuildProjectRollups() {
+    return 0;
+  }
+
+  @Override
+  public ProjectColumns fetchProjectColumns() {
+    ProjectColumns.Builder builder = new ProjectColumns.Builder();
+    Collection<Project> graphs = new ArrayList<>(projects.values());
+
+    for (Project project : graphs) {
+      builder.addProject(project.getProjectId(), project.getProjectName(),
+          Objects.requireNonNullElse(project.getDifficulty(), ProjectColumns.NULL_INT),
+          project.getEstimatedHundredths(), project.getActualHundredths());
+    }
+
+    for (Project project : graphs) {
+      for (Material material : project.getMaterials()) {
+        builder.addMaterial(project.getProjectId(), material.getMaterialName(),
+            Objects.requireNonNullElse(material.getNumRequired(), ProjectColumns.NULL_INT),
+            material.getCostHundredths());
+      }
+
+      project.getSteps().forEach(step -> builder.addStep(project.getProjectId()));
+    }
+
+    return builder.build();
+  }
+
+  @Override
+  public Optional<Project> fetchProjectById(Integer projectId) {
+    return fetchProjectById(projectId, true);
+  }
+
+  /**
+   * Fetch a project by project ID. The graph is always returned whole.
+   */
+  @Override
+  public Optional<Project> fetchProjectById(Integer projectId, boolean eager) {
+    return Optional.ofNullable(projects.get(projectId)).map(ProjectCopies::copy);
+  }
+
+  /**
+   * Start taking snapshots in the background. Does nothing for a store living in memory only.
+   *
+   * @param delay The delay between two snapshots.
+   * @param unit The unit of the delay.
+   */
+  public void startSnapshots(long delay, TimeUnit unit) {
+    if (Objects.nonNull(snapshotTask)) {
+      snapshotTask.start(delay, unit);
+    }
+  }
+
+  /**
+   * Write every project graph to a new snapshot and delete the logs it covers. Writes wait only
+   * while the current log is swapped for a new one; the snapshot itself is written from the
+   * graphs as they were at that point, which no write changes.
+   *
+   * @throws DbException If an error occurs.
+   */
+  public synchronized void snapshot() {
+    if (Objects.isNull(directory)) {
+      return;
+    }
+
+    List<Project> graphs;
+    int[] lastIds;
+    long covered;
+
+    try {
+      synchronized (writeLock) {
+        graphs = new ArrayList<>(projects.values());
+        lastIds = new int[] {lastProjectId, lastMaterialId, lastStepId};
+
+        log.close();
+        covered = ++logGeneration;
+        log = new WriteAheadLog(logFile(covered), this::replay);
+      }
+
+      Path temp = directory.resolve(SNAPSHOT_TEMP_FILE);
+
+      try (FileOutputStream file = new FileOutputStream(temp.toFile());
+          DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file))) {
+        out.writeInt(SNAPSHOT_MAGIC);
+        out.writeLong(covered);
+
+        for (int lastId : lastIds) {
+          out.writeInt(lastId);
+        }
+
+        out.writeInt(graphs.size());
+
+        for (Project project : graphs) {
+          ProjectCodec.writeProject(out, project);
+        }
+
+        out.flush();
+        file.getFD().sync();
+      }
+
+      Files.move(temp, directory.resolve(SNAPSHOT_FILE), StandardCopyOption.ATOMIC_MOVE,
+          StandardCopyOption.REPLACE_EXISTING);
+
+      // Delete the logs covered by the snapshot, newest first.
+      long generation = covered - 1;
+
+      while (Files.deleteIfExists(logFile(generation))) {
+        generation--;
+      }
+    } catch (IOException e) {
+      throw new DbException(e);
+    }
+  }
+
+  /**
+   * Stop the background snapshots and close the log.
+   *
+   * @throws IOException If an error occurs.
+   */
+  @Override
+  public void close() throws IOException {
+    if (Objects.nonNull(snapshotTask)) {
+      snapshotTask.stop();
+    }
+
+    synchronized (writeLock) {
+      if (Objects.nonNull(log)) {
+        log.close();
+      }
+    }
+  }
+
+  /**
+   * Load the snapshot, if there is one.
+   *
+   * @return The generation of the first log not covered by the snapshot.
+   * @throws IOException If an error occurs.
+   */
+  private long loadSnapshot() throws IOException {
+    Path file = directory.resolve(SNAPSHOT_FILE);
+
+    if (!Files.exists(file)) {
+      return 0;
+    }
+
+    try (InputStream stream = Files.newInputStream(file);
+        DataInputStream in = new DataInputStream(new BufferedInputStream(stream))) {
+      if (in.readInt() != SNAPSHOT_MAGIC) {
+        throw new IOException("Not a project snapshot: " + file);
+      }
+
+      long covered = in.readLong();
+      lastProjectId = in.readInt();
+      lastMaterialId = in.readInt();
+      lastStepId = in.readInt();
+
+      for (int count = in.readInt(); count > 0; count--) {
+        apply(ProjectCodec.readProject(in));
+      }
+
+      return covered;
+    }
+  }
+
+  /**
+   * Replay one log record.
+   *
+   * @param record The record.
+   * @throws IOException If an error occurs.
+   */
+  private void replay(DataInputStream record) throws IOException {
+    byte type = record.readByte();
+
+    if (type == PUT_RECORD) {
+      Project project = ProjectCodec.readProject(record);
+
+      lastProjectId = Math.max(lastProjectId, project.getProjectId());
+      project.getMaterials().forEach(material ->
+          lastMaterialId = Math.max(lastMaterialId, material.getMaterialId()));
+      project.getSteps().forEach(step -> lastStepId = Math.max(lastStepId, step.getStepId()));
+      apply(project);
+    } else if (type == DELETE_RECORD) {
+      remove(record.readInt());
+    } else {
+      throw new IOException("Unknown log record type " + type);
+    }
+  }
+
+  /**
+   * Log and apply a new version of a project graph. Called with the write lock held.
+   *
+   * @param project The new graph.
+   * @throws DbException If the write cannot be logged.
+   */
+  private void commit(Project project) {
+    if (Objects.nonNull(log)) {
+      try {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(PUT_RECORD);
+        ProjectCodec.writeProject(out, project);
+        log.append(bytes.toByteArray());
+      } catch (IOException e) {
+        throw new DbException(e);
+      }
+    }
+
+    apply(project);
+  }
+
+  /**
+   * Log the deletion of a project. Called with the write lock held.
+   *
+   * @param projectId The project ID.
+   * @throws DbException If the deletion cannot be logged.
+   */
+  private void logDelete(Integer projectId) {
+    if (Objects.nonNull(log)) {
+      try {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeByte(DELETE_RECORD);
+        out.writeInt(projectId);
+        log.append(bytes.toByteArray());
+      } catch (IOException e) {
+        throw new DbException(e);
+      }
+    }
+  }
+
+  /**
+   * Store a project graph and index it, replacing the previous version.
+   *
+   * @param project The graph, which is not changed afterwards.
+   */
+  private void apply(Project project) {
+    // Replace the entries rather than remove them first, so readers never miss the project.
+    Project previous = projects.put(project.getProjectId(), project);
+    byName.put(nameKey(project), project);
+
+    if (Objects.nonNull(previous)) {
+      if (!nameKey(previous).equals(nameKey(project))) {
+        byName.remove(nameKey(previous));
+      }
+
+      previous.getMaterials().forEach(material ->
+          materialProjects.remove(material.getMaterialId()));
+      previous.getSteps().forEach(step -> stepProjects.remove(step.getStepId()));
+    }
+
+    project.getMaterials().forEach(material ->
+        materialProjects.put(material.getMaterialId(), project.getProjectId()));
+    project.getSteps().forEach(step ->
+        stepProjects.put(step.getStepId(), project.getProjectId()));
+  }
+
+  /**
+   * Remove a project graph and its index entries.
+   *
+   * @param projectId The project ID.
+   */
+  private void remove(Integer projectId) {
+    Project project = projects.remove(projectId);
+
+    if (Objects.nonNull(project)) {
+      byName.remove(nameKey(project));
+      project.getMaterials().forEach(material -> materialProjects.remove(material.getMaterialId()));
+      project.getSteps().forEach(step -> stepProjects.remove(step.getStepId()));
+    }
+  }
+
+  /**
+   * Get a project that a child row is added to.
+   *
+   * @param projectId The project ID.
+   * @return The stored graph.
+   * @throws DbException If the project does not exist.
+   */
+  private Project requireProject(Integer projectId) {
+    Project project = projects.get(projectId);
+
+    if (Objects.isNull(project)) {
+      throw new DbException("Project with project ID=" + projectId + " does not exist.");
+    }
+
+    return project;
+  }
+
+  /**
+   * Notify the change listeners of a committed write.
+   *
+   * @param projectId The ID of the project changed.
+   */
+  private void fireChange(Integer projectId) {
+    changeListeners.forEach(listener -> listener.accept(projectId));
+  }
+
+  /**
+   * Get the file of a log generation.
+   *
+   * @param generation The generation.
+   * @return The file.
+   */
+  private Path logFile(long generation) {
+    return directory.resolve(String.format(LOG_FILE_FORMAT, generation));
+  }
+
+  /**
+   * Copy the details of a project, leaving its ID and children alone.
+   *
+   * @param from The project copied.
+   * @param to The project updated.
+   */
+  private static void copyDetails(Project from, Project to) {
+    to.setProjectName(from.getProjectName());
+    to.setEstimatedHours(from.getEstimatedHours());
+    to.setActualHours(from.getActualHours());
+    to.setDifficulty(from.getDifficulty());
+    to.setNotes(from.getNotes());
+  }
+
+  /**
+   * Get the key of a project in the name index: the lower-cased name followed by the project ID,
+   * so equal names are kept apart and a prefix lookup is a range scan.
+   *
+   * @param project The project.
+   * @return The key.
+   */
+  private static String nameKey(Project project) {
+    return normalize(Objects.requireNonNullElse(project.getProjectName(), "")) + KEY_SEPARATOR
+        + project.getProjectId();
+  }
+
+  /**
+   * Normalize a name for case-insensitive ordering.
+   *
+   * @param name The name.
+   * @return The normalized name.
+   */
+  private static String normalize(String name) {
+    return name.toLowerCase(Locale.ROOT);
+  }
+
+  /**
+   * Compare two names the way MySQL compares them.
+   *
+   * @param name The name stored, or null.
+   * @param wanted The name searched for.
+   * @return True if the names are equal.
+   */
+  private static boolean sameName(String name, String wanted) {
+    return Objects.nonNull(name) && ProjectOrder.NAME_ORDER.compare(name, wanted) == 0;
+  }
+
+  /**
+   * Split text into lower-cased words.
+   *
+   * @param text The text.
+   * @return The words.
+   */
+  private static List<String> words(String text) {
+    List<String> words = new ArrayList<>();
+
+    for (String word : WORD_SEPARATOR.split(normalize(text))) {
+      if (!word.isEmpty()) {
+        words.add(word);
+      }
+    }
+
+    return words;
+  }
+
+  /**
+   * Score text against search words.
+   *
+   * @param text The text, or null.
+   * @param searched The search words.
+   * @return The number of occurrences of the search words in the text.
+   */
+  private static double score(String text, List<String> searched) {
+    if (Objects.isNull(text) || searched.isEmpty()) {
+      return 0;
+    }
+
+    Map<String, Integer> counts = new HashMap<>();
+    words(text).forEach(word -> counts.merge(word, 1, Integer::sum));
+    return searched.stream().mapToInt(word -> counts.getOrDefault(word, 0)).sum();
+  }
+}
@@ -0,0 +1,309 @@
+package projects.store;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Objects;
+import projects.entity.Category;
+import projects.entity.Hundredths;
+import projects.entity.Material;
+import projects.entity.Project;
+import projects.entity.Step;
+
+/**
+ * Binary encoding of project graphs, used by the write-ahead log and the snapshots of the
+ * in-process store and by the warm-start snapshot of the project cache. A graph is written as its
+ * details followed by its materials, steps and categories; each part can also be written and read
+ * on its own. Nullable values are preceded by a presence flag; decimals are written as their
+ * unscaled value and scale.
+ *
+ * @author Ari
+ * @since 2026-10-19
+ */
+public final class ProjectCodec {
+
+  private ProjectCodec() {
+  }
+
+  /**
+   * Write a project with its children.
+   *
+   * @param out The output.
+   * @param project The project, with its child collections loaded.
+   * @throws IOException If an error occurs.
+   */
+  public static void writeProject(DataOutput out, Project project) throws IOException {
+    writeDetails(out, project);
+    writeMaterials(out, project.getMaterials());
+    writeSteps(out, project.getSteps());
+    writeCategories(out, project.getCategories());
+  }
+
+  /**
+   * Read a project with its children.
+   *
+   * @param in The input.
+   * @return The project.
+   * @throws IOException If an error occurs.
+   */
+  public static Project readProject(DataInput in) throws IOException {
+    Project project = readDetails(in);
+    project.getMaterials().addAll(readMaterials(in, project.getProjectId()));
+    project.getSteps().addAll(readSteps(in, project.getProjectId()));
+    project.getCategories().addAll(readCategories(in));
+    return project;
+  }
+
+  /**
+   * Write the details of a project, without its children.
+   *
+   * @param out The output.
+   * @param project The project.
+   * @throws IOException If an error occurs.
+   */
+  public static void writeDetails(DataOutput out, Project project) throws IOException {
+    out.writeInt(project.getProjectId());
+    writeString(out, project.getProjectName());
+    writeHundredths(out, project.getEstimatedHundredths());
+    writeHundredths(out, project.getActualHundredths());
+    writeInteger(out, project.getDifficulty());
+    writeString(out, project.getNotes());
+  }
+
+  /**
+   * Read the details of a project.
+   *
+   * @param in The input.
+   * @return The project, with empty child collections.
+   * @throws IOException If an error occurs.
+   */
+  public static Project readDetails(DataInput in) throws IOException {
+    Project project = new Project();
+    project.setProjectId(in.readInt());
+    project.setProjectName(readString(in));
+    project.setEstimatedHundredths(readHundredths(in));
+    project.setActualHundredths(readHundredths(in));
+    project.setDifficulty(readInteger(in));
+    project.setNotes(readString(in));
+    return project;
+  }
+
+  /**
+   * Write the materials of a project.
+   *
+   * @param out The output.
+   * @param materials The materials.
+   * @throws IOException If an error occurs.
+   */
+  public static void writeMaterials(DataOutput out, List<Material> materials)
+      throws IOException {
+    out.writeInt(materials.size());
+
+    for (Material material : materials) {
+      out.writeInt(material.getMaterialId());
+      writeString(out, material.getMaterialName());
+      writeInteger(out, material.getNumRequired());
+      writeHundredths(out, material.getCostHundredths());
+    }
+  }
+
+  /**
+   * Read the materials of a project.
+   *
+   * @param in The input.
+   * @param projectId The project ID.
+   * @return The materials.
+   * @throws IOException If an error occurs.
+   */
+  public static List<Material> readMaterials(DataInput in, Integer projectId)
+      throws IOException {
+    List<Material> materials = new LinkedList<>();
+
+    for (int count = in.readInt(); count > 0; count--) {
+      Material material = new Material();
+      material.setMaterialId(in.readInt());
+      material.setProjectId(projectId);
+      material.setMaterialName(readString(in));
+      material.setNumRequired(readInteger(in));
+      material.setCostHundredths(readHundredths(in));
+      materials.add(material);
+    }
+
+    return materials;
+  }
+
+  /**
+   * Write the steps of a project.
+   *
+   * @param out The output.
+   * @param steps The steps.
+   * @throws IOException If an error occurs.
+   */
+  public static void writeSteps(DataOutput out, List<Step> steps) throws IOException {
+    out.writeInt(steps.size());
+
+    for (Step step : steps) {
+      out.writeInt(step.getStepId());
+      writeString(out, step.getStepText());
+      writeInteger(out, step.getStepOrder());
+    }
+  }
+
+  /**
+   * Read the steps of a project.
+   *
+   * @param in The input.
+   * @param projectId The project ID.
+   * @return The steps.
+   * @throws IOException If an error occurs.
+   */
+  public static List<Step> readSteps(DataInput in, Integer projectId) throws IOException {
+    List<Step> steps = new LinkedList<>();
+
+    for (int count = in.readInt(); count > 0; count--) {
+      Step step = new Step();
+      step.setStepId(in.readInt());
+      step.setProjectId(projectId);
+      step.setStepText(readString(in));
+      step.setStepOrder(readInteger(in));
+      steps.add(step);
+    }
+
+    return steps;
+  }
+
+  /**
+   * Write the categories of a project.
+   *
+   * @param out The output.
+   * @param categories The categories.
+   * @throws IOException If an error occurs.
+   */
+  public static void writeCategories(DataOutput out, List<Category> categories)
+      throws IOException {
+    out.writeInt(categories.size());
+
+    for (Category category : categories) {
+      out.writeInt(category.getCategoryId());
+      writeString(out, category.getCategoryName());
+    }
+  }
+
+  /**
+   * Read the categories of a project.
+   *
+   * @param in The input.
+   * @return The categories.
+   * @throws IOException If an error occurs.
+   */
+  public static List<Category> readCategories(DataInput in) throws IOException {
+    List<Category> categories = new LinkedList<>();
+
+    for (int count = in.readInt(); count > 0; count--) {
+      Category category = new Category();
+      category.setCategoryId(in.readInt());
+      category.setCategoryName(readString(in));
+      categories.add(category);
+    }
+
+    return categories;
+  }
+
+  /**
+   * Write a nullable string as UTF-8.
+   *
+   * @param out The output.
+   * @param value The string, or null.
+   * @throws IOException If an error occurs.
+   */
+  private static void writeString(DataOutput out, String value) throws IOException {
+    out.writeBoolean(Objects.nonNull(value));
+
+    if (Objects.nonNull(value)) {
+      byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      out.writeInt(bytes.length);
+      out.write(bytes);
+    }
+  }
+
+  /**
+   * Read a nullable string.
+   *
+   * @param in The input.
+   * @return The string, or null.
+   * @throws IOException If an error occurs.
+   */
+  private static String readString(DataInput in) throws IOException {
+    if (!in.readBoolean()) {
+      return null;
+    }
+
+    byte[] bytes = new byte[in.readInt()];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * Write a nullable integer.
+   *
+   * @param out The output.
+   * @param value The integer, or null.
+   * @throws IOException If an error occurs.
+   */
+  private static void writeInteger(DataOutput out, Integer value) throws IOException {
+    out.writeBoolean(Objects.nonNull(value));
+
+    if (Objects.nonNull(value)) {
+      out.writeInt(value);
+    }
+  }
+
+  /**
+   * Read a nullable integer.
+   *
+   * @param in The input.
+   * @return The integer, or null.
+   * @throws IOException If an error occurs.
+   */
+  private static Integer readInteger(DataInput in) throws IOException {
+    return in.readBoolean() ? in.readInt() : null;
+  }
+
+  /**
+   * Write a nullable amount in hundredths, in the layout of a decimal with an unscaled long and a
+   * scale so that files written before amounts were held in hundredths still read.
+   *
+   * @param out The output.
+   * @param hundredths The amount in hundredths, or {@link Hundredths#NULL}.
+   * @throws IOException If an error occurs.
+   */
+  private static void writeHundredths(DataOutput out, long hundredths) throws IOException {
+    out.writeBoolean(!Hundredths.isNull(hundredths));
+
+    if (!Hundredths.isNull(hundredths)) {
+      out.writeLong(hundredths);
+      out.writeInt(2);
+    }
+  }
+
+  /**
+   * Read a nullable amount in hundredths.
+   *
+   * @param in The input.
+   * @return The amount in hundredths, or {@link Hundredths#NULL}.
+   * @throws IOException If an error occurs.
+   */
+  private static long readHundredths(DataInput in) throws IOException {
+    if (!in.readBoolean()) {
+      return Hundredths.NULL;
+    }
+
+    long unscaled = in.readLong();
+    int scale = in.readInt();
+    return scale == 2 ? unscaled : Hundredths.of(BigDecimal.valueOf(unscaled, scale));
+  }
+}
@@ -0,0 +1,83 @@
+package projects.store;
+
+import projects.entity.Category;
+import projects.entity.Material;
+import projects.entity.Project;
+import projects.entity.Step;
+
+/**
+ * Deep copies of project graphs, for the stores and caches that hold graphs on the heap and must
+ * not share them with callers free to modify what they are handed.
+ *
+ * @author Ari
+ * @since 2026-10-19
+ */
+public final class ProjectCopies {
+
+  private ProjectCopies() {
+  }
+
+  /**
+   * Copy a project graph, loading its child collections if they are loaded lazily.
+   *
+   * @param project The graph.
+   * @return The copy.
+   */
+  public static Project copy(Project project) {
+    Project copy = new Project();
+    copy.setProjectId(project.getProjectId());
+    copy.setProjectName(project.getProjectName());
+    copy.setEstimatedHundredths(project.getEstimatedHundredths());
+    copy.setActualHundredths(project.getActualHundredths());
+    copy.setDifficulty(project.getDifficulty());
+    copy.setNotes(project.getNotes());
+    project.getMaterials().forEach(material -> copy.getMaterials().add(copy(material)));
+    project.getSteps().forEach(step -> copy.getSteps().add(copy(step)));
+    project.getCategories().forEach(category -> copy.getCategories().add(copy(category)));
+    return copy;
+  }
+
+  /**
+   * Copy a material.
+   *
+   * @param material The material.
+   * @return The copy.
+   */
+  public static Material copy(Material material) {
+    Material copy = new Material();
+    copy.setMaterialId(material.getMaterialId());
+    copy.setProjectId(material.getProjectId());
+    copy.setMaterialName(material.getMaterialName());
+    copy.setNumRequired(material.getNumRequired());
+    copy.setCostHundredths(material.getCostHundredths());
+    return copy;
+  }
+
+  /**
+   * Copy a step.
+   *
+   * @param step The step.
+   * @return The copy.
+   */
+  public static Step copy(Step step) {
+    Step copy = new Step();
+    copy.setStepId(step.getStepId());
+    copy.setProjectId(step.getProjectId());
+    copy.setStepText(step.getStepText());
+    copy.setStepOrder(step.getStepOrder());
+    return copy;
+  }
+
+  /**
+   * Copy a category.
+   *
+   * @param category The category.
+   * @return The copy.
+   */
+  public static Category copy(Category category) {
+    Category copy = new Category();
+    copy.setCategoryId(category.getCategoryId());
+    copy.setCategoryName(category.getCategoryName());
+    return copy;
+  }
+}
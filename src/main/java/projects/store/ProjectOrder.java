@@ -0,0 +1,65 @@
+package projects.store;
+
+import java.text.Collator;
+import java.util.Comparator;
+import java.util.Locale;
+import projects.entity.Project;
+import projects.entity.ProjectCriteria;
+
+/**
+ * Orders of projects shared by the stores, matching the order MySQL sorts the same columns in.
+ *
+ * @author Ari
+ * @since 2026-10-19
+ */
+public final class ProjectOrder {
+
+  /*
+   * Orders names the way the default MySQL 8 collation (utf8mb4_0900_ai_ci) does: ignoring case
+   * and accents.
+   */
+  private static final Collator NAME_COLLATOR = Collator.getInstance(Locale.ROOT);
+
+  static {
+    NAME_COLLATOR.setStrength(Collator.PRIMARY);
+  }
+
+  /** Orders project names. */
+  public static final Comparator<String> NAME_ORDER = NAME_COLLATOR::compare;
+
+  private ProjectOrder() {
+  }
+
+  /**
+   * Get the order of the projects found by a search. Nulls come first in ascending order, as in
+   * MySQL, and the project ID breaks ties. Hours are compared in hundredths, where null is
+   * {@link projects.entity.Hundredths#NULL}, the smallest long, so no decimal is created.
+   *
+   * @param criteria The search criteria.
+   * @return The order.
+   */
+  public static Comparator<Project> of(ProjectCriteria criteria) {
+    Comparator<Project> order;
+
+    switch (criteria.getSortField()) {
+      case DIFFICULTY:
+        order = Comparator.comparing(Project::getDifficulty,
+            Comparator.nullsFirst(Comparator.naturalOrder()));
+        break;
+      case ESTIMATED_HOURS:
+        order = Comparator.comparingLong(Project::getEstimatedHundredths);
+        break;
+      case ACTUAL_HOURS:
+        order = Comparator.comparingLong(Project::getActualHundredths);
+        break;
+      case NAME:
+      default:
+        order = Comparator.comparing(Project::getProjectName,
+            Comparator.nullsFirst(NAME_ORDER));
+        break;
+    }
+
+    order = order.thenComparing(Project::getProjectId);
+    return criteria.isDescending() ? order.reversed() : order;
+  }
+}
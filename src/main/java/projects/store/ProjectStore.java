@@ -0,0 +1,197 @@
+package projects.store;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import projects.analytics.ProjectColumns;
+import projects.entity.Material;
+import projects.entity.Project;
+import projects.entity.ProjectChange;
+import projects.entity.ProjectCriteria;
+import projects.entity.ProjectMatch;
+import projects.entity.ProjectRollup;
+import projects.entity.ProjectSummary;
+import projects.entity.Step;
+
+/**
+ * Storage of project graphs: projects with their materials, steps and categories. Implemented over
+ * MySQL by {@link projects.dao.ProjectDao} and in process by {@link InMemoryProjectStore}.
+ *
+ * @author Ari
+ * @since 2026-10-19
+ */
+public interface ProjectStore {
+
+  /**
+   * Register a listener called with the project ID after every committed write to a project graph
+   * made through this store.
+   *
+   * @param listener The listener.
+   */
+  void addChangeListener(Consumer<Integer> listener);
+
+  /**
+   * Apply a change made by another application node sharing the storage to the in-memory state of
+   * this store. Stores that are not shared ignore it.
+   *
+   * @param change The change.
+   */
+  default void applyRemoteChange(ProjectChange change) {
+  }
+
+  /**
+   * Insert a project.
+   *
+   * @param project The project to insert.
+   * @return The project inserted, with its ID set.
+   */
+  Project insertProject(Project project);
+
+  /**
+   * Modify the details of a project. The actual hours are not changed; after the project is
+   * inserted they change only through the work log.
+   *
+   * @param project The project to modify.
+   * @return True if the project was modified, false if it does not exist.
+   */
+  boolean modifyProjectDetails(Project project);
+
+  /**
+   * Delete a project with its children.
+   *
+   * @param projectId The project ID.
+   * @return True if the project was deleted, false if it does not exist.
+   */
+  boolean deleteProject(Integer projectId);
+
+  /**
+   * Clone a project with its materials, steps and categories.
+   *
+   * @param sourceId The ID of the project to clone.
+   * @param newName The name of the new project.
+   * @return The ID of the new project, or empty if the source project does not exist.
+   */
+  Optional<Integer> cloneProject(Integer sourceId, String newName);
+
+  /**
+   * Insert a material.
+   *
+   * @param material The material to insert.
+   * @return The material inserted, with its ID set.
+   */
+  Material insertMaterial(Material material);
+
+  /**
+   * Modify a material.
+   *
+   * @param material The material to modify.
+   * @return True if the material was modified, false if it does not exist.
+   */
+  boolean modifyMaterial(Material material);
+
+  /**
+   * Delete a material.
+   *
+   * @param materialId The material ID.
+   * @return True if the material was deleted, false if it does not exist.
+   */
+  boolean deleteMaterial(Integer materialId);
+
+  /**
+   * Insert a step.
+   *
+   * @param step The step to insert.
+   * @return The step inserted, with its ID set.
+   */
+  Step insertStep(Step step);
+
+  /**
+   * Delete a step.
+   *
+   * @param stepId The step ID.
+   * @return True if the step was deleted, false if it does not exist.
+   */
+  boolean deleteStep(Integer stepId);
+
+  /**
+   * Fetch all projects.
+   *
+   * @return The list of projects, ordered by name.
+   */
+  List<Project> fetchAllProjects();
+
+  /**
+   * Search projects matching criteria.
+   *
+   * @param criteria The search criteria.
+   * @return The list of projects found, in the order of the criteria.
+   */
+  List<Project> searchProjects(ProjectCriteria criteria);
+
+  /**
+   * Search projects by words in their notes and step descriptions, ranked by relevance.
+   *
+   * @param terms The words to search for.
+   * @param page The zero-based page number.
+   * @param pageSize The number of results per page.
+   * @return The page of matching projects, best match first.
+   */
+  List<ProjectMatch> searchProjectText(String terms, int page, int pageSize);
+
+  /**
+   * Find projects by name prefix, ignoring case.
+   *
+   * @param prefix The start of the project name.
+   * @param limit The maximum number of projects returned.
+   * @return The projects found, ordered by name; only the ID and name are set.
+   */
+  List<ProjectSummary> findProjectsByNamePrefix(String prefix, int limit);
+
+  /**
+   * Fetch summaries of all projects.
+   *
+   * @return The list of project summaries, ordered by name.
+   */
+  List<ProjectSummary> fetchProjectSummaries();
+
+  /**
+   * Fetch the cost and progress rollups of many projects.
+   *
+   * @param projectIds The project IDs.
+   * @return The rollups, ordered by project name.
+   */
+  List<ProjectRollup> fetchProjectRollups(Collection<Integer> projectIds);
+
+  /**
+   * Recompute every project's rollup from its materials and steps.
+   *
+   * @return The number of projects whose stored rollup was missing or wrong.
+   */
+  int rebuildProjectRollups();
+
+  /**
+   * Fetch a columnar snapshot of the projects, materials and steps.
+   *
+   * @return The snapshot.
+   */
+  ProjectColumns fetchProjectColumns();
+
+  /**
+   * Fetch a project by project ID.
+   *
+   * @param projectId The project ID.
+   * @return The project, or empty if it does not exist.
+   */
+  Optional<Project> fetchProjectById(Integer projectId);
+
+  /**
+   * Fetch a project by project ID.
+   *
+   * @param projectId The project ID.
+   * @param eager True to load the child collections now, false to allow loading them on first
+   *     access.
+   * @return The project, or empty if it does not exist.
+   */
+  Optional<Project> fetchProjectById(Integer projectId, boolean eager);
+}
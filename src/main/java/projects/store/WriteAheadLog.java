@@ -0,0 +1,148 @@
+package projects.store;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of the writes to the in-process store. Each record is written with its length
+ * and checksum and forced to disk before the write is applied, so a write that returned survives a
+ * crash. A record cut short by a crash fails its checksum and is dropped, with anything after it,
+ * when the log is opened.
+ *
+ * @author Ari
+ * @since 2026-10-19
+ */
+class WriteAheadLog implements Closeable {
+
+  /* Record header: the length of the record and its CRC-32. */
+  private static final int HEADER_BYTES = Integer.BYTES + Long.BYTES;
+
+  private final FileChannel channel;
+
+  /**
+   * Handles one record read back from the log.
+   */
+  interface RecordHandler {
+
+    /**
+     * Handle a record.
+     *
+     * @param record The record.
+     * @throws IOException If the record cannot be decoded.
+     */
+    void accept(DataInputStream record) throws IOException;
+  }
+
+  /**
+   * Open a log, replaying the records it already holds.
+   *
+   * @param file The log file, created if missing.
+   * @param handler Receives the records already in the log, in order.
+   * @throws IOException If an error occurs.
+   */
+  WriteAheadLog(Path file, RecordHandler handler) throws IOException {
+    channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+        StandardOpenOption.WRITE);
+
+    long valid = replay(handler);
+
+    // Drop a torn record left by a crash, so new records follow the last complete one.
+    channel.truncate(valid);
+    channel.position(valid);
+  }
+
+  /**
+   * Read the records of the log.
+   *
+   * @param handler Receives the records.
+   * @return The length of the log up to the end of the last complete record.
+   * @throws IOException If an error occurs.
+   */
+  private long replay(RecordHandler handler) throws IOException {
+    ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+    long position = 0;
+
+    while (true) {
+      header.clear();
+
+      if (channel.read(header, position) < HEADER_BYTES) {
+        return position;
+      }
+
+      header.flip();
+      int length = header.getInt();
+      long checksum = header.getLong();
+
+      if (length < 0 || position + HEADER_BYTES + length > channel.size()) {
+        return position;
+      }
+
+      ByteBuffer body = ByteBuffer.allocate(length);
+
+      while (body.hasRemaining()) {
+        if (channel.read(body, position + HEADER_BYTES + body.position()) < 0) {
+          return position;
+        }
+      }
+
+      if (checksum(body.array()) != checksum) {
+        return position;
+      }
+
+      handler.accept(new DataInputStream(new ByteArrayInputStream(body.array())));
+      position += HEADER_BYTES + length;
+    }
+  }
+
+  /**
+   * Append a record and force it to disk.
+   *
+   * @param record The record.
+   * @throws IOException If an error occurs.
+   */
+  void append(byte[] record) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + record.length);
+    buffer.putInt(record.length).putLong(checksum(record)).put(record).flip();
+
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+
+    channel.force(false);
+  }
+
+  /**
+   * Empty the log, once its records are covered by a snapshot.
+   *
+   * @throws IOException If an error occurs.
+   */
+  void reset() throws IOException {
+    channel.truncate(0);
+    channel.position(0);
+    channel.force(true);
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  /**
+   * Compute the checksum of a record.
+   *
+   * @param record The record.
+   * @return The CRC-32 of the record.
+   */
+  private static long checksum(byte[] record) {
+    CRC32 crc = new CRC32();
+    crc.update(record);
+    return crc.getValue();
+  }
+}
@@ -92,6 +92,10 @@ public abstract class DaoBase {
           stmt.setInt(parameterIndex, (Integer)value);
           break;
 
+        case Types.BIGINT:
+          stmt.setLong(parameterIndex, (Long)value);
+          break;
+
         case Types.OTHER:
           stmt.setObject(parameterIndex, value);
           break;
@@ -117,6 +121,10 @@ public abstract class DaoBase {
       return Types.INTEGER;
     }
 
+    if(Long.class.equals(classType)) {
+      return Types.BIGINT;
+    }
+
     if(String.class.equals(classType)) {
       return Types.VARCHAR;
     }
@@ -1,3 +1,7 @@
+DROP TABLE IF EXISTS project_change;
+DROP TABLE IF EXISTS project_hours_stripe;
+DROP TABLE IF EXISTS work_log;
+DROP TABLE IF EXISTS project_rollup;
 DROP TABLE IF EXISTS step;
 DROP TABLE IF EXISTS material;
 DROP TABLE IF EXISTS project_category;
@@ -11,15 +15,20 @@ CREATE TABLE project (
     actual_hours decimal(7, 2),
     difficulty int,
     notes text,
+    deleted boolean NOT NULL DEFAULT FALSE,
 
-    PRIMARY KEY (project_id)
+    PRIMARY KEY (project_id),
+    INDEX idx_project_summary (deleted, project_name, difficulty, estimated_hours, actual_hours),
+    INDEX idx_project_difficulty (deleted, difficulty),
+    FULLTEXT INDEX ft_project_notes (notes)
 );
 
 CREATE TABLE category (
     category_id int NOT NULL AUTO_INCREMENT,
     category_name varchar(128) NOT NULL,
 
-    PRIMARY KEY (category_id)
+    PRIMARY KEY (category_id),
+    INDEX idx_category_name (category_name)
 );
 
 CREATE TABLE project_category (
@@ -27,30 +36,79 @@ CREATE TABLE project_category (
     category_id int NOT NULL,
 
     PRIMARY KEY (project_id, category_id),
-    FOREIGN KEY (project_id) REFERENCES project(project_id),
+    INDEX idx_project_category_category (category_id, project_id),
+    FOREIGN KEY (project_id) REFERENCES project(project_id)
+    ON DELETE CASCADE,
     FOREIGN KEY (category_id) REFERENCES category(category_id)
     ON DELETE CASCADE
 );
 
 CREATE TABLE material (
-    material_id int NOT NULL,
+    material_id int NOT NULL AUTO_INCREMENT,
     project_id int NOT NULL,
     material_name varchar(128) NOT NULL,
     num_required int,
     cost decimal(7, 2),
 
     PRIMARY KEY (material_id),
+    INDEX idx_material_project_name (project_id, material_name),
+    INDEX idx_material_name (material_name, project_id),
     FOREIGN KEY (project_id) REFERENCES project(project_id)
     ON DELETE CASCADE
 );
 
 CREATE TABLE step (
-    step_id int NOT NULL,
+    step_id int NOT NULL AUTO_INCREMENT,
     project_id int NOT NULL,
     step_number int NOT NULL,
     step_description text NOT NULL,
 
     PRIMARY KEY (step_id),
+    FULLTEXT INDEX ft_step_description (step_description),
+    FOREIGN KEY (project_id) REFERENCES project(project_id)
+    ON DELETE CASCADE
+);
+
+CREATE TABLE project_rollup (
+    project_id int NOT NULL,
+    material_count int NOT NULL DEFAULT 0,
+    total_material_cost decimal(13, 2) NOT NULL DEFAULT 0,
+    step_count int NOT NULL DEFAULT 0,
+
+    PRIMARY KEY (project_id),
+    FOREIGN KEY (project_id) REFERENCES project(project_id)
+    ON DELETE CASCADE
+);
+
+CREATE TABLE work_log (
+    work_log_id int NOT NULL AUTO_INCREMENT,
+    project_id int NOT NULL,
+    crew_member varchar(128) NOT NULL,
+    hours decimal(7, 2) NOT NULL,
+    logged_at timestamp NOT NULL DEFAULT CURRENT_TIMESTAMP,
+
+    PRIMARY KEY (work_log_id),
+    INDEX idx_work_log_project (project_id, logged_at),
+    FOREIGN KEY (project_id) REFERENCES project(project_id)
+    ON DELETE CASCADE
+);
+
+CREATE TABLE project_hours_stripe (
+    project_id int NOT NULL,
+    stripe int NOT NULL,
+    hours decimal(9, 2) NOT NULL DEFAULT 0,
+
+    PRIMARY KEY (project_id, stripe),
     FOREIGN KEY (project_id) REFERENCES project(project_id)
     ON DELETE CASCADE
-);
\ No newline at end of file
+);
+
+CREATE TABLE project_change (
+    change_id bigint NOT NULL AUTO_INCREMENT,
+    project_id int NOT NULL,
+    change_type varchar(16) NOT NULL,
+    changed_at timestamp(3) NOT NULL DEFAULT CURRENT_TIMESTAMP(3),
+
+    PRIMARY KEY (change_id),
+    INDEX idx_project_change_changed_at (changed_at)
+);